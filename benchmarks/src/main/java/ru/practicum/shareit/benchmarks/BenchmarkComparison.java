@@ -0,0 +1,136 @@
+package ru.practicum.shareit.benchmarks;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Compares two JMH results written with {@code -rf json}, usually the one kept for the previous release
+ * and the current one. Benchmarks are matched by name and parameters, a change worse than the threshold
+ * is reported as a regression and makes the exit code non-zero:
+ * <pre>
+ * mvn -pl benchmarks exec:java@compare -Dexec.args="baseline.json target/jmh-result.json 10"
+ * </pre>
+ * The last argument is the threshold in percent, 10 by default
+ */
+public class BenchmarkComparison {
+    private static final double DEFAULT_THRESHOLD = 10;
+
+    private final double threshold;
+
+    public BenchmarkComparison(double threshold) {
+        this.threshold = threshold;
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("Usage: BenchmarkComparison <baseline.json> <current.json> [threshold, %]");
+            System.exit(2);
+        }
+        double threshold = args.length > 2 ? Double.parseDouble(args[2]) : DEFAULT_THRESHOLD;
+        ObjectMapper objectMapper = new ObjectMapper();
+        List<Change> changes = new BenchmarkComparison(threshold).compare(
+                objectMapper.readTree(new File(args[0])),
+                objectMapper.readTree(new File(args[1]))
+        );
+
+        boolean regressed = false;
+        System.out.printf("%-80s %14s %14s %-8s %9s%n", "Benchmark", "Baseline", "Current", "Units", "Change");
+        for (Change change : changes) {
+            System.out.printf("%-80s %14.3f %14.3f %-8s %8.1f%%%s%n", change.getName(), change.getBaseline(),
+                    change.getCurrent(), change.getUnit(), change.getPercent(),
+                    change.isRegression() ? "  REGRESSION" : "");
+            regressed |= change.isRegression();
+        }
+        if (regressed) {
+            System.exit(1);
+        }
+    }
+
+    /**
+     * @return changes of the benchmarks present in both results, in the order of the current result
+     */
+    public List<Change> compare(JsonNode baseline, JsonNode current) {
+        Map<String, JsonNode> baselineByName = new LinkedHashMap<>();
+        for (JsonNode result : baseline) {
+            baselineByName.put(name(result), result);
+        }
+
+        List<Change> changes = new ArrayList<>();
+        for (JsonNode result : current) {
+            String name = name(result);
+            JsonNode previous = baselineByName.get(name);
+            if (previous == null) {
+                continue;
+            }
+            double baselineScore = previous.path("primaryMetric").path("score").asDouble();
+            double currentScore = result.path("primaryMetric").path("score").asDouble();
+            double percent = baselineScore == 0 ? 0 : (currentScore - baselineScore) / baselineScore * 100;
+            //throughput is better when it grows, times of the other modes are better when they fall
+            boolean higherIsBetter = "thrpt".equals(result.path("mode").asText());
+            boolean regression = higherIsBetter ? percent < -threshold : percent > threshold;
+            changes.add(new Change(name, result.path("primaryMetric").path("scoreUnit").asText(),
+                    baselineScore, currentScore, percent, regression));
+        }
+        return changes;
+    }
+
+    private static String name(JsonNode result) {
+        StringBuilder name = new StringBuilder(result.path("benchmark").asText())
+                .append(" (").append(result.path("mode").asText()).append(')');
+        Map<String, String> params = new TreeMap<>();
+        result.path("params").fields().forEachRemaining(param -> params.put(param.getKey(), param.getValue().asText()));
+        params.forEach((key, value) -> name.append(' ').append(key).append('=').append(value));
+        return name.toString();
+    }
+
+    public static class Change {
+        private final String name;
+        private final String unit;
+        private final double baseline;
+        private final double current;
+        private final double percent;
+        private final boolean regression;
+
+        public Change(String name, String unit, double baseline, double current, double percent,
+                      boolean regression) {
+            this.name = name;
+            this.unit = unit;
+            this.baseline = baseline;
+            this.current = current;
+            this.percent = percent;
+            this.regression = regression;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public String getUnit() {
+            return unit;
+        }
+
+        public double getBaseline() {
+            return baseline;
+        }
+
+        public double getCurrent() {
+            return current;
+        }
+
+        public double getPercent() {
+            return percent;
+        }
+
+        public boolean isRegression() {
+            return regression;
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package ru.practicum.shareit.benchmarks;
+
+import ru.practicum.shareit.server.booking.model.Booking;
+import ru.practicum.shareit.server.booking.model.BookingMapper;
+import ru.practicum.shareit.server.booking.model.BookingStatus;
+import ru.practicum.shareit.server.booking.model.dto.BookingResponseDto;
+import ru.practicum.shareit.server.item.model.Comment;
+import ru.practicum.shareit.server.item.model.CommentMapper;
+import ru.practicum.shareit.server.item.model.Item;
+import ru.practicum.shareit.server.item.model.ItemMapper;
+import ru.practicum.shareit.server.item.model.dto.ItemWithBookingsResponseDto;
+import ru.practicum.shareit.server.request.model.ItemRequest;
+import ru.practicum.shareit.server.user.model.User;
+import ru.practicum.shareit.server.user.model.UserMapper;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+/**
+ * Entities and dtos shaped like the ones of a real owner: every item has a request, some comments
+ * and bookings in the past and in the future. The same seed gives the same data in every run
+ */
+public class BenchmarkData {
+    public static final LocalDateTime NOW = LocalDateTime.of(2023, 6, 1, 12, 0);
+
+    private static final int COMMENTS_PER_ITEM = 3;
+
+    private final Random random = new Random(42);
+
+    private final User owner = new User(1, "Owner", "owner@mail.com");
+    private final User booker = new User(2, "Booker", "booker@mail.com");
+
+    private final List<Item> items;
+    private final List<Booking> bookings;
+    private final List<Comment> comments;
+
+    /**
+     * @param size number of items, each of them gets two bookings
+     */
+    public BenchmarkData(int size) {
+        items = new ArrayList<>(size);
+        bookings = new ArrayList<>(size * 2);
+        comments = new ArrayList<>(size * COMMENTS_PER_ITEM);
+        for (int i = 1; i <= size; i++) {
+            User author = new User(100 + i, "Author " + i, "author" + i + "@mail.com");
+            ItemRequest request = new ItemRequest(i, "Looking for a drill number " + i, NOW.minusDays(30), author);
+            Item item = new Item(i, "Drill " + i, "Cordless drill with two batteries, number " + i, true, owner,
+                    request);
+            items.add(item);
+
+            LocalDateTime lastStart = NOW.minusHours(1 + random.nextInt(1000));
+            bookings.add(new Booking(i * 2L, lastStart, lastStart.plusDays(1), booker, item,
+                    BookingStatus.APPROVED));
+            LocalDateTime nextStart = NOW.plusHours(1 + random.nextInt(1000));
+            bookings.add(new Booking(i * 2L + 1, nextStart, nextStart.plusDays(1), booker, item,
+                    BookingStatus.WAITING));
+
+            for (int c = 0; c < COMMENTS_PER_ITEM; c++) {
+                comments.add(new Comment((long) i * COMMENTS_PER_ITEM + c, "Works fine, comment " + c,
+                        lastStart.plusDays(2), item, booker, null));
+            }
+        }
+    }
+
+    public User getOwner() {
+        return owner;
+    }
+
+    public List<Item> getItems() {
+        return items;
+    }
+
+    public List<Booking> getBookings() {
+        return bookings;
+    }
+
+    public List<Comment> getComments() {
+        return comments;
+    }
+
+    public List<BookingResponseDto> toBookingResponseDtos() {
+        return bookings.stream()
+                .map(b -> BookingMapper.toBookingResponseDto(b, UserMapper.toUserDto(b.getBooker()),
+                        ItemMapper.toItemDto(b.getItem())))
+                .collect(Collectors.toList());
+    }
+
+    public List<ItemWithBookingsResponseDto> toItemWithBookingsResponseDtos() {
+        List<ItemWithBookingsResponseDto> itemDtos = new ArrayList<>(items.size());
+        for (int i = 0; i < items.size(); i++) {
+            Item item = items.get(i);
+            itemDtos.add(ItemMapper.toItemWithBookingsResponseDto(
+                    item,
+                    BookingMapper.toSimpleBookingResponseDto(bookings.get(i * 2)),
+                    BookingMapper.toSimpleBookingResponseDto(bookings.get(i * 2 + 1)),
+                    comments.subList(i * COMMENTS_PER_ITEM, (i + 1) * COMMENTS_PER_ITEM).stream()
+                            .map(CommentMapper::toCommentResponseDto)
+                            .collect(Collectors.toList())
+            ));
+        }
+        return itemDtos;
+    }
+}
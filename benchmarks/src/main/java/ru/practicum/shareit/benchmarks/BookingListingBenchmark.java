@@ -0,0 +1,118 @@
+package ru.practicum.shareit.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.orm.jpa.SharedEntityManagerCreator;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.server.ServerApplication;
+import ru.practicum.shareit.server.booking.BookingRepository;
+import ru.practicum.shareit.server.booking.model.Booking;
+import ru.practicum.shareit.server.booking.model.BookingMapper;
+import ru.practicum.shareit.server.booking.model.BookingStatus;
+import ru.practicum.shareit.server.booking.model.dto.BookingResponseDto;
+import ru.practicum.shareit.server.item.ItemRepository;
+import ru.practicum.shareit.server.item.model.Item;
+import ru.practicum.shareit.server.item.model.ItemMapper;
+import ru.practicum.shareit.server.user.UserRepository;
+import ru.practicum.shareit.server.user.model.User;
+import ru.practicum.shareit.server.user.model.UserMapper;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Compares a booking listing read straight into response dtos with the same listing read as entities
+ * with fetched associations and mapped afterwards. Both run against an embedded H2 database.
+ * <p>
+ * The difference is mostly in allocations, run with the gc profiler and compare {@code gc.alloc.rate.norm}:
+ * <pre>
+ * mvn -pl benchmarks exec:exec@jmh -Djmh.args="BookingListingBenchmark -prof gc"
+ * </pre>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class BookingListingBenchmark {
+    private static final String ENTITIES_QUERY = "select b from Booking b " +
+            "join fetch b.booker " +
+            "join fetch b.item i " +
+            "join fetch i.owner " +
+            "where b.booker.id = :bookerId " +
+            "order by b.start desc";
+
+    @Param({"10", "100"})
+    private int size;
+
+    private ConfigurableApplicationContext context;
+    private BookingRepository bookingRepo;
+    private EntityManager entityManager;
+    private TransactionTemplate readOnlyTransaction;
+    private long bookerId;
+
+    @Setup
+    public void setUp() {
+        context = new SpringApplicationBuilder(ServerApplication.class)
+                .web(WebApplicationType.NONE)
+                .profiles("test")
+                //the datasource of the last properties document wins over the test profile without these
+                .run("--spring.datasource.driverClassName=org.h2.Driver",
+                        "--spring.datasource.url=jdbc:h2:mem:shareit",
+                        "--spring.datasource.username=test",
+                        "--spring.datasource.password=test",
+                        "--logging.level.org.springframework.transaction.interceptor=WARN",
+                        "--logging.level.org.springframework.orm.jpa.JpaTransactionManager=WARN");
+        bookingRepo = context.getBean(BookingRepository.class);
+        entityManager = SharedEntityManagerCreator.createSharedEntityManager(
+                context.getBean(EntityManagerFactory.class));
+        readOnlyTransaction = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+        readOnlyTransaction.setReadOnly(true);
+
+        UserRepository userRepo = context.getBean(UserRepository.class);
+        ItemRepository itemRepo = context.getBean(ItemRepository.class);
+        User owner = userRepo.save(new User(0, "Owner", "owner@mail.com"));
+        User booker = userRepo.save(new User(0, "Booker", "booker@mail.com"));
+        bookerId = booker.getId();
+        LocalDateTime now = LocalDateTime.now();
+        for (int i = 0; i < size; i++) {
+            Item item = itemRepo.save(new Item(0, "Drill " + i, "Cordless drill " + i, true, owner, null));
+            bookingRepo.save(new Booking(0, now.plusDays(i), now.plusDays(i + 1), booker, item,
+                    BookingStatus.APPROVED));
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<BookingResponseDto> projection() {
+        return readOnlyTransaction.execute(status -> bookingRepo
+                .findAllByBooker_Id(bookerId, PageRequest.of(0, size, Sort.by("start").descending()))
+                .getContent());
+    }
+
+    @Benchmark
+    public List<BookingResponseDto> entities() {
+        return readOnlyTransaction.execute(status -> entityManager
+                .createQuery(ENTITIES_QUERY, Booking.class)
+                .setParameter("bookerId", bookerId)
+                .setMaxResults(size)
+                .getResultStream()
+                .map(b -> BookingMapper.toBookingResponseDto(b, UserMapper.toUserDto(b.getBooker()),
+                        ItemMapper.toItemDto(b.getItem())))
+                .collect(Collectors.toList()));
+    }
+}
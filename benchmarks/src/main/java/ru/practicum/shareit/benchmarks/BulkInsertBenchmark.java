@@ -0,0 +1,96 @@
+package ru.practicum.shareit.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.server.ServerApplication;
+import ru.practicum.shareit.server.item.ItemRepository;
+import ru.practicum.shareit.server.item.model.Item;
+import ru.practicum.shareit.server.user.UserRepository;
+import ru.practicum.shareit.server.user.model.User;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Inserts items in one transaction with JDBC batching turned off ({@code batchSize=1}) and on.
+ * Ids come from a sequence in blocks, so the inserts of a transaction can be sent together.
+ * The score is the number of inserted rows per second.
+ * <p>
+ * Runs against an embedded H2 database, where a round trip costs little. Against Postgres the gain is larger,
+ * to measure it pass its coordinates, e.g.:
+ * <pre>
+ * mvn -pl benchmarks exec:exec@jmh -Djmh.args="BulkInsertBenchmark \
+ *     -p url=jdbc:postgresql://localhost:5432/shareit?reWriteBatchedInserts=true \
+ *     -p driver=org.postgresql.Driver -p username=shareit -p password=shareit"
+ * </pre>
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+@OperationsPerInvocation(BulkInsertBenchmark.ROWS)
+public class BulkInsertBenchmark {
+    static final int ROWS = 500;
+
+    @Param({"1", "50"})
+    private int batchSize;
+
+    @Param("jdbc:h2:mem:shareit")
+    private String url;
+
+    @Param("org.h2.Driver")
+    private String driver;
+
+    @Param("test")
+    private String username;
+
+    @Param("test")
+    private String password;
+
+    private ConfigurableApplicationContext context;
+    private ItemRepository itemRepo;
+    private TransactionTemplate transaction;
+    private User owner;
+    private int invocation;
+
+    @Setup
+    public void setUp() {
+        context = new SpringApplicationBuilder(ServerApplication.class)
+                .web(WebApplicationType.NONE)
+                .profiles("test")
+                //the datasource of the last properties document wins over the test profile without these
+                .run("--spring.datasource.driverClassName=" + driver,
+                        "--spring.datasource.url=" + url,
+                        "--spring.datasource.username=" + username,
+                        "--spring.datasource.password=" + password,
+                        "--spring.jpa.properties.hibernate.jdbc.batch_size=" + batchSize,
+                        "--logging.level.org.springframework.transaction.interceptor=WARN",
+                        "--logging.level.org.springframework.orm.jpa.JpaTransactionManager=WARN");
+        itemRepo = context.getBean(ItemRepository.class);
+        transaction = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+        owner = context.getBean(UserRepository.class)
+                .save(new User(0, "Owner", "bulk.owner." + System.nanoTime() + "@mail.com"));
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<Item> insert() {
+        List<Item> items = new ArrayList<>(ROWS);
+        int prefix = invocation++;
+        for (int i = 0; i < ROWS; i++) {
+            items.add(new Item(0, "Drill " + prefix + "-" + i, "Cordless drill", true, owner, null));
+        }
+        return transaction.execute(status -> itemRepo.saveAll(items));
+    }
+}
@@ -0,0 +1,105 @@
+package ru.practicum.shareit.benchmarks;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import ru.practicum.shareit.gateway.booking.BookingClient;
+import ru.practicum.shareit.gateway.booking.BookingState;
+import ru.practicum.shareit.gateway.user.UserClient;
+import ru.practicum.shareit.gateway.util.cache.ResponseCache;
+import ru.practicum.shareit.gateway.util.client.HttpClientConfig;
+import ru.practicum.shareit.gateway.util.client.HttpClientProperties;
+import ru.practicum.shareit.server.booking.model.dto.BookingResponseDto;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Round trips of the gateway clients through the pooled HttpClient to a stub of the server on localhost,
+ * which answers with prepared bodies. Shows the cost of the client side: request building,
+ * connection leasing and copying of the response, without any work on the server
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(4)
+@State(Scope.Benchmark)
+public class GatewayClientBenchmark {
+    private static final int BOOKINGS_COUNT = 20;
+
+    private HttpServer server;
+    private PoolingHttpClientConnectionManager connectionManager;
+    private CloseableHttpClient httpClient;
+    private UserClient userClient;
+    private BookingClient bookingClient;
+
+    @Setup
+    public void setUp() throws IOException {
+        BenchmarkData data = new BenchmarkData(BOOKINGS_COUNT);
+        ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        List<BookingResponseDto> bookingDtos = data.toBookingResponseDtos().subList(0, BOOKINGS_COUNT);
+        byte[] user = objectMapper.writeValueAsBytes(bookingDtos.get(0).getBooker());
+        byte[] bookings = objectMapper.writeValueAsBytes(bookingDtos);
+
+        //without it the stub sends headers and body in separate packets and waits for delayed acks
+        System.setProperty("sun.net.httpserver.nodelay", "true");
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.createContext("/users", exchange -> respond(exchange, user));
+        server.createContext("/bookings", exchange -> respond(exchange, bookings));
+        server.setExecutor(Executors.newFixedThreadPool(4));
+        server.start();
+        String serverUrl = "http://localhost:" + server.getAddress().getPort();
+
+        HttpClientConfig config = new HttpClientConfig();
+        HttpClientProperties properties = new HttpClientProperties();
+        connectionManager = config.shareitServerConnectionManager(properties);
+        httpClient = config.shareitServerHttpClient(connectionManager, properties);
+        ClientHttpRequestFactory requestFactory = config.shareitServerRequestFactory(httpClient);
+        userClient = new UserClient(serverUrl, new RestTemplateBuilder(), requestFactory,
+                ResponseCache.disabled());
+        bookingClient = new BookingClient(serverUrl, new RestTemplateBuilder(), requestFactory,
+                ResponseCache.disabled());
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        httpClient.close();
+        connectionManager.close();
+        server.stop(0);
+        ((ExecutorService) server.getExecutor()).shutdownNow();
+    }
+
+    @Benchmark
+    public ResponseEntity<Object> getUser() {
+        return userClient.getById(1);
+    }
+
+    @Benchmark
+    public ResponseEntity<Object> getBookings() {
+        return bookingClient.getAllByBookerIdSortedByStartTimeDesc(1, BookingState.ALL, 0, BOOKINGS_COUNT);
+    }
+
+    private static void respond(HttpExchange exchange, byte[] body) throws IOException {
+        exchange.getRequestBody().readAllBytes();
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(200, body.length);
+        try (OutputStream responseBody = exchange.getResponseBody()) {
+            responseBody.write(body);
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package ru.practicum.shareit.benchmarks;
+
+import org.mockito.Mockito;
+import org.openjdk.jmh.annotations.*;
+import ru.practicum.shareit.server.booking.BookingRepository;
+import ru.practicum.shareit.server.booking.availability.ItemAvailabilityIndex;
+import ru.practicum.shareit.server.booking.model.Booking;
+import ru.practicum.shareit.server.item.CommentRepository;
+import ru.practicum.shareit.server.item.ItemRepository;
+import ru.practicum.shareit.server.item.ItemService;
+import ru.practicum.shareit.server.item.model.Comment;
+import ru.practicum.shareit.server.item.model.dto.ItemWithBookingsResponseDto;
+import ru.practicum.shareit.server.item.search.ItemSearchEngine;
+import ru.practicum.shareit.server.request.ItemRequestRepository;
+import ru.practicum.shareit.server.user.UserService;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.when;
+
+/**
+ * Measures what {@link ItemService#getAllByOwnerId} does after the queries: resolving last and next bookings
+ * and comments of every item and mapping, the items come sorted from the query. Repositories are stubbed and answer
+ * with prepared results, so each invocation also pays for a few mock calls, but no database work
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ItemServiceBenchmark {
+    @Param({"10", "100"})
+    private int size;
+
+    private ItemService itemService;
+    private long ownerId;
+
+    @Setup
+    public void setUp() {
+        BenchmarkData data = new BenchmarkData(size);
+        ownerId = data.getOwner().getId();
+
+        ItemRepository itemRepo = Mockito.mock(ItemRepository.class);
+        when(itemRepo.findAllByOwner_IdOrderByLastBookingStart(anyLong(), any(), anyInt(), anyInt()))
+                .thenReturn(data.getItems());
+
+        Map<Long, List<Comment>> itemIdToComments = data.getComments().stream()
+                .collect(Collectors.groupingBy(comment -> comment.getItem().getId()));
+        CommentRepository commentRepo = Mockito.mock(CommentRepository.class);
+        when(commentRepo.findNewestByItem_IdAsMap(any(), anyInt())).thenReturn(itemIdToComments);
+
+        Map<Long, Booking> itemIdToLastBooking = data.getBookings().stream()
+                .filter(booking -> booking.getStart().isBefore(BenchmarkData.NOW))
+                .collect(Collectors.toMap(booking -> booking.getItem().getId(), booking -> booking));
+        Map<Long, Booking> itemIdToNextBooking = data.getBookings().stream()
+                .filter(booking -> booking.getStart().isAfter(BenchmarkData.NOW))
+                .collect(Collectors.toMap(booking -> booking.getItem().getId(), booking -> booking));
+        BookingRepository bookingRepo = Mockito.mock(BookingRepository.class);
+        when(bookingRepo.findLastByItem_IdAsMap(any(), any())).thenReturn(itemIdToLastBooking);
+        when(bookingRepo.findNextByItem_IdAsMap(any(), any())).thenReturn(itemIdToNextBooking);
+
+        itemService = new ItemService(itemRepo, Mockito.mock(UserService.class), bookingRepo, commentRepo,
+                Mockito.mock(ItemRequestRepository.class), Mockito.mock(ItemSearchEngine.class),
+                Mockito.mock(ItemAvailabilityIndex.class));
+    }
+
+    @Benchmark
+    public Collection<ItemWithBookingsResponseDto> getAllByOwnerId() {
+        return itemService.getAllByOwnerId(ownerId, 0, size);
+    }
+}
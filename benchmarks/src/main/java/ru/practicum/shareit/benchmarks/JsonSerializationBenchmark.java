@@ -0,0 +1,47 @@
+package ru.practicum.shareit.benchmarks;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import ru.practicum.shareit.server.booking.model.dto.BookingResponseDto;
+import ru.practicum.shareit.server.item.model.dto.ItemWithBookingsResponseDto;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Writes the response bodies of the largest listings with an ObjectMapper configured like Spring Boot's one
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JsonSerializationBenchmark {
+    @Param({"10", "100"})
+    private int size;
+
+    private ObjectMapper objectMapper;
+    private List<BookingResponseDto> bookings;
+    private List<ItemWithBookingsResponseDto> items;
+
+    @Setup
+    public void setUp() {
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        BenchmarkData data = new BenchmarkData(size);
+        bookings = data.toBookingResponseDtos().subList(0, size);
+        items = data.toItemWithBookingsResponseDtos();
+    }
+
+    @Benchmark
+    public byte[] bookingResponseDtos() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(bookings);
+    }
+
+    @Benchmark
+    public byte[] itemWithBookingsResponseDtos() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(items);
+    }
+}
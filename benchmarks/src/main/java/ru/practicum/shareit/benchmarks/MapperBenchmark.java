@@ -0,0 +1,78 @@
+package ru.practicum.shareit.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import ru.practicum.shareit.server.booking.model.Booking;
+import ru.practicum.shareit.server.booking.model.BookingMapper;
+import ru.practicum.shareit.server.booking.model.dto.BookingResponseDto;
+import ru.practicum.shareit.server.booking.model.dto.SimpleBookingResponseDto;
+import ru.practicum.shareit.server.item.model.Item;
+import ru.practicum.shareit.server.item.model.ItemMapper;
+import ru.practicum.shareit.server.item.model.dto.ItemDto;
+import ru.practicum.shareit.server.request.ItemRequestMapper;
+import ru.practicum.shareit.server.request.model.dto.ItemRequestResponseDto;
+import ru.practicum.shareit.server.user.model.UserMapper;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Maps a page of entities the way the services do, one mapper per benchmark
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class MapperBenchmark {
+    @Param({"10", "100"})
+    private int size;
+
+    private List<Booking> bookings;
+    private List<Item> items;
+
+    @Setup
+    public void setUp() {
+        BenchmarkData data = new BenchmarkData(size);
+        bookings = data.getBookings().subList(0, size);
+        items = data.getItems();
+    }
+
+    @Benchmark
+    public List<BookingResponseDto> bookingToResponseDto() {
+        List<BookingResponseDto> dtos = new ArrayList<>(bookings.size());
+        for (Booking booking : bookings) {
+            dtos.add(BookingMapper.toBookingResponseDto(booking, UserMapper.toUserDto(booking.getBooker()),
+                    ItemMapper.toItemDto(booking.getItem())));
+        }
+        return dtos;
+    }
+
+    @Benchmark
+    public List<SimpleBookingResponseDto> bookingToSimpleResponseDto() {
+        List<SimpleBookingResponseDto> dtos = new ArrayList<>(bookings.size());
+        for (Booking booking : bookings) {
+            dtos.add(BookingMapper.toSimpleBookingResponseDto(booking));
+        }
+        return dtos;
+    }
+
+    @Benchmark
+    public List<ItemDto> itemToDto() {
+        List<ItemDto> dtos = new ArrayList<>(items.size());
+        for (Item item : items) {
+            dtos.add(ItemMapper.toItemDto(item));
+        }
+        return dtos;
+    }
+
+    @Benchmark
+    public ItemRequestResponseDto itemRequestToResponseDto() {
+        List<ItemDto> itemDtos = new ArrayList<>(items.size());
+        for (Item item : items) {
+            itemDtos.add(ItemMapper.toItemDto(item));
+        }
+        return ItemRequestMapper.toItemRequestResponseDto(items.get(0).getRequest(), itemDtos);
+    }
+}
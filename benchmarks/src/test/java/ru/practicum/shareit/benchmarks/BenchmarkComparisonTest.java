@@ -0,0 +1,72 @@
+package ru.practicum.shareit.benchmarks;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class BenchmarkComparisonTest {
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private final BenchmarkComparison comparison = new BenchmarkComparison(10);
+
+    @Test
+    @DisplayName("Should report slower average time as regression")
+    public void compareAverageTime() throws Exception {
+        List<BenchmarkComparison.Change> changes = comparison.compare(
+                results(result("MapperBenchmark.itemToDto", "avgt", "10", 2.0)),
+                results(result("MapperBenchmark.itemToDto", "avgt", "10", 2.5))
+        );
+
+        assertEquals(1, changes.size());
+        assertEquals("ru.practicum.shareit.benchmarks.MapperBenchmark.itemToDto (avgt) size=10",
+                changes.get(0).getName());
+        assertEquals(25, changes.get(0).getPercent(), 0.001);
+        assertTrue(changes.get(0).isRegression());
+    }
+
+    @Test
+    @DisplayName("Should report lower throughput as regression and higher one as improvement")
+    public void compareThroughput() throws Exception {
+        List<BenchmarkComparison.Change> changes = comparison.compare(
+                results(result("GatewayClientBenchmark.getUser", "thrpt", null, 1000),
+                        result("GatewayClientBenchmark.getBookings", "thrpt", null, 1000)),
+                results(result("GatewayClientBenchmark.getUser", "thrpt", null, 800),
+                        result("GatewayClientBenchmark.getBookings", "thrpt", null, 1200))
+        );
+
+        assertTrue(changes.get(0).isRegression());
+        assertFalse(changes.get(1).isRegression());
+    }
+
+    @Test
+    @DisplayName("Should match benchmarks by parameters and skip the ones missing in baseline")
+    public void compareMatchesParams() throws Exception {
+        List<BenchmarkComparison.Change> changes = comparison.compare(
+                results(result("MapperBenchmark.itemToDto", "avgt", "10", 2.0),
+                        result("MapperBenchmark.itemToDto", "avgt", "100", 20.0)),
+                results(result("MapperBenchmark.itemToDto", "avgt", "100", 21.0),
+                        result("MapperBenchmark.bookingToSimpleResponseDto", "avgt", "100", 5.0))
+        );
+
+        assertEquals(1, changes.size());
+        assertEquals(5, changes.get(0).getPercent(), 0.001);
+        assertFalse(changes.get(0).isRegression());
+    }
+
+    private JsonNode results(String... results) throws Exception {
+        return objectMapper.readTree("[" + String.join(",", results) + "]");
+    }
+
+    private static String result(String benchmark, String mode, String size, double score) {
+        return "{\"benchmark\":\"ru.practicum.shareit.benchmarks." + benchmark + "\",\"mode\":\"" + mode + "\"," +
+                (size == null ? "" : "\"params\":{\"size\":\"" + size + "\"},") +
+                "\"primaryMetric\":{\"score\":" + score + ",\"scoreUnit\":\"us/op\"}}";
+    }
+}
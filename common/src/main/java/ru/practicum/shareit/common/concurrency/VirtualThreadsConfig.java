@@ -0,0 +1,29 @@
+package ru.practicum.shareit.common.concurrency;
+
+import org.apache.coyote.ProtocolHandler;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.ExecutorService;
+
+/**
+ * Hands requests to a new virtual thread each instead of Tomcat's pool of platform threads.
+ * A request waiting for the database on the server, or for the server on the gateway, parks its virtual thread
+ * and frees the carrier. The number of requests served at once is then limited by the connection pool
+ * of the datasource or by shareit-server.http-client.max-connections rather than by server.tomcat.threads.max.
+ * <p>
+ * Applications scan only their own packages, so they import the configuration explicitly
+ */
+@Configuration
+@ConditionalOnProperty(name = "shareit.virtual-threads.enabled", havingValue = "true")
+public class VirtualThreadsConfig {
+    public static final String THREAD_NAME_PREFIX = "http-virtual-";
+
+    @Bean
+    public TomcatProtocolHandlerCustomizer<ProtocolHandler> virtualThreadsProtocolHandlerCustomizer() {
+        ExecutorService executor = VirtualThreads.newThreadPerTaskExecutor(THREAD_NAME_PREFIX);
+        return protocolHandler -> protocolHandler.setExecutor(executor);
+    }
+}
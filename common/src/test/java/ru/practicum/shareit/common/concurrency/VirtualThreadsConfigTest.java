@@ -0,0 +1,48 @@
+package ru.practicum.shareit.common.concurrency;
+
+import org.apache.coyote.http11.Http11NioProtocol;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeFalse;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+class VirtualThreadsConfigTest {
+    private final ApplicationContextRunner contextRunner = new ApplicationContextRunner()
+            .withUserConfiguration(VirtualThreadsConfig.class);
+
+    @Test
+    @DisplayName("Should keep Tomcat's thread pool when virtual threads are not enabled")
+    public void disabledByDefault() {
+        contextRunner.run(context ->
+                assertTrue(context.getBeansOfType(TomcatProtocolHandlerCustomizer.class).isEmpty()));
+    }
+
+    @Test
+    @DisplayName("Should fail to start when virtual threads are enabled on Java older than 21")
+    public void failsWithoutVirtualThreads() {
+        assumeFalse(VirtualThreads.isSupported());
+        contextRunner.withPropertyValues("shareit.virtual-threads.enabled=true")
+                .run(context -> assertNotNull(context.getStartupFailure()));
+    }
+
+    @Test
+    @DisplayName("Should hand Tomcat's requests to virtual threads when enabled")
+    @SuppressWarnings("unchecked")
+    public void handlesRequestsOnVirtualThreads() {
+        assumeTrue(VirtualThreads.isSupported());
+        contextRunner.withPropertyValues("shareit.virtual-threads.enabled=true").run(context -> {
+            Http11NioProtocol protocol = new Http11NioProtocol();
+            context.getBean(TomcatProtocolHandlerCustomizer.class).customize(protocol);
+
+            Thread thread = CompletableFuture.supplyAsync(Thread::currentThread, protocol.getExecutor()).get();
+            assertTrue((Boolean) Thread.class.getMethod("isVirtual").invoke(thread));
+            assertTrue(thread.getName().startsWith(VirtualThreadsConfig.THREAD_NAME_PREFIX));
+        });
+    }
+}
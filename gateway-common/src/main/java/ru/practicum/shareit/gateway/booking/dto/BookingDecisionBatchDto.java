@@ -0,0 +1,30 @@
+package ru.practicum.shareit.gateway.booking.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.validation.Valid;
+import javax.validation.constraints.NotEmpty;
+import javax.validation.constraints.NotNull;
+import javax.validation.constraints.Size;
+import java.util.List;
+
+/**
+ * Decisions of an item owner on many bookings at once
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class BookingDecisionBatchDto {
+    public static final int MAX_DECISIONS = 100;
+
+    @NotEmpty
+    @Size(max = MAX_DECISIONS)
+    private List<@NotNull @Valid BookingDecisionDto> decisions;
+
+    /**
+     * Reject waiting bookings that overlap the approved ones
+     */
+    private boolean rejectOverlapping;
+}
@@ -0,0 +1,20 @@
+package ru.practicum.shareit.gateway.booking.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.validation.constraints.NotNull;
+import javax.validation.constraints.Positive;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class BookingDecisionDto {
+
+    @Positive
+    private long bookingId;
+
+    @NotNull
+    private Boolean approved;
+}
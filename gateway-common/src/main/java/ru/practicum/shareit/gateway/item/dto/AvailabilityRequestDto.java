@@ -0,0 +1,28 @@
+package ru.practicum.shareit.gateway.item.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import ru.practicum.shareit.gateway.util.annotation.StartBeforeEndTime;
+
+import javax.validation.constraints.NotNull;
+import java.time.LocalDateTime;
+
+/**
+ * Bound from the request parameters of the item availability request
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@StartBeforeEndTime(startField = "from", endField = "to", message = "'from' must be before 'to'")
+public class AvailabilityRequestDto {
+
+    @NotNull
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+    private LocalDateTime from;
+
+    @NotNull
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+    private LocalDateTime to;
+}
@@ -4,6 +4,8 @@ import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import javax.validation.constraints.Max;
+import javax.validation.constraints.Min;
 import javax.validation.constraints.NotBlank;
 
 @Data
@@ -12,4 +14,8 @@ import javax.validation.constraints.NotBlank;
 public class CommentRequestDto {
     @NotBlank
     private String text;
+
+    @Min(1)
+    @Max(5)
+    private Integer rating;
 }
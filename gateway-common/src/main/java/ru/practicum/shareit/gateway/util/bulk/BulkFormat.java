@@ -0,0 +1,36 @@
+package ru.practicum.shareit.gateway.util.bulk;
+
+import ru.practicum.shareit.gateway.util.bulk.exception.UnsupportedBulkFormatException;
+
+/**
+ * Formats of bulk imports. Both are read line by line: one json object per line,
+ * or csv with a header naming the fields and one record per line
+ */
+public enum BulkFormat {
+    NDJSON("application/x-ndjson"),
+    CSV("text/csv");
+
+    private final String mediaType;
+
+    BulkFormat(String mediaType) {
+        this.mediaType = mediaType;
+    }
+
+    /**
+     * @param contentType value of the Content-Type header, parameters such as charset are ignored
+     * @throws UnsupportedBulkFormatException if the content type is missing or none of the formats
+     */
+    public static BulkFormat of(String contentType) throws UnsupportedBulkFormatException {
+        if (contentType != null) {
+            String mediaType = contentType.split(";", 2)[0].trim();
+            for (BulkFormat format : values()) {
+                if (format.mediaType.equalsIgnoreCase(mediaType)) {
+                    return format;
+                }
+            }
+        }
+        throw new UnsupportedBulkFormatException(
+                String.format("Bulk import accepts application/x-ndjson or text/csv, not %s", contentType),
+                contentType);
+    }
+}
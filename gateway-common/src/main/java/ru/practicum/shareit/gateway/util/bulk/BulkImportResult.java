@@ -0,0 +1,38 @@
+package ru.practicum.shareit.gateway.util.bulk;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Report of a bulk import. The server answers every chunk with the same report,
+ * where rows are positions in the chunk, and the gateway adds it up translating them into lines of the file
+ */
+@Data
+@NoArgsConstructor
+public class BulkImportResult {
+    private int imported;
+    private List<BulkRowError> errors = new ArrayList<>();
+
+    public void reject(long row, String error) {
+        errors.add(new BulkRowError(row, error));
+    }
+
+    /**
+     * @param sent       rows sent to the server, in the order they were sent
+     * @param chunkResult server's report of the chunk
+     */
+    public void addChunk(List<? extends BulkRow<?>> sent, BulkImportResult chunkResult) {
+        imported += chunkResult.imported;
+        for (BulkRowError error : chunkResult.errors) {
+            reject(sent.get((int) error.getRow() - 1).getLine(), error.getError());
+        }
+    }
+
+    public void sortErrors() {
+        errors.sort(Comparator.comparingLong(BulkRowError::getRow));
+    }
+}
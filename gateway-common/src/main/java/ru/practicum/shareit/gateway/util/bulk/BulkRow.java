@@ -0,0 +1,31 @@
+package ru.practicum.shareit.gateway.util.bulk;
+
+import lombok.Getter;
+
+/**
+ * Parsed line of a bulk import: either a valid dto or the reason it was rejected
+ */
+@Getter
+public class BulkRow<T> {
+    private final long line;
+    private final T value;
+    private final String error;
+
+    private BulkRow(long line, T value, String error) {
+        this.line = line;
+        this.value = value;
+        this.error = error;
+    }
+
+    public static <T> BulkRow<T> accepted(long line, T value) {
+        return new BulkRow<>(line, value, null);
+    }
+
+    public static <T> BulkRow<T> rejected(long line, String error) {
+        return new BulkRow<>(line, null, error);
+    }
+
+    public boolean isRejected() {
+        return error != null;
+    }
+}
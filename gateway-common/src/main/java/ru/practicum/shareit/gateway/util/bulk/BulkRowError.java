@@ -0,0 +1,16 @@
+package ru.practicum.shareit.gateway.util.bulk;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * {@code row} is the line of the imported file, lines are numbered from 1 and the csv header counts as a line
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class BulkRowError {
+    private long row;
+    private String error;
+}
@@ -0,0 +1,120 @@
+package ru.practicum.shareit.gateway.util.bulk;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import ru.practicum.shareit.gateway.util.constraint_group.Creation;
+
+import javax.validation.ConstraintViolation;
+import javax.validation.Validator;
+import javax.validation.groups.Default;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Turns lines of a bulk import into dtos and validates them with the same groups as a single creation.
+ * Lines are passed one at a time, so the file is never held in memory as a whole.
+ * <p>
+ * The first line of csv is the header, it names the dto fields of the columns. Values may be quoted,
+ * a quote inside a quoted value is doubled. Empty values are read as missing fields.
+ * A record has to fit on one line. The parser keeps the header, so it serves one import
+ */
+public class BulkRowParser<T> {
+    private final BulkFormat format;
+    private final Class<T> type;
+    private final ObjectMapper objectMapper;
+    private final Validator validator;
+
+    private List<String> columns;
+
+    public BulkRowParser(BulkFormat format, Class<T> type, ObjectMapper objectMapper, Validator validator) {
+        this.format = format;
+        this.type = type;
+        this.objectMapper = objectMapper;
+        this.validator = validator;
+    }
+
+    /**
+     * @param line number of the line in the file, starting from 1
+     * @return parsed row, or null for blank lines and the csv header
+     */
+    public BulkRow<T> parse(long line, String text) {
+        if (text.isBlank()) {
+            return null;
+        }
+
+        T value;
+        try {
+            if (format == BulkFormat.NDJSON) {
+                value = objectMapper.readValue(text, type);
+            } else {
+                List<String> values = splitCsv(text);
+                if (columns == null) {
+                    columns = values.stream().map(String::trim).collect(Collectors.toList());
+                    return null;
+                }
+                if (values.size() != columns.size()) {
+                    return BulkRow.rejected(line, String.format("Expected %d values as in the header, found %d",
+                            columns.size(), values.size()));
+                }
+                Map<String, String> fields = new HashMap<>();
+                for (int i = 0; i < values.size(); i++) {
+                    if (!values.get(i).isEmpty()) {
+                        fields.put(columns.get(i), values.get(i));
+                    }
+                }
+                value = objectMapper.convertValue(fields, type);
+            }
+        } catch (JsonProcessingException e) {
+            return BulkRow.rejected(line, "Malformed row: " + e.getOriginalMessage());
+        } catch (IllegalArgumentException e) {
+            return BulkRow.rejected(line, "Malformed row: " + e.getMessage());
+        }
+        if (value == null) {
+            return BulkRow.rejected(line, "Malformed row: expected an object");
+        }
+
+        Set<ConstraintViolation<T>> violations = validator.validate(value, Creation.class, Default.class);
+        if (!violations.isEmpty()) {
+            return BulkRow.rejected(line, violations.stream()
+                    .map(violation -> violation.getPropertyPath() + " " + violation.getMessage())
+                    .sorted()
+                    .collect(Collectors.joining("; ")));
+        }
+        return BulkRow.accepted(line, value);
+    }
+
+    private static List<String> splitCsv(String text) {
+        List<String> values = new ArrayList<>();
+        StringBuilder value = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (quoted) {
+                if (c != '"') {
+                    value.append(c);
+                } else if (i + 1 < text.length() && text.charAt(i + 1) == '"') {
+                    value.append('"');
+                    i++;
+                } else {
+                    quoted = false;
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                values.add(value.toString());
+                value.setLength(0);
+            } else {
+                value.append(c);
+            }
+        }
+        if (quoted) {
+            throw new IllegalArgumentException("quote is not closed");
+        }
+        values.add(value.toString());
+        return values;
+    }
+}
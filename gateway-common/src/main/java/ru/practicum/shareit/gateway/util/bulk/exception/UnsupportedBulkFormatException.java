@@ -0,0 +1,13 @@
+package ru.practicum.shareit.gateway.util.bulk.exception;
+
+import lombok.Getter;
+
+public class UnsupportedBulkFormatException extends RuntimeException {
+    @Getter
+    private final String contentType;
+
+    public UnsupportedBulkFormatException(String message, String contentType) {
+        super(message);
+        this.contentType = contentType;
+    }
+}
@@ -0,0 +1,33 @@
+package ru.practicum.shareit.gateway.util.cache;
+
+import org.springframework.lang.Nullable;
+
+/**
+ * Lets a cached response answer a conditional request. Tags are compared weakly, as the server only emits weak ones
+ */
+public final class EntityTags {
+    private EntityTags() {
+    }
+
+    /**
+     * @param ifNoneMatch value of the If-None-Match header: a tag, a comma separated list of them or {@code *}
+     * @param etag        tag of the cached response
+     */
+    public static boolean matches(@Nullable String ifNoneMatch, @Nullable String etag) {
+        if (ifNoneMatch == null || etag == null || etag.isEmpty()) {
+            return false;
+        }
+        String opaqueTag = stripWeakness(etag);
+        for (String tag : ifNoneMatch.split(",")) {
+            tag = tag.trim();
+            if (tag.equals("*") || stripWeakness(tag).equals(opaqueTag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String stripWeakness(String tag) {
+        return tag.startsWith("W/") ? tag.substring(2) : tag;
+    }
+}
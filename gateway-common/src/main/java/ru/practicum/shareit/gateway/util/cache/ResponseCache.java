@@ -0,0 +1,156 @@
+package ru.practicum.shareit.gateway.util.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.Value;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bounded in-memory cache of server's responses, keyed by route, path with query and user id.
+ * <p>
+ * An entry expires after the time to live of its route counted from the moment the response was received,
+ * reading it doesn't prolong it. Every gateway replica has its own cache and only evicts entries on mutations
+ * forwarded by itself, so a replica may serve a response changed through another one, but never for longer
+ * than the time to live.
+ * <p>
+ * A response received while an eviction happened is not put, since it may have been read before the mutation.
+ * Size, hits, misses and evictions are exposed as cache.* metrics with tag cache=gateway.responses
+ *
+ * @param <V> response type of the gateway's client
+ */
+public class ResponseCache<V> implements MeterBinder {
+    public static final String USERS = "users";
+    public static final String ITEMS = "items";
+    public static final String REQUESTS = "requests";
+
+    private static final String METRICS_NAME = "gateway.responses";
+
+    private final Map<String, Duration> ttl;
+    private final Cache<Key, V> cache;
+
+    /**
+     * Incremented on every eviction, so a response read before it can be told apart
+     */
+    private final AtomicLong evictions = new AtomicLong();
+
+    public ResponseCache(ResponseCacheProperties properties) {
+        this.ttl = Map.copyOf(properties.getTtl());
+        this.cache = properties.isEnabled() ? Caffeine.newBuilder()
+                .maximumSize(properties.getMaxSize())
+                .expireAfter(new RouteExpiry<V>(ttl))
+                .recordStats()
+                .build() : null;
+    }
+
+    public static <V> ResponseCache<V> disabled() {
+        return new ResponseCache<>(new ResponseCacheProperties());
+    }
+
+    public boolean isCached(String route) {
+        return cache != null && ttl.containsKey(route);
+    }
+
+    /**
+     * @return cached response, or null if there is none
+     */
+    public V get(Key key) {
+        return isCached(key.getRoute()) ? cache.getIfPresent(key) : null;
+    }
+
+    /**
+     * Taken before sending a request, the response is then put with it
+     */
+    public long stamp() {
+        return evictions.get();
+    }
+
+    public void put(Key key, V response, long stamp) {
+        if (!isCached(key.getRoute())) {
+            return;
+        }
+        cache.put(key, response);
+        //an eviction between the stamp and the put may have missed the new entry
+        if (evictions.get() != stamp) {
+            cache.invalidate(key);
+        }
+    }
+
+    /**
+     * Evicts responses of the path for all users. Goes through all entries, mutations are expected to be rarer
+     * than reads
+     */
+    public void evict(String route, String path) {
+        if (!isCached(route)) {
+            return;
+        }
+        evictions.incrementAndGet();
+        cache.asMap().keySet().removeIf(key -> key.getRoute().equals(route) && key.getPath().equals(path));
+    }
+
+    public void evictRoute(String route) {
+        if (!isCached(route)) {
+            return;
+        }
+        evictions.incrementAndGet();
+        cache.asMap().keySet().removeIf(key -> key.getRoute().equals(route));
+    }
+
+    public void evictAll() {
+        if (cache == null) {
+            return;
+        }
+        evictions.incrementAndGet();
+        cache.invalidateAll();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        if (cache != null) {
+            new CaffeineCacheMetrics<>(cache, METRICS_NAME, Tags.empty()).bindTo(registry);
+        }
+    }
+
+    /**
+     * @see ResponseCache
+     */
+    @Value
+    public static class Key {
+        String route;
+        /**
+         * Path within the route with the query, e.g. {@code /1}
+         */
+        String path;
+        Long userId;
+    }
+
+    private static class RouteExpiry<V> implements Expiry<Key, V> {
+        private final Map<String, Duration> ttl;
+
+        RouteExpiry(Map<String, Duration> ttl) {
+            this.ttl = ttl;
+        }
+
+        @Override
+        public long expireAfterCreate(Key key, V value, long currentTime) {
+            return ttl.get(key.getRoute()).toNanos();
+        }
+
+        @Override
+        public long expireAfterUpdate(Key key, V value, long currentTime, long currentDuration) {
+            return ttl.get(key.getRoute()).toNanos();
+        }
+
+        @Override
+        public long expireAfterRead(Key key, V value, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package ru.practicum.shareit.gateway.util.cache;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+@Data
+@ConfigurationProperties(prefix = "shareit.response-cache")
+public class ResponseCacheProperties {
+    private boolean enabled = false;
+
+    /**
+     * Entries over this number are evicted, the least used ones first
+     */
+    private long maxSize = 10_000;
+
+    /**
+     * How long a response is kept after it was received, by route, e.g. {@code items}.
+     * Responses of routes without a time are not cached
+     */
+    private Map<String, Duration> ttl = new HashMap<>();
+}
@@ -0,0 +1,13 @@
+package ru.practicum.shareit.gateway.reactive;
+
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.SpringBootApplication;
+
+@SpringBootApplication
+public class ReactiveGatewayApplication {
+
+    public static void main(String[] args) {
+        SpringApplication.run(ReactiveGatewayApplication.class, args);
+    }
+
+}
@@ -0,0 +1,108 @@
+package ru.practicum.shareit.gateway.reactive.booking;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.client.reactive.ClientHttpConnector;
+import org.springframework.stereotype.Service;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+import ru.practicum.shareit.gateway.booking.BookingState;
+import ru.practicum.shareit.gateway.booking.dto.BookingDecisionBatchDto;
+import ru.practicum.shareit.gateway.booking.dto.BookingRequestDto;
+import ru.practicum.shareit.gateway.reactive.util.client.BaseClient;
+import ru.practicum.shareit.gateway.util.cache.ResponseCache;
+
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+@Service
+public class BookingClient extends BaseClient {
+    private static final String API_PREFIX = "/bookings";
+
+    public BookingClient(@Value("${shareit-server.url}") String serverUrl, WebClient.Builder builder,
+                         ClientHttpConnector connector, ResponseCache<ResponseEntity<byte[]>> responseCache) {
+        super(
+                builder
+                        .baseUrl(serverUrl + API_PREFIX)
+                        .clientConnector(connector)
+                        .build(),
+                null,
+                responseCache
+        );
+    }
+
+    public Mono<ResponseEntity<byte[]>> add(long userId, BookingRequestDto requestDto) {
+        return evictOnSuccess(post("", userId, requestDto),
+                () -> responseCache.evict(ResponseCache.ITEMS, "/" + requestDto.getItemId()));
+    }
+
+    /**
+     * Items show their last and next bookings, the item of the booking is not known here,
+     * so all of them are evicted
+     */
+    public Mono<ResponseEntity<byte[]>> changeStatus(long bookingId, boolean approved, long userId) {
+        Mono<ResponseEntity<byte[]>> response = patch("/" + bookingId + "?approved={approved}", userId,
+                Map.of("approved", approved), null);
+        return evictOnSuccess(response, () -> responseCache.evictRoute(ResponseCache.ITEMS));
+    }
+
+    public Mono<ResponseEntity<byte[]>> changeStatuses(long itemOwnerId, BookingDecisionBatchDto batch) {
+        return evictOnSuccess(patch("/owner/batch", itemOwnerId, batch),
+                () -> responseCache.evictRoute(ResponseCache.ITEMS));
+    }
+
+    public Mono<ResponseEntity<byte[]>> getAllByBookerIdSortedByStartTimeDesc(long bookerId,
+                                                                              BookingState bookingState,
+                                                                              int from, int size) {
+        Map<String, Object> parameters = Map.of(
+                "state", bookingState.name(),
+                "from", from,
+                "size", size
+        );
+        return get("?state={state}&from={from}&size={size}", bookerId, parameters);
+    }
+
+    public Mono<ResponseEntity<byte[]>> getAllByItemOwnerIdSortedByStartTimeDesc(long itemOwnerId,
+                                                                                 BookingState bookingState,
+                                                                                 int from, int size,
+                                                                                 String ifNoneMatch) {
+        Map<String, Object> parameters = Map.of(
+                "state", bookingState.name(),
+                "from", from,
+                "size", size
+        );
+        return get("/owner?state={state}&from={from}&size={size}", itemOwnerId, parameters, ifNoneMatch);
+    }
+
+    public Mono<ResponseEntity<byte[]>> getAllByBookerIdAfter(long bookerId, BookingState bookingState,
+                                                              String after, int size) {
+        Map<String, Object> parameters = Map.of(
+                "state", bookingState.name(),
+                "after", after,
+                "size", size
+        );
+        return get("?state={state}&after={after}&size={size}", bookerId, parameters);
+    }
+
+    public Mono<ResponseEntity<byte[]>> getAllByItemOwnerIdAfter(long itemOwnerId, BookingState bookingState,
+                                                                 String after, int size, String ifNoneMatch) {
+        Map<String, Object> parameters = Map.of(
+                "state", bookingState.name(),
+                "after", after,
+                "size", size
+        );
+        return get("/owner?state={state}&after={after}&size={size}", itemOwnerId, parameters, ifNoneMatch);
+    }
+
+    public Mono<ResponseEntity<byte[]>> getAllByIds(long userId, List<Long> ids) {
+        Map<String, Object> parameters = Map.of(
+                "ids", ids.stream().map(String::valueOf).collect(Collectors.joining(","))
+        );
+        return get("?ids={ids}", userId, parameters);
+    }
+
+    public Mono<ResponseEntity<byte[]>> getById(long bookingId, long userId) {
+        return get("/" + bookingId, userId);
+    }
+}
@@ -0,0 +1,147 @@
+package ru.practicum.shareit.gateway.reactive.booking;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Mono;
+import ru.practicum.shareit.gateway.booking.BookingState;
+import ru.practicum.shareit.gateway.booking.dto.BookingDecisionBatchDto;
+import ru.practicum.shareit.gateway.booking.dto.BookingRequestDto;
+import ru.practicum.shareit.gateway.booking.exception.UnknownBookingStateException;
+import ru.practicum.shareit.gateway.util.constant.Header;
+
+import javax.validation.Valid;
+import javax.validation.constraints.Max;
+import javax.validation.constraints.NotEmpty;
+import javax.validation.constraints.NotNull;
+import javax.validation.constraints.Positive;
+import javax.validation.constraints.PositiveOrZero;
+import javax.validation.constraints.Size;
+import java.util.List;
+
+@Slf4j
+@RestController
+@RequestMapping(path = "/bookings")
+@Validated
+public class BookingController {
+    private final BookingClient bookingClient;
+
+    public BookingController(BookingClient bookingClient) {
+        this.bookingClient = bookingClient;
+    }
+
+    @PostMapping
+    public Mono<ResponseEntity<byte[]>> add(@RequestBody @NotNull @Valid BookingRequestDto bookingRequestDto,
+                                            @RequestHeader(Header.USER_ID_HEADER) long bookerId) {
+        log.info("User with id={} is adding booking for item with id={}", bookerId, bookingRequestDto.getItemId());
+        return bookingClient.add(bookerId, bookingRequestDto)
+                .doOnNext(response -> log.info("Response: status = {}", response.getStatusCode()));
+    }
+
+    @PatchMapping("/{bookingId}")
+    public Mono<ResponseEntity<byte[]>> changeStatus(@PathVariable long bookingId,
+                                                     @RequestParam boolean approved,
+                                                     @RequestHeader(Header.USER_ID_HEADER) long userId) {
+        log.info("User with id={} is changing booking status to '{}' for booking with id={}",
+                userId, approved, bookingId);
+        return bookingClient.changeStatus(bookingId, approved, userId)
+                .doOnNext(response -> log.info("Response: status = {}", response.getStatusCode()));
+    }
+
+    @PatchMapping("/owner/batch")
+    public Mono<ResponseEntity<byte[]>> changeStatuses(@RequestBody @NotNull @Valid BookingDecisionBatchDto batch,
+                                                       @RequestHeader(Header.USER_ID_HEADER) long itemOwnerId) {
+        log.info("Item's owner id={} is deciding on {} bookings", itemOwnerId, batch.getDecisions().size());
+        return bookingClient.changeStatuses(itemOwnerId, batch)
+                .doOnNext(response -> log.info("Response: status = {}", response.getStatusCode()));
+    }
+
+    @GetMapping
+    public Mono<ResponseEntity<byte[]>> getAllSortedByStartTimeDesc(
+            @RequestHeader(Header.USER_ID_HEADER) long bookerId,
+            @RequestParam(defaultValue = "ALL") String state,
+            @RequestParam(defaultValue = "0") @PositiveOrZero int from,
+            @RequestParam(defaultValue = "10") @Positive int size) {
+        BookingState bookingState = convertToBookingState(state);
+
+        log.info("Booker with id={} is retrieving {} bookings with state '{}' starting from index {}",
+                bookerId, size, state, from);
+        return bookingClient.getAllByBookerIdSortedByStartTimeDesc(bookerId, bookingState, from, size)
+                .doOnNext(response -> log.info("Response: status = {}, headers = {}",
+                        response.getStatusCode(), response.getHeaders()));
+    }
+
+    @GetMapping(params = "after")
+    public Mono<ResponseEntity<byte[]>> getAllAfter(
+            @RequestHeader(Header.USER_ID_HEADER) long bookerId,
+            @RequestParam(defaultValue = "ALL") String state,
+            @RequestParam String after,
+            @RequestParam(defaultValue = "10") @Positive @Max(100) int size) {
+        BookingState bookingState = convertToBookingState(state);
+
+        log.info("Booker with id={} is retrieving {} bookings with state '{}' after cursor '{}'",
+                bookerId, size, state, after);
+        return bookingClient.getAllByBookerIdAfter(bookerId, bookingState, after, size)
+                .doOnNext(response -> log.info("Response: status = {}, headers = {}",
+                        response.getStatusCode(), response.getHeaders()));
+    }
+
+    @GetMapping("/owner")
+    public Mono<ResponseEntity<byte[]>> getAllByItemOwnerIdSortedByStartTimeDesc(
+            @RequestHeader(Header.USER_ID_HEADER) long itemOwnerId,
+            @RequestParam(defaultValue = "ALL") String state,
+            @RequestParam(defaultValue = "0") @PositiveOrZero int from,
+            @RequestParam(defaultValue = "10") @Positive int size,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        BookingState bookingState = convertToBookingState(state);
+
+        log.info("Item's owner id={} is retrieving {} bookings with state '{}' starting from index {}",
+                itemOwnerId, size, state, from);
+        return bookingClient
+                .getAllByItemOwnerIdSortedByStartTimeDesc(itemOwnerId, bookingState, from, size, ifNoneMatch)
+                .doOnNext(response -> log.info("Response: status = {}, headers = {}",
+                        response.getStatusCode(), response.getHeaders()));
+    }
+
+    @GetMapping(path = "/owner", params = "after")
+    public Mono<ResponseEntity<byte[]>> getAllByItemOwnerIdAfter(
+            @RequestHeader(Header.USER_ID_HEADER) long itemOwnerId,
+            @RequestParam(defaultValue = "ALL") String state,
+            @RequestParam String after,
+            @RequestParam(defaultValue = "10") @Positive @Max(100) int size,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        BookingState bookingState = convertToBookingState(state);
+
+        log.info("Item's owner id={} is retrieving {} bookings with state '{}' after cursor '{}'",
+                itemOwnerId, size, state, after);
+        return bookingClient.getAllByItemOwnerIdAfter(itemOwnerId, bookingState, after, size, ifNoneMatch)
+                .doOnNext(response -> log.info("Response: status = {}, headers = {}",
+                        response.getStatusCode(), response.getHeaders()));
+    }
+
+    @GetMapping(params = "ids")
+    public Mono<ResponseEntity<byte[]>> getAllByIds(@RequestHeader(Header.USER_ID_HEADER) long userId,
+                                                    @RequestParam @NotEmpty @Size(max = 100) List<Long> ids) {
+        log.info("User with id={} is retrieving bookings with ids={}", userId, ids);
+        return bookingClient.getAllByIds(userId, ids)
+                .doOnNext(response -> log.info("Response: status = {}", response.getStatusCode()));
+    }
+
+    @GetMapping("/{bookingId}")
+    public Mono<ResponseEntity<byte[]>> getById(@PathVariable long bookingId,
+                                                @RequestHeader(Header.USER_ID_HEADER) long userId) {
+        log.info("User with id={} is retrieving booking with id={}", userId, bookingId);
+        return bookingClient.getById(bookingId, userId)
+                .doOnNext(response -> log.info("Response: status = {}", response.getStatusCode()));
+    }
+
+    private BookingState convertToBookingState(String state) throws UnknownBookingStateException {
+        try {
+            return BookingState.valueOf(state.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new UnknownBookingStateException("Unknown state: " + state, state);
+        }
+    }
+}
@@ -0,0 +1,140 @@
+package ru.practicum.shareit.gateway.reactive.error;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.TypeMismatchException;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.ResponseEntity;
+import org.springframework.validation.FieldError;
+import org.springframework.validation.ObjectError;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.bind.support.WebExchangeBindException;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.server.ServerWebInputException;
+import ru.practicum.shareit.gateway.error.ErrorResponse;
+import ru.practicum.shareit.gateway.error.validation_violation.FieldValidationViolation;
+import ru.practicum.shareit.gateway.error.validation_violation.HttpAttributeValidationViolation;
+import ru.practicum.shareit.gateway.error.validation_violation.ObjectValidationViolation;
+import ru.practicum.shareit.gateway.util.bulk.exception.UnsupportedBulkFormatException;
+
+import javax.validation.ConstraintViolationException;
+import java.util.LinkedList;
+import java.util.List;
+
+import static org.springframework.http.HttpStatus.BAD_REQUEST;
+import static org.springframework.http.HttpStatus.INTERNAL_SERVER_ERROR;
+import static org.springframework.http.HttpStatus.UNSUPPORTED_MEDIA_TYPE;
+
+/**
+ * Answers with the same {@link ErrorResponse} as the servlet gateway.
+ * WebFlux reports unreadable bodies, missing and mistyped http attributes as {@link ServerWebInputException}
+ * instead of the separate exceptions of Spring MVC, so they are told apart here
+ */
+@Slf4j
+@RestControllerAdvice
+public class GlobalErrorHandler {
+
+    //Fields and object validation violations
+    @ExceptionHandler(WebExchangeBindException.class)
+    @ResponseStatus(BAD_REQUEST)
+    public ErrorResponse onWebExchangeBindException(final WebExchangeBindException e) {
+        List<FieldValidationViolation> fieldViolations = new LinkedList<>();
+        for (FieldError fieldError : e.getFieldErrors()) {
+            FieldValidationViolation violation = new FieldValidationViolation(
+                    fieldError.getField(), fieldError.getDefaultMessage());
+            fieldViolations.add(violation);
+        }
+
+        List<ObjectValidationViolation> objectViolations = new LinkedList<>();
+        for (ObjectError objectError : e.getGlobalErrors()) {
+            ObjectValidationViolation violation = new ObjectValidationViolation(objectError.getDefaultMessage());
+            objectViolations.add(violation);
+        }
+
+        String message = "Validation failed";
+        ErrorResponse error = ErrorResponse.builder()
+                .error(message)
+                .fieldValidationViolations(fieldViolations)
+                .objectValidationViolations(objectViolations)
+                .build();
+
+        log.warn("{}: {}", message, error, e);
+        return error;
+    }
+
+    //Http attributes (path variables, headers, request parameters) violations -----------------------------------------
+    @ExceptionHandler(ConstraintViolationException.class)
+    @ResponseStatus(BAD_REQUEST)
+    public ErrorResponse onConstraintViolationException(final ConstraintViolationException e) {
+        String message = "Validation failed";
+        List<HttpAttributeValidationViolation> violations = new LinkedList<>();
+        e.getConstraintViolations().forEach(violation -> {
+            String propertyPath = violation.getPropertyPath().toString();
+            String parameter = propertyPath.substring(propertyPath.lastIndexOf(".") + 1);
+            HttpAttributeValidationViolation pathVariableViolation =
+                    new HttpAttributeValidationViolation(parameter, violation.getMessage());
+            violations.add(pathVariableViolation);
+        });
+        ErrorResponse error = ErrorResponse.builder().error(message).httpAttributeValidationViolations(violations).build();
+        log.warn("{}: {}", message, error, e);
+        return error;
+    }
+
+    //Unreadable or missing request body, missing or mistyped http attribute
+    @ExceptionHandler(ServerWebInputException.class)
+    @ResponseStatus(BAD_REQUEST)
+    public ErrorResponse onServerWebInputException(final ServerWebInputException e) {
+        MethodParameter parameter = e.getMethodParameter();
+        String message;
+        if (e.getCause() instanceof TypeMismatchException) {
+            TypeMismatchException typeMismatch = (TypeMismatchException) e.getCause();
+            message = String.format("Http attribute '%s' must be of type '%s', but was equal to '%s'",
+                    attributeName(parameter), typeMismatch.getRequiredType(), typeMismatch.getValue());
+        } else if (parameter == null || parameter.hasParameterAnnotation(RequestBody.class)) {
+            message = "Http request is corrupted: " + e.getReason();
+        } else {
+            message = e.getReason() == null ? "Some http request attribute is missing" : e.getReason();
+        }
+        log.warn(message, e);
+        return ErrorResponse.builder().error(message).build();
+    }
+    //------------------------------------------------------------------------------------------------------------------
+
+    //Unsupported media type, method not allowed and others, which carry their own status
+    @ExceptionHandler(ResponseStatusException.class)
+    public ResponseEntity<ErrorResponse> onResponseStatusException(final ResponseStatusException e) {
+        String message = e.getReason() == null ? e.getStatus().getReasonPhrase() : e.getReason();
+        log.warn(message, e);
+        return ResponseEntity.status(e.getStatus()).body(ErrorResponse.builder().error(message).build());
+    }
+
+    @ExceptionHandler(UnsupportedBulkFormatException.class)
+    @ResponseStatus(UNSUPPORTED_MEDIA_TYPE)
+    public ErrorResponse onUnsupportedBulkFormatException(final UnsupportedBulkFormatException e) {
+        String message = e.getMessage();
+        log.warn(message, e);
+        return ErrorResponse.builder().error(message).build();
+    }
+
+    @ExceptionHandler(Throwable.class)
+    @ResponseStatus(INTERNAL_SERVER_ERROR)
+    public ErrorResponse onThrowable(final Throwable e) {
+        log.error("Unexpected error occurred", e);
+        return ErrorResponse.builder().error("Unexpected error occurred: " + e.getMessage()).build();
+    }
+
+    private static String attributeName(MethodParameter parameter) {
+        RequestHeader header = parameter.getParameterAnnotation(RequestHeader.class);
+        if (header != null && !header.name().isEmpty()) {
+            return header.name();
+        }
+        RequestParam requestParam = parameter.getParameterAnnotation(RequestParam.class);
+        if (requestParam != null && !requestParam.name().isEmpty()) {
+            return requestParam.name();
+        }
+        PathVariable pathVariable = parameter.getParameterAnnotation(PathVariable.class);
+        if (pathVariable != null && !pathVariable.name().isEmpty()) {
+            return pathVariable.name();
+        }
+        return parameter.getParameterName();
+    }
+}
@@ -0,0 +1,118 @@
+package ru.practicum.shareit.gateway.reactive.item;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.client.reactive.ClientHttpConnector;
+import org.springframework.stereotype.Service;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+import ru.practicum.shareit.gateway.item.dto.AvailabilityRequestDto;
+import ru.practicum.shareit.gateway.item.dto.CommentRequestDto;
+import ru.practicum.shareit.gateway.item.dto.ItemDto;
+import ru.practicum.shareit.gateway.reactive.util.client.BaseClient;
+import ru.practicum.shareit.gateway.util.cache.ResponseCache;
+
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+@Service
+public class ItemClient extends BaseClient {
+    private static final String API_PREFIX = "/items";
+
+    public ItemClient(@Value("${shareit-server.url}") String serverUrl, WebClient.Builder builder,
+                      ClientHttpConnector connector, ResponseCache<ResponseEntity<byte[]>> responseCache) {
+        super(
+                builder
+                        .baseUrl(serverUrl + API_PREFIX)
+                        .clientConnector(connector)
+                        .build(),
+                ResponseCache.ITEMS,
+                responseCache
+        );
+    }
+
+    public Mono<ResponseEntity<byte[]>> add(long ownerId, ItemDto itemDto) {
+        Mono<ResponseEntity<byte[]>> response = post("", ownerId, itemDto);
+        if (itemDto.getRequestId() == 0) {
+            return response;
+        }
+        return evictOnSuccess(response,
+                () -> responseCache.evict(ResponseCache.REQUESTS, "/" + itemDto.getRequestId()));
+    }
+
+    public Mono<ResponseEntity<byte[]>> addAll(long ownerId, List<ItemDto> items) {
+        return evictOnSuccess(post("/bulk", ownerId, items),
+                () -> responseCache.evictRoute(ResponseCache.REQUESTS));
+    }
+
+    public Mono<ResponseEntity<byte[]>> getAllByIds(long userId, List<Long> ids) {
+        Map<String, Object> parameters = Map.of(
+                "ids", ids.stream().map(String::valueOf).collect(Collectors.joining(","))
+        );
+        return get("?ids={ids}", userId, parameters);
+    }
+
+    public Mono<ResponseEntity<byte[]>> getById(long itemId, long userId, String ifNoneMatch) {
+        return getCached("/" + itemId, userId, ifNoneMatch);
+    }
+
+    public Mono<ResponseEntity<byte[]>> getAvailability(long userId, long itemId, AvailabilityRequestDto period) {
+        Map<String, Object> parameters = Map.of(
+                "from", period.getFrom(),
+                "to", period.getTo()
+        );
+        return get("/" + itemId + "/availability?from={from}&to={to}", userId, parameters);
+    }
+
+    public Mono<ResponseEntity<byte[]>> getComments(long userId, long itemId, String after, int size) {
+        Map<String, Object> parameters = Map.of(
+                "after", after,
+                "size", size
+        );
+        return get("/" + itemId + "/comments?after={after}&size={size}", userId, parameters);
+    }
+
+    public Mono<ResponseEntity<byte[]>> searchByNameOrDescription(long userId, String text, String mode, String sort,
+                                                                  int from, int size) {
+        Map<String, Object> parameters = Map.of(
+                "from", from,
+                "size", size,
+                "text", text,
+                "mode", mode,
+                "sort", sort
+        );
+        return get("/search?text={text}&mode={mode}&sort={sort}&from={from}&size={size}", userId, parameters);
+    }
+
+    public Mono<ResponseEntity<byte[]>> getAllByOwnerId(long ownerId, int from, int size) {
+        Map<String, Object> parameters = Map.of(
+                "from", from,
+                "size", size
+        );
+        return get("?from={from}&size={size}", ownerId, parameters);
+    }
+
+    public Mono<ResponseEntity<byte[]>> getAllByOwnerIdAfter(long ownerId, String after, int size) {
+        Map<String, Object> parameters = Map.of(
+                "after", after,
+                "size", size
+        );
+        return get("?after={after}&size={size}", ownerId, parameters);
+    }
+
+    /**
+     * Requests show their items, the request of the item is not known here, so all of them are evicted
+     */
+    public Mono<ResponseEntity<byte[]>> update(long userId, long itemId, ItemDto itemDto) {
+        return evictOnSuccess(patch("/" + itemId, userId, itemDto), () -> {
+            responseCache.evict(ResponseCache.ITEMS, "/" + itemId);
+            responseCache.evictRoute(ResponseCache.REQUESTS);
+        });
+    }
+
+    public Mono<ResponseEntity<byte[]>> addComment(long authorId, long itemId, CommentRequestDto commentRequestDto) {
+        return evictOnSuccess(post("/" + itemId + "/comment", authorId, commentRequestDto),
+                () -> responseCache.evict(ResponseCache.ITEMS, "/" + itemId));
+    }
+}
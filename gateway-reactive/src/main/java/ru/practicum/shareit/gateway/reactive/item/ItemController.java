@@ -0,0 +1,159 @@
+package ru.practicum.shareit.gateway.reactive.item;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Mono;
+import ru.practicum.shareit.gateway.reactive.util.bulk.BulkImporter;
+import ru.practicum.shareit.gateway.item.dto.AvailabilityRequestDto;
+import ru.practicum.shareit.gateway.item.dto.CommentRequestDto;
+import ru.practicum.shareit.gateway.item.dto.ItemDto;
+import ru.practicum.shareit.gateway.util.constant.Header;
+import ru.practicum.shareit.gateway.util.constraint_group.Creation;
+
+import javax.validation.Valid;
+import javax.validation.constraints.Max;
+import javax.validation.constraints.NotEmpty;
+import javax.validation.constraints.NotNull;
+import javax.validation.constraints.Pattern;
+import javax.validation.constraints.Positive;
+import javax.validation.constraints.Size;
+import javax.validation.groups.Default;
+
+import java.util.List;
+
+@Slf4j
+@RestController
+@RequestMapping("/items")
+@Validated
+public class ItemController {
+    private final ItemClient itemClient;
+    private final BulkImporter bulkImporter;
+
+    public ItemController(ItemClient itemClient, BulkImporter bulkImporter) {
+        this.itemClient = itemClient;
+        this.bulkImporter = bulkImporter;
+    }
+
+    @PostMapping
+    public Mono<ResponseEntity<byte[]>> add(@RequestBody @Validated({Creation.class, Default.class}) ItemDto itemDto,
+                                            @RequestHeader(Header.USER_ID_HEADER) long ownerId) {
+        log.info("User with id={} is adding item with name={}", ownerId, itemDto.getName());
+        return itemClient.add(ownerId, itemDto)
+                .doOnNext(response -> log.info("Response: status = {}", response.getStatusCode()));
+    }
+
+    /**
+     * Body is ndjson or csv with an item per line, validated as in {@link #add}
+     */
+    @PostMapping("/bulk")
+    public Mono<ResponseEntity<byte[]>> addAll(@RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType,
+                                               @RequestHeader(Header.USER_ID_HEADER) long ownerId,
+                                               ServerHttpRequest request) {
+        log.info("User with id={} is importing items from {}", ownerId, contentType);
+        return bulkImporter.importRows(request.getBody(), contentType, ItemDto.class,
+                        items -> itemClient.addAll(ownerId, items))
+                .doOnNext(response -> log.info("Response: status = {}", response.getStatusCode()));
+    }
+
+    @GetMapping(params = "ids")
+    public Mono<ResponseEntity<byte[]>> getAllByIds(@RequestHeader(Header.USER_ID_HEADER) long userId,
+                                                    @RequestParam @NotEmpty @Size(max = 100) List<Long> ids) {
+        log.info("User with id={} is retrieving items with ids={}", userId, ids);
+        return itemClient.getAllByIds(userId, ids)
+                .doOnNext(response -> log.info("Response: status = {}", response.getStatusCode()));
+    }
+
+    @GetMapping("/{itemId}")
+    public Mono<ResponseEntity<byte[]>> getById(@RequestHeader(Header.USER_ID_HEADER) long userId,
+                                                @PathVariable long itemId,
+                                                @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false)
+                                                String ifNoneMatch) {
+        log.info("User with id={} is retrieving item with id={}", userId, itemId);
+        return itemClient.getById(itemId, userId, ifNoneMatch)
+                .doOnNext(response -> log.info("Response: status = {}", response.getStatusCode()));
+    }
+
+    @GetMapping("/{itemId}/availability")
+    public Mono<ResponseEntity<byte[]>> getAvailability(@RequestHeader(Header.USER_ID_HEADER) long userId,
+                                                        @PathVariable long itemId,
+                                                        @Valid AvailabilityRequestDto period) {
+        log.info("User with id={} is retrieving availability of item with id={} from {} to {}",
+                userId, itemId, period.getFrom(), period.getTo());
+        return itemClient.getAvailability(userId, itemId, period)
+                .doOnNext(response -> log.info("Response: status = {}", response.getStatusCode()));
+    }
+
+    @GetMapping("/{itemId}/comments")
+    public Mono<ResponseEntity<byte[]>> getComments(@RequestHeader(Header.USER_ID_HEADER) long userId,
+                                                    @PathVariable long itemId,
+                                                    @RequestParam(defaultValue = "") String after,
+                                                    @RequestParam(defaultValue = "10") @Positive @Max(100) int size) {
+        log.info("User with id={} is retrieving {} comments of item with id={} after cursor '{}'",
+                userId, size, itemId, after);
+        return itemClient.getComments(userId, itemId, after, size)
+                .doOnNext(response -> log.info("Response: status = {}, headers = {}",
+                        response.getStatusCode(), response.getHeaders()));
+    }
+
+    @GetMapping("/search")
+    public Mono<ResponseEntity<byte[]>> searchByNameOrDescription(@RequestHeader(Header.USER_ID_HEADER) long userId,
+                                                                  @RequestParam @NotNull @Size(max = 200) String text,
+                                                                  @RequestParam(defaultValue = "substring")
+                                                                  @Pattern(regexp = "(?i)substring|ranked")
+                                                                  String mode,
+                                                                  @RequestParam(defaultValue = "id")
+                                                                  @Pattern(regexp =
+                                                                          "(?i)id|comments|rating|last_comment")
+                                                                  String sort,
+                                                                  @RequestParam(defaultValue = "0") int from,
+                                                                  @RequestParam(defaultValue = "10") int size) {
+        log.info("User with id={} is searching {} items by name or description starting from index {}, " +
+                "text for search = {}, mode = {}, sort = {}", userId, size, from, text, mode, sort);
+        return itemClient.searchByNameOrDescription(userId, text, mode.toUpperCase(), sort.toUpperCase(), from, size)
+                .doOnNext(response -> log.info("Response: status = {}, headers = {}",
+                        response.getStatusCode(), response.getHeaders()));
+    }
+
+    @GetMapping
+    public Mono<ResponseEntity<byte[]>> getAllByOwnerId(@RequestHeader(Header.USER_ID_HEADER) long ownerId,
+                                                        @RequestParam(defaultValue = "0") int from,
+                                                        @RequestParam(defaultValue = "10") int size) {
+        log.info("Owner with id={} is retrieving {} items starting from index {}", ownerId, size, from);
+        return itemClient.getAllByOwnerId(ownerId, from, size)
+                .doOnNext(response -> log.info("Response: status = {}, headers = {}",
+                        response.getStatusCode(), response.getHeaders()));
+    }
+
+    @GetMapping(params = "after")
+    public Mono<ResponseEntity<byte[]>> getAllByOwnerIdAfter(@RequestHeader(Header.USER_ID_HEADER) long ownerId,
+                                                             @RequestParam String after,
+                                                             @RequestParam(defaultValue = "10")
+                                                             @Positive @Max(100) int size) {
+        log.info("Owner with id={} is retrieving {} items after cursor '{}'", ownerId, size, after);
+        return itemClient.getAllByOwnerIdAfter(ownerId, after, size)
+                .doOnNext(response -> log.info("Response: status = {}, headers = {}",
+                        response.getStatusCode(), response.getHeaders()));
+    }
+
+    @PatchMapping("/{itemId}")
+    public Mono<ResponseEntity<byte[]>> update(@RequestBody @Valid ItemDto itemDto,
+                                               @PathVariable long itemId,
+                                               @RequestHeader(Header.USER_ID_HEADER) long userId) {
+        log.info("User with id={} is updating item with id={}", userId, itemId);
+        return itemClient.update(userId, itemId, itemDto)
+                .doOnNext(response -> log.info("Response: status = {}", response.getStatusCode()));
+    }
+
+    @PostMapping("/{itemId}/comment")
+    public Mono<ResponseEntity<byte[]>> addComment(@RequestBody @Valid CommentRequestDto commentRequestDto,
+                                                   @PathVariable long itemId,
+                                                   @RequestHeader(Header.USER_ID_HEADER) long authorId) {
+        log.info("User with id={} is adding comment to item with id={}", authorId, itemId);
+        return itemClient.addComment(authorId, itemId, commentRequestDto)
+                .doOnNext(response -> log.info("Response: status = {}", response.getStatusCode()));
+    }
+}
@@ -0,0 +1,60 @@
+package ru.practicum.shareit.gateway.reactive.request;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.client.reactive.ClientHttpConnector;
+import org.springframework.stereotype.Service;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+import ru.practicum.shareit.gateway.reactive.util.client.BaseClient;
+import ru.practicum.shareit.gateway.util.cache.ResponseCache;
+import ru.practicum.shareit.gateway.request.dto.ItemRequestRequestDto;
+
+import java.util.Map;
+
+@Service
+public class ItemRequestClient extends BaseClient {
+    private static final String API_PREFIX = "/requests";
+
+    public ItemRequestClient(@Value("${shareit-server.url}") String serverUrl, WebClient.Builder builder,
+                             ClientHttpConnector connector, ResponseCache<ResponseEntity<byte[]>> responseCache) {
+        super(
+                builder
+                        .baseUrl(serverUrl + API_PREFIX)
+                        .clientConnector(connector)
+                        .build(),
+                ResponseCache.REQUESTS,
+                responseCache
+        );
+    }
+
+    public Mono<ResponseEntity<byte[]>> add(long authorId, ItemRequestRequestDto itemRequestDto) {
+        return post("", authorId, itemRequestDto);
+    }
+
+    public Mono<ResponseEntity<byte[]>> getAllByAuthorIdSortedByCreatedDesc(long authorId) {
+        return get("", authorId);
+    }
+
+    public Mono<ResponseEntity<byte[]>> getById(long userId, long requestId, String ifNoneMatch) {
+        return getCached("/" + requestId, userId, ifNoneMatch);
+    }
+
+    public Mono<ResponseEntity<byte[]>> getAllExceptAuthorIdSortedByCreatedDesc(long authorId, int from, int size) {
+        Map<String, Object> parameters = Map.of(
+                "from", from,
+                "size", size
+        );
+        return get("/all?from={from}&size={size}", authorId, parameters);
+    }
+
+    public Mono<ResponseEntity<byte[]>> getAllExceptAuthorIdAfter(long authorId, String after, int size,
+                                                                  String answers) {
+        Map<String, Object> parameters = Map.of(
+                "after", after,
+                "size", size,
+                "answers", answers
+        );
+        return get("/all?after={after}&size={size}&answers={answers}", authorId, parameters);
+    }
+}
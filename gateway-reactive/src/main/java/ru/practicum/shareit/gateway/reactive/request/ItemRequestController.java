@@ -0,0 +1,81 @@
+package ru.practicum.shareit.gateway.reactive.request;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Mono;
+import ru.practicum.shareit.gateway.request.dto.ItemRequestRequestDto;
+import ru.practicum.shareit.gateway.util.constant.Header;
+
+import javax.validation.Valid;
+import javax.validation.constraints.Max;
+import javax.validation.constraints.Pattern;
+import javax.validation.constraints.Positive;
+import javax.validation.constraints.PositiveOrZero;
+
+@Slf4j
+@RestController
+@RequestMapping(path = "/requests")
+@Validated
+public class ItemRequestController {
+    private final ItemRequestClient itemRequestClient;
+
+    public ItemRequestController(ItemRequestClient itemRequestClient) {
+        this.itemRequestClient = itemRequestClient;
+    }
+
+    @PostMapping
+    public Mono<ResponseEntity<byte[]>> add(@RequestHeader(Header.USER_ID_HEADER) long authorId,
+                                            @RequestBody @Valid ItemRequestRequestDto itemRequestDto) {
+        log.info("User with id={} is adding item request with a description='{}'",
+                authorId, itemRequestDto.getDescription());
+        return itemRequestClient.add(authorId, itemRequestDto)
+                .doOnNext(response -> log.info("Response: status = {}", response.getStatusCode()));
+    }
+
+    @GetMapping
+    public Mono<ResponseEntity<byte[]>> getAllByAuthorIdSortedByCreatedDesc(
+            @RequestHeader(Header.USER_ID_HEADER) long authorId) {
+        log.info("User with id={} is retrieving all his item requests", authorId);
+        return itemRequestClient.getAllByAuthorIdSortedByCreatedDesc(authorId)
+                .doOnNext(response -> log.info("Response: status = {}, headers = {}",
+                        response.getStatusCode(), response.getHeaders()));
+    }
+
+    @GetMapping("/{requestId}")
+    public Mono<ResponseEntity<byte[]>> getById(@RequestHeader(Header.USER_ID_HEADER) long userId,
+                                                @PathVariable long requestId,
+                                                @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false)
+                                                String ifNoneMatch) {
+        log.info("User with id={} is retrieving item request with id={}", userId, requestId);
+        return itemRequestClient.getById(userId, requestId, ifNoneMatch)
+                .doOnNext(response -> log.info("Response: status = {}", response.getStatusCode()));
+    }
+
+    @GetMapping("/all")
+    public Mono<ResponseEntity<byte[]>> getAllExceptAuthor(@RequestHeader(Header.USER_ID_HEADER) long authorId,
+                                                           @RequestParam(defaultValue = "0") @PositiveOrZero int from,
+                                                           @RequestParam(defaultValue = "10") @Positive int size) {
+        log.info("User with id={} is retrieving {} item requests except his starting from index {}",
+                authorId, size, from);
+        return itemRequestClient.getAllExceptAuthorIdSortedByCreatedDesc(authorId, from, size)
+                .doOnNext(response -> log.info("Response: status = {}, headers = {}",
+                        response.getStatusCode(), response.getHeaders()));
+    }
+
+    @GetMapping(path = "/all", params = "after")
+    public Mono<ResponseEntity<byte[]>> getAllExceptAuthorAfter(@RequestHeader(Header.USER_ID_HEADER) long authorId,
+                                                                @RequestParam String after,
+                                                                @RequestParam(defaultValue = "10")
+                                                                @Positive @Max(100) int size,
+                                                                @RequestParam(defaultValue = "items")
+                                                                @Pattern(regexp = "(?i)items|count") String answers) {
+        log.info("User with id={} is retrieving {} item requests except his after cursor '{}', answers = {}",
+                authorId, size, after, answers);
+        return itemRequestClient.getAllExceptAuthorIdAfter(authorId, after, size, answers.toUpperCase())
+                .doOnNext(response -> log.info("Response: status = {}, headers = {}",
+                        response.getStatusCode(), response.getHeaders()));
+    }
+}
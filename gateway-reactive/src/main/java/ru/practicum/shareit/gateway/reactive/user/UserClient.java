@@ -0,0 +1,73 @@
+package ru.practicum.shareit.gateway.reactive.user;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.client.reactive.ClientHttpConnector;
+import org.springframework.stereotype.Service;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+import ru.practicum.shareit.gateway.reactive.util.client.BaseClient;
+import ru.practicum.shareit.gateway.util.cache.ResponseCache;
+import ru.practicum.shareit.gateway.user.dto.UserDto;
+
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+@Service
+public class UserClient extends BaseClient {
+    private static final String API_PREFIX = "/users";
+
+    public UserClient(@Value("${shareit-server.url}") String serverUrl, WebClient.Builder builder,
+                      ClientHttpConnector connector, ResponseCache<ResponseEntity<byte[]>> responseCache) {
+        super(
+                builder
+                        .baseUrl(serverUrl + API_PREFIX)
+                        .clientConnector(connector)
+                        .build(),
+                ResponseCache.USERS,
+                responseCache
+        );
+    }
+
+    public Mono<ResponseEntity<byte[]>> add(UserDto userDto) {
+        return post("", userDto);
+    }
+
+    public Mono<ResponseEntity<byte[]>> addAll(List<UserDto> users) {
+        return post("/bulk", users);
+    }
+
+    public Mono<ResponseEntity<byte[]>> getAll() {
+        return get("");
+    }
+
+    public Mono<ResponseEntity<byte[]>> getAllByIds(List<Long> ids) {
+        Map<String, Object> parameters = Map.of(
+                "ids", ids.stream().map(String::valueOf).collect(Collectors.joining(","))
+        );
+        return get("?ids={ids}", null, parameters);
+    }
+
+    public Mono<ResponseEntity<byte[]>> getById(long id) {
+        return getCached("/" + id, null);
+    }
+
+    /**
+     * Items show names of their comments' authors, the items the user commented on are not known here,
+     * so all of them are evicted
+     */
+    public Mono<ResponseEntity<byte[]>> update(UserDto userDto) {
+        return evictOnSuccess(patch("/" + userDto.getId(), userDto), () -> {
+            responseCache.evict(ResponseCache.USERS, "/" + userDto.getId());
+            responseCache.evictRoute(ResponseCache.ITEMS);
+        });
+    }
+
+    /**
+     * Items and requests of the user go with him, so the whole cache is evicted
+     */
+    public Mono<ResponseEntity<byte[]>> delete(long id) {
+        return evictOnSuccess(delete("/" + id), responseCache::evictAll);
+    }
+}
@@ -0,0 +1,89 @@
+package ru.practicum.shareit.gateway.reactive.user;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Mono;
+import ru.practicum.shareit.gateway.reactive.util.bulk.BulkImporter;
+import ru.practicum.shareit.gateway.user.dto.UserDto;
+import ru.practicum.shareit.gateway.util.constraint_group.Creation;
+
+import javax.validation.Valid;
+import javax.validation.constraints.NotEmpty;
+import javax.validation.constraints.Size;
+import javax.validation.groups.Default;
+
+import java.util.List;
+
+@Slf4j
+@RestController
+@RequestMapping(path = "/users")
+@Validated
+public class UserController {
+
+    private final UserClient userClient;
+    private final BulkImporter bulkImporter;
+
+    public UserController(UserClient userClient, BulkImporter bulkImporter) {
+        this.userClient = userClient;
+        this.bulkImporter = bulkImporter;
+    }
+
+    @PostMapping
+    public Mono<ResponseEntity<byte[]>> add(@RequestBody @Validated({Creation.class, Default.class}) UserDto userDto) {
+        log.info("Adding user with email={}", userDto.getEmail());
+        return userClient.add(userDto)
+                .doOnNext(response -> log.info("Response: status = {}", response.getStatusCode()));
+    }
+
+    /**
+     * Body is ndjson or csv with a user per line, validated as in {@link #add}
+     */
+    @PostMapping("/bulk")
+    public Mono<ResponseEntity<byte[]>> addAll(@RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType,
+                                               ServerHttpRequest request) {
+        log.info("Importing users from {}", contentType);
+        return bulkImporter.importRows(request.getBody(), contentType, UserDto.class, userClient::addAll)
+                .doOnNext(response -> log.info("Response: status = {}", response.getStatusCode()));
+    }
+
+    @GetMapping
+    public Mono<ResponseEntity<byte[]>> getAll() {
+        log.info("Retrieving all users");
+        return userClient.getAll()
+                .doOnNext(response -> log.info("Response: status = {}, headers = {}",
+                        response.getStatusCode(), response.getHeaders()));
+    }
+
+    @GetMapping(params = "ids")
+    public Mono<ResponseEntity<byte[]>> getAllByIds(@RequestParam @NotEmpty @Size(max = 100) List<Long> ids) {
+        log.info("Retrieving users with ids={}", ids);
+        return userClient.getAllByIds(ids)
+                .doOnNext(response -> log.info("Response: status = {}", response.getStatusCode()));
+    }
+
+    @GetMapping("/{id}")
+    public Mono<ResponseEntity<byte[]>> getById(@PathVariable long id) {
+        log.info("Retrieving user with id={}", id);
+        return userClient.getById(id)
+                .doOnNext(response -> log.info("Response: status = {}", response.getStatusCode()));
+    }
+
+    @PatchMapping("/{id}")
+    public Mono<ResponseEntity<byte[]>> update(@RequestBody @Valid UserDto userDto, @PathVariable long id) {
+        userDto.setId(id);
+        log.info("Updating user with id={}", userDto.getId());
+        return userClient.update(userDto)
+                .doOnNext(response -> log.info("Response: status = {}", response.getStatusCode()));
+    }
+
+    @DeleteMapping("/{id}")
+    public Mono<ResponseEntity<byte[]>> delete(@PathVariable long id) {
+        log.info("Deleting user with id={}", id);
+        return userClient.delete(id)
+                .doOnNext(response -> log.info("Response: status = {}", response.getStatusCode()));
+    }
+}
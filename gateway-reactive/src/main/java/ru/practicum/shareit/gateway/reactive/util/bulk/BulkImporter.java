@@ -0,0 +1,103 @@
+package ru.practicum.shareit.gateway.reactive.util.bulk;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.ResolvableType;
+import org.springframework.core.codec.StringDecoder;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import ru.practicum.shareit.gateway.util.bulk.BulkFormat;
+import ru.practicum.shareit.gateway.util.bulk.BulkImportResult;
+import ru.practicum.shareit.gateway.util.bulk.BulkRow;
+import ru.practicum.shareit.gateway.util.bulk.BulkRowParser;
+
+import javax.validation.Validator;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Splits the request body of a bulk import into lines as it arrives and sends valid rows to the server in chunks,
+ * one chunk after another. The body is read only as far as the chunk being sent and the next one,
+ * so a slow server slows the client down instead of filling memory. Rows rejected by validation
+ * or by the server are collected into the report, the rest of the file is imported anyway.
+ * <p>
+ * If the server refuses a chunk as a whole, e.g. because the owner of the items doesn't exist,
+ * the import stops and the server's response is returned. Chunks sent before that stay imported
+ */
+@Component
+public class BulkImporter {
+    private static final StringDecoder LINE_DECODER = StringDecoder.allMimeTypes();
+    private static final ResolvableType STRING_TYPE = ResolvableType.forClass(String.class);
+
+    private final ObjectMapper objectMapper;
+    private final Validator validator;
+    private final int chunkSize;
+
+    public BulkImporter(ObjectMapper objectMapper, Validator validator,
+                        @Value("${shareit.bulk.chunk-size:1000}") int chunkSize) {
+        this.objectMapper = objectMapper;
+        this.validator = validator;
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * @param contentType value of the Content-Type header, selects the {@link BulkFormat}
+     * @param sendChunk   sends valid dtos to the server, which answers with {@link BulkImportResult} of the chunk
+     */
+    public <T> Mono<ResponseEntity<byte[]>> importRows(Flux<DataBuffer> body, String contentType, Class<T> type,
+                                                       Function<List<T>, Mono<ResponseEntity<byte[]>>> sendChunk) {
+        return Mono.defer(() -> {
+            BulkRowParser<T> parser = new BulkRowParser<>(BulkFormat.of(contentType), type, objectMapper, validator);
+            BulkImportResult report = new BulkImportResult();
+            AtomicLong lineNumber = new AtomicLong();
+            return LINE_DECODER.decode(body, STRING_TYPE, null, Map.of())
+                    .<BulkRow<T>>handle((line, sink) -> {
+                        BulkRow<T> row = parser.parse(lineNumber.incrementAndGet(), line);
+                        if (row == null) {
+                            return;
+                        }
+                        if (row.isRejected()) {
+                            report.reject(row.getLine(), row.getError());
+                        } else {
+                            sink.next(row);
+                        }
+                    })
+                    .buffer(chunkSize)
+                    //the next chunk is assembled while the current one is sent, no more are read ahead
+                    .concatMap(chunk -> send(chunk, sendChunk, report), 1)
+                    .filter(response -> !response.getStatusCode().is2xxSuccessful())
+                    .next()
+                    .switchIfEmpty(Mono.fromCallable(() -> {
+                        report.sortErrors();
+                        return ResponseEntity.ok()
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .body(objectMapper.writeValueAsBytes(report));
+                    }));
+        });
+    }
+
+    private <T> Mono<ResponseEntity<byte[]>> send(List<BulkRow<T>> chunk,
+                                                  Function<List<T>, Mono<ResponseEntity<byte[]>>> sendChunk,
+                                                  BulkImportResult report) {
+        return sendChunk.apply(chunk.stream().map(BulkRow::getValue).collect(Collectors.toList()))
+                .doOnNext(response -> {
+                    if (!response.getStatusCode().is2xxSuccessful()) {
+                        return;
+                    }
+                    try {
+                        report.addChunk(chunk, objectMapper.readValue(response.getBody(), BulkImportResult.class));
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+    }
+}
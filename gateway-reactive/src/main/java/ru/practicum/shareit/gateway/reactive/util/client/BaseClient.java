@@ -0,0 +1,204 @@
+package ru.practicum.shareit.gateway.reactive.util.client;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.lang.Nullable;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+import ru.practicum.shareit.gateway.util.cache.EntityTags;
+import ru.practicum.shareit.gateway.util.cache.ResponseCache;
+import ru.practicum.shareit.gateway.util.constant.Header;
+
+import java.util.List;
+import java.util.Map;
+
+public class BaseClient {
+    /**
+     * Headers of the server's response that describe the body. Connection related ones are left to the gateway
+     */
+    private static final List<String> PASSED_HEADERS = List.of(
+            HttpHeaders.CONTENT_TYPE,
+            HttpHeaders.CONTENT_LANGUAGE,
+            HttpHeaders.LOCATION,
+            HttpHeaders.ETAG,
+            HttpHeaders.LAST_MODIFIED,
+            HttpHeaders.CACHE_CONTROL
+    );
+
+    private static final byte[] EMPTY_BODY = new byte[0];
+
+    protected final WebClient webClient;
+
+    /**
+     * Route of the client in the response cache, null if the client doesn't cache
+     */
+    private final String route;
+    protected final ResponseCache<ResponseEntity<byte[]>> responseCache;
+
+    public BaseClient(WebClient webClient) {
+        this(webClient, null, ResponseCache.disabled());
+    }
+
+    public BaseClient(WebClient webClient, String route, ResponseCache<ResponseEntity<byte[]>> responseCache) {
+        this.webClient = webClient;
+        this.route = route;
+        this.responseCache = responseCache;
+    }
+
+    protected Mono<ResponseEntity<byte[]>> get(String path) {
+        return get(path, null, null);
+    }
+
+    protected Mono<ResponseEntity<byte[]>> get(String path, long userId) {
+        return get(path, userId, null);
+    }
+
+    /**
+     * Same as {@link #get(String, long)}, but successful responses are kept in the response cache,
+     * if it is enabled for the client's route
+     */
+    protected Mono<ResponseEntity<byte[]>> getCached(String path, Long userId) {
+        return getCached(path, userId, null);
+    }
+
+    /**
+     * Conditional variant of {@link #getCached(String, Long)}. A cached response with the tag the client
+     * already has is turned into 304, otherwise If-None-Match is sent to the server, which may answer 304 itself.
+     * Only 200 is cached, so the entry never depends on the client's header
+     */
+    protected Mono<ResponseEntity<byte[]>> getCached(String path, Long userId, @Nullable String ifNoneMatch) {
+        if (route == null || !responseCache.isCached(route)) {
+            return get(path, userId, null, ifNoneMatch);
+        }
+        return Mono.defer(() -> {
+            ResponseCache.Key key = new ResponseCache.Key(route, path, userId);
+            ResponseEntity<byte[]> cached = responseCache.get(key);
+            if (cached != null) {
+                return Mono.just(notModifiedOr(cached, ifNoneMatch));
+            }
+            long stamp = responseCache.stamp();
+            return get(path, userId, null, ifNoneMatch).doOnNext(response -> {
+                if (response.getStatusCode() == HttpStatus.OK) {
+                    responseCache.put(key, response, stamp);
+                }
+            });
+        });
+    }
+
+    /**
+     * Runs the eviction if the server accepted the mutation, so the next read gets the changed resource
+     */
+    protected static Mono<ResponseEntity<byte[]>> evictOnSuccess(Mono<ResponseEntity<byte[]>> response,
+                                                                 Runnable eviction) {
+        return response.doOnNext(r -> {
+            if (r.getStatusCode().is2xxSuccessful()) {
+                eviction.run();
+            }
+        });
+    }
+
+    protected Mono<ResponseEntity<byte[]>> get(String path, Long userId, @Nullable Map<String, Object> parameters) {
+        return get(path, userId, parameters, null);
+    }
+
+    /**
+     * @param ifNoneMatch client's If-None-Match header, passed to the server as is. Its 304 is passed back with the tag
+     */
+    protected Mono<ResponseEntity<byte[]>> get(String path, Long userId, @Nullable Map<String, Object> parameters,
+                                               @Nullable String ifNoneMatch) {
+        return makeAndSendRequest(HttpMethod.GET, path, userId, parameters, null, ifNoneMatch);
+    }
+
+    protected <T> Mono<ResponseEntity<byte[]>> post(String path, T body) {
+        return post(path, null, null, body);
+    }
+
+    protected <T> Mono<ResponseEntity<byte[]>> post(String path, long userId, T body) {
+        return post(path, userId, null, body);
+    }
+
+    protected <T> Mono<ResponseEntity<byte[]>> post(String path, Long userId, @Nullable Map<String, Object> parameters,
+                                                    T body) {
+        return makeAndSendRequest(HttpMethod.POST, path, userId, parameters, body, null);
+    }
+
+    protected <T> Mono<ResponseEntity<byte[]>> patch(String path, T body) {
+        return patch(path, null, null, body);
+    }
+
+    protected <T> Mono<ResponseEntity<byte[]>> patch(String path, long userId, T body) {
+        return patch(path, userId, null, body);
+    }
+
+    protected <T> Mono<ResponseEntity<byte[]>> patch(String path, Long userId, @Nullable Map<String, Object> parameters,
+                                                     T body) {
+        return makeAndSendRequest(HttpMethod.PATCH, path, userId, parameters, body, null);
+    }
+
+    protected Mono<ResponseEntity<byte[]>> delete(String path) {
+        return delete(path, null, null);
+    }
+
+    protected Mono<ResponseEntity<byte[]>> delete(String path, Long userId, @Nullable Map<String, Object> parameters) {
+        return makeAndSendRequest(HttpMethod.DELETE, path, userId, parameters, null, null);
+    }
+
+    /**
+     * The server's response body is passed to the caller as raw bytes together with the headers from
+     * {@link #PASSED_HEADERS}, error statuses included, so the gateway never parses the json it only forwards
+     */
+    private <T> Mono<ResponseEntity<byte[]>> makeAndSendRequest(HttpMethod method, String path, Long userId,
+                                                                @Nullable Map<String, Object> parameters,
+                                                                @Nullable T body, @Nullable String ifNoneMatch) {
+        WebClient.RequestBodySpec request = webClient.method(method)
+                .uri(path, parameters != null ? parameters : Map.of())
+                .headers(headers -> {
+                    setDefaultHeaders(headers, userId);
+                    if (ifNoneMatch != null) {
+                        headers.set(HttpHeaders.IF_NONE_MATCH, ifNoneMatch);
+                    }
+                });
+        WebClient.RequestHeadersSpec<?> requestWithBody = body != null ? request.bodyValue(body) : request;
+
+        return requestWithBody.exchangeToMono(shareitServerResponse -> shareitServerResponse
+                .bodyToMono(byte[].class)
+                .defaultIfEmpty(EMPTY_BODY)
+                .map(responseBody -> prepareGatewayResponse(shareitServerResponse.rawStatusCode(),
+                        shareitServerResponse.headers().asHttpHeaders(), responseBody)));
+    }
+
+    private static void setDefaultHeaders(HttpHeaders headers, Long userId) {
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        headers.setAccept(List.of(MediaType.APPLICATION_JSON));
+        if (userId != null) {
+            headers.set(Header.USER_ID_HEADER, String.valueOf(userId));
+        }
+    }
+
+    private static ResponseEntity<byte[]> notModifiedOr(ResponseEntity<byte[]> cached, @Nullable String ifNoneMatch) {
+        String etag = cached.getHeaders().getETag();
+        if (!EntityTags.matches(ifNoneMatch, etag)) {
+            return cached;
+        }
+        return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+    }
+
+    private static ResponseEntity<byte[]> prepareGatewayResponse(int status, HttpHeaders headers, byte[] body) {
+        ResponseEntity.BodyBuilder responseBuilder = ResponseEntity.status(status);
+        for (String header : PASSED_HEADERS) {
+            List<String> values = headers.get(header);
+            if (values != null) {
+                responseBuilder.header(header, values.toArray(new String[0]));
+            }
+        }
+
+        if (body.length > 0) {
+            return responseBuilder.body(body);
+        }
+
+        return responseBuilder.build();
+    }
+}
@@ -0,0 +1,31 @@
+package ru.practicum.shareit.gateway.reactive.util.client;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Limits of the connection pool shared by all clients of the shareit server
+ */
+@Data
+@ConfigurationProperties(prefix = "shareit-server.http-client")
+public class WebClientProperties {
+    /**
+     * Connections are not bound to a thread here, so the pool may be larger than the servlet gateway's one
+     */
+    private int maxConnections = 500;
+
+    /**
+     * How long a request waits for a free connection from the pool
+     */
+    private Duration poolTimeout = Duration.ofSeconds(2);
+    private Duration connectTimeout = Duration.ofSeconds(2);
+    private Duration readTimeout = Duration.ofSeconds(10);
+
+    /**
+     * Connections idle for longer are closed. Should be shorter than the server's keep-alive timeout,
+     * 20 seconds for Tomcat by default, or the server may close a connection that is just being reused
+     */
+    private Duration maxIdleTime = Duration.ofSeconds(15);
+}
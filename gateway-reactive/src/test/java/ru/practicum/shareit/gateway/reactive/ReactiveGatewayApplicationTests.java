@@ -0,0 +1,15 @@
+package ru.practicum.shareit.gateway.reactive;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.TestPropertySource;
+
+@SpringBootTest
+@TestPropertySource(locations = "classpath:test.properties")
+class ReactiveGatewayApplicationTests {
+
+    @Test
+    void contextLoads() {
+    }
+
+}
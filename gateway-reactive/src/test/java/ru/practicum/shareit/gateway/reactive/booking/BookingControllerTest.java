@@ -0,0 +1,124 @@
+package ru.practicum.shareit.gateway.reactive.booking;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.WebFluxTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import ru.practicum.shareit.gateway.booking.dto.BookingDecisionBatchDto;
+import ru.practicum.shareit.gateway.booking.dto.BookingRequestDto;
+import ru.practicum.shareit.gateway.util.constant.Header;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.hamcrest.Matchers.containsString;
+
+@WebFluxTest(BookingController.class)
+@MockBean(BookingClient.class)
+class BookingControllerTest {
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @Test
+    @DisplayName("Should throw exception when start is before end")
+    public void addWhenStartBeforeEnd() throws Exception {
+        long bookerId = 1L;
+
+        LocalDateTime now = LocalDateTime.now();
+        BookingRequestDto bookingRequestDto = new BookingRequestDto(now.plusDays(2), now.plusDays(1), 1);
+
+        ObjectMapper mapper = new ObjectMapper();
+        mapper.registerModule(new JavaTimeModule());
+        webTestClient.post().uri("/bookings")
+                .header(Header.USER_ID_HEADER, String.valueOf(bookerId))
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(mapper.writeValueAsString(bookingRequestDto))
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectBody()
+                .jsonPath("$.error").isEqualTo("Validation failed")
+                .jsonPath("$.objectValidationViolations[0].message").isEqualTo("start time must be before end time");
+    }
+
+    @Test
+    @DisplayName("Should throw exception when unknown booking state")
+    public void getAllByBookerIdSortedByStartTimeDesc() {
+        webTestClient.get().uri("/bookings?state={state}&from={from}&size={size}", "Unknown", 0, 10)
+                .header(Header.USER_ID_HEADER, "1")
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectBody()
+                .jsonPath("$.error").isEqualTo("Unknown state: Unknown");
+    }
+
+    @Test
+    @DisplayName("Should throw exception when size is not positive in cursor mode")
+    public void getAllByItemOwnerIdAfterWhenSizeNotPositive() {
+        webTestClient.get().uri("/bookings/owner?after=&size=0")
+                .header(Header.USER_ID_HEADER, "1")
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectBody()
+                .jsonPath("$.httpAttributeValidationViolations[0].name").isEqualTo("size");
+    }
+
+    @Test
+    @DisplayName("Should throw exception when size is too large in cursor mode")
+    public void getAllAfterWhenSizeTooLarge() {
+        webTestClient.get().uri("/bookings?after=&size=" + Integer.MAX_VALUE)
+                .header(Header.USER_ID_HEADER, "1")
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectBody()
+                .jsonPath("$.httpAttributeValidationViolations[0].name").isEqualTo("size");
+        webTestClient.get().uri("/bookings/owner?after=&size=101")
+                .header(Header.USER_ID_HEADER, "1")
+                .exchange()
+                .expectStatus().isBadRequest();
+    }
+
+    @Test
+    @DisplayName("Should throw exception when user id header is missing or not a number")
+    public void getByIdWhenUserIdHeaderIsWrong() {
+        webTestClient.get().uri("/bookings/1")
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectBody()
+                .jsonPath("$.error").value(containsString(Header.USER_ID_HEADER));
+
+        webTestClient.get().uri("/bookings/1")
+                .header(Header.USER_ID_HEADER, "one")
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectBody()
+                .jsonPath("$.error")
+                .isEqualTo("Http attribute 'X-Sharer-User-Id' must be of type 'long', but was equal to 'one'");
+    }
+
+    @Test
+    @DisplayName("Should throw exception when the batch has no decisions")
+    public void changeStatusesWhenNoDecisions() {
+        webTestClient.patch().uri("/bookings/owner/batch")
+                .header(Header.USER_ID_HEADER, "1")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(new BookingDecisionBatchDto(List.of(), true))
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectBody()
+                .jsonPath("$.error").isEqualTo("Validation failed");
+    }
+
+    @Test
+    @DisplayName("Should throw exception when no ids are given")
+    public void getAllByIdsWhenNoIds() {
+        webTestClient.get().uri("/bookings?ids=")
+                .header(Header.USER_ID_HEADER, "1")
+                .exchange()
+                .expectStatus().isBadRequest();
+    }
+}
@@ -0,0 +1,179 @@
+package ru.practicum.shareit.gateway.reactive.item;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.WebFluxTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Mono;
+import ru.practicum.shareit.gateway.item.dto.CommentRequestDto;
+import ru.practicum.shareit.gateway.item.dto.ItemDto;
+import ru.practicum.shareit.gateway.reactive.util.bulk.BulkImporter;
+import ru.practicum.shareit.gateway.util.constant.Header;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@WebFluxTest(value = ItemController.class, properties = "shareit.bulk.chunk-size=1")
+@MockBean(ItemClient.class)
+@Import(BulkImporter.class)
+class ItemControllerTest {
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @Autowired
+    private ItemClient itemClient;
+
+    @Test
+    @DisplayName("Should throw exception when creating item without name")
+    public void addWithoutName() {
+        webTestClient.post().uri("/items")
+                .header(Header.USER_ID_HEADER, "1")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(new ItemDto(0, null, "description", true, 0, 0))
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectBody()
+                .jsonPath("$.fieldValidationViolations[0].field").isEqualTo("name");
+    }
+
+    @Test
+    @DisplayName("Should throw exception when search mode is unknown")
+    public void searchWithUnknownMode() {
+        webTestClient.get().uri("/items/search?text=drill&mode=fuzzy")
+                .header(Header.USER_ID_HEADER, "1")
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectBody()
+                .jsonPath("$.httpAttributeValidationViolations[0].name").isEqualTo("mode");
+    }
+
+    @Test
+    @DisplayName("Should throw exception when search sort is unknown")
+    public void searchWithUnknownSort() {
+        webTestClient.get().uri("/items/search?text=drill&sort=name")
+                .header(Header.USER_ID_HEADER, "1")
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectBody()
+                .jsonPath("$.httpAttributeValidationViolations[0].name").isEqualTo("sort");
+    }
+
+    @Test
+    @DisplayName("Should throw exception when rating of comment is out of range")
+    public void addCommentWithRatingOutOfRange() {
+        webTestClient.post().uri("/items/1/comment")
+                .header(Header.USER_ID_HEADER, "1")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(new CommentRequestDto("text", 6))
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectBody()
+                .jsonPath("$.fieldValidationViolations[0].field").isEqualTo("rating");
+    }
+
+    @Test
+    @DisplayName("Should throw exception when availability 'from' is not before 'to'")
+    public void getAvailabilityWhenFromAfterTo() {
+        webTestClient.get().uri("/items/1/availability?from=2030-01-02T10:00:00&to=2030-01-01T10:00:00")
+                .header(Header.USER_ID_HEADER, "1")
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectBody()
+                .jsonPath("$.objectValidationViolations[0].message").isEqualTo("'from' must be before 'to'");
+    }
+
+    @Test
+    @DisplayName("Should send valid items of csv import in chunks and report the rest by line")
+    public void addAllFromCsv() {
+        String body = "name,description,available,requestId\r\n" +
+                "Drill,\"Cordless, 18V\",true,\r\n" +
+                ",No name,true,\r\n" +
+                "Saw,Hand saw,false,7\r\n";
+        when(itemClient.addAll(1, List.of(new ItemDto(0, "Drill", "Cordless, 18V", true, 0, 0))))
+                .thenReturn(Mono.just(ResponseEntity.ok("{\"imported\":1,\"errors\":[]}"
+                        .getBytes(StandardCharsets.UTF_8))));
+        when(itemClient.addAll(1, List.of(new ItemDto(0, "Saw", "Hand saw", false, 0, 7))))
+                .thenReturn(Mono.just(ResponseEntity.ok(("{\"imported\":0,\"errors\":[" +
+                        "{\"row\":1,\"error\":\"Item request with id=7 not found\"}]}").getBytes(StandardCharsets.UTF_8))));
+
+        webTestClient.post().uri("/items/bulk")
+                .header(Header.USER_ID_HEADER, "1")
+                .contentType(MediaType.parseMediaType("text/csv"))
+                .bodyValue(body)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.imported").isEqualTo(1)
+                .jsonPath("$.errors[0].row").isEqualTo(3)
+                .jsonPath("$.errors[0].error").isEqualTo("name must not be null")
+                .jsonPath("$.errors[1].row").isEqualTo(4)
+                .jsonPath("$.errors[1].error").isEqualTo("Item request with id=7 not found");
+        verify(itemClient, times(2)).addAll(anyLong(), any());
+    }
+
+    @Test
+    @DisplayName("Should stop bulk import and return server's response when it refuses a chunk")
+    public void addAllWhenServerRefusesChunk() {
+        byte[] serverBody = "{\"error\":\"User with id=1 not found\"}".getBytes(StandardCharsets.UTF_8);
+        when(itemClient.addAll(anyLong(), any())).thenReturn(Mono.just(ResponseEntity.status(HttpStatus.NOT_FOUND)
+                .body(serverBody)));
+
+        webTestClient.post().uri("/items/bulk")
+                .header(Header.USER_ID_HEADER, "1")
+                .contentType(MediaType.parseMediaType("application/x-ndjson"))
+                .bodyValue("{\"name\":\"Drill\",\"description\":\"Drill\",\"available\":true}\n" +
+                        "{\"name\":\"Saw\",\"description\":\"Saw\",\"available\":true}\n")
+                .exchange()
+                .expectStatus().isNotFound()
+                .expectBody(byte[].class).isEqualTo(serverBody);
+        verify(itemClient, times(1)).addAll(anyLong(), any());
+    }
+
+    @Test
+    @DisplayName("Should throw exception when size is not positive in cursor mode")
+    public void getAllByOwnerIdAfterWhenSizeNotPositive() {
+        webTestClient.get().uri("/items?after=&size=0")
+                .header(Header.USER_ID_HEADER, "1")
+                .exchange()
+                .expectStatus().isBadRequest();
+    }
+
+    @Test
+    @DisplayName("Should throw exception when size is too large in cursor mode")
+    public void getAllByOwnerIdAfterWhenSizeTooLarge() {
+        webTestClient.get().uri("/items?after=&size=" + Integer.MAX_VALUE)
+                .header(Header.USER_ID_HEADER, "1")
+                .exchange()
+                .expectStatus().isBadRequest();
+    }
+
+    @Test
+    @DisplayName("Should throw exception when size of comments is not positive")
+    public void getCommentsWhenSizeNotPositive() {
+        webTestClient.get().uri("/items/1/comments?size=0")
+                .header(Header.USER_ID_HEADER, "1")
+                .exchange()
+                .expectStatus().isBadRequest();
+    }
+
+    @Test
+    @DisplayName("Should throw exception when size of comments is too large")
+    public void getCommentsWhenSizeTooLarge() {
+        webTestClient.get().uri("/items/1/comments?size=" + Integer.MAX_VALUE)
+                .header(Header.USER_ID_HEADER, "1")
+                .exchange()
+                .expectStatus().isBadRequest();
+    }
+}
@@ -0,0 +1,64 @@
+package ru.practicum.shareit.gateway.reactive.request;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.WebFluxTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import ru.practicum.shareit.gateway.request.dto.ItemRequestRequestDto;
+import ru.practicum.shareit.gateway.util.constant.Header;
+
+@WebFluxTest(ItemRequestController.class)
+@MockBean(ItemRequestClient.class)
+class ItemRequestControllerTest {
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @Test
+    @DisplayName("Should throw exception when description is blank")
+    public void addWithBlankDescription() {
+        webTestClient.post().uri("/requests")
+                .header(Header.USER_ID_HEADER, "1")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(new ItemRequestRequestDto(" "))
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectBody()
+                .jsonPath("$.fieldValidationViolations[0].field").isEqualTo("description");
+    }
+
+    @Test
+    @DisplayName("Should throw exception when from is negative")
+    public void getAllExceptAuthorWhenFromIsNegative() {
+        webTestClient.get().uri("/requests/all?from=-1&size=10")
+                .header(Header.USER_ID_HEADER, "1")
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectBody()
+                .jsonPath("$.httpAttributeValidationViolations[0].name").isEqualTo("from");
+    }
+
+    @Test
+    @DisplayName("Should throw exception when size is not positive in cursor mode")
+    public void getAllExceptAuthorAfterWhenSizeNotPositive() {
+        webTestClient.get().uri("/requests/all?after=&size=0")
+                .header(Header.USER_ID_HEADER, "1")
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectBody()
+                .jsonPath("$.httpAttributeValidationViolations[0].name").isEqualTo("size");
+    }
+
+    @Test
+    @DisplayName("Should throw exception when size is too large in cursor mode")
+    public void getAllExceptAuthorAfterWhenSizeTooLarge() {
+        webTestClient.get().uri("/requests/all?after=&size=" + Integer.MAX_VALUE)
+                .header(Header.USER_ID_HEADER, "1")
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectBody()
+                .jsonPath("$.httpAttributeValidationViolations[0].name").isEqualTo("size");
+    }
+}
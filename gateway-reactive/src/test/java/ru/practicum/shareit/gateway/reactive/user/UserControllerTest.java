@@ -0,0 +1,118 @@
+package ru.practicum.shareit.gateway.reactive.user;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.WebFluxTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Mono;
+import ru.practicum.shareit.gateway.reactive.util.bulk.BulkImporter;
+import ru.practicum.shareit.gateway.user.dto.UserDto;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.hamcrest.Matchers.startsWith;
+import static org.mockito.Mockito.when;
+
+@WebFluxTest(UserController.class)
+@Import(BulkImporter.class)
+class UserControllerTest {
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @MockBean
+    private UserClient userClient;
+
+    @Test
+    @DisplayName("Should throw exception when add user with not well-formed email")
+    public void addUserWithNotWellFormedEmail() {
+        webTestClient.post().uri("/users")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(new UserDto(1L, "John Doe", "john.doe"))
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectBody()
+                .jsonPath("$.fieldValidationViolations[0].field").isEqualTo("email");
+    }
+
+    @Test
+    @DisplayName("Should throw exception when creating with null fields")
+    public void addWhenNullFieldsThenThrow() {
+        webTestClient.post().uri("/users")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(new UserDto(1L, null, null))
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectBody()
+                .jsonPath("$.fieldValidationViolations.length()").isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("Should throw exception when body is not json")
+    public void addWhenBodyIsCorrupted() {
+        webTestClient.post().uri("/users")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue("{name:")
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectBody()
+                .jsonPath("$.error").value(startsWith("Http request is corrupted"));
+    }
+
+    @Test
+    @DisplayName("Shouldn't throw exception when updating with null fields and should pass server's response as is")
+    public void updateWhenNullFields() {
+        long userId = 1;
+        UserDto userDto = new UserDto(userId, null, null);
+        byte[] serverBody = "{\"id\":1,\"name\":\"John Doe\"}".getBytes(StandardCharsets.UTF_8);
+        when(userClient.update(userDto)).thenReturn(Mono.just(ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(serverBody)));
+
+        webTestClient.patch().uri("/users/{userId}", userId)
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(userDto)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentType(MediaType.APPLICATION_JSON)
+                .expectBody(byte[].class).isEqualTo(serverBody);
+    }
+
+    @Test
+    @DisplayName("Should send valid users of ndjson import and report the rest by line")
+    public void addAllFromNdjson() {
+        String body = "{\"name\":\"John\",\"email\":\"john@mail.com\"}\n" +
+                "{\"name\":\"Bad\",\"email\":\"bad\"}\n" +
+                "{\"name\":\"Jane\",\"email\":\"jane@mail.com\"}";
+        when(userClient.addAll(List.of(new UserDto(0, "John", "john@mail.com"), new UserDto(0, "Jane", "jane@mail.com"))))
+                .thenReturn(Mono.just(ResponseEntity.ok(("{\"imported\":1,\"errors\":[" +
+                        "{\"row\":2,\"error\":\"Email already exists\"}]}").getBytes(StandardCharsets.UTF_8))));
+
+        webTestClient.post().uri("/users/bulk")
+                .contentType(MediaType.parseMediaType("application/x-ndjson"))
+                .bodyValue(body)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.imported").isEqualTo(1)
+                .jsonPath("$.errors[0].row").isEqualTo(2)
+                .jsonPath("$.errors[0].error").isEqualTo("email must be a well-formed email address")
+                .jsonPath("$.errors[1].row").isEqualTo(3)
+                .jsonPath("$.errors[1].error").isEqualTo("Email already exists");
+    }
+
+    @Test
+    @DisplayName("Should refuse bulk import in unsupported format")
+    public void addAllWhenUnsupportedFormat() {
+        webTestClient.post().uri("/users/bulk")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue("[]")
+                .exchange()
+                .expectStatus().isEqualTo(415);
+    }
+}
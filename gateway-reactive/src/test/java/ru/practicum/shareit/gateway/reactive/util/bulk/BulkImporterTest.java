@@ -0,0 +1,86 @@
+package ru.practicum.shareit.gateway.reactive.util.bulk;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.module.paramnames.ParameterNamesModule;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.ResponseEntity;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.test.StepVerifier;
+import ru.practicum.shareit.gateway.user.dto.UserDto;
+import ru.practicum.shareit.gateway.util.bulk.BulkImportResult;
+
+import javax.validation.Validation;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BulkImporterTest {
+    private static final int CHUNK_SIZE = 100;
+    private static final int LINES = 10_000;
+    /**
+     * The chunk being sent, the next one and the line that doesn't fit into it
+     */
+    private static final int MAX_READ_AHEAD = 2 * CHUNK_SIZE + 1;
+
+    //dtos are created by their constructors, as Spring Boot's mapper does
+    private final ObjectMapper objectMapper = new ObjectMapper().registerModule(new ParameterNamesModule());
+    private final BulkImporter importer = new BulkImporter(objectMapper,
+            Validation.buildDefaultValidatorFactory().getValidator(), CHUNK_SIZE);
+
+    @Test
+    @DisplayName("Should read the body no further than the next chunk while the server answers the current one")
+    void importRowsReadsAheadOneChunk() {
+        AtomicInteger read = new AtomicInteger();
+        Flux<DataBuffer> body = Flux.range(0, LINES)
+                .<DataBuffer>map(i -> DefaultDataBufferFactory.sharedInstance.wrap(
+                        String.format("{\"name\": \"user\", \"email\": \"user%d@mail.com\"}%n", i)
+                                .getBytes(StandardCharsets.UTF_8)))
+                .doOnNext(buffer -> read.incrementAndGet());
+        Sinks.One<ResponseEntity<byte[]>> firstResponse = Sinks.one();
+        List<Integer> chunkSizes = new ArrayList<>();
+
+        StepVerifier.create(importer.importRows(body, "application/x-ndjson", UserDto.class, users -> {
+                    chunkSizes.add(users.size());
+                    return chunkSizes.size() == 1 ? firstResponse.asMono() : Mono.just(imported(users.size()));
+                }))
+                .then(() -> {
+                    assertEquals(List.of(CHUNK_SIZE), chunkSizes);
+                    assertTrue(read.get() <= MAX_READ_AHEAD, read.get() + " lines read");
+                    firstResponse.tryEmitValue(imported(CHUNK_SIZE));
+                })
+                .assertNext(response -> assertEquals(LINES, readResult(response.getBody()).getImported()))
+                .verifyComplete();
+
+        assertEquals(LINES / CHUNK_SIZE, chunkSizes.size());
+        assertEquals(LINES, read.get());
+    }
+
+    private ResponseEntity<byte[]> imported(int rows) {
+        BulkImportResult result = new BulkImportResult();
+        result.setImported(rows);
+        try {
+            return ResponseEntity.ok(objectMapper.writeValueAsBytes(result));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private BulkImportResult readResult(byte[] body) {
+        try {
+            return objectMapper.readValue(body, BulkImportResult.class);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,183 @@
+package ru.practicum.shareit.gateway.reactive.util.client;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+import ru.practicum.shareit.gateway.util.cache.ResponseCache;
+import ru.practicum.shareit.gateway.util.cache.ResponseCacheProperties;
+import ru.practicum.shareit.gateway.util.constant.Header;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BaseClientTest {
+    private static final String SERVER_BODY = "[{\"id\":1,\"name\":\"item\"}]";
+
+    private final AtomicReference<ClientRequest> sentRequest = new AtomicReference<>();
+
+    @Test
+    @DisplayName("Should pass server's body and content headers, but not connection ones")
+    public void passesBodyAndContentHeaders() {
+        TestClient client = new TestClient(respondWith(ClientResponse.create(HttpStatus.OK)
+                .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                .header(HttpHeaders.ETAG, "\"1\"")
+                .header(HttpHeaders.CONNECTION, "close")
+                .body(SERVER_BODY)
+                .build()));
+
+        ResponseEntity<byte[]> response = client.get("/items?from={from}", 1L, Map.of("from", 0)).block();
+
+        assertNotNull(response);
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(MediaType.APPLICATION_JSON, response.getHeaders().getContentType());
+        assertEquals("\"1\"", response.getHeaders().getETag());
+        assertFalse(response.getHeaders().containsKey(HttpHeaders.CONNECTION));
+        assertArrayEquals(SERVER_BODY.getBytes(StandardCharsets.UTF_8), response.getBody());
+
+        ClientRequest request = sentRequest.get();
+        assertEquals(HttpMethod.GET, request.method());
+        assertEquals("http://server:9090/items?from=0", request.url().toString());
+        assertEquals("1", request.headers().getFirst(Header.USER_ID_HEADER));
+    }
+
+    @Test
+    @DisplayName("Should pass server's error status and body")
+    public void passesErrorResponse() {
+        String error = "{\"error\":\"Item not found\"}";
+        TestClient client = new TestClient(respondWith(ClientResponse.create(HttpStatus.NOT_FOUND)
+                .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                .body(error)
+                .build()));
+
+        ResponseEntity<byte[]> response = client.get("/items/1").block();
+
+        assertNotNull(response);
+        assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
+        assertEquals(MediaType.APPLICATION_JSON, response.getHeaders().getContentType());
+        assertArrayEquals(error.getBytes(StandardCharsets.UTF_8), response.getBody());
+    }
+
+    @Test
+    @DisplayName("Should send json body and return response without body when server sent none")
+    public void sendsJsonBody() {
+        TestClient client = new TestClient(respondWith(ClientResponse.create(HttpStatus.OK).build()));
+
+        ResponseEntity<byte[]> response = client.patch("/items/1", 1L, Map.of("name", "item")).block();
+
+        assertNotNull(response);
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertFalse(response.hasBody());
+
+        ClientRequest request = sentRequest.get();
+        assertEquals(HttpMethod.PATCH, request.method());
+        assertEquals(MediaType.APPLICATION_JSON, request.headers().getContentType());
+    }
+
+    @Test
+    @DisplayName("Should pass client's If-None-Match to the server and server's 304 back")
+    public void passesNotModified() {
+        TestClient client = new TestClient(respondWith(ClientResponse.create(HttpStatus.NOT_MODIFIED)
+                .header(HttpHeaders.ETAG, "W/\"1\"")
+                .build()));
+
+        ResponseEntity<byte[]> response = client.get("/items/1", 1L, null, "W/\"1\"").block();
+
+        assertNotNull(response);
+        assertEquals(HttpStatus.NOT_MODIFIED, response.getStatusCode());
+        assertEquals("W/\"1\"", response.getHeaders().getETag());
+        assertFalse(response.hasBody());
+        assertEquals("W/\"1\"", sentRequest.get().headers().getFirst(HttpHeaders.IF_NONE_MATCH));
+    }
+
+    @Test
+    @DisplayName("Should serve a cached response till a mutation evicts it")
+    public void cachesResponsesTillEvicted() {
+        ResponseCacheProperties properties = new ResponseCacheProperties();
+        properties.setEnabled(true);
+        properties.setTtl(Map.of(ResponseCache.ITEMS, Duration.ofMinutes(1)));
+        AtomicInteger sent = new AtomicInteger();
+        WebClient webClient = WebClient.builder()
+                .baseUrl("http://server:9090/items")
+                .exchangeFunction(request -> {
+                    sent.incrementAndGet();
+                    return Mono.just(ClientResponse.create(HttpStatus.OK)
+                            .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                            .body(SERVER_BODY)
+                            .build());
+                })
+                .build();
+        TestClient client = new TestClient(webClient, new ResponseCache<>(properties));
+
+        ResponseEntity<byte[]> first = client.getCached("/1", 1L).block();
+        assertSame(first, client.getCached("/1", 1L).block());
+        assertEquals(1, sent.get());
+        client.getCached("/1", 2L).block();
+        assertEquals(2, sent.get());
+
+        client.evictOnSuccess(client.patch("/1", 1L, Map.of("name", "item")),
+                () -> client.responseCache.evict(ResponseCache.ITEMS, "/1")).block();
+        ResponseEntity<byte[]> afterEviction = client.getCached("/1", 1L).block();
+
+        assertEquals(4, sent.get());
+        assertNotNull(afterEviction);
+        assertNotSame(first, afterEviction);
+        assertArrayEquals(SERVER_BODY.getBytes(StandardCharsets.UTF_8), afterEviction.getBody());
+    }
+
+    @Test
+    @DisplayName("Should answer 304 from the cache when client has the tag of the cached response")
+    public void answersNotModifiedFromCache() {
+        ResponseCacheProperties properties = new ResponseCacheProperties();
+        properties.setEnabled(true);
+        properties.setTtl(Map.of(ResponseCache.ITEMS, Duration.ofMinutes(1)));
+        TestClient client = new TestClient(respondWith(ClientResponse.create(HttpStatus.OK)
+                .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                .header(HttpHeaders.ETAG, "W/\"1\"")
+                .body(SERVER_BODY)
+                .build()), new ResponseCache<>(properties));
+
+        ResponseEntity<byte[]> cached = client.getCached("/1", 1L, null).block();
+        sentRequest.set(null);
+        ResponseEntity<byte[]> notModified = client.getCached("/1", 1L, "\"1\"").block();
+
+        assertNotNull(notModified);
+        assertEquals(HttpStatus.NOT_MODIFIED, notModified.getStatusCode());
+        assertEquals("W/\"1\"", notModified.getHeaders().getETag());
+        assertFalse(notModified.hasBody());
+        assertSame(cached, client.getCached("/1", 1L, "W/\"2\"").block());
+        assertNull(sentRequest.get());
+    }
+
+    private WebClient respondWith(ClientResponse response) {
+        return WebClient.builder()
+                .baseUrl("http://server:9090")
+                .exchangeFunction(request -> {
+                    sentRequest.set(request);
+                    return Mono.just(response);
+                })
+                .build();
+    }
+
+    private static class TestClient extends BaseClient {
+        TestClient(WebClient webClient) {
+            super(webClient);
+        }
+
+        TestClient(WebClient webClient, ResponseCache<ResponseEntity<byte[]>> responseCache) {
+            super(webClient, ResponseCache.ITEMS, responseCache);
+        }
+    }
+}
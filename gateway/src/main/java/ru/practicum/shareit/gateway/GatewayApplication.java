@@ -2,8 +2,11 @@ package ru.practicum.shareit.gateway;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.context.annotation.Import;
+import ru.practicum.shareit.common.concurrency.VirtualThreadsConfig;
 
 @SpringBootApplication
+@Import(VirtualThreadsConfig.class)
 public class GatewayApplication {
 
     public static void main(String[] args) {
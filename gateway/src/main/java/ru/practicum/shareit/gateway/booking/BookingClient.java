@@ -3,33 +3,53 @@ package ru.practicum.shareit.gateway.booking;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.web.client.RestTemplateBuilder;
 import org.springframework.http.ResponseEntity;
-import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.http.client.ClientHttpRequestFactory;
 import org.springframework.stereotype.Service;
 import org.springframework.web.util.DefaultUriBuilderFactory;
+import ru.practicum.shareit.gateway.booking.dto.BookingDecisionBatchDto;
 import ru.practicum.shareit.gateway.booking.dto.BookingRequestDto;
+import ru.practicum.shareit.gateway.util.cache.ResponseCache;
 import ru.practicum.shareit.gateway.util.client.BaseClient;
 
+import java.util.List;
 import java.util.Map;
+import java.util.stream.Collectors;
 
 @Service
 public class BookingClient extends BaseClient {
     private static final String API_PREFIX = "/bookings";
 
-    public BookingClient(@Value("${shareit-server.url}") String serverUrl, RestTemplateBuilder builder) {
+    public BookingClient(@Value("${shareit-server.url}") String serverUrl, RestTemplateBuilder builder,
+                         ClientHttpRequestFactory requestFactory,
+                         ResponseCache<ResponseEntity<Object>> responseCache) {
         super(
                 builder
                         .uriTemplateHandler(new DefaultUriBuilderFactory(serverUrl + API_PREFIX))
-                        .requestFactory(HttpComponentsClientHttpRequestFactory::new)
-                        .build()
+                        .requestFactory(() -> requestFactory)
+                        .build(),
+                null,
+                responseCache
         );
     }
 
     public ResponseEntity<Object> add(long userId, BookingRequestDto requestDto) {
-        return post("", userId, requestDto);
+        return evictOnSuccess(post("", userId, requestDto),
+                () -> responseCache.evict(ResponseCache.ITEMS, "/" + requestDto.getItemId()));
     }
 
+    /**
+     * Items show their last and next bookings, the item of the booking is not known here,
+     * so all of them are evicted
+     */
     public ResponseEntity<Object> changeStatus(long bookingId, boolean approved, long userId) {
-        return patch("/" + bookingId + "?approved={approved}", userId, Map.of("approved", approved), null);
+        ResponseEntity<Object> response = patch("/" + bookingId + "?approved={approved}", userId,
+                Map.of("approved", approved), null);
+        return evictOnSuccess(response, () -> responseCache.evictRoute(ResponseCache.ITEMS));
+    }
+
+    public ResponseEntity<Object> changeStatuses(long itemOwnerId, BookingDecisionBatchDto batch) {
+        return evictOnSuccess(patch("/owner/batch", itemOwnerId, batch),
+                () -> responseCache.evictRoute(ResponseCache.ITEMS));
     }
 
     public ResponseEntity<Object> getAllByBookerIdSortedByStartTimeDesc(long bookerId, BookingState bookingState,
@@ -42,13 +62,41 @@ public class BookingClient extends BaseClient {
         return get("?state={state}&from={from}&size={size}", bookerId, parameters);
     }
 
-    public ResponseEntity<Object> getAllByItemOwnerIdSortedByStartTimeDesc(long itemOwnerId, BookingState bookingState, int from, int size) {
+    public ResponseEntity<Object> getAllByItemOwnerIdSortedByStartTimeDesc(long itemOwnerId, BookingState bookingState,
+                                                                           int from, int size, String ifNoneMatch) {
         Map<String, Object> parameters = Map.of(
                 "state", bookingState.name(),
                 "from", from,
                 "size", size
         );
-        return get("/owner?state={state}&from={from}&size={size}", itemOwnerId, parameters);
+        return get("/owner?state={state}&from={from}&size={size}", itemOwnerId, parameters, ifNoneMatch);
+    }
+
+    public ResponseEntity<Object> getAllByBookerIdAfter(long bookerId, BookingState bookingState, String after,
+                                                        int size) {
+        Map<String, Object> parameters = Map.of(
+                "state", bookingState.name(),
+                "after", after,
+                "size", size
+        );
+        return get("?state={state}&after={after}&size={size}", bookerId, parameters);
+    }
+
+    public ResponseEntity<Object> getAllByItemOwnerIdAfter(long itemOwnerId, BookingState bookingState, String after,
+                                                           int size, String ifNoneMatch) {
+        Map<String, Object> parameters = Map.of(
+                "state", bookingState.name(),
+                "after", after,
+                "size", size
+        );
+        return get("/owner?state={state}&after={after}&size={size}", itemOwnerId, parameters, ifNoneMatch);
+    }
+
+    public ResponseEntity<Object> getAllByIds(long userId, List<Long> ids) {
+        Map<String, Object> parameters = Map.of(
+                "ids", ids.stream().map(String::valueOf).collect(Collectors.joining(","))
+        );
+        return get("?ids={ids}", userId, parameters);
     }
 
     public ResponseEntity<Object> getById(long bookingId, long userId) {
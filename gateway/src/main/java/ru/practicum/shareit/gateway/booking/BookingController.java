@@ -1,17 +1,23 @@
 package ru.practicum.shareit.gateway.booking;
 
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import ru.practicum.shareit.gateway.booking.dto.BookingDecisionBatchDto;
 import ru.practicum.shareit.gateway.booking.dto.BookingRequestDto;
 import ru.practicum.shareit.gateway.booking.exception.UnknownBookingStateException;
 import ru.practicum.shareit.gateway.util.constant.Header;
 
 import javax.validation.Valid;
+import javax.validation.constraints.Max;
+import javax.validation.constraints.NotEmpty;
 import javax.validation.constraints.NotNull;
 import javax.validation.constraints.Positive;
 import javax.validation.constraints.PositiveOrZero;
+import javax.validation.constraints.Size;
+import java.util.List;
 
 
 @Slf4j
@@ -44,6 +50,15 @@ public class BookingController {
         return response;
     }
 
+    @PatchMapping("/owner/batch")
+    public ResponseEntity<Object> changeStatuses(@RequestBody @NotNull @Valid BookingDecisionBatchDto batch,
+                                                 @RequestHeader(Header.USER_ID_HEADER) long itemOwnerId) {
+        log.info("Item's owner id={} is deciding on {} bookings", itemOwnerId, batch.getDecisions().size());
+        ResponseEntity<Object> response = bookingClient.changeStatuses(itemOwnerId, batch);
+        log.info("Response: status = {}", response.getStatusCode());
+        return response;
+    }
+
     @GetMapping
     public ResponseEntity<Object> getAllSortedByStartTimeDesc(
             @RequestHeader(Header.USER_ID_HEADER) long bookerId,
@@ -59,21 +74,64 @@ public class BookingController {
         return response;
     }
 
+    @GetMapping(params = "after")
+    public ResponseEntity<Object> getAllAfter(
+            @RequestHeader(Header.USER_ID_HEADER) long bookerId,
+            @RequestParam(defaultValue = "ALL") String state,
+            @RequestParam String after,
+            @RequestParam(defaultValue = "10") @Positive @Max(100) int size) {
+        BookingState bookingState = convertToBookingState(state);
+
+        log.info("Booker with id={} is retrieving {} bookings with state '{}' after cursor '{}'",
+                bookerId, size, state, after);
+        ResponseEntity<Object> response = bookingClient.getAllByBookerIdAfter(bookerId, bookingState, after, size);
+        log.info("Response: status = {}, headers = {}", response.getStatusCode(), response.getHeaders());
+        return response;
+    }
+
     @GetMapping("/owner")
     public ResponseEntity<Object> getAllByItemOwnerIdSortedByStartTimeDesc(
             @RequestHeader(Header.USER_ID_HEADER) long itemOwnerId,
             @RequestParam(defaultValue = "ALL") String state,
             @RequestParam(defaultValue = "0") @PositiveOrZero int from,
-            @RequestParam(defaultValue = "10") @Positive int size) {
+            @RequestParam(defaultValue = "10") @Positive int size,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
         BookingState bookingState = convertToBookingState(state);
 
         log.info("Item's owner id={} is retrieving {} bookings with state '{}' starting from index {}",
                 itemOwnerId, size, state, from);
-        ResponseEntity<Object> response = bookingClient.getAllByItemOwnerIdSortedByStartTimeDesc(itemOwnerId, bookingState, from, size);
+        ResponseEntity<Object> response = bookingClient
+                .getAllByItemOwnerIdSortedByStartTimeDesc(itemOwnerId, bookingState, from, size, ifNoneMatch);
         log.info("Response: status = {}, headers = {}", response.getStatusCode(), response.getHeaders());
         return response;
     }
 
+    @GetMapping(path = "/owner", params = "after")
+    public ResponseEntity<Object> getAllByItemOwnerIdAfter(
+            @RequestHeader(Header.USER_ID_HEADER) long itemOwnerId,
+            @RequestParam(defaultValue = "ALL") String state,
+            @RequestParam String after,
+            @RequestParam(defaultValue = "10") @Positive @Max(100) int size,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        BookingState bookingState = convertToBookingState(state);
+
+        log.info("Item's owner id={} is retrieving {} bookings with state '{}' after cursor '{}'",
+                itemOwnerId, size, state, after);
+        ResponseEntity<Object> response = bookingClient.getAllByItemOwnerIdAfter(itemOwnerId, bookingState, after, size,
+                ifNoneMatch);
+        log.info("Response: status = {}, headers = {}", response.getStatusCode(), response.getHeaders());
+        return response;
+    }
+
+    @GetMapping(params = "ids")
+    public ResponseEntity<Object> getAllByIds(@RequestHeader(Header.USER_ID_HEADER) long userId,
+                                              @RequestParam @NotEmpty @Size(max = 100) List<Long> ids) {
+        log.info("User with id={} is retrieving bookings with ids={}", userId, ids);
+        ResponseEntity<Object> response = bookingClient.getAllByIds(userId, ids);
+        log.info("Response: status = {}", response.getStatusCode());
+        return response;
+    }
+
     @GetMapping("/{bookingId}")
     public ResponseEntity<Object> getById(@PathVariable long bookingId,
                                           @RequestHeader(Header.USER_ID_HEADER) long userId) {
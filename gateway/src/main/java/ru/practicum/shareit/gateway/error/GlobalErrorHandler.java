@@ -2,9 +2,9 @@ package ru.practicum.shareit.gateway.error;
 
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.validation.BindException;
 import org.springframework.validation.FieldError;
 import org.springframework.validation.ObjectError;
-import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.MissingRequestValueException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.ResponseStatus;
@@ -13,6 +13,7 @@ import org.springframework.web.method.annotation.MethodArgumentTypeMismatchExcep
 import ru.practicum.shareit.gateway.error.validation_violation.FieldValidationViolation;
 import ru.practicum.shareit.gateway.error.validation_violation.HttpAttributeValidationViolation;
 import ru.practicum.shareit.gateway.error.validation_violation.ObjectValidationViolation;
+import ru.practicum.shareit.gateway.util.bulk.exception.UnsupportedBulkFormatException;
 
 import javax.validation.ConstraintViolationException;
 import java.util.LinkedList;
@@ -20,6 +21,7 @@ import java.util.List;
 
 import static org.springframework.http.HttpStatus.BAD_REQUEST;
 import static org.springframework.http.HttpStatus.INTERNAL_SERVER_ERROR;
+import static org.springframework.http.HttpStatus.UNSUPPORTED_MEDIA_TYPE;
 
 @Slf4j
 @RestControllerAdvice
@@ -34,10 +36,10 @@ public class GlobalErrorHandler {
         return ErrorResponse.builder().error(message).build();
     }
 
-    //Fields and object validation violations
-    @ExceptionHandler(MethodArgumentNotValidException.class)
+    //Fields and object validation violations of request bodies and of objects bound from request parameters
+    @ExceptionHandler(BindException.class)
     @ResponseStatus(BAD_REQUEST)
-    public ErrorResponse onMethodArgumentNotValidException(final MethodArgumentNotValidException e) {
+    public ErrorResponse onBindException(final BindException e) {
         List<FieldValidationViolation> fieldViolations = new LinkedList<>();
         for (FieldError fieldError : e.getBindingResult().getFieldErrors()) {
             FieldValidationViolation violation = new FieldValidationViolation(
@@ -98,6 +100,14 @@ public class GlobalErrorHandler {
     }
     //------------------------------------------------------------------------------------------------------------------
 
+    @ExceptionHandler(UnsupportedBulkFormatException.class)
+    @ResponseStatus(UNSUPPORTED_MEDIA_TYPE)
+    public ErrorResponse onUnsupportedBulkFormatException(final UnsupportedBulkFormatException e) {
+        String message = e.getMessage();
+        log.warn(message, e);
+        return ErrorResponse.builder().error(message).build();
+    }
+
     @ExceptionHandler(Throwable.class)
     @ResponseStatus(INTERNAL_SERVER_ERROR)
     public ErrorResponse onThrowable(final Throwable e) {
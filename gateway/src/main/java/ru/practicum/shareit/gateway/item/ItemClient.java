@@ -3,43 +3,87 @@ package ru.practicum.shareit.gateway.item;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.web.client.RestTemplateBuilder;
 import org.springframework.http.ResponseEntity;
-import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.http.client.ClientHttpRequestFactory;
 import org.springframework.stereotype.Service;
 import org.springframework.web.util.DefaultUriBuilderFactory;
+import ru.practicum.shareit.gateway.item.dto.AvailabilityRequestDto;
 import ru.practicum.shareit.gateway.item.dto.CommentRequestDto;
 import ru.practicum.shareit.gateway.item.dto.ItemDto;
+import ru.practicum.shareit.gateway.util.cache.ResponseCache;
 import ru.practicum.shareit.gateway.util.client.BaseClient;
 
+import java.util.List;
 import java.util.Map;
+import java.util.stream.Collectors;
 
 @Service
 public class ItemClient extends BaseClient {
     private static final String API_PREFIX = "/items";
 
-    public ItemClient(@Value("${shareit-server.url}") String serverUrl, RestTemplateBuilder builder) {
+    public ItemClient(@Value("${shareit-server.url}") String serverUrl, RestTemplateBuilder builder,
+                      ClientHttpRequestFactory requestFactory,
+                      ResponseCache<ResponseEntity<Object>> responseCache) {
         super(
                 builder
                         .uriTemplateHandler(new DefaultUriBuilderFactory(serverUrl + API_PREFIX))
-                        .requestFactory(HttpComponentsClientHttpRequestFactory::new)
-                        .build()
+                        .requestFactory(() -> requestFactory)
+                        .build(),
+                ResponseCache.ITEMS,
+                responseCache
         );
     }
 
     public ResponseEntity<Object> add(long ownerId, ItemDto itemDto) {
-        return post("", ownerId, itemDto);
+        ResponseEntity<Object> response = post("", ownerId, itemDto);
+        if (itemDto.getRequestId() == 0) {
+            return response;
+        }
+        return evictOnSuccess(response,
+                () -> responseCache.evict(ResponseCache.REQUESTS, "/" + itemDto.getRequestId()));
     }
 
-    public ResponseEntity<Object> getById(long itemId, long userId) {
-        return get("/" + itemId, userId);
+    public ResponseEntity<Object> addAll(long ownerId, List<ItemDto> items) {
+        return evictOnSuccess(post("/bulk", ownerId, items),
+                () -> responseCache.evictRoute(ResponseCache.REQUESTS));
     }
 
-    public ResponseEntity<Object> searchByNameOrDescription(long userId, String text, int from, int size) {
+    public ResponseEntity<Object> getAllByIds(long userId, List<Long> ids) {
+        Map<String, Object> parameters = Map.of(
+                "ids", ids.stream().map(String::valueOf).collect(Collectors.joining(","))
+        );
+        return get("?ids={ids}", userId, parameters);
+    }
+
+    public ResponseEntity<Object> getById(long itemId, long userId, String ifNoneMatch) {
+        return getCached("/" + itemId, userId, ifNoneMatch);
+    }
+
+    public ResponseEntity<Object> getAvailability(long userId, long itemId, AvailabilityRequestDto period) {
+        Map<String, Object> parameters = Map.of(
+                "from", period.getFrom(),
+                "to", period.getTo()
+        );
+        return get("/" + itemId + "/availability?from={from}&to={to}", userId, parameters);
+    }
+
+    public ResponseEntity<Object> getComments(long userId, long itemId, String after, int size) {
+        Map<String, Object> parameters = Map.of(
+                "after", after,
+                "size", size
+        );
+        return get("/" + itemId + "/comments?after={after}&size={size}", userId, parameters);
+    }
+
+    public ResponseEntity<Object> searchByNameOrDescription(long userId, String text, String mode, String sort,
+                                                            int from, int size) {
         Map<String, Object> parameters = Map.of(
                 "from", from,
                 "size", size,
-                "text", text
+                "text", text,
+                "mode", mode,
+                "sort", sort
         );
-        return get("/search?text={text}&from={from}&size={size}", userId, parameters);
+        return get("/search?text={text}&mode={mode}&sort={sort}&from={from}&size={size}", userId, parameters);
     }
 
     public ResponseEntity<Object> getAllByOwnerId(long ownerId, int from, int size) {
@@ -50,11 +94,26 @@ public class ItemClient extends BaseClient {
         return get("?from={from}&size={size}", ownerId, parameters);
     }
 
+    public ResponseEntity<Object> getAllByOwnerIdAfter(long ownerId, String after, int size) {
+        Map<String, Object> parameters = Map.of(
+                "after", after,
+                "size", size
+        );
+        return get("?after={after}&size={size}", ownerId, parameters);
+    }
+
+    /**
+     * Requests show their items, the request of the item is not known here, so all of them are evicted
+     */
     public ResponseEntity<Object> update(long userId, long itemId, ItemDto itemDto) {
-        return patch("/" + itemId, userId, itemDto);
+        return evictOnSuccess(patch("/" + itemId, userId, itemDto), () -> {
+            responseCache.evict(ResponseCache.ITEMS, "/" + itemId);
+            responseCache.evictRoute(ResponseCache.REQUESTS);
+        });
     }
 
     public ResponseEntity<Object> addComment(long authorId, long itemId, CommentRequestDto commentRequestDto) {
-        return post("/" + itemId + "/comment", authorId, commentRequestDto);
+        return evictOnSuccess(post("/" + itemId + "/comment", authorId, commentRequestDto),
+                () -> responseCache.evict(ResponseCache.ITEMS, "/" + itemId));
     }
 }
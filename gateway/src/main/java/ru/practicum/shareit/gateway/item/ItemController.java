@@ -1,18 +1,27 @@
 package ru.practicum.shareit.gateway.item;
 
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import ru.practicum.shareit.gateway.item.dto.AvailabilityRequestDto;
 import ru.practicum.shareit.gateway.item.dto.CommentRequestDto;
 import ru.practicum.shareit.gateway.item.dto.ItemDto;
+import ru.practicum.shareit.gateway.util.bulk.BulkImporter;
 import ru.practicum.shareit.gateway.util.constant.Header;
 import ru.practicum.shareit.gateway.util.constraint_group.Creation;
 
 import javax.validation.Valid;
+import javax.validation.constraints.Max;
+import javax.validation.constraints.NotEmpty;
 import javax.validation.constraints.NotNull;
+import javax.validation.constraints.Pattern;
+import javax.validation.constraints.Positive;
 import javax.validation.constraints.Size;
 import javax.validation.groups.Default;
+import java.io.InputStream;
+import java.util.List;
 
 @Slf4j
 @RestController
@@ -20,9 +29,11 @@ import javax.validation.groups.Default;
 @Validated
 public class ItemController {
     private final ItemClient itemClient;
+    private final BulkImporter bulkImporter;
 
-    public ItemController(ItemClient itemClient) {
+    public ItemController(ItemClient itemClient, BulkImporter bulkImporter) {
         this.itemClient = itemClient;
+        this.bulkImporter = bulkImporter;
     }
 
     @PostMapping
@@ -34,23 +45,77 @@ public class ItemController {
         return response;
     }
 
+    /**
+     * Body is ndjson or csv with an item per line, validated as in {@link #add}
+     */
+    @PostMapping("/bulk")
+    public ResponseEntity<Object> addAll(@RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType,
+                                         @RequestHeader(Header.USER_ID_HEADER) long ownerId,
+                                         InputStream body) {
+        log.info("User with id={} is importing items from {}", ownerId, contentType);
+        ResponseEntity<Object> response = bulkImporter.importRows(body, contentType, ItemDto.class,
+                items -> itemClient.addAll(ownerId, items));
+        log.info("Response: status = {}", response.getStatusCode());
+        return response;
+    }
+
+    @GetMapping(params = "ids")
+    public ResponseEntity<Object> getAllByIds(@RequestHeader(Header.USER_ID_HEADER) long userId,
+                                              @RequestParam @NotEmpty @Size(max = 100) List<Long> ids) {
+        log.info("User with id={} is retrieving items with ids={}", userId, ids);
+        ResponseEntity<Object> response = itemClient.getAllByIds(userId, ids);
+        log.info("Response: status = {}", response.getStatusCode());
+        return response;
+    }
+
     @GetMapping("/{itemId}")
     public ResponseEntity<Object> getById(@RequestHeader(Header.USER_ID_HEADER) long userId,
-                                          @PathVariable long itemId) {
+                                          @PathVariable long itemId,
+                                          @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false)
+                                          String ifNoneMatch) {
         log.info("User with id={} is retrieving item with id={}", userId, itemId);
-        ResponseEntity<Object> response = itemClient.getById(itemId, userId);
+        ResponseEntity<Object> response = itemClient.getById(itemId, userId, ifNoneMatch);
+        log.info("Response: {}", response);
+        return response;
+    }
+
+    @GetMapping("/{itemId}/availability")
+    public ResponseEntity<Object> getAvailability(@RequestHeader(Header.USER_ID_HEADER) long userId,
+                                                  @PathVariable long itemId,
+                                                  @Valid AvailabilityRequestDto period) {
+        log.info("User with id={} is retrieving availability of item with id={} from {} to {}",
+                userId, itemId, period.getFrom(), period.getTo());
+        ResponseEntity<Object> response = itemClient.getAvailability(userId, itemId, period);
         log.info("Response: {}", response);
         return response;
     }
 
+    @GetMapping("/{itemId}/comments")
+    public ResponseEntity<Object> getComments(@RequestHeader(Header.USER_ID_HEADER) long userId,
+                                              @PathVariable long itemId,
+                                              @RequestParam(defaultValue = "") String after,
+                                              @RequestParam(defaultValue = "10") @Positive @Max(100) int size) {
+        log.info("User with id={} is retrieving {} comments of item with id={} after cursor '{}'",
+                userId, size, itemId, after);
+        ResponseEntity<Object> response = itemClient.getComments(userId, itemId, after, size);
+        log.info("Response: status = {}, headers = {}", response.getStatusCode(), response.getHeaders());
+        return response;
+    }
+
     @GetMapping("/search")
     public ResponseEntity<Object> searchByNameOrDescription(@RequestHeader(Header.USER_ID_HEADER) long userId,
                                                             @RequestParam @NotNull @Size(max = 200) String text,
+                                                            @RequestParam(defaultValue = "substring")
+                                                            @Pattern(regexp = "(?i)substring|ranked") String mode,
+                                                            @RequestParam(defaultValue = "id")
+                                                            @Pattern(regexp = "(?i)id|comments|rating|last_comment")
+                                                            String sort,
                                                             @RequestParam(defaultValue = "0") int from,
                                                             @RequestParam(defaultValue = "10") int size) {
-        log.info("User with id={} is searching {} items by name or description starting from index {}, text for search = {}",
-                userId, size, from, text);
-        ResponseEntity<Object> response = itemClient.searchByNameOrDescription(userId, text, from, size);
+        log.info("User with id={} is searching {} items by name or description starting from index {}, " +
+                "text for search = {}, mode = {}, sort = {}", userId, size, from, text, mode, sort);
+        ResponseEntity<Object> response = itemClient.searchByNameOrDescription(userId, text, mode.toUpperCase(),
+                sort.toUpperCase(), from, size);
         log.info("Response: status = {}, headers = {}", response.getStatusCode(), response.getHeaders());
         return response;
     }
@@ -65,6 +130,17 @@ public class ItemController {
         return response;
     }
 
+    @GetMapping(params = "after")
+    public ResponseEntity<Object> getAllByOwnerIdAfter(@RequestHeader(Header.USER_ID_HEADER) long ownerId,
+                                                       @RequestParam String after,
+                                                       @RequestParam(defaultValue = "10")
+                                                       @Positive @Max(100) int size) {
+        log.info("Owner with id={} is retrieving {} items after cursor '{}'", ownerId, size, after);
+        ResponseEntity<Object> response = itemClient.getAllByOwnerIdAfter(ownerId, after, size);
+        log.info("Response: status = {}, headers = {}", response.getStatusCode(), response.getHeaders());
+        return response;
+    }
+
     @PatchMapping("/{itemId}")
     public ResponseEntity<Object> update(@RequestBody @Valid ItemDto itemDto,
                                          @PathVariable long itemId,
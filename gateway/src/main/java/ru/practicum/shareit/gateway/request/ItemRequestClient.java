@@ -3,10 +3,11 @@ package ru.practicum.shareit.gateway.request;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.web.client.RestTemplateBuilder;
 import org.springframework.http.ResponseEntity;
-import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.http.client.ClientHttpRequestFactory;
 import org.springframework.stereotype.Service;
 import org.springframework.web.util.DefaultUriBuilderFactory;
 import ru.practicum.shareit.gateway.request.dto.ItemRequestRequestDto;
+import ru.practicum.shareit.gateway.util.cache.ResponseCache;
 import ru.practicum.shareit.gateway.util.client.BaseClient;
 
 import java.util.Map;
@@ -15,12 +16,16 @@ import java.util.Map;
 public class ItemRequestClient extends BaseClient {
     private static final String API_PREFIX = "/requests";
 
-    public ItemRequestClient(@Value("${shareit-server.url}") String serverUrl, RestTemplateBuilder builder) {
+    public ItemRequestClient(@Value("${shareit-server.url}") String serverUrl, RestTemplateBuilder builder,
+                             ClientHttpRequestFactory requestFactory,
+                             ResponseCache<ResponseEntity<Object>> responseCache) {
         super(
                 builder
                         .uriTemplateHandler(new DefaultUriBuilderFactory(serverUrl + API_PREFIX))
-                        .requestFactory(HttpComponentsClientHttpRequestFactory::new)
-                        .build()
+                        .requestFactory(() -> requestFactory)
+                        .build(),
+                ResponseCache.REQUESTS,
+                responseCache
         );
     }
 
@@ -32,8 +37,8 @@ public class ItemRequestClient extends BaseClient {
         return get("", authorId);
     }
 
-    public ResponseEntity<Object> getById(long userId, long requestId) {
-        return get("/" + requestId, userId);
+    public ResponseEntity<Object> getById(long userId, long requestId, String ifNoneMatch) {
+        return getCached("/" + requestId, userId, ifNoneMatch);
     }
 
     public ResponseEntity<Object> getAllExceptAuthorIdSortedByCreatedDesc(long authorId, int from, int size) {
@@ -43,4 +48,13 @@ public class ItemRequestClient extends BaseClient {
         );
         return get("/all?from={from}&size={size}", authorId, parameters);
     }
+
+    public ResponseEntity<Object> getAllExceptAuthorIdAfter(long authorId, String after, int size, String answers) {
+        Map<String, Object> parameters = Map.of(
+                "after", after,
+                "size", size,
+                "answers", answers
+        );
+        return get("/all?after={after}&size={size}&answers={answers}", authorId, parameters);
+    }
 }
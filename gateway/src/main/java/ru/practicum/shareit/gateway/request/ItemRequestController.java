@@ -1,6 +1,7 @@
 package ru.practicum.shareit.gateway.request;
 
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
@@ -8,6 +9,8 @@ import ru.practicum.shareit.gateway.request.dto.ItemRequestRequestDto;
 import ru.practicum.shareit.gateway.util.constant.Header;
 
 import javax.validation.Valid;
+import javax.validation.constraints.Max;
+import javax.validation.constraints.Pattern;
 import javax.validation.constraints.Positive;
 import javax.validation.constraints.PositiveOrZero;
 
@@ -41,9 +44,11 @@ public class ItemRequestController {
 
     @GetMapping("/{requestId}")
     public ResponseEntity<Object> getById(@RequestHeader(Header.USER_ID_HEADER) long userId,
-                                          @PathVariable long requestId) {
+                                          @PathVariable long requestId,
+                                          @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false)
+                                          String ifNoneMatch) {
         log.info("User with id={} is retrieving item request with id={}", requestId, userId);
-        ResponseEntity<Object> response = itemRequestClient.getById(userId, requestId);
+        ResponseEntity<Object> response = itemRequestClient.getById(userId, requestId, ifNoneMatch);
         log.info("Response: {}", response);
         return response;
     }
@@ -57,4 +62,19 @@ public class ItemRequestController {
         log.info("Response: status = {}, headers = {}", response.getStatusCode(), response.getHeaders());
         return response;
     }
+
+    @GetMapping(path = "/all", params = "after")
+    public ResponseEntity<Object> getAllExceptAuthorAfter(@RequestHeader(Header.USER_ID_HEADER) long authorId,
+                                                          @RequestParam String after,
+                                                          @RequestParam(defaultValue = "10")
+                                                          @Positive @Max(100) int size,
+                                                          @RequestParam(defaultValue = "items")
+                                                          @Pattern(regexp = "(?i)items|count") String answers) {
+        log.info("User with id={} is retrieving {} item requests except his after cursor '{}', answers = {}",
+                authorId, size, after, answers);
+        ResponseEntity<Object> response = itemRequestClient.getAllExceptAuthorIdAfter(authorId, after, size,
+                answers.toUpperCase());
+        log.info("Response: status = {}, headers = {}", response.getStatusCode(), response.getHeaders());
+        return response;
+    }
 }
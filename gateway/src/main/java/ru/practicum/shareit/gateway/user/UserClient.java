@@ -3,22 +3,31 @@ package ru.practicum.shareit.gateway.user;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.web.client.RestTemplateBuilder;
 import org.springframework.http.ResponseEntity;
-import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.http.client.ClientHttpRequestFactory;
 import org.springframework.stereotype.Service;
 import org.springframework.web.util.DefaultUriBuilderFactory;
 import ru.practicum.shareit.gateway.user.dto.UserDto;
+import ru.practicum.shareit.gateway.util.cache.ResponseCache;
 import ru.practicum.shareit.gateway.util.client.BaseClient;
 
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
 @Service
 public class UserClient extends BaseClient {
     private static final String API_PREFIX = "/users";
 
-    public UserClient(@Value("${shareit-server.url}") String serverUrl, RestTemplateBuilder builder) {
+    public UserClient(@Value("${shareit-server.url}") String serverUrl, RestTemplateBuilder builder,
+                      ClientHttpRequestFactory requestFactory,
+                      ResponseCache<ResponseEntity<Object>> responseCache) {
         super(
                 builder
                         .uriTemplateHandler(new DefaultUriBuilderFactory(serverUrl + API_PREFIX))
-                        .requestFactory(HttpComponentsClientHttpRequestFactory::new)
-                        .build()
+                        .requestFactory(() -> requestFactory)
+                        .build(),
+                ResponseCache.USERS,
+                responseCache
         );
     }
 
@@ -26,19 +35,40 @@ public class UserClient extends BaseClient {
         return post("", userDto);
     }
 
+    public ResponseEntity<Object> addAll(List<UserDto> users) {
+        return post("/bulk", users);
+    }
+
     public ResponseEntity<Object> getAll() {
         return get("");
     }
 
+    public ResponseEntity<Object> getAllByIds(List<Long> ids) {
+        Map<String, Object> parameters = Map.of(
+                "ids", ids.stream().map(String::valueOf).collect(Collectors.joining(","))
+        );
+        return get("?ids={ids}", null, parameters);
+    }
+
     public ResponseEntity<Object> getById(long id) {
-        return get("/" + id);
+        return getCached("/" + id, null);
     }
 
+    /**
+     * Items show names of their comments' authors, the items the user commented on are not known here,
+     * so all of them are evicted
+     */
     public ResponseEntity<Object> update(UserDto userDto) {
-        return patch("/" + userDto.getId(), userDto);
+        return evictOnSuccess(patch("/" + userDto.getId(), userDto), () -> {
+            responseCache.evict(ResponseCache.USERS, "/" + userDto.getId());
+            responseCache.evictRoute(ResponseCache.ITEMS);
+        });
     }
 
+    /**
+     * Items and requests of the user go with him, so the whole cache is evicted
+     */
     public ResponseEntity<Object> delete(long id) {
-        return delete("/" + id);
+        return evictOnSuccess(delete("/" + id), responseCache::evictAll);
     }
 }
@@ -1,14 +1,20 @@
 package ru.practicum.shareit.gateway.user;
 
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
 import ru.practicum.shareit.gateway.user.dto.UserDto;
+import ru.practicum.shareit.gateway.util.bulk.BulkImporter;
 import ru.practicum.shareit.gateway.util.constraint_group.Creation;
 
 import javax.validation.Valid;
+import javax.validation.constraints.NotEmpty;
+import javax.validation.constraints.Size;
 import javax.validation.groups.Default;
+import java.io.InputStream;
+import java.util.List;
 
 @Slf4j
 @RestController
@@ -17,9 +23,11 @@ import javax.validation.groups.Default;
 public class UserController {
 
     private final UserClient userClient;
+    private final BulkImporter bulkImporter;
 
-    public UserController(UserClient userClient) {
+    public UserController(UserClient userClient, BulkImporter bulkImporter) {
         this.userClient = userClient;
+        this.bulkImporter = bulkImporter;
     }
 
     @PostMapping
@@ -30,6 +38,19 @@ public class UserController {
         return response;
     }
 
+    /**
+     * Body is ndjson or csv with a user per line, validated as in {@link #add}
+     */
+    @PostMapping("/bulk")
+    public ResponseEntity<Object> addAll(@RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType,
+                                         InputStream body) {
+        log.info("Importing users from {}", contentType);
+        ResponseEntity<Object> response = bulkImporter.importRows(body, contentType, UserDto.class,
+                userClient::addAll);
+        log.info("Response: status = {}", response.getStatusCode());
+        return response;
+    }
+
     @GetMapping
     public ResponseEntity<Object> getAll() {
         log.info("Retrieving all users");
@@ -38,6 +59,14 @@ public class UserController {
         return response;
     }
 
+    @GetMapping(params = "ids")
+    public ResponseEntity<Object> getAllByIds(@RequestParam @NotEmpty @Size(max = 100) List<Long> ids) {
+        log.info("Retrieving users with ids={}", ids);
+        ResponseEntity<Object> response = userClient.getAllByIds(ids);
+        log.info("Response: status = {}", response.getStatusCode());
+        return response;
+    }
+
     @GetMapping("/{id}")
     public ResponseEntity<Object> getById(@PathVariable long id) {
         log.info("Retrieving user with id={}", id);
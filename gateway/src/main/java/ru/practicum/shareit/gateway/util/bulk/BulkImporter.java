@@ -0,0 +1,99 @@
+package ru.practicum.shareit.gateway.util.bulk;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+
+import javax.validation.Validator;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Reads a bulk import from the request body line by line and sends valid rows to the server in chunks,
+ * so only one chunk is held in memory at a time. Rows rejected by validation or by the server
+ * are collected into the report, the rest of the file is imported anyway.
+ * <p>
+ * If the server refuses a chunk as a whole, e.g. because the owner of the items doesn't exist,
+ * the import stops and the server's response is returned. Chunks sent before that stay imported
+ */
+@Component
+public class BulkImporter {
+    private final ObjectMapper objectMapper;
+    private final Validator validator;
+    private final int chunkSize;
+
+    public BulkImporter(ObjectMapper objectMapper, Validator validator,
+                        @Value("${shareit.bulk.chunk-size:1000}") int chunkSize) {
+        this.objectMapper = objectMapper;
+        this.validator = validator;
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * @param contentType value of the Content-Type header, selects the {@link BulkFormat}
+     * @param sendChunk   sends valid dtos to the server, which answers with {@link BulkImportResult} of the chunk
+     */
+    public <T> ResponseEntity<Object> importRows(InputStream body, String contentType, Class<T> type,
+                                                 Function<List<T>, ResponseEntity<Object>> sendChunk) {
+        BulkRowParser<T> parser = new BulkRowParser<>(BulkFormat.of(contentType), type, objectMapper, validator);
+        BulkImportResult report = new BulkImportResult();
+        List<BulkRow<T>> chunk = new ArrayList<>(chunkSize);
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8))) {
+            long lineNumber = 0;
+            String line;
+            while ((line = reader.readLine()) != null) {
+                BulkRow<T> row = parser.parse(++lineNumber, line);
+                if (row == null) {
+                    continue;
+                }
+                if (row.isRejected()) {
+                    report.reject(row.getLine(), row.getError());
+                    continue;
+                }
+                chunk.add(row);
+                if (chunk.size() == chunkSize) {
+                    ResponseEntity<Object> refused = send(chunk, sendChunk, report);
+                    if (refused != null) {
+                        return refused;
+                    }
+                    chunk.clear();
+                }
+            }
+            if (!chunk.isEmpty()) {
+                ResponseEntity<Object> refused = send(chunk, sendChunk, report);
+                if (refused != null) {
+                    return refused;
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        report.sortErrors();
+        return ResponseEntity.ok(report);
+    }
+
+    /**
+     * @return server's response if it refused the chunk, otherwise null
+     */
+    private <T> ResponseEntity<Object> send(List<BulkRow<T>> chunk,
+                                            Function<List<T>, ResponseEntity<Object>> sendChunk,
+                                            BulkImportResult report) throws IOException {
+        ResponseEntity<Object> response = sendChunk.apply(chunk.stream()
+                .map(BulkRow::getValue)
+                .collect(Collectors.toList()));
+        if (!response.getStatusCode().is2xxSuccessful()) {
+            return response;
+        }
+        report.addChunk(chunk, objectMapper.readValue((byte[]) response.getBody(), BulkImportResult.class));
+        return null;
+    }
+}
@@ -4,15 +4,41 @@ import org.springframework.http.*;
 import org.springframework.lang.Nullable;
 import org.springframework.web.client.HttpStatusCodeException;
 import org.springframework.web.client.RestTemplate;
+import ru.practicum.shareit.gateway.util.cache.EntityTags;
+import ru.practicum.shareit.gateway.util.cache.ResponseCache;
 
 import java.util.List;
 import java.util.Map;
 
 public class BaseClient {
+    /**
+     * Headers of the server's response that describe the body. Connection related ones are left to the gateway
+     */
+    private static final List<String> PASSED_HEADERS = List.of(
+            HttpHeaders.CONTENT_TYPE,
+            HttpHeaders.CONTENT_LANGUAGE,
+            HttpHeaders.LOCATION,
+            HttpHeaders.ETAG,
+            HttpHeaders.LAST_MODIFIED,
+            HttpHeaders.CACHE_CONTROL
+    );
+
     protected final RestTemplate rest;
 
+    /**
+     * Route of the client in the response cache, null if the client doesn't cache
+     */
+    private final String route;
+    protected final ResponseCache<ResponseEntity<Object>> responseCache;
+
     public BaseClient(RestTemplate rest) {
+        this(rest, null, ResponseCache.disabled());
+    }
+
+    public BaseClient(RestTemplate rest, String route, ResponseCache<ResponseEntity<Object>> responseCache) {
         this.rest = rest;
+        this.route = route;
+        this.responseCache = responseCache;
     }
 
     protected ResponseEntity<Object> get(String path) {
@@ -23,8 +49,56 @@ public class BaseClient {
         return get(path, userId, null);
     }
 
+    /**
+     * Same as {@link #get(String, long)}, but successful responses are kept in the response cache,
+     * if it is enabled for the client's route
+     */
+    protected ResponseEntity<Object> getCached(String path, Long userId) {
+        return getCached(path, userId, null);
+    }
+
+    /**
+     * Conditional variant of {@link #getCached(String, Long)}. A cached response with the tag the client
+     * already has is turned into 304, otherwise If-None-Match is sent to the server, which may answer 304 itself.
+     * Only 200 is cached, so the entry never depends on the client's header
+     */
+    protected ResponseEntity<Object> getCached(String path, Long userId, @Nullable String ifNoneMatch) {
+        if (route == null || !responseCache.isCached(route)) {
+            return get(path, userId, null, ifNoneMatch);
+        }
+        ResponseCache.Key key = new ResponseCache.Key(route, path, userId);
+        ResponseEntity<Object> cached = responseCache.get(key);
+        if (cached != null) {
+            return notModifiedOr(cached, ifNoneMatch);
+        }
+        long stamp = responseCache.stamp();
+        ResponseEntity<Object> response = get(path, userId, null, ifNoneMatch);
+        if (response.getStatusCode() == HttpStatus.OK) {
+            responseCache.put(key, response, stamp);
+        }
+        return response;
+    }
+
+    /**
+     * Runs the eviction if the server accepted the mutation, so the next read gets the changed resource
+     */
+    protected static ResponseEntity<Object> evictOnSuccess(ResponseEntity<Object> response, Runnable eviction) {
+        if (response.getStatusCode().is2xxSuccessful()) {
+            eviction.run();
+        }
+        return response;
+    }
+
     protected ResponseEntity<Object> get(String path, Long userId, @Nullable Map<String, Object> parameters) {
-        return makeAndSendRequest(HttpMethod.GET, path, userId, parameters, null);
+        return get(path, userId, parameters, null);
+    }
+
+    /**
+     * @param ifNoneMatch client's If-None-Match header, passed to the server as is. Its 304 is passed back with the tag
+     */
+    protected ResponseEntity<Object> get(String path, Long userId, @Nullable Map<String, Object> parameters,
+                                         @Nullable String ifNoneMatch) {
+        return makeAndSendRequest(HttpMethod.GET, path, userId, parameters, null, ifNoneMatch);
     }
 
     protected <T> ResponseEntity<Object> post(String path, T body) {
@@ -36,7 +110,7 @@ public class BaseClient {
     }
 
     protected <T> ResponseEntity<Object> post(String path, Long userId, @Nullable Map<String, Object> parameters, T body) {
-        return makeAndSendRequest(HttpMethod.POST, path, userId, parameters, body);
+        return makeAndSendRequest(HttpMethod.POST, path, userId, parameters, body, null);
     }
 
     protected <T> ResponseEntity<Object> put(String path, long userId, T body) {
@@ -44,7 +118,7 @@ public class BaseClient {
     }
 
     protected <T> ResponseEntity<Object> put(String path, long userId, @Nullable Map<String, Object> parameters, T body) {
-        return makeAndSendRequest(HttpMethod.PUT, path, userId, parameters, body);
+        return makeAndSendRequest(HttpMethod.PUT, path, userId, parameters, body, null);
     }
 
     protected <T> ResponseEntity<Object> patch(String path, T body) {
@@ -60,7 +134,7 @@ public class BaseClient {
     }
 
     protected <T> ResponseEntity<Object> patch(String path, Long userId, @Nullable Map<String, Object> parameters, T body) {
-        return makeAndSendRequest(HttpMethod.PATCH, path, userId, parameters, body);
+        return makeAndSendRequest(HttpMethod.PATCH, path, userId, parameters, body, null);
     }
 
     protected ResponseEntity<Object> delete(String path) {
@@ -72,23 +146,34 @@ public class BaseClient {
     }
 
     protected ResponseEntity<Object> delete(String path, Long userId, @Nullable Map<String, Object> parameters) {
-        return makeAndSendRequest(HttpMethod.DELETE, path, userId, parameters, null);
-    }
-
-    private <T> ResponseEntity<Object> makeAndSendRequest(HttpMethod method, String path, Long userId, @Nullable Map<String, Object> parameters, @Nullable T body) {
-        HttpEntity<T> requestEntity = new HttpEntity<>(body, defaultHeaders(userId));
+        return makeAndSendRequest(HttpMethod.DELETE, path, userId, parameters, null, null);
+    }
+
+    /**
+     * The server's response body is passed to the caller as raw bytes together with the headers from
+     * {@link #PASSED_HEADERS}, so the gateway never parses or renders the json it only forwards
+     */
+    private <T> ResponseEntity<Object> makeAndSendRequest(HttpMethod method, String path, Long userId,
+                                                          @Nullable Map<String, Object> parameters, @Nullable T body,
+                                                          @Nullable String ifNoneMatch) {
+        HttpHeaders headers = defaultHeaders(userId);
+        if (ifNoneMatch != null) {
+            headers.set(HttpHeaders.IF_NONE_MATCH, ifNoneMatch);
+        }
+        HttpEntity<T> requestEntity = new HttpEntity<>(body, headers);
 
-        ResponseEntity<Object> shareitServerResponse;
+        ResponseEntity<byte[]> shareitServerResponse;
         try {
             if (parameters != null) {
-                shareitServerResponse = rest.exchange(path, method, requestEntity, Object.class, parameters);
+                shareitServerResponse = rest.exchange(path, method, requestEntity, byte[].class, parameters);
             } else {
-                shareitServerResponse = rest.exchange(path, method, requestEntity, Object.class);
+                shareitServerResponse = rest.exchange(path, method, requestEntity, byte[].class);
             }
         } catch (HttpStatusCodeException e) {
-            return ResponseEntity.status(e.getStatusCode()).body(e.getResponseBodyAsByteArray());
+            return prepareGatewayResponse(e.getStatusCode(), e.getResponseHeaders(), e.getResponseBodyAsByteArray());
         }
-        return prepareGatewayResponse(shareitServerResponse);
+        return prepareGatewayResponse(shareitServerResponse.getStatusCode(), shareitServerResponse.getHeaders(),
+                shareitServerResponse.getBody());
     }
 
     private HttpHeaders defaultHeaders(Long userId) {
@@ -101,14 +186,31 @@ public class BaseClient {
         return headers;
     }
 
-    private static ResponseEntity<Object> prepareGatewayResponse(ResponseEntity<Object> response) {
+    private static ResponseEntity<Object> notModifiedOr(ResponseEntity<Object> cached, @Nullable String ifNoneMatch) {
+        String etag = cached.getHeaders().getETag();
+        if (!EntityTags.matches(ifNoneMatch, etag)) {
+            return cached;
+        }
+        return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+    }
+
+    private static ResponseEntity<Object> prepareGatewayResponse(HttpStatus status, @Nullable HttpHeaders headers,
+                                                                 @Nullable byte[] body) {
         //need to create new ResponseEntity or else haproxy will send 502
-        ResponseEntity.BodyBuilder responseBuilder = ResponseEntity.status(response.getStatusCode());
+        ResponseEntity.BodyBuilder responseBuilder = ResponseEntity.status(status);
+        if (headers != null) {
+            for (String header : PASSED_HEADERS) {
+                List<String> values = headers.get(header);
+                if (values != null) {
+                    responseBuilder.header(header, values.toArray(new String[0]));
+                }
+            }
+        }
 
-        if (response.hasBody()) {
-            return responseBuilder.body(response.getBody());
+        if (body != null && body.length > 0) {
+            return responseBuilder.body(body);
         }
 
         return responseBuilder.build();
     }
-}
\ No newline at end of file
+}
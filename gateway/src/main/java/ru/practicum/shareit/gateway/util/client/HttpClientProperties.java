@@ -0,0 +1,34 @@
+package ru.practicum.shareit.gateway.util.client;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Limits of the connection pool shared by all clients of the shareit server
+ */
+@Data
+@ConfigurationProperties(prefix = "shareit-server.http-client")
+public class HttpClientProperties {
+    private int maxConnections = 200;
+    private int maxConnectionsPerRoute = 200;
+
+    /**
+     * How long a request waits for a free connection from the pool
+     */
+    private Duration poolTimeout = Duration.ofSeconds(2);
+    private Duration connectTimeout = Duration.ofSeconds(2);
+    private Duration readTimeout = Duration.ofSeconds(10);
+
+    /**
+     * How long an idle connection is kept, if the server doesn't say it in the Keep-Alive header.
+     * Should be shorter than the server's keep-alive timeout, 20 seconds for Tomcat by default
+     */
+    private Duration keepAlive = Duration.ofSeconds(15);
+
+    /**
+     * Connections idle for longer are closed by a background thread
+     */
+    private Duration maxIdleTime = Duration.ofSeconds(30);
+}
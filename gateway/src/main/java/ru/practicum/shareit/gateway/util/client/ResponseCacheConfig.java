@@ -0,0 +1,21 @@
+package ru.practicum.shareit.gateway.util.client;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.ResponseEntity;
+import ru.practicum.shareit.gateway.util.cache.ResponseCache;
+import ru.practicum.shareit.gateway.util.cache.ResponseCacheProperties;
+
+/**
+ * One cache of server's responses for all clients, so a mutation sent by one client evicts what others read
+ */
+@Configuration
+@EnableConfigurationProperties(ResponseCacheProperties.class)
+public class ResponseCacheConfig {
+
+    @Bean
+    public ResponseCache<ResponseEntity<Object>> responseCache(ResponseCacheProperties properties) {
+        return new ResponseCache<>(properties);
+    }
+}
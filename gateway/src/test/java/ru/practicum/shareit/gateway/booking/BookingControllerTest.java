@@ -9,12 +9,16 @@ import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import ru.practicum.shareit.gateway.booking.dto.BookingDecisionBatchDto;
+import ru.practicum.shareit.gateway.booking.dto.BookingDecisionDto;
 import ru.practicum.shareit.gateway.booking.dto.BookingRequestDto;
 import ru.practicum.shareit.gateway.util.constant.Header;
 
 import java.time.LocalDateTime;
+import java.util.List;
 
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -57,4 +61,45 @@ class BookingControllerTest {
                         .contentType(MediaType.APPLICATION_JSON))
                 .andExpect(status().isBadRequest());
     }
-}
\ No newline at end of file
+
+    @Test
+    @DisplayName("Should throw exception when size is not positive in cursor mode")
+    public void getAllByItemOwnerIdAfterWhenSizeNotPositive() throws Exception {
+        mockMvc.perform(get("/bookings/owner")
+                        .header(Header.USER_ID_HEADER, 1L)
+                        .param("after", "")
+                        .param("size", "0")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @DisplayName("Should throw exception when size is too large in cursor mode")
+    public void getAllAfterWhenSizeTooLarge() throws Exception {
+        mockMvc.perform(get("/bookings")
+                        .header(Header.USER_ID_HEADER, 1L)
+                        .param("after", "")
+                        .param("size", String.valueOf(Integer.MAX_VALUE))
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/bookings/owner")
+                        .header(Header.USER_ID_HEADER, 1L)
+                        .param("after", "")
+                        .param("size", "101")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @DisplayName("Should throw exception when a decision of the batch has no approval")
+    public void changeStatusesWhenApprovedIsMissing() throws Exception {
+        BookingDecisionBatchDto batch = new BookingDecisionBatchDto(
+                List.of(new BookingDecisionDto(1L, true), new BookingDecisionDto(2L, null)), false);
+
+        mockMvc.perform(patch("/bookings/owner/batch")
+                        .header(Header.USER_ID_HEADER, 1L)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(new ObjectMapper().writeValueAsString(batch)))
+                .andExpect(status().isBadRequest());
+    }
+}
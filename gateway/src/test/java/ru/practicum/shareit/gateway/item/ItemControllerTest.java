@@ -5,20 +5,39 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.test.web.servlet.MockMvc;
+import ru.practicum.shareit.gateway.item.dto.ItemDto;
+import ru.practicum.shareit.gateway.util.bulk.BulkImporter;
 import ru.practicum.shareit.gateway.util.constant.Header;
 
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
-@WebMvcTest(ItemController.class)
+@WebMvcTest(value = ItemController.class, properties = "shareit.bulk.chunk-size=1")
 @MockBean(ItemClient.class)
+@Import(BulkImporter.class)
 class ItemControllerTest {
     @Autowired
     private MockMvc mockMvc;
 
+    @Autowired
+    private ItemClient itemClient;
+
     @Test
     @DisplayName("Should throw exception when null fields")
     public void addWhenNullFieldsThenException() throws Exception {
@@ -59,4 +78,136 @@ class ItemControllerTest {
                         .contentType(MediaType.APPLICATION_JSON))
                 .andExpect(status().isBadRequest());
     }
-}
\ No newline at end of file
+
+    @Test
+    @DisplayName("Should throw exception when search mode is unknown")
+    public void searchWhenUnknownModeThenException() throws Exception {
+        mockMvc.perform(get("/items/search")
+                        .header(Header.USER_ID_HEADER, 1)
+                        .param("text", "text")
+                        .param("mode", "fuzzy")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @DisplayName("Should throw exception when search sort is unknown")
+    public void searchWhenUnknownSortThenException() throws Exception {
+        mockMvc.perform(get("/items/search")
+                        .header(Header.USER_ID_HEADER, 1)
+                        .param("text", "text")
+                        .param("sort", "name")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @DisplayName("Should throw exception when rating of comment is out of range")
+    public void addCommentWhenRatingOutOfRangeThenException() throws Exception {
+        mockMvc.perform(post("/items/1/comment")
+                        .header(Header.USER_ID_HEADER, 1)
+                        .content("{\"text\":\"text\",\"rating\":6}")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @DisplayName("Should throw exception when availability 'from' is not before 'to'")
+    public void getAvailabilityWhenFromAfterToThenException() throws Exception {
+        mockMvc.perform(get("/items/1/availability")
+                        .header(Header.USER_ID_HEADER, 1)
+                        .param("from", "2030-01-02T10:00:00")
+                        .param("to", "2030-01-01T10:00:00"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.objectValidationViolations[0].message").value("'from' must be before 'to'"));
+    }
+
+    @Test
+    @DisplayName("Should throw exception when availability 'to' is missing")
+    public void getAvailabilityWhenNoToThenException() throws Exception {
+        mockMvc.perform(get("/items/1/availability")
+                        .header(Header.USER_ID_HEADER, 1)
+                        .param("from", "2030-01-02T10:00:00"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.fieldValidationViolations[0].field").value("to"));
+    }
+
+    @Test
+    @DisplayName("Should send valid items of csv import in chunks and report the rest by line")
+    public void addAllFromCsv() throws Exception {
+        String body = "name,description,available,requestId\r\n" +
+                "Drill,\"Cordless, \"\"18V\"\"\",true,\r\n" +
+                ",No name,true,\r\n" +
+                "Saw,Hand saw,false,7\r\n";
+        when(itemClient.addAll(1, List.of(new ItemDto(0, "Drill", "Cordless, \"18V\"", true, 0, 0))))
+                .thenReturn(ResponseEntity.ok("{\"imported\":1,\"errors\":[]}".getBytes(StandardCharsets.UTF_8)));
+        when(itemClient.addAll(1, List.of(new ItemDto(0, "Saw", "Hand saw", false, 0, 7))))
+                .thenReturn(ResponseEntity.ok(("{\"imported\":0,\"errors\":[" +
+                        "{\"row\":1,\"error\":\"Item request with id=7 not found\"}]}").getBytes(StandardCharsets.UTF_8)));
+
+        mockMvc.perform(post("/items/bulk")
+                        .header(Header.USER_ID_HEADER, 1)
+                        .content(body)
+                        .contentType("text/csv; charset=utf-8"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.imported").value(1))
+                .andExpect(jsonPath("$.errors[0].row").value(3))
+                .andExpect(jsonPath("$.errors[0].error").value("name must not be null"))
+                .andExpect(jsonPath("$.errors[1].row").value(4))
+                .andExpect(jsonPath("$.errors[1].error").value("Item request with id=7 not found"));
+        verify(itemClient, times(2)).addAll(anyLong(), any());
+    }
+
+    @Test
+    @DisplayName("Should stop bulk import and return server's response when it refuses a chunk")
+    public void addAllWhenServerRefusesChunk() throws Exception {
+        when(itemClient.addAll(anyLong(), any())).thenReturn(ResponseEntity.status(HttpStatus.NOT_FOUND)
+                .body("{\"error\":\"User with id=1 not found\"}".getBytes(StandardCharsets.UTF_8)));
+
+        mockMvc.perform(post("/items/bulk")
+                        .header(Header.USER_ID_HEADER, 1)
+                        .content("{\"name\":\"Drill\",\"description\":\"Drill\",\"available\":true}\n" +
+                                "{\"name\":\"Saw\",\"description\":\"Saw\",\"available\":true}\n")
+                        .contentType("application/x-ndjson"))
+                .andExpect(status().isNotFound());
+        verify(itemClient, times(1)).addAll(anyLong(), any());
+    }
+
+    @Test
+    @DisplayName("Should throw exception when size is not positive in cursor mode")
+    public void getAllByOwnerIdAfterWhenSizeNotPositive() throws Exception {
+        mockMvc.perform(get("/items")
+                        .header(Header.USER_ID_HEADER, 1L)
+                        .param("after", "")
+                        .param("size", "0"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @DisplayName("Should throw exception when size is too large in cursor mode")
+    public void getAllByOwnerIdAfterWhenSizeTooLarge() throws Exception {
+        mockMvc.perform(get("/items")
+                        .header(Header.USER_ID_HEADER, 1L)
+                        .param("after", "")
+                        .param("size", String.valueOf(Integer.MAX_VALUE)))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @DisplayName("Should throw exception when size of comments is not positive")
+    public void getCommentsWhenSizeNotPositive() throws Exception {
+        mockMvc.perform(get("/items/1/comments")
+                        .header(Header.USER_ID_HEADER, 1L)
+                        .param("size", "0"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @DisplayName("Should throw exception when size of comments is too large")
+    public void getCommentsWhenSizeTooLarge() throws Exception {
+        mockMvc.perform(get("/items/1/comments")
+                        .header(Header.USER_ID_HEADER, 1L)
+                        .param("size", String.valueOf(Integer.MAX_VALUE)))
+                .andExpect(status().isBadRequest());
+    }
+}
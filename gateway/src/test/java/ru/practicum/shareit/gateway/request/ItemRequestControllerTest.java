@@ -11,6 +11,7 @@ import org.springframework.test.web.servlet.MockMvc;
 import ru.practicum.shareit.gateway.request.dto.ItemRequestRequestDto;
 import ru.practicum.shareit.gateway.util.constant.Header;
 
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -32,4 +33,23 @@ class ItemRequestControllerTest {
                 .andExpect(status().isBadRequest());
     }
 
-}
\ No newline at end of file
+    @Test
+    @DisplayName("Should throw exception when answers view is unknown in cursor mode")
+    void getAllExceptAuthorAfterWhenAnswersUnknownThenThrow() throws Exception {
+        mockMvc.perform(get("/requests/all")
+                        .header(Header.USER_ID_HEADER, 1L)
+                        .param("after", "")
+                        .param("answers", "names"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @DisplayName("Should throw exception when size is too large in cursor mode")
+    void getAllExceptAuthorAfterWhenSizeTooLargeThenThrow() throws Exception {
+        mockMvc.perform(get("/requests/all")
+                        .header(Header.USER_ID_HEADER, 1L)
+                        .param("after", "")
+                        .param("size", String.valueOf(Integer.MAX_VALUE)))
+                .andExpect(status().isBadRequest());
+    }
+}
@@ -7,18 +7,32 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.test.web.servlet.MockMvc;
 import ru.practicum.shareit.gateway.user.dto.UserDto;
+import ru.practicum.shareit.gateway.util.bulk.BulkImporter;
 import ru.practicum.shareit.gateway.util.constant.Header;
 
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @WebMvcTest(UserController.class)
+@Import(BulkImporter.class)
 class UserControllerTest {
     @Autowired
     private MockMvc mockMvc;
@@ -62,4 +76,49 @@ class UserControllerTest {
                         .contentType(MediaType.APPLICATION_JSON))
                 .andExpect(status().isOk());
     }
-}
\ No newline at end of file
+
+    @Test
+    @DisplayName("Should send valid users of ndjson import and report the rest by line")
+    public void addAllFromNdjson() throws Exception {
+        String body = "{\"name\":\"John\",\"email\":\"john@mail.com\"}\n" +
+                "{\"name\":\"Bad\",\"email\":\"bad\"}\n" +
+                "\n" +
+                "{\"name\":\"Jane\",\"email\":\"jane@mail.com\"}\n" +
+                "{\"name\":";
+        when(userClient.addAll(List.of(new UserDto(0, "John", "john@mail.com"), new UserDto(0, "Jane", "jane@mail.com"))))
+                .thenReturn(ResponseEntity.ok("{\"imported\":1,\"errors\":[{\"row\":2,\"error\":\"Email already exists\"}]}"
+                        .getBytes(StandardCharsets.UTF_8)));
+
+        mockMvc.perform(post("/users/bulk")
+                        .content(body)
+                        .contentType("application/x-ndjson"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.imported").value(1))
+                .andExpect(jsonPath("$.errors.length()").value(3))
+                .andExpect(jsonPath("$.errors[0].row").value(2))
+                .andExpect(jsonPath("$.errors[0].error").value("email must be a well-formed email address"))
+                .andExpect(jsonPath("$.errors[1].row").value(4))
+                .andExpect(jsonPath("$.errors[1].error").value("Email already exists"))
+                .andExpect(jsonPath("$.errors[2].row").value(5));
+    }
+
+    @Test
+    @DisplayName("Should refuse bulk import in unsupported format")
+    public void addAllWhenUnsupportedFormat() throws Exception {
+        mockMvc.perform(post("/users/bulk")
+                        .content("[]")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isUnsupportedMediaType());
+        verify(userClient, never()).addAll(any());
+    }
+
+    @Test
+    @DisplayName("Should refuse to get more than 100 users by ids")
+    public void getAllByIdsWhenTooManyIds() throws Exception {
+        String ids = LongStream.rangeClosed(1, 101).mapToObj(String::valueOf).collect(Collectors.joining(","));
+        mockMvc.perform(get("/users")
+                        .param("ids", ids))
+                .andExpect(status().isBadRequest());
+        verify(userClient, never()).getAllByIds(anyList());
+    }
+}
@@ -0,0 +1,190 @@
+package ru.practicum.shareit.gateway.util.client;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.web.client.MockRestServiceServer;
+import org.springframework.web.client.RestTemplate;
+import ru.practicum.shareit.gateway.util.cache.ResponseCache;
+import ru.practicum.shareit.gateway.util.cache.ResponseCacheProperties;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.client.ExpectedCount.times;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.*;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withStatus;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withSuccess;
+
+class BaseClientTest {
+    private MockRestServiceServer server;
+    private TestClient client;
+
+    @BeforeEach
+    void setUp() {
+        RestTemplate rest = new RestTemplate();
+        server = MockRestServiceServer.bindTo(rest).build();
+        client = new TestClient(rest);
+    }
+
+    @Test
+    @DisplayName("Should pass server's response body and content headers as they are")
+    void passesResponseBytes() {
+        byte[] body = "[{\"id\":1,\"start\":\"2023-01-01T10:00:00\"}]".getBytes(StandardCharsets.UTF_8);
+        HttpHeaders headers = new HttpHeaders();
+        headers.setETag("\"abc\"");
+        headers.setConnection("close");
+        server.expect(requestTo("/bookings?from=0"))
+                .andExpect(method(HttpMethod.GET))
+                .andExpect(header("X-Sharer-User-Id", "1"))
+                .andRespond(withSuccess(body, MediaType.APPLICATION_JSON).headers(headers));
+
+        ResponseEntity<Object> response = client.get("/bookings?from={from}", 1L, Map.of("from", 0));
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertArrayEquals(body, (byte[]) response.getBody());
+        assertEquals(MediaType.APPLICATION_JSON, response.getHeaders().getContentType());
+        assertEquals("\"abc\"", response.getHeaders().getETag());
+        assertFalse(response.getHeaders().containsKey(HttpHeaders.CONNECTION));
+        server.verify();
+    }
+
+    @Test
+    @DisplayName("Should pass server's error as it is")
+    void passesErrorBytes() {
+        byte[] body = "{\"error\":\"User with id=1 not found\"}".getBytes(StandardCharsets.UTF_8);
+        server.expect(requestTo("/users/1"))
+                .andRespond(withStatus(HttpStatus.NOT_FOUND).contentType(MediaType.APPLICATION_JSON).body(body));
+
+        ResponseEntity<Object> response = client.get("/users/1");
+
+        assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
+        assertArrayEquals(body, (byte[]) response.getBody());
+        assertEquals(MediaType.APPLICATION_JSON, response.getHeaders().getContentType());
+    }
+
+    @Test
+    @DisplayName("Should send request body as json and return response without body")
+    void sendsJsonBody() {
+        server.expect(requestTo("/users/1"))
+                .andExpect(method(HttpMethod.PATCH))
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                .andExpect(content().json("{\"name\":\"name\"}"))
+                .andRespond(withSuccess());
+
+        ResponseEntity<Object> response = client.patch("/users/1", Map.of("name", "name"));
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertNull(response.getBody());
+    }
+
+    @Test
+    @DisplayName("Should pass client's If-None-Match to the server and server's 304 back")
+    void passesNotModified() {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setETag("W/\"abc\"");
+        server.expect(requestTo("/items/1"))
+                .andExpect(header(HttpHeaders.IF_NONE_MATCH, "W/\"abc\""))
+                .andRespond(withStatus(HttpStatus.NOT_MODIFIED).headers(headers));
+
+        ResponseEntity<Object> response = client.get("/items/1", 1L, null, "W/\"abc\"");
+
+        assertEquals(HttpStatus.NOT_MODIFIED, response.getStatusCode());
+        assertEquals("W/\"abc\"", response.getHeaders().getETag());
+        assertNull(response.getBody());
+        server.verify();
+    }
+
+    @Test
+    @DisplayName("Should serve a cached response till a mutation evicts it")
+    void cachesResponsesTillEvicted() {
+        ResponseCacheProperties properties = new ResponseCacheProperties();
+        properties.setEnabled(true);
+        properties.setTtl(Map.of(ResponseCache.ITEMS, Duration.ofMinutes(1)));
+        RestTemplate rest = new RestTemplate();
+        server = MockRestServiceServer.bindTo(rest).build();
+        client = new TestClient(rest, new ResponseCache<>(properties));
+        server.expect(requestTo("/1"))
+                .andExpect(header("X-Sharer-User-Id", "1"))
+                .andRespond(withSuccess("{\"id\":1}", MediaType.APPLICATION_JSON));
+        server.expect(requestTo("/1"))
+                .andExpect(header("X-Sharer-User-Id", "2"))
+                .andRespond(withSuccess("{\"id\":1}", MediaType.APPLICATION_JSON));
+        server.expect(requestTo("/1"))
+                .andExpect(method(HttpMethod.PATCH))
+                .andRespond(withSuccess());
+        server.expect(requestTo("/1"))
+                .andExpect(method(HttpMethod.GET))
+                .andRespond(withSuccess("{\"id\":1}", MediaType.APPLICATION_JSON));
+
+        ResponseEntity<Object> first = client.getCached("/1", 1L);
+        assertSame(first, client.getCached("/1", 1L));
+        client.getCached("/1", 2L);
+        client.evictOnSuccess(client.patch("/1", 1L, Map.of("name", "name")),
+                () -> client.responseCache.evict(ResponseCache.ITEMS, "/1"));
+        ResponseEntity<Object> afterEviction = client.getCached("/1", 1L);
+
+        assertNotSame(first, afterEviction);
+        assertArrayEquals((byte[]) first.getBody(), (byte[]) afterEviction.getBody());
+        server.verify();
+    }
+
+    @Test
+    @DisplayName("Should answer 304 from the cache when client has the tag of the cached response")
+    void answersNotModifiedFromCache() {
+        ResponseCacheProperties properties = new ResponseCacheProperties();
+        properties.setEnabled(true);
+        properties.setTtl(Map.of(ResponseCache.ITEMS, Duration.ofMinutes(1)));
+        RestTemplate rest = new RestTemplate();
+        server = MockRestServiceServer.bindTo(rest).build();
+        client = new TestClient(rest, new ResponseCache<>(properties));
+        HttpHeaders headers = new HttpHeaders();
+        headers.setETag("W/\"abc\"");
+        server.expect(requestTo("/1"))
+                .andRespond(withSuccess("{\"id\":1}", MediaType.APPLICATION_JSON).headers(headers));
+
+        ResponseEntity<Object> cached = client.getCached("/1", 1L, null);
+        ResponseEntity<Object> notModified = client.getCached("/1", 1L, "\"abc\"");
+
+        assertEquals(HttpStatus.NOT_MODIFIED, notModified.getStatusCode());
+        assertEquals("W/\"abc\"", notModified.getHeaders().getETag());
+        assertNull(notModified.getBody());
+        assertSame(cached, client.getCached("/1", 1L, "W/\"def\""));
+        server.verify();
+    }
+
+    @Test
+    @DisplayName("Should not cache errors")
+    void doesNotCacheErrors() {
+        ResponseCacheProperties properties = new ResponseCacheProperties();
+        properties.setEnabled(true);
+        properties.setTtl(Map.of(ResponseCache.ITEMS, Duration.ofMinutes(1)));
+        RestTemplate rest = new RestTemplate();
+        server = MockRestServiceServer.bindTo(rest).build();
+        client = new TestClient(rest, new ResponseCache<>(properties));
+        server.expect(times(2), requestTo("/1"))
+                .andRespond(withStatus(HttpStatus.NOT_FOUND));
+
+        client.getCached("/1", 1L);
+        client.getCached("/1", 1L);
+
+        server.verify();
+    }
+
+    private static class TestClient extends BaseClient {
+        TestClient(RestTemplate rest) {
+            super(rest);
+        }
+
+        TestClient(RestTemplate rest, ResponseCache<ResponseEntity<Object>> responseCache) {
+            super(rest, ResponseCache.ITEMS, responseCache);
+        }
+    }
+}
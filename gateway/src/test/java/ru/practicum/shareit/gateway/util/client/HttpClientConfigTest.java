@@ -0,0 +1,82 @@
+package ru.practicum.shareit.gateway.util.client;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.client.AbstractClientHttpRequestFactoryWrapper;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.client.RestTemplate;
+import ru.practicum.shareit.gateway.booking.BookingClient;
+import ru.practicum.shareit.gateway.item.ItemClient;
+import ru.practicum.shareit.gateway.request.ItemRequestClient;
+import ru.practicum.shareit.gateway.user.UserClient;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+@SpringBootTest(properties = {
+        "shareit-server.http-client.max-connections=50",
+        "shareit-server.http-client.max-connections-per-route=20"
+})
+@TestPropertySource(locations = "classpath:test.properties")
+class HttpClientConfigTest {
+    @Autowired
+    private ClientHttpRequestFactory requestFactory;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private UserClient userClient;
+
+    @Autowired
+    private ItemClient itemClient;
+
+    @Autowired
+    private BookingClient bookingClient;
+
+    @Autowired
+    private ItemRequestClient itemRequestClient;
+
+    @Test
+    @DisplayName("Should share one request factory between all clients")
+    void clientsShareRequestFactory() {
+        for (BaseClient client : List.of(userClient, itemClient, bookingClient, itemRequestClient)) {
+            RestTemplate rest = (RestTemplate) ReflectionTestUtils.getField(client, "rest");
+            assertSame(requestFactory, unwrap(rest.getRequestFactory()));
+        }
+    }
+
+    @Test
+    @DisplayName("Should expose configured pool limits and usage as metrics")
+    void poolMetrics() {
+        assertEquals(50, gauge("httpcomponents.httpclient.pool.total.max"));
+        assertEquals(20, gauge("httpcomponents.httpclient.pool.route.max.default"));
+        assertEquals(0, gauge("httpcomponents.httpclient.pool.total.pending"));
+        assertEquals(0, meterRegistry.get("httpcomponents.httpclient.pool.total.connections")
+                .tag("httpclient", HttpClientConfig.POOL_NAME)
+                .tag("state", "leased")
+                .gauge()
+                .value());
+    }
+
+    /**
+     * Rest templates built by Spring Boot wrap the factory to add interceptors, e.g. for http.client.requests metrics
+     */
+    private static ClientHttpRequestFactory unwrap(ClientHttpRequestFactory factory) {
+        while (factory instanceof AbstractClientHttpRequestFactoryWrapper) {
+            factory = (ClientHttpRequestFactory) ReflectionTestUtils.getField(factory, "requestFactory");
+        }
+        return factory;
+    }
+
+    private double gauge(String name) {
+        return meterRegistry.get(name).tag("httpclient", HttpClientConfig.POOL_NAME).gauge().value();
+    }
+}
@@ -0,0 +1,82 @@
+#!/usr/bin/env bash
+#
+# Helpers shared by the load test scripts. Settings (environment variables):
+#   CONNECTIONS   concurrent connections to try, "50 400 1600" by default.
+#                 Tomcat serves 200 requests at a time by default, so the difference shows above that
+#   DURATION      duration of every run, 30s by default
+#   THREADS       wrk threads, 4 by default
+
+CONNECTIONS=${CONNECTIONS:-"50 400 1600"}
+DURATION=${DURATION:-30s}
+THREADS=${THREADS:-4}
+
+require_tools() {
+    for tool in "$@"; do
+        if ! command -v "$tool" > /dev/null; then
+            echo "$tool is required" >&2
+            exit 1
+        fi
+    done
+}
+
+# Ids of the created entities are read from the server's json, the gateways return it unchanged
+id_of() {
+    sed -E 's/^\{"id":([0-9]+).*/\1/'
+}
+
+wait_until_up() {
+    local url=$1
+    for _ in $(seq 1 60); do
+        if curl -sf -o /dev/null "$url/users"; then
+            return
+        fi
+        sleep 2
+    done
+    echo "$url did not start" >&2
+    exit 1
+}
+
+# Creates an owner with an item and a booker with ten bookings of it, fills the scenarios array
+prepare_data() {
+    local url=$1
+    echo "Preparing data through $url"
+    local suffix user_id booker_id item_id start end
+    suffix=$(date +%s%N)
+    user_id=$(curl -sf -X POST "$url/users" -H 'Content-Type: application/json' \
+        -d "{\"name\":\"load\",\"email\":\"load$suffix@mail.com\"}" | id_of)
+    booker_id=$(curl -sf -X POST "$url/users" -H 'Content-Type: application/json' \
+        -d "{\"name\":\"booker\",\"email\":\"booker$suffix@mail.com\"}" | id_of)
+    item_id=$(curl -sf -X POST "$url/items" -H 'Content-Type: application/json' -H "X-Sharer-User-Id: $user_id" \
+        -d '{"name":"Drill","description":"Cordless drill","available":true}' | id_of)
+    for day in 1 2 3 4 5 6 7 8 9 10; do
+        start=$(date -u -d "+$((day * 2)) days" +%Y-%m-%dT%H:%M:%S)
+        end=$(date -u -d "+$((day * 2 + 1)) days" +%Y-%m-%dT%H:%M:%S)
+        curl -sf -o /dev/null -X POST "$url/bookings" -H 'Content-Type: application/json' \
+            -H "X-Sharer-User-Id: $booker_id" -d "{\"itemId\":$item_id,\"start\":\"$start\",\"end\":\"$end\"}"
+    done
+
+    scenarios=(
+        "user by id|/users/$user_id|$user_id"
+        "item by id|/items/$item_id|$user_id"
+        "bookings of booker|/bookings?state=ALL&from=0&size=10|$booker_id"
+    )
+}
+
+print_header() {
+    printf '\n%-20s %-9s %-12s %12s %10s %10s %10s\n' "scenario" "mode" "connections" "requests/s" "p50" "p99" \
+        "errors"
+}
+
+# Runs one scenario with wrk and prints a row of the table
+run_scenario() {
+    local label=$1 url=$2 name=$3 sharer_id=$4 connections=$5
+    local result rps p50 p99 non2xx socket_errors
+    result=$(wrk -t"$THREADS" -c"$connections" -d"$DURATION" --latency -H "X-Sharer-User-Id: $sharer_id" "$url")
+    rps=$(awk '/^Requests\/sec/ {print $2}' <<< "$result")
+    p50=$(awk '$1 == "50%" {print $2}' <<< "$result")
+    p99=$(awk '$1 == "99%" {print $2}' <<< "$result")
+    non2xx=$(awk '/Non-2xx or 3xx responses/ {print $5}' <<< "$result")
+    socket_errors=$(awk -F'[ ,]+' '/Socket errors/ {print $5 + $7 + $9 + $11}' <<< "$result")
+    printf '%-20s %-9s %-12s %12s %10s %10s %10s\n' "$name" "$label" "$connections" "$rps" "$p50" "$p99" \
+        "$(( ${non2xx:-0} + ${socket_errors:-0} ))"
+}
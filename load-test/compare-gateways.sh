@@ -0,0 +1,30 @@
+#!/usr/bin/env bash
+#
+# Sends the same read load through the servlet and the reactive gateway and prints throughput and latency of both.
+# Both kinds of gateway run as two replicas behind haproxy, start them with:
+#   mvn clean install -DskipTests
+#   TZ='Asia/Barnaul' docker-compose --profile reactive up
+# Requires curl and wrk (https://github.com/wg/wrk).
+#
+# Settings (environment variables), see also common.sh:
+#   SERVLET_URL   servlet gateways, http://localhost:8080 by default
+#   REACTIVE_URL  reactive gateways, http://localhost:8081 by default
+
+set -euo pipefail
+
+source "$(dirname "$0")/common.sh"
+
+SERVLET_URL=${SERVLET_URL:-http://localhost:8080}
+REACTIVE_URL=${REACTIVE_URL:-http://localhost:8081}
+
+require_tools curl wrk
+prepare_data "$SERVLET_URL"
+
+print_header
+for scenario in "${scenarios[@]}"; do
+    IFS='|' read -r name path sharer_id <<< "$scenario"
+    for connections in $CONNECTIONS; do
+        run_scenario servlet "$SERVLET_URL$path" "$name" "$sharer_id" "$connections"
+        run_scenario reactive "$REACTIVE_URL$path" "$name" "$sharer_id" "$connections"
+    done
+done
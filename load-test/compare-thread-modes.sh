@@ -0,0 +1,50 @@
+#!/usr/bin/env bash
+#
+# Sends the same read load through the gateway while the server and the gateway handle requests
+# on Tomcat's platform threads and then on virtual threads, and prints throughput and latency of both modes.
+# The containers are recreated by the script between the runs, build the images first:
+#   mvn clean install -DskipTests
+#   docker-compose build
+# Requires docker-compose, curl and wrk (https://github.com/wg/wrk).
+#
+# Settings (environment variables), see also common.sh:
+#   GATEWAY_URL   gateways behind haproxy, http://localhost:8080 by default
+
+set -euo pipefail
+
+source "$(dirname "$0")/common.sh"
+
+GATEWAY_URL=${GATEWAY_URL:-http://localhost:8080}
+export TZ=${TZ:-UTC}
+
+require_tools docker-compose curl wrk
+cd "$(dirname "$0")/.."
+
+declare -A results
+for mode in platform virtual; do
+    virtual_threads=false
+    if [ "$mode" = virtual ]; then
+        virtual_threads=true
+    fi
+    echo "Starting server and gateways on $mode threads"
+    SHAREIT_VIRTUAL_THREADS=$virtual_threads docker-compose up -d haproxy > /dev/null
+    wait_until_up "$GATEWAY_URL"
+    prepare_data "$GATEWAY_URL"
+
+    for scenario in "${scenarios[@]}"; do
+        IFS='|' read -r name path sharer_id <<< "$scenario"
+        for connections in $CONNECTIONS; do
+            results["$name|$connections|$mode"]=$(run_scenario "$mode" "$GATEWAY_URL$path" "$name" "$sharer_id" \
+                "$connections")
+        done
+    done
+done
+
+print_header
+for scenario in "${scenarios[@]}"; do
+    IFS='|' read -r name path sharer_id <<< "$scenario"
+    for connections in $CONNECTIONS; do
+        echo "${results["$name|$connections|platform"]}"
+        echo "${results["$name|$connections|virtual"]}"
+    done
+done
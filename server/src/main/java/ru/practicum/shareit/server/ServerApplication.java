@@ -2,8 +2,13 @@ package ru.practicum.shareit.server;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.context.annotation.Import;
+import ru.practicum.shareit.common.concurrency.VirtualThreadsConfig;
 
 @SpringBootApplication
+@Import(VirtualThreadsConfig.class)
+@EnableCaching
 public class ServerApplication {
 
     public static void main(String[] args) {
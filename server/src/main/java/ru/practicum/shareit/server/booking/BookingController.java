@@ -2,11 +2,18 @@ package ru.practicum.shareit.server.booking;
 
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import ru.practicum.shareit.server.booking.model.dto.BookingDecisionBatchDto;
+import ru.practicum.shareit.server.booking.model.dto.BookingDecisionResultDto;
 import ru.practicum.shareit.server.booking.model.dto.BookingRequestDto;
 import ru.practicum.shareit.server.booking.model.dto.BookingResponseDto;
+import ru.practicum.shareit.server.util.batch.BatchResult;
 import ru.practicum.shareit.server.util.constant.Header;
+import ru.practicum.shareit.server.util.etag.EntityTags;
+import ru.practicum.shareit.server.util.pagination.CursorSlice;
 
 import java.util.Collection;
+import java.util.List;
 
 
 @Slf4j
@@ -36,6 +43,14 @@ public class BookingController {
         return bookingResponseDto;
     }
 
+    @PatchMapping("/owner/batch")
+    public List<BookingDecisionResultDto> changeStatuses(@RequestBody BookingDecisionBatchDto batch,
+                                                         @RequestHeader(Header.USER_ID_HEADER) long itemOwnerId) {
+        List<BookingDecisionResultDto> results = bookingService.changeStatuses(itemOwnerId, batch);
+        log.info("{} decisions on bookings were processed for items owner with id={}", results.size(), itemOwnerId);
+        return results;
+    }
+
     @GetMapping
     public Collection<BookingResponseDto> getAllSortedByStartTimeDesc(
             @RequestHeader(Header.USER_ID_HEADER) long bookerId,
@@ -48,18 +63,60 @@ public class BookingController {
         return bookings;
     }
 
+    @GetMapping(params = "after")
+    public CursorSlice<BookingResponseDto> getAllAfter(
+            @RequestHeader(Header.USER_ID_HEADER) long bookerId,
+            @RequestParam(defaultValue = "ALL") BookingState state,
+            @RequestParam String after,
+            @RequestParam(defaultValue = "10") int size) {
+        CursorSlice<BookingResponseDto> bookings = bookingService.getAllByBookerIdAfter(bookerId, state, after, size);
+        log.info("Bookings with state={} after cursor '{}' were retrieved by booker with id={}", state, after, bookerId);
+        return bookings;
+    }
+
     @GetMapping("/owner")
     public Collection<BookingResponseDto> getAllByItemOwnerIdSortedByStartTimeDesc(
             @RequestHeader(Header.USER_ID_HEADER) long itemOwnerId,
             @RequestParam(defaultValue = "ALL") BookingState state,
             @RequestParam(defaultValue = "0") int from,
-            @RequestParam(defaultValue = "10") int size) {
+            @RequestParam(defaultValue = "10") int size,
+            WebRequest request) {
         Collection<BookingResponseDto> bookings = bookingService
                 .getAllByItemOwnerIdSortedByStartTimeDesc(itemOwnerId, state, from, size);
+        if (request.checkNotModified(EntityTags.weak(bookings))) {
+            log.info("Bookings of items owner with id={} not modified", itemOwnerId);
+            return null;
+        }
         log.info("Bookings with state={} were retrieved by items owner with id={}", state, itemOwnerId);
         return bookings;
     }
 
+    @GetMapping(path = "/owner", params = "after")
+    public CursorSlice<BookingResponseDto> getAllByItemOwnerIdAfter(
+            @RequestHeader(Header.USER_ID_HEADER) long itemOwnerId,
+            @RequestParam(defaultValue = "ALL") BookingState state,
+            @RequestParam String after,
+            @RequestParam(defaultValue = "10") int size,
+            WebRequest request) {
+        CursorSlice<BookingResponseDto> bookings = bookingService
+                .getAllByItemOwnerIdAfter(itemOwnerId, state, after, size);
+        if (request.checkNotModified(EntityTags.weak(bookings.getContent(), bookings.getNext()))) {
+            log.info("Bookings of items owner with id={} not modified", itemOwnerId);
+            return null;
+        }
+        log.info("Bookings with state={} after cursor '{}' were retrieved by items owner with id={}",
+                state, after, itemOwnerId);
+        return bookings;
+    }
+
+    @GetMapping(params = "ids")
+    public BatchResult<BookingResponseDto> getAllByIds(@RequestHeader(Header.USER_ID_HEADER) long userId,
+                                                       @RequestParam List<Long> ids) {
+        BatchResult<BookingResponseDto> bookings = bookingService.getDtosByIds(ids, userId);
+        log.info("{} of {} bookings were retrieved by ids", bookings.getFound().size(), ids.size());
+        return bookings;
+    }
+
     @GetMapping("/{bookingId}")
     public BookingResponseDto getById(@PathVariable long bookingId,
                                       @RequestHeader(Header.USER_ID_HEADER) long userId) {
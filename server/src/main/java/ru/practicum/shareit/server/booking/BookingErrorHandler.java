@@ -10,6 +10,7 @@ import ru.practicum.shareit.server.booking.exception.*;
 import ru.practicum.shareit.server.error.ErrorResponse;
 
 import static org.springframework.http.HttpStatus.BAD_REQUEST;
+import static org.springframework.http.HttpStatus.CONFLICT;
 import static org.springframework.http.HttpStatus.NOT_FOUND;
 
 @Slf4j
@@ -41,6 +42,14 @@ public class BookingErrorHandler {
         return ErrorResponse.builder().error(message).build();
     }
 
+    @ExceptionHandler(BookingConflictException.class)
+    @ResponseStatus(CONFLICT)
+    public ErrorResponse onBookingConflictException(final BookingConflictException e) {
+        String message = "Booking overlaps an approved booking: " + e.getMessage();
+        log.warn("Booking overlaps an approved booking", e);
+        return ErrorResponse.builder().error(message).build();
+    }
+
     @ExceptionHandler(SameItemOwnerAndBookerIdException.class)
     @ResponseStatus(NOT_FOUND) //for some reason postman test requires not found status
     public ErrorResponse onSameItemOwnerAndBookerIdException(final SameItemOwnerAndBookerIdException e) {
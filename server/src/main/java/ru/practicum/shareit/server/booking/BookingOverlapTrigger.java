@@ -0,0 +1,47 @@
+package ru.practicum.shareit.server.booking;
+
+import org.h2.tools.TriggerAdapter;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * H2 has no exclusion constraints, the trigger keeps approved bookings of an item from overlapping instead.
+ * The item row is locked first, so approvals of the same item made at the same time are checked one after another.
+ * <p>
+ * The error carries the name of the Postgres constraint and the state of an integrity violation,
+ * so the service tells it apart from other violations the same way on both databases
+ */
+public class BookingOverlapTrigger extends TriggerAdapter {
+    static final String NAME = "excl_bookings_item_approved_period";
+
+    @Override
+    public void fire(Connection conn, ResultSet oldRow, ResultSet newRow) throws SQLException {
+        if (newRow == null || !"APPROVED".equals(newRow.getString("status"))) {
+            return;
+        }
+        long itemId = newRow.getLong("item_id");
+        try (PreparedStatement lock = conn.prepareStatement("select item_id from items where item_id = ? for update")) {
+            lock.setLong(1, itemId);
+            lock.executeQuery().close();
+        }
+        try (PreparedStatement overlapping = conn.prepareStatement(
+                "select booking_id from bookings " +
+                        "where item_id = ? and booking_id <> ? and status = 'APPROVED' " +
+                        "and booking_start < ? and booking_end > ? " +
+                        "limit 1")) {
+            overlapping.setLong(1, itemId);
+            overlapping.setLong(2, newRow.getLong("booking_id"));
+            overlapping.setTimestamp(3, newRow.getTimestamp("booking_end"));
+            overlapping.setTimestamp(4, newRow.getTimestamp("booking_start"));
+            try (ResultSet found = overlapping.executeQuery()) {
+                if (found.next()) {
+                    throw new SQLException(String.format("%s: booking with id=%d overlaps approved booking with id=%d",
+                            NAME, newRow.getLong("booking_id"), found.getLong(1)), "23000");
+                }
+            }
+        }
+    }
+}
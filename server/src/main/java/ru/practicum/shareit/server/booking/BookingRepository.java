@@ -1,83 +1,245 @@
 package ru.practicum.shareit.server.booking;
 
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import ru.practicum.shareit.server.booking.model.Booking;
 import ru.practicum.shareit.server.booking.model.BookingStatus;
+import ru.practicum.shareit.server.booking.model.dto.BookingResponseDto;
 
-
+import javax.persistence.LockModeType;
+import java.time.LocalDateTime;
 import java.util.*;
 
-public interface BookingRepository extends JpaRepository<Booking, Long> {
+import static ru.practicum.shareit.server.booking.model.Booking.WITH_BOOKER_AND_ITEM;
+
+public interface BookingRepository extends JpaRepository<Booking, Long>, BookingRepositoryCustom {
+    /**
+     * Listings are read straight into response dtos, so no entities are created and tracked for them
+     */
+    String SELECT_RESPONSE_DTO = "select new ru.practicum.shareit.server.booking.model.dto.BookingResponseDto(" +
+            "b.id, b.start, b.end, b.status, " +
+            "booker.id, booker.name, booker.email, " +
+            "i.id, i.name, i.description, i.available, i.owner.id, i.request.id" +
+            ") from Booking b " +
+            "join b.booker booker " +
+            "join b.item i ";
 
     @Query(
-            "select b from Booking b " +
+            SELECT_RESPONSE_DTO +
                     "where current_timestamp between b.start and b.end and " +
                     "b.booker.id = :bookerId"
     )
-    Page<Booking> findAllCurrentByBooker_Id(long bookerId, PageRequest pageRequest);
+    Slice<BookingResponseDto> findAllCurrentByBooker_Id(long bookerId, PageRequest pageRequest);
 
     @Query(
-            "select b from Booking b " +
+            SELECT_RESPONSE_DTO +
                     "where b.end < current_timestamp and " +
                     "b.status = 'APPROVED' and " +
                     "b.booker.id = :bookerId"
     )
-    Page<Booking> findAllPastByBooker_Id(long bookerId, PageRequest pageRequest);
+    Slice<BookingResponseDto> findAllPastByBooker_Id(long bookerId, PageRequest pageRequest);
 
     @Query(
-            "select b from Booking b " +
+            SELECT_RESPONSE_DTO +
                     "where b.start > current_timestamp and " +
                     "(b.status = 'APPROVED' or b.status = 'WAITING') and " +
                     "b.booker.id = :bookerId"
     )
-    Page<Booking> findAllFutureByBooker_Id(long bookerId, PageRequest pageRequest);
+    Slice<BookingResponseDto> findAllFutureByBooker_Id(long bookerId, PageRequest pageRequest);
 
-    Page<Booking> findAllByStatusAndBooker_Id(BookingStatus bookingStatus, long bookerId, PageRequest pageRequest);
+    @Query(
+            SELECT_RESPONSE_DTO +
+                    "where b.status = :bookingStatus and " +
+                    "b.booker.id = :bookerId"
+    )
+    Slice<BookingResponseDto> findAllByStatusAndBooker_Id(BookingStatus bookingStatus, long bookerId,
+                                                          PageRequest pageRequest);
 
-    Page<Booking> findAllByBooker_Id(long bookerId, PageRequest pageRequest);
+    @Query(
+            SELECT_RESPONSE_DTO +
+                    "where b.booker.id = :bookerId"
+    )
+    Slice<BookingResponseDto> findAllByBooker_Id(long bookerId, PageRequest pageRequest);
 
     @Query(
-            "select b from Booking b " +
+            SELECT_RESPONSE_DTO +
                     "where current_timestamp between b.start and b.end and " +
-                    "b.item.owner.id = :itemOwnerId " +
+                    "i.owner.id = :itemOwnerId " +
                     "order by b.start desc"
     )
-    Page<Booking> findAllCurrentByItem_Owner_IdOrderByStartDesc(long itemOwnerId, PageRequest pageRequest);
+    Slice<BookingResponseDto> findAllCurrentByItem_Owner_IdOrderByStartDesc(long itemOwnerId,
+                                                                            PageRequest pageRequest);
 
     @Query(
-            "select b from Booking b " +
+            SELECT_RESPONSE_DTO +
                     "where b.end < current_timestamp and " +
                     "b.status = 'APPROVED' and " +
-                    "b.item.owner.id = :itemOwnerId " +
+                    "i.owner.id = :itemOwnerId " +
                     "order by b.start desc"
     )
-    Page<Booking> findAllPastByItem_Owner_IdOrderByStartDesc(long itemOwnerId, PageRequest pageRequest);
+    Slice<BookingResponseDto> findAllPastByItem_Owner_IdOrderByStartDesc(long itemOwnerId, PageRequest pageRequest);
 
     @Query(
-            "select b from Booking b " +
+            SELECT_RESPONSE_DTO +
                     "where b.start > current_timestamp and " +
                     "(b.status = 'APPROVED' or b.status = 'WAITING') and " +
-                    "b.item.owner.id = :itemOwnerId " +
+                    "i.owner.id = :itemOwnerId " +
+                    "order by b.start desc"
+    )
+    Slice<BookingResponseDto> findAllFutureByItem_Owner_IdOrderByStartDesc(long itemOwnerId,
+                                                                           PageRequest pageRequest);
+
+    @Query(
+            SELECT_RESPONSE_DTO +
+                    "where b.status = :bookingStatus and " +
+                    "i.owner.id = :itemOwnerId " +
+                    "order by b.start desc"
+    )
+    Slice<BookingResponseDto> findAllByStatusAndItem_Owner_IdOrderByStartDesc(BookingStatus bookingStatus,
+                                                                              long itemOwnerId,
+                                                                              PageRequest pageRequest);
+
+    @Query(
+            SELECT_RESPONSE_DTO +
+                    "where i.owner.id = :itemOwnerId " +
                     "order by b.start desc"
     )
-    Page<Booking> findAllFutureByItem_Owner_IdOrderByStartDesc(long itemOwnerId, PageRequest pageRequest);
+    Slice<BookingResponseDto> findAllByItem_Owner_IdOrderByStartDesc(long itemOwnerId, PageRequest pageRequest);
 
-    Page<Booking> findAllByStatusAndItem_Owner_IdOrderByStartDesc(BookingStatus bookingStatus, long itemOwnerId,
-                                                                  PageRequest pageRequest);
+    @Override
+    @EntityGraph(WITH_BOOKER_AND_ITEM)
+    Optional<Booking> findById(Long id);
 
-    Page<Booking> findAllByItem_Owner_IdOrderByStartDesc(long itemOwnerId, PageRequest pageRequest);
+    @EntityGraph(WITH_BOOKER_AND_ITEM)
+    List<Booking> findAllByIdIn(Collection<Long> ids);
 
     Collection<Booking> findAllByItem_IdAndBooker_Id(long itemId, long bookerId);
 
     @Query(
-            "select b.item.id, b from Booking b " +
-                    "where b.item.id in :itemIds"
+            "select b from Booking b " +
+                    "where b.item.id = :itemId and " +
+                    "b.status = 'APPROVED' and " +
+                    "b.end > :after " +
+                    "order by b.start"
+    )
+    List<Booking> findAllApprovedByItem_IdEndingAfter(long itemId, LocalDateTime after);
+
+    @Query(
+            "select b from Booking b " +
+                    "where b.item.id in :itemIds and " +
+                    "b.status = 'APPROVED' and " +
+                    "b.end > :after " +
+                    "order by b.start"
+    )
+    List<Booking> findAllApprovedByItem_IdInEndingAfter(Collection<Long> itemIds, LocalDateTime after);
+
+    /**
+     * Locks the bookings till the end of the transaction, so they can be decided on without version checks.
+     * Owners of the items are not fetched, their ids are compared through the lazy proxies without a query
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query(
+            "select b from Booking b " +
+                    "join fetch b.item " +
+                    "where b.id in :ids"
+    )
+    List<Booking> findAllByIdInForUpdate(Collection<Long> ids);
+
+    /**
+     * Ids of waiting bookings that overlap any of the given bookings of the same item
+     */
+    @Query(
+            "select b.id from Booking b " +
+                    "where b.status = 'WAITING' and " +
+                    "b.id not in :excludedIds and " +
+                    "exists (select a.id from Booking a " +
+                    "where a.id in :bookingIds and " +
+                    "a.item = b.item and " +
+                    "a.start < b.end and " +
+                    "a.end > b.start)"
+    )
+    List<Long> findAllWaitingIdsOverlapping(Collection<Long> bookingIds, Collection<Long> excludedIds);
+
+    /**
+     * Bumps the version, so concurrent single decisions holding an old copy of a booking fail
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query(
+            "update Booking b " +
+                    "set b.status = :status, b.version = b.version + 1 " +
+                    "where b.id in :ids and b.status <> 'APPROVED'"
+    )
+    int updateStatusOfNotApproved(Collection<Long> ids, BookingStatus status);
+
+    @Query(
+            "select i.id, b from Booking b " +
+                    "join fetch b.booker " +
+                    "join fetch b.item i " +
+                    "join fetch i.owner " +
+                    "where i.id in :itemIds"
     )
     List<Object[]> findAllByItem_Id(Iterable<Long> itemIds);
 
+    /**
+     * For every given item returns the booking that started before {@code now} and ends the latest.
+     * Resolved with a window function, so only one row per item leaves the database
+     */
+    @Query(
+            value = "select b.booking_id, b.booking_start, b.booking_end, b.status, b.booker_id, b.item_id, b.version " +
+                    "from (" +
+                    "select bk.*, row_number() over (" +
+                    "partition by bk.item_id order by bk.booking_end desc, bk.booking_id desc) as rn " +
+                    "from bookings bk " +
+                    "where bk.item_id in (:itemIds) and bk.booking_start < :now" +
+                    ") b where b.rn = 1",
+            nativeQuery = true
+    )
+    List<Booking> findLastByItem_IdIn(Collection<Long> itemIds, LocalDateTime now);
+
+    /**
+     * For every given item returns the nearest booking that starts after {@code now} and was neither
+     * rejected nor canceled. Resolved with a window function, so only one row per item leaves the database
+     */
+    @Query(
+            value = "select b.booking_id, b.booking_start, b.booking_end, b.status, b.booker_id, b.item_id, b.version " +
+                    "from (" +
+                    "select bk.*, row_number() over (" +
+                    "partition by bk.item_id order by bk.booking_start, bk.booking_id) as rn " +
+                    "from bookings bk " +
+                    "where bk.item_id in (:itemIds) and bk.booking_start > :now and " +
+                    "bk.status not in ('REJECTED', 'CANCELED')" +
+                    ") b where b.rn = 1",
+            nativeQuery = true
+    )
+    List<Booking> findNextByItem_IdIn(Collection<Long> itemIds, LocalDateTime now);
+
+    default Map<Long, Booking> findLastByItem_IdAsMap(Collection<Long> itemIds, LocalDateTime now) {
+        if (itemIds.isEmpty()) {
+            return new HashMap<>();
+        }
+        return toItemIdMap(findLastByItem_IdIn(itemIds, now));
+    }
+
+    default Map<Long, Booking> findNextByItem_IdAsMap(Collection<Long> itemIds, LocalDateTime now) {
+        if (itemIds.isEmpty()) {
+            return new HashMap<>();
+        }
+        return toItemIdMap(findNextByItem_IdIn(itemIds, now));
+    }
+
+    private static Map<Long, Booking> toItemIdMap(List<Booking> bookings) {
+        Map<Long, Booking> itemIdToBooking = new HashMap<>();
+        for (Booking booking : bookings) {
+            itemIdToBooking.put(booking.getItem().getId(), booking);
+        }
+        return itemIdToBooking;
+    }
+
     default Map<Long, List<Booking>> findAllByItem_IdAsMap(Iterable<Long> itemIds) {
         List<Object[]> results = findAllByItem_Id(itemIds);
         Map<Long, List<Booking>> itemIdToBookings = new HashMap<>();
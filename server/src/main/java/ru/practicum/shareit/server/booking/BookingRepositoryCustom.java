@@ -0,0 +1,23 @@
+package ru.practicum.shareit.server.booking;
+
+import ru.practicum.shareit.server.booking.model.dto.BookingResponseDto;
+import ru.practicum.shareit.server.util.pagination.Cursor;
+
+import java.util.List;
+
+public interface BookingRepositoryCustom {
+
+    /**
+     * Bookings with the given state sorted by start and id descending, that go after the cursor
+     *
+     * @param after null to start from the first booking
+     */
+    List<BookingResponseDto> findAllByBooker_IdAfter(long bookerId, BookingState state, Cursor after, int limit);
+
+    /**
+     * Bookings of owner's items with the given state sorted by start and id descending, that go after the cursor
+     *
+     * @param after null to start from the first booking
+     */
+    List<BookingResponseDto> findAllByItem_Owner_IdAfter(long itemOwnerId, BookingState state, Cursor after, int limit);
+}
@@ -0,0 +1,68 @@
+package ru.practicum.shareit.server.booking;
+
+import ru.practicum.shareit.server.booking.model.BookingStatus;
+import ru.practicum.shareit.server.booking.model.dto.BookingResponseDto;
+import ru.practicum.shareit.server.util.pagination.Cursor;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.TypedQuery;
+import java.util.List;
+
+/**
+ * Keyset pagination: instead of skipping rows with an offset, every query starts right after the last seen booking
+ */
+public class BookingRepositoryImpl implements BookingRepositoryCustom {
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<BookingResponseDto> findAllByBooker_IdAfter(long bookerId, BookingState state, Cursor after,
+                                                            int limit) {
+        return findAllAfter("b.booker.id = :userId", bookerId, state, after, limit);
+    }
+
+    @Override
+    public List<BookingResponseDto> findAllByItem_Owner_IdAfter(long itemOwnerId, BookingState state, Cursor after,
+                                                                int limit) {
+        return findAllAfter("i.owner.id = :userId", itemOwnerId, state, after, limit);
+    }
+
+    private List<BookingResponseDto> findAllAfter(String userCondition, long userId, BookingState state,
+                                                  Cursor after, int limit) {
+        StringBuilder jpql = new StringBuilder(BookingRepository.SELECT_RESPONSE_DTO)
+                .append("where ").append(userCondition);
+        switch (state) {
+            case CURRENT:
+                jpql.append(" and current_timestamp between b.start and b.end");
+                break;
+            case PAST:
+                jpql.append(" and b.end < current_timestamp and b.status = 'APPROVED'");
+                break;
+            case FUTURE:
+                jpql.append(" and b.start > current_timestamp and (b.status = 'APPROVED' or b.status = 'WAITING')");
+                break;
+            case REJECTED:
+            case WAITING:
+                jpql.append(" and b.status = :status");
+                break;
+            default:
+        }
+        if (after != null) {
+            jpql.append(" and (b.start < :afterStart or (b.start = :afterStart and b.id < :afterId))");
+        }
+        jpql.append(" order by b.start desc, b.id desc");
+
+        TypedQuery<BookingResponseDto> query = entityManager.createQuery(jpql.toString(), BookingResponseDto.class)
+                .setParameter("userId", userId)
+                .setMaxResults(limit);
+        if (state == BookingState.REJECTED || state == BookingState.WAITING) {
+            query.setParameter("status", BookingStatus.valueOf(state.name()));
+        }
+        if (after != null) {
+            query.setParameter("afterStart", after.getTimestamp());
+            query.setParameter("afterId", after.getId());
+        }
+        return query.getResultList();
+    }
+}
@@ -1,20 +1,31 @@
 package ru.practicum.shareit.server.booking;
 
-import org.springframework.data.domain.Page;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.server.booking.availability.ItemAvailabilityIndex;
 import ru.practicum.shareit.server.booking.exception.BookingAlreadyApprovedException;
+import ru.practicum.shareit.server.booking.exception.BookingConflictException;
 import ru.practicum.shareit.server.booking.exception.BookingNotFoundException;
 import ru.practicum.shareit.server.booking.exception.ItemUnavailableException;
 import ru.practicum.shareit.server.booking.exception.SameItemOwnerAndBookerIdException;
 import ru.practicum.shareit.server.booking.model.Booking;
+import ru.practicum.shareit.server.booking.model.BookingDecisionOutcome;
 import ru.practicum.shareit.server.booking.model.BookingMapper;
 import ru.practicum.shareit.server.booking.model.BookingStatus;
+import ru.practicum.shareit.server.booking.model.dto.BookingDecisionBatchDto;
+import ru.practicum.shareit.server.booking.model.dto.BookingDecisionDto;
+import ru.practicum.shareit.server.booking.model.dto.BookingDecisionResultDto;
 import ru.practicum.shareit.server.booking.model.dto.BookingRequestDto;
 import ru.practicum.shareit.server.booking.model.dto.BookingResponseDto;
+import ru.practicum.shareit.server.error.global_exception.InvalidCursorException;
 import ru.practicum.shareit.server.error.global_exception.UnauthorizedException;
 import ru.practicum.shareit.server.error.global_exception.UserNotFoundException;
+import ru.practicum.shareit.server.error.global_exception.VersionConflictException;
 import ru.practicum.shareit.server.item.ItemService;
 import ru.practicum.shareit.server.item.exception.ItemNotFoundException;
 import ru.practicum.shareit.server.item.model.Item;
@@ -22,23 +33,43 @@ import ru.practicum.shareit.server.item.model.ItemMapper;
 import ru.practicum.shareit.server.user.UserService;
 import ru.practicum.shareit.server.user.model.User;
 import ru.practicum.shareit.server.user.model.UserMapper;
+import ru.practicum.shareit.server.util.batch.BatchResult;
+import ru.practicum.shareit.server.util.pagination.Cursor;
+import ru.practicum.shareit.server.util.pagination.CursorSlice;
 
+import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
 public class BookingService {
+    /**
+     * Keeps approved bookings of an item from overlapping across all server instances
+     */
+    private static final String OVERLAP_CONSTRAINT = "excl_bookings_item_approved_period";
+
     private final BookingRepository bookingRepo;
     private final UserService userService;
     private final ItemService itemService;
+    private final ItemAvailabilityIndex availabilityIndex;
 
-    public BookingService(BookingRepository bookingRepo, UserService userService, ItemService itemService) {
+    public BookingService(BookingRepository bookingRepo, UserService userService, ItemService itemService,
+                          ItemAvailabilityIndex availabilityIndex) {
         this.bookingRepo = bookingRepo;
         this.userService = userService;
         this.itemService = itemService;
+        this.availabilityIndex = availabilityIndex;
     }
 
+    @Transactional(readOnly = true)
     public BookingResponseDto getDtoById(long id, long userId) throws BookingNotFoundException, UnauthorizedException {
         Booking booking = getById(id);
         if (booking.getItem().getOwner().getId() != userId &&
@@ -54,6 +85,26 @@ public class BookingService {
         );
     }
 
+    /**
+     * Bookings by ids with one query. As with {@link #getDtoById(long, long)}, bookings the user neither made
+     * nor owns the item of are reported as not found
+     */
+    @Transactional(readOnly = true)
+    public BatchResult<BookingResponseDto> getDtosByIds(Collection<Long> ids, long userId) {
+        Map<Long, BookingResponseDto> idToBooking = new HashMap<>();
+        List<Booking> bookings = ids.isEmpty() ? List.of() : bookingRepo.findAllByIdIn(ids);
+        for (Booking booking : bookings) {
+            if (booking.getItem().getOwner().getId() == userId || booking.getBooker().getId() == userId) {
+                idToBooking.put(booking.getId(), BookingMapper.toBookingResponseDto(
+                        booking,
+                        UserMapper.toUserDto(booking.getBooker()),
+                        ItemMapper.toItemDto(booking.getItem())
+                ));
+            }
+        }
+        return BatchResult.of(ids, idToBooking);
+    }
+
     public Booking getById(long id) throws BookingNotFoundException {
         Optional<Booking> bookingOpt = bookingRepo.findById(id);
         if (bookingOpt.isEmpty()) {
@@ -63,7 +114,8 @@ public class BookingService {
     }
 
     public BookingResponseDto add(BookingRequestDto bookingRequestDto, long bookerId)
-            throws ItemUnavailableException, ItemNotFoundException, UserNotFoundException, SameItemOwnerAndBookerIdException {
+            throws ItemUnavailableException, ItemNotFoundException, UserNotFoundException,
+            SameItemOwnerAndBookerIdException, BookingConflictException {
         Item item = itemService.getById(bookingRequestDto.getItemId());
         User booker = userService.getById(bookerId);
 
@@ -76,6 +128,7 @@ public class BookingService {
             throw new ItemUnavailableException(
                     String.format("Cannot book item with id=%d, because it is not available", item.getId()));
         }
+        availabilityIndex.checkAvailable(item.getId(), bookingRequestDto.getStart(), bookingRequestDto.getEnd());
         Booking booking = BookingMapper.toBooking(bookingRequestDto, 0, booker, item, BookingStatus.WAITING);
         booking.setStatus(BookingStatus.WAITING);
         return BookingMapper.toBookingResponseDto(
@@ -85,9 +138,19 @@ public class BookingService {
         );
     }
 
+    /**
+     * Approval reserves the time of the booking in {@link ItemAvailabilityIndex},
+     * the reservation is released if saving fails. An approval overlapping one made on another instance
+     * is rejected by the database.
+     * <p>
+     * No transaction is held between reading and saving the booking, the version of the booking tells
+     * if it was changed by another request in between
+     *
+     * @throws VersionConflictException if the booking was changed since it was read
+     */
     public BookingResponseDto changeStatus(long bookingId, long itemOwnerId, boolean approved)
             throws UnauthorizedException, BookingNotFoundException, UserNotFoundException, ItemNotFoundException,
-            BookingAlreadyApprovedException {
+            BookingAlreadyApprovedException, BookingConflictException, VersionConflictException {
 
         Booking booking = getById(bookingId);
         if (booking.getItem().getOwner().getId() != itemOwnerId) {
@@ -99,15 +162,117 @@ public class BookingService {
         if (booking.getStatus().equals(BookingStatus.APPROVED)) {
             throw new BookingAlreadyApprovedException(String.format("Booking with id=%d is already approved", bookingId));
         }
+        if (approved) {
+            availabilityIndex.reserve(booking);
+        }
         booking.setStatus(approved ? BookingStatus.APPROVED : BookingStatus.REJECTED);
 
+        try {
+            saveAndFlush(booking);
+        } catch (OptimisticLockingFailureException e) {
+            releaseIfApproved(booking);
+            throw new VersionConflictException(
+                    String.format("Booking with id=%d was changed by another request", bookingId),
+                    getDtoById(bookingId, itemOwnerId));
+        } catch (RuntimeException e) {
+            releaseIfApproved(booking);
+            throw e;
+        }
+        //associations of the saved copy may be not loaded, the read booking has them all
         return BookingMapper.toBookingResponseDto(
-                bookingRepo.save(booking),
+                booking,
                 UserMapper.toUserDto(booking.getBooker()),
                 ItemMapper.toItemDto(booking.getItem())
         );
     }
 
+    /**
+     * Applies owner's decisions on many bookings with a constant number of statements in one transaction:
+     * the bookings are read and locked by one select, approvals and rejections are written by one update each.
+     * A decision that cannot be applied gets its outcome and doesn't stop the others.
+     * <p>
+     * Approvals are reserved in {@link ItemAvailabilityIndex} in the order of the decisions, so of two
+     * overlapping approvals of the batch the first one wins. If {@code rejectOverlapping} is set, waiting bookings
+     * overlapping the approved ones are found by one more select and rejected together with the rest
+     *
+     * @return outcomes in the order of the decisions, followed by the bookings rejected as overlapping
+     * @throws BookingConflictException if an approval overlaps one made on another instance, nothing is changed then
+     */
+    @Transactional
+    public List<BookingDecisionResultDto> changeStatuses(long itemOwnerId, BookingDecisionBatchDto batch)
+            throws UserNotFoundException, BookingConflictException {
+        if (!userService.existsById(itemOwnerId)) {
+            throw new UserNotFoundException(
+                    String.format("User with id=%d not found, cannot change status of bookings", itemOwnerId));
+        }
+        Set<Long> ids = batch.getDecisions().stream()
+                .map(BookingDecisionDto::getBookingId)
+                .collect(Collectors.toSet());
+        Map<Long, Booking> bookings = bookingRepo.findAllByIdInForUpdate(ids).stream()
+                .collect(Collectors.toMap(Booking::getId, Function.identity()));
+        availabilityIndex.load(bookings.values().stream()
+                .map(booking -> booking.getItem().getId())
+                .collect(Collectors.toSet()));
+
+        List<BookingDecisionResultDto> results = new ArrayList<>();
+        Set<Long> decidedIds = new HashSet<>();
+        List<Long> approvedIds = new ArrayList<>();
+        List<Long> rejectedIds = new ArrayList<>();
+        for (BookingDecisionDto decision : batch.getDecisions()) {
+            long id = decision.getBookingId();
+            Booking booking = bookings.get(id);
+            if (!decidedIds.add(id)) {
+                results.add(new BookingDecisionResultDto(id, BookingDecisionOutcome.DUPLICATE,
+                        String.format("Booking with id=%d is already decided in this batch", id)));
+            } else if (booking == null) {
+                results.add(new BookingDecisionResultDto(id, BookingDecisionOutcome.NOT_FOUND,
+                        String.format("Booking with id=%d not found", id)));
+            } else if (booking.getItem().getOwner().getId() != itemOwnerId) {
+                results.add(new BookingDecisionResultDto(id, BookingDecisionOutcome.NOT_OWNER,
+                        String.format("Item with id=%d does not belong to user with id=%d",
+                                booking.getItem().getId(), itemOwnerId)));
+            } else if (booking.getStatus() == BookingStatus.APPROVED) {
+                results.add(new BookingDecisionResultDto(id, BookingDecisionOutcome.ALREADY_APPROVED,
+                        String.format("Booking with id=%d is already approved", id)));
+            } else if (!decision.isApproved()) {
+                rejectedIds.add(id);
+                results.add(BookingDecisionResultDto.applied(id, BookingDecisionOutcome.REJECTED));
+            } else {
+                try {
+                    availabilityIndex.reserve(booking);
+                } catch (BookingConflictException e) {
+                    results.add(new BookingDecisionResultDto(id, BookingDecisionOutcome.CONFLICT, e.getMessage()));
+                    continue;
+                }
+                approvedIds.add(id);
+                results.add(BookingDecisionResultDto.applied(id, BookingDecisionOutcome.APPROVED));
+            }
+        }
+
+        if (batch.isRejectOverlapping() && !approvedIds.isEmpty()) {
+            for (Long id : bookingRepo.findAllWaitingIdsOverlapping(approvedIds, decidedIds)) {
+                rejectedIds.add(id);
+                results.add(BookingDecisionResultDto.applied(id, BookingDecisionOutcome.REJECTED_AS_OVERLAPPING));
+            }
+        }
+        if (!approvedIds.isEmpty()) {
+            try {
+                bookingRepo.updateStatusOfNotApproved(approvedIds, BookingStatus.APPROVED);
+            } catch (DataIntegrityViolationException e) {
+                if (!violatesOverlapConstraint(e)) {
+                    throw e;
+                }
+                throw new BookingConflictException(
+                        "Some of the approved bookings overlap bookings approved by another request");
+            }
+        }
+        if (!rejectedIds.isEmpty()) {
+            bookingRepo.updateStatusOfNotApproved(rejectedIds, BookingStatus.REJECTED);
+        }
+        return results;
+    }
+
+    @Transactional(readOnly = true)
     public Collection<BookingResponseDto> getAllByBookerIdSortedByStartTimeDesc(long bookerId, BookingState state,
                                                                                 int from, int size)
             throws UserNotFoundException {
@@ -117,7 +282,7 @@ public class BookingService {
         }
 
         PageRequest pageRequest = PageRequest.of(from / size, size, Sort.by("start").descending());
-        Page<Booking> bookings;
+        Slice<BookingResponseDto> bookings;
         switch (state) {
             case CURRENT:
                 bookings = bookingRepo.findAllCurrentByBooker_Id(bookerId, pageRequest);
@@ -138,17 +303,10 @@ public class BookingService {
                 bookings = bookingRepo.findAllByBooker_Id(bookerId, pageRequest);
         }
 
-        return bookings.stream()
-                .map(b ->
-                        BookingMapper.toBookingResponseDto(
-                                b,
-                                UserMapper.toUserDto(b.getBooker()),
-                                ItemMapper.toItemDto(b.getItem())
-                        )
-                )
-                .collect(Collectors.toList());
+        return bookings.getContent();
     }
 
+    @Transactional(readOnly = true)
     public Collection<BookingResponseDto> getAllByItemOwnerIdSortedByStartTimeDesc(long itemOwnerId, BookingState state,
                                                                                    int from, int size)
             throws UserNotFoundException {
@@ -158,7 +316,7 @@ public class BookingService {
         }
 
         PageRequest pageRequest = PageRequest.of(from / size, size, Sort.by("start").descending());
-        Page<Booking> bookings;
+        Slice<BookingResponseDto> bookings;
         switch (state) {
             case CURRENT:
                 bookings = bookingRepo.findAllCurrentByItem_Owner_IdOrderByStartDesc(itemOwnerId, pageRequest);
@@ -181,12 +339,92 @@ public class BookingService {
                 bookings = bookingRepo.findAllByItem_Owner_IdOrderByStartDesc(itemOwnerId, pageRequest);
         }
 
-        return bookings.stream().map(b ->
-                        BookingMapper.toBookingResponseDto(
-                                b,
-                                UserMapper.toUserDto(b.getBooker()),
-                                ItemMapper.toItemDto(b.getItem()))
-                )
-                .collect(Collectors.toList());
+        return bookings.getContent();
+    }
+
+    /**
+     * Keyset alternative to {@link #getAllByBookerIdSortedByStartTimeDesc(long, BookingState, int, int)}
+     *
+     * @param after cursor returned with the previous slice, blank for the first one
+     */
+    @Transactional(readOnly = true)
+    public CursorSlice<BookingResponseDto> getAllByBookerIdAfter(long bookerId, BookingState state, String after,
+                                                                 int size)
+            throws UserNotFoundException, InvalidCursorException {
+        if (!userService.existsById(bookerId)) {
+            throw new UserNotFoundException(
+                    String.format("Cannot retrieve user's bookings, because user with id=%d not found", bookerId));
+        }
+        List<BookingResponseDto> bookings = bookingRepo.findAllByBooker_IdAfter(
+                bookerId, state, decodeCursor(after), size + 1
+        );
+        return toCursorSlice(bookings, size);
+    }
+
+    /**
+     * Keyset alternative to {@link #getAllByItemOwnerIdSortedByStartTimeDesc(long, BookingState, int, int)}
+     *
+     * @param after cursor returned with the previous slice, blank for the first one
+     */
+    @Transactional(readOnly = true)
+    public CursorSlice<BookingResponseDto> getAllByItemOwnerIdAfter(long itemOwnerId, BookingState state,
+                                                                    String after, int size)
+            throws UserNotFoundException, InvalidCursorException {
+        if (!userService.existsById(itemOwnerId)) {
+            throw new UserNotFoundException(
+                    String.format("User with id=%d not found, cannot retrieve bookings for user's items", itemOwnerId));
+        }
+        List<BookingResponseDto> bookings = bookingRepo.findAllByItem_Owner_IdAfter(
+                itemOwnerId, state, decodeCursor(after), size + 1
+        );
+        return toCursorSlice(bookings, size);
+    }
+
+    private void releaseIfApproved(Booking booking) {
+        if (booking.getStatus() == BookingStatus.APPROVED) {
+            availabilityIndex.release(booking);
+        }
+    }
+
+    private Booking saveAndFlush(Booking booking) throws BookingConflictException {
+        try {
+            return bookingRepo.saveAndFlush(booking);
+        } catch (DataIntegrityViolationException e) {
+            if (!violatesOverlapConstraint(e)) {
+                throw e;
+            }
+            throw new BookingConflictException(String.format(
+                    "Item with id=%d is already booked by another approved booking from %s to %s",
+                    booking.getItem().getId(), booking.getStart(), booking.getEnd()));
+        }
+    }
+
+    private static boolean violatesOverlapConstraint(DataIntegrityViolationException e) {
+        String cause = e.getMostSpecificCause().getMessage();
+        return cause != null && cause.toLowerCase().contains(OVERLAP_CONSTRAINT);
+    }
+
+    /**
+     * Every booking has a start, so a cursor without a timestamp was not returned by a booking listing
+     */
+    private static Cursor decodeCursor(String after) throws InvalidCursorException {
+        Cursor cursor = Cursor.decode(after);
+        if (cursor != null && cursor.getTimestamp() == null) {
+            throw new InvalidCursorException("Invalid cursor: " + after);
+        }
+        return cursor;
+    }
+
+    /**
+     * @param bookings up to size + 1 bookings, the extra one tells that there is a next slice
+     */
+    private CursorSlice<BookingResponseDto> toCursorSlice(List<BookingResponseDto> bookings, int size) {
+        String next = null;
+        if (bookings.size() > size) {
+            bookings = bookings.subList(0, size);
+            BookingResponseDto last = bookings.get(size - 1);
+            next = new Cursor(last.getStart(), last.getId()).encode();
+        }
+        return new CursorSlice<>(bookings, next);
     }
 }
@@ -0,0 +1,300 @@
+package ru.practicum.shareit.server.booking.availability;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Ticker;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.shareit.server.booking.BookingRepository;
+import ru.practicum.shareit.server.booking.exception.BookingConflictException;
+import ru.practicum.shareit.server.booking.model.Booking;
+import ru.practicum.shareit.server.item.model.dto.AvailabilityWindowDto;
+
+import java.time.Clock;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Keeps approved bookings of every item as a set of non-overlapping intervals sorted by start,
+ * so an overlap is found with one lookup of the interval starting right before the end of the new one.
+ * <p>
+ * An item is loaded from the database on the first access, only with bookings that haven't ended yet,
+ * and then updated through {@link #reserve(Booking)}. Intervals are half-open, a booking may start
+ * at the moment another one ends.
+ * <p>
+ * The index only knows about approvals made by this instance, other instances are not synchronized with it.
+ * An item is dropped {@link ItemAvailabilityProperties#getTtl() ttl} after it was loaded and read again
+ * on the next access, so approvals made by other instances are seen no later than that. Only
+ * {@link ItemAvailabilityProperties#getMaxSize() maxSize} items are kept, the least used ones are dropped first.
+ * A reservation that hasn't committed yet is lost if its item is dropped, the database constraint
+ * still rejects overlapping approvals then.
+ */
+@Component
+@EnableConfigurationProperties(ItemAvailabilityProperties.class)
+public class ItemAvailabilityIndex {
+    private final BookingRepository bookingRepo;
+    private final Clock clock;
+
+    private final Cache<Long, Timeline> timelines;
+
+    @Autowired
+    public ItemAvailabilityIndex(BookingRepository bookingRepo, ItemAvailabilityProperties properties) {
+        this(bookingRepo, properties, Clock.systemDefaultZone(), Ticker.systemTicker());
+    }
+
+    ItemAvailabilityIndex(BookingRepository bookingRepo, ItemAvailabilityProperties properties,
+                          Clock clock, Ticker ticker) {
+        this.bookingRepo = bookingRepo;
+        this.clock = clock;
+        this.timelines = Caffeine.newBuilder()
+                .maximumSize(properties.getMaxSize())
+                .expireAfterWrite(properties.getTtl())
+                .ticker(ticker)
+                .build();
+    }
+
+    /**
+     * @throws BookingConflictException if the time overlaps an approved booking of the item
+     */
+    public void checkAvailable(long itemId, LocalDateTime start, LocalDateTime end) throws BookingConflictException {
+        Timeline timeline = getTimeline(itemId);
+        timeline.lock.lock();
+        try {
+            timeline.checkAvailable(itemId, start, end);
+        } finally {
+            timeline.lock.unlock();
+        }
+    }
+
+    /**
+     * Adds the approved booking to the index right away, so concurrent approvals of the same time
+     * on this instance fail. If the running transaction rolls back, the booking is removed
+     *
+     * @throws BookingConflictException if the booking overlaps another approved booking of the item
+     */
+    public void reserve(Booking booking) throws BookingConflictException {
+        long itemId = booking.getItem().getId();
+        Timeline timeline = getTimeline(itemId);
+        Interval interval = new Interval(booking.getStart(), booking.getEnd());
+        timeline.lock.lock();
+        try {
+            timeline.checkAvailable(itemId, interval.start, interval.end);
+            timeline.removeEndedBefore(LocalDateTime.now(clock));
+            timeline.intervals.put(interval.start, interval);
+        } finally {
+            timeline.lock.unlock();
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status == STATUS_ROLLED_BACK) {
+                    timeline.remove(interval);
+                }
+            }
+        });
+    }
+
+    /**
+     * Removes the booking added by {@link #reserve(Booking)} if it wasn't saved outside a transaction
+     */
+    public void release(Booking booking) {
+        Timeline timeline = timelines.getIfPresent(booking.getItem().getId());
+        if (timeline == null) {
+            return;
+        }
+        timeline.lock.lock();
+        try {
+            Interval interval = timeline.intervals.get(booking.getStart());
+            if (interval != null && interval.end.equals(booking.getEnd())) {
+                timeline.intervals.remove(interval.start);
+            }
+        } finally {
+            timeline.lock.unlock();
+        }
+    }
+
+    /**
+     * Loads the items that were not accessed yet with one query, so reserving bookings of many items
+     * doesn't read them from the database one by one
+     */
+    public void load(Collection<Long> itemIds) {
+        Map<Long, Timeline> notLoaded = new HashMap<>();
+        for (Long itemId : itemIds) {
+            Timeline timeline = timelines.get(itemId, id -> new Timeline());
+            if (!timeline.loaded) {
+                notLoaded.put(itemId, timeline);
+            }
+        }
+        if (notLoaded.isEmpty()) {
+            return;
+        }
+
+        Map<Long, List<Booking>> bookings = new HashMap<>();
+        for (Booking booking : bookingRepo.findAllApprovedByItem_IdInEndingAfter(notLoaded.keySet(),
+                LocalDateTime.now(clock))) {
+            bookings.computeIfAbsent(booking.getItem().getId(), id -> new ArrayList<>()).add(booking);
+        }
+        notLoaded.forEach((itemId, timeline) -> {
+            timeline.lock.lock();
+            try {
+                //loaded by another request in the meantime, maybe with its own approval
+                if (!timeline.loaded) {
+                    load(itemId, timeline, bookings.getOrDefault(itemId, List.of()));
+                }
+            } finally {
+                timeline.lock.unlock();
+            }
+        });
+    }
+
+    /**
+     * Windows between approved bookings within the given time, the past is not included
+     */
+    public List<AvailabilityWindowDto> getFreeWindows(long itemId, LocalDateTime from, LocalDateTime to) {
+        LocalDateTime now = LocalDateTime.now(clock);
+        if (from.isBefore(now)) {
+            from = now;
+        }
+        List<AvailabilityWindowDto> windows = new ArrayList<>();
+        if (!from.isBefore(to)) {
+            return windows;
+        }
+
+        Timeline timeline = getTimeline(itemId);
+        timeline.lock.lock();
+        try {
+            LocalDateTime windowStart = from;
+            Map.Entry<LocalDateTime, Interval> previous = timeline.intervals.lowerEntry(from);
+            if (previous != null && previous.getValue().end.isAfter(windowStart)) {
+                windowStart = previous.getValue().end;
+            }
+            for (Interval interval : timeline.intervals.subMap(from, true, to, false).values()) {
+                if (interval.start.isAfter(windowStart)) {
+                    windows.add(new AvailabilityWindowDto(windowStart, interval.start));
+                }
+                if (interval.end.isAfter(windowStart)) {
+                    windowStart = interval.end;
+                }
+            }
+            if (windowStart.isBefore(to)) {
+                windows.add(new AvailabilityWindowDto(windowStart, to));
+            }
+        } finally {
+            timeline.lock.unlock();
+        }
+        return windows;
+    }
+
+    private Timeline getTimeline(long itemId) {
+        //creating an empty timeline is cheap, the database is read outside the cache's loader under the timeline lock
+        Timeline timeline = timelines.get(itemId, id -> new Timeline());
+        if (timeline.loaded) {
+            return timeline;
+        }
+        timeline.lock.lock();
+        try {
+            if (!timeline.loaded) {
+                load(itemId, timeline, bookingRepo.findAllApprovedByItem_IdEndingAfter(itemId,
+                        LocalDateTime.now(clock)));
+            }
+        } finally {
+            timeline.lock.unlock();
+        }
+        return timeline;
+    }
+
+    /**
+     * @param approved approved bookings of the item that haven't ended yet, sorted by start
+     */
+    private void load(long itemId, Timeline timeline, List<Booking> approved) {
+        Interval merged = null;
+        for (Booking booking : approved) {
+            Interval interval = new Interval(booking.getStart(), booking.getEnd());
+            //bookings approved before the index existed may overlap, they are kept as one interval
+            if (merged != null && interval.start.isBefore(merged.end)) {
+                if (interval.end.isAfter(merged.end)) {
+                    merged = new Interval(merged.start, interval.end);
+                    timeline.intervals.put(merged.start, merged);
+                }
+                continue;
+            }
+            merged = interval;
+            timeline.intervals.put(merged.start, merged);
+        }
+        timeline.loaded = true;
+
+        //uncommitted bookings seen by a transaction that rolls back must not stay in the index
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status == STATUS_ROLLED_BACK) {
+                        timelines.asMap().remove(itemId, timeline);
+                    }
+                }
+            });
+        }
+    }
+
+    private static class Timeline {
+        private final NavigableMap<LocalDateTime, Interval> intervals = new TreeMap<>();
+        private final Lock lock = new ReentrantLock();
+        private volatile boolean loaded;
+
+        /**
+         * Intervals don't overlap, so only the last one starting before the end can overlap the given time
+         */
+        void checkAvailable(long itemId, LocalDateTime start, LocalDateTime end) {
+            Map.Entry<LocalDateTime, Interval> candidate = intervals.lowerEntry(end);
+            if (candidate != null && candidate.getValue().end.isAfter(start)) {
+                throw new BookingConflictException(String.format(
+                        "Item with id=%d is already booked from %s to %s",
+                        itemId, candidate.getValue().start, candidate.getValue().end));
+            }
+        }
+
+        void removeEndedBefore(LocalDateTime time) {
+            Iterator<Interval> iterator = intervals.values().iterator();
+            while (iterator.hasNext()) {
+                if (iterator.next().end.isAfter(time)) {
+                    return;
+                }
+                iterator.remove();
+            }
+        }
+
+        void remove(Interval interval) {
+            lock.lock();
+            try {
+                intervals.remove(interval.start, interval);
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    private static class Interval {
+        private final LocalDateTime start;
+        private final LocalDateTime end;
+
+        Interval(LocalDateTime start, LocalDateTime end) {
+            this.start = start;
+            this.end = end;
+        }
+    }
+}
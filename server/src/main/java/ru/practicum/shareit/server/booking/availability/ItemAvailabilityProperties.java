@@ -0,0 +1,21 @@
+package ru.practicum.shareit.server.booking.availability;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "shareit.item-availability")
+public class ItemAvailabilityProperties {
+
+    /**
+     * Items over this number are dropped from the index, the least used ones first
+     */
+    private long maxSize = 10_000;
+
+    /**
+     * How long bookings of an item are kept after they were loaded, then they are read from the database again
+     */
+    private Duration ttl = Duration.ofMinutes(1);
+}
@@ -0,0 +1,7 @@
+package ru.practicum.shareit.server.booking.exception;
+
+public class BookingConflictException extends RuntimeException {
+    public BookingConflictException(String message) {
+        super(message);
+    }
+}
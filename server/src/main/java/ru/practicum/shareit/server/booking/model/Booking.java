@@ -1,6 +1,5 @@
 package ru.practicum.shareit.server.booking.model;
 
-import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import ru.practicum.shareit.server.item.model.Item;
@@ -11,12 +10,25 @@ import java.time.LocalDateTime;
 
 @Entity
 @Table(name = "bookings")
+@NamedEntityGraph(
+        name = Booking.WITH_BOOKER_AND_ITEM,
+        attributeNodes = {
+                @NamedAttributeNode("booker"),
+                @NamedAttributeNode(value = "item", subgraph = "item")
+        },
+        subgraphs = @NamedSubgraph(name = "item", attributeNodes = @NamedAttributeNode("owner"))
+)
 @Data
-@AllArgsConstructor
 @NoArgsConstructor
 public class Booking {
+    /**
+     * Everything needed to map a booking to response dto
+     */
+    public static final String WITH_BOOKER_AND_ITEM = "Booking.withBookerAndItem";
+
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "bookings_seq")
+    @SequenceGenerator(name = "bookings_seq", sequenceName = "bookings_seq", allocationSize = 50)
     @Column(name = "booking_id")
     private long id;
 
@@ -26,14 +38,29 @@ public class Booking {
     @Column(name = "booking_end")
     private LocalDateTime end;
 
-    @ManyToOne(optional = false)
+    @ManyToOne(optional = false, fetch = FetchType.LAZY)
     @JoinColumn(name = "booker_id")
     private User booker;
 
-    @ManyToOne(optional = false)
+    @ManyToOne(optional = false, fetch = FetchType.LAZY)
     @JoinColumn(name = "item_id")
     private Item item;
 
     @Enumerated(EnumType.STRING)
     private BookingStatus status;
+
+    /**
+     * Checked on every update, so concurrent approval and rejection of the same booking don't overwrite each other
+     */
+    @Version
+    private long version;
+
+    public Booking(long id, LocalDateTime start, LocalDateTime end, User booker, Item item, BookingStatus status) {
+        this.id = id;
+        this.start = start;
+        this.end = end;
+        this.booker = booker;
+        this.item = item;
+        this.status = status;
+    }
 }
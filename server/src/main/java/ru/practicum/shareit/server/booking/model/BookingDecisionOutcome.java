@@ -0,0 +1,24 @@
+package ru.practicum.shareit.server.booking.model;
+
+/**
+ * What happened to a booking in a batch of owner's decisions
+ */
+public enum BookingDecisionOutcome {
+    APPROVED,
+    REJECTED,
+    /**
+     * Waiting booking rejected because it overlaps a booking approved in the same batch
+     */
+    REJECTED_AS_OVERLAPPING,
+    NOT_FOUND,
+    NOT_OWNER,
+    ALREADY_APPROVED,
+    /**
+     * Approval overlaps an approved booking, possibly one approved earlier in the same batch
+     */
+    CONFLICT,
+    /**
+     * The booking was already decided by an earlier decision of the batch
+     */
+    DUPLICATE
+}
@@ -0,0 +1,15 @@
+package ru.practicum.shareit.server.booking.model.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class BookingDecisionBatchDto {
+    private List<BookingDecisionDto> decisions;
+    private boolean rejectOverlapping;
+}
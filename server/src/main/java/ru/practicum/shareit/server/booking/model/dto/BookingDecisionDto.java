@@ -0,0 +1,13 @@
+package ru.practicum.shareit.server.booking.model.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class BookingDecisionDto {
+    private long bookingId;
+    private boolean approved;
+}
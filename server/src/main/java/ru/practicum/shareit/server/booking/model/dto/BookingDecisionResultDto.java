@@ -0,0 +1,22 @@
+package ru.practicum.shareit.server.booking.model.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import ru.practicum.shareit.server.booking.model.BookingDecisionOutcome;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class BookingDecisionResultDto {
+    private long bookingId;
+    private BookingDecisionOutcome outcome;
+    /**
+     * Why the decision wasn't applied, null if it was
+     */
+    private String error;
+
+    public static BookingDecisionResultDto applied(long bookingId, BookingDecisionOutcome outcome) {
+        return new BookingDecisionResultDto(bookingId, outcome, null);
+    }
+}
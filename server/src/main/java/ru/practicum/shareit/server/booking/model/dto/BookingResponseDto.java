@@ -19,4 +19,22 @@ public class BookingResponseDto {
     private UserDto booker;
     private ItemDto item;
     private BookingStatus status;
+
+    /**
+     * Used by JPQL constructor expressions, which cannot build the nested dtos themselves
+     */
+    public BookingResponseDto(long id, LocalDateTime start, LocalDateTime end, BookingStatus status,
+                              long bookerId, String bookerName, String bookerEmail,
+                              long itemId, String itemName, String itemDescription, Boolean itemAvailable,
+                              long itemOwnerId, Long itemRequestId) {
+        this(
+                id,
+                start,
+                end,
+                new UserDto(bookerId, bookerName, bookerEmail),
+                new ItemDto(itemId, itemName, itemDescription, itemAvailable, itemOwnerId,
+                        itemRequestId == null ? 0 : itemRequestId),
+                status
+        );
+    }
 }
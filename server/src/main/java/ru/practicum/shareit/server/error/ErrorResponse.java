@@ -15,4 +15,8 @@ public class ErrorResponse {
     private List<ObjectValidationViolation> objectValidationViolations;
     private List<FieldValidationViolation> fieldValidationViolations;
     private List<HttpAttributeValidationViolation> httpAttributeValidationViolations;
+    /**
+     * Current state of the entity the request failed to change
+     */
+    private Object current;
 }
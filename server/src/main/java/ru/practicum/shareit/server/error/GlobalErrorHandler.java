@@ -4,9 +4,13 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
+import ru.practicum.shareit.server.error.global_exception.InvalidCursorException;
 import ru.practicum.shareit.server.error.global_exception.UnauthorizedException;
 import ru.practicum.shareit.server.error.global_exception.UserNotFoundException;
+import ru.practicum.shareit.server.error.global_exception.VersionConflictException;
 
+import static org.springframework.http.HttpStatus.BAD_REQUEST;
+import static org.springframework.http.HttpStatus.CONFLICT;
 import static org.springframework.http.HttpStatus.INTERNAL_SERVER_ERROR;
 import static org.springframework.http.HttpStatus.NOT_FOUND;
 
@@ -30,6 +34,22 @@ public class GlobalErrorHandler {
         return ErrorResponse.builder().error(message).build();
     }
 
+    @ExceptionHandler(InvalidCursorException.class)
+    @ResponseStatus(BAD_REQUEST)
+    public ErrorResponse onInvalidCursorException(final InvalidCursorException e) {
+        String message = "Invalid cursor";
+        log.warn(message, e);
+        return ErrorResponse.builder().error(message).build();
+    }
+
+    @ExceptionHandler(VersionConflictException.class)
+    @ResponseStatus(CONFLICT)
+    public ErrorResponse onVersionConflictException(final VersionConflictException e) {
+        String message = "Changed by another request, apply the change to the current state";
+        log.warn(message, e);
+        return ErrorResponse.builder().error(message).current(e.getCurrent()).build();
+    }
+
     @ExceptionHandler(Throwable.class)
     @ResponseStatus(INTERNAL_SERVER_ERROR)
     public ErrorResponse onThrowable(final Throwable e) {
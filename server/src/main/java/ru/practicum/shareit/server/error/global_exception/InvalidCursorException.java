@@ -0,0 +1,7 @@
+package ru.practicum.shareit.server.error.global_exception;
+
+public class InvalidCursorException extends RuntimeException {
+    public InvalidCursorException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,20 @@
+package ru.practicum.shareit.server.error.global_exception;
+
+/**
+ * Thrown when an entity was changed by another request between reading and saving it
+ */
+public class VersionConflictException extends RuntimeException {
+    /**
+     * Dto of the entity as it is stored now, so the client can apply its change to it
+     */
+    private final transient Object current;
+
+    public VersionConflictException(String message, Object current) {
+        super(message);
+        this.current = current;
+    }
+
+    public Object getCurrent() {
+        return current;
+    }
+}
@@ -1,17 +1,22 @@
 package ru.practicum.shareit.server.item;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import ru.practicum.shareit.server.item.model.Comment;
 
+import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.stream.Collectors;
 
 public interface CommentRepository extends JpaRepository<Comment, Long> {
     @Query(
             "select c.item.id, c from Comment c " +
+                    "join fetch c.author " +
                     "where c.item.id in :itemIds"
     )
     List<Object[]> findAllByItem_Id(Iterable<Long> itemIds);
@@ -27,4 +32,71 @@ public interface CommentRepository extends JpaRepository<Comment, Long> {
         }
         return itemIdToComments;
     }
+
+    /**
+     * Newest comments of the item first, served by the index on item and creation time
+     */
+    @Query(
+            "select c from Comment c " +
+                    "join fetch c.author " +
+                    "where c.item.id = :itemId " +
+                    "order by c.created desc, c.id desc"
+    )
+    List<Comment> findNewestByItem_Id(long itemId, Pageable pageable);
+
+    /**
+     * Continues {@link #findNewestByItem_Id} from the comment with the given creation time and id
+     */
+    @Query(
+            "select c from Comment c " +
+                    "join fetch c.author " +
+                    "where c.item.id = :itemId " +
+                    "and (c.created < :created or (c.created = :created and c.id < :id)) " +
+                    "order by c.created desc, c.id desc"
+    )
+    List<Comment> findNewestByItem_IdBefore(long itemId, LocalDateTime created, long id, Pageable pageable);
+
+    /**
+     * Ids of at most {@code limit} newest comments of every given item, picked with a window function
+     * over the index on item and creation time
+     */
+    @Query(
+            value = "select c.comment_id from (" +
+                    "select cm.comment_id, row_number() over (" +
+                    "partition by cm.item_id order by cm.created desc, cm.comment_id desc) as rn " +
+                    "from comments cm " +
+                    "where cm.item_id in (:itemIds)" +
+                    ") c where c.rn <= :limit",
+            nativeQuery = true
+    )
+    List<Number> findNewestIdsByItem_IdIn(Collection<Long> itemIds, int limit);
+
+    @Query(
+            "select c from Comment c " +
+                    "join fetch c.author " +
+                    "where c.id in :ids " +
+                    "order by c.created desc, c.id desc"
+    )
+    List<Comment> findAllWithAuthorByIdIn(Collection<Long> ids);
+
+    /**
+     * Same comments as {@link #findNewestByItem_Id} returns for each of the items, read with two queries
+     * for all of them. Items without comments are absent
+     */
+    default Map<Long, List<Comment>> findNewestByItem_IdAsMap(Collection<Long> itemIds, int limit) {
+        if (itemIds.isEmpty()) {
+            return new HashMap<>();
+        }
+        List<Long> commentIds = findNewestIdsByItem_IdIn(itemIds, limit).stream()
+                .map(Number::longValue)
+                .collect(Collectors.toList());
+        if (commentIds.isEmpty()) {
+            return new HashMap<>();
+        }
+        Map<Long, List<Comment>> itemIdToComments = new HashMap<>();
+        for (Comment comment : findAllWithAuthorByIdIn(commentIds)) {
+            itemIdToComments.computeIfAbsent(comment.getItem().getId(), itemId -> new ArrayList<>()).add(comment);
+        }
+        return itemIdToComments;
+    }
 }
@@ -1,14 +1,24 @@
 package ru.practicum.shareit.server.item;
 
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import ru.practicum.shareit.server.item.model.dto.AvailabilityWindowDto;
 import ru.practicum.shareit.server.item.model.dto.CommentRequestDto;
 import ru.practicum.shareit.server.item.model.dto.CommentResponseDto;
 import ru.practicum.shareit.server.item.model.dto.ItemDto;
 import ru.practicum.shareit.server.item.model.dto.ItemWithBookingsResponseDto;
+import ru.practicum.shareit.server.item.search.ItemSearchMode;
+import ru.practicum.shareit.server.item.search.ItemSearchSort;
+import ru.practicum.shareit.server.util.batch.BatchResult;
+import ru.practicum.shareit.server.util.bulk.BulkImportResult;
 import ru.practicum.shareit.server.util.constant.Header;
+import ru.practicum.shareit.server.util.pagination.CursorSlice;
 
+import java.time.LocalDateTime;
 import java.util.Collection;
+import java.util.List;
 
 @Slf4j
 @RestController
@@ -29,19 +39,65 @@ public class ItemController {
         return addedItem;
     }
 
+    @PostMapping("/bulk")
+    public BulkImportResult addAll(@RequestBody List<ItemDto> items,
+                                   @RequestHeader(Header.USER_ID_HEADER) long ownerId) {
+        BulkImportResult result = itemService.addAll(ownerId, items);
+        log.info("{} of {} items were added to user with id={}", result.getImported(), items.size(), ownerId);
+        return result;
+    }
+
     @GetMapping("/{itemId}")
     public ItemWithBookingsResponseDto getById(@RequestHeader(Header.USER_ID_HEADER) long userId,
-                                               @PathVariable long itemId) {
+                                               @PathVariable long itemId,
+                                               WebRequest request) {
+        if (request.checkNotModified(itemService.getEtag(itemId, userId))) {
+            log.info("Item with id={} not modified", itemId);
+            return null;
+        }
         ItemWithBookingsResponseDto itemDto = itemService.getDtoById(itemId, userId);
         log.info("Item with id={} retrieved", itemDto.getId());
         return itemDto;
     }
 
+    @GetMapping(params = "ids")
+    public BatchResult<ItemWithBookingsResponseDto> getAllByIds(@RequestHeader(Header.USER_ID_HEADER) long userId,
+                                                                @RequestParam List<Long> ids) {
+        BatchResult<ItemWithBookingsResponseDto> items = itemService.getDtosByIds(ids, userId);
+        log.info("{} of {} items retrieved by ids", items.getFound().size(), ids.size());
+        return items;
+    }
+
+    @GetMapping("/{itemId}/availability")
+    public Collection<AvailabilityWindowDto> getAvailability(@PathVariable long itemId,
+                                                             @RequestParam
+                                                             @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+                                                             LocalDateTime from,
+                                                             @RequestParam
+                                                             @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+                                                             LocalDateTime to) {
+        Collection<AvailabilityWindowDto> windows = itemService.getAvailability(itemId, from, to);
+        log.info("Availability of item with id={} from {} to {} retrieved", itemId, from, to);
+        return windows;
+    }
+
+    @GetMapping("/{itemId}/comments")
+    public CursorSlice<CommentResponseDto> getComments(@RequestHeader(Header.USER_ID_HEADER) long userId,
+                                                       @PathVariable long itemId,
+                                                       @RequestParam(defaultValue = "") String after,
+                                                       @RequestParam(defaultValue = "10") int size) {
+        CursorSlice<CommentResponseDto> comments = itemService.getComments(itemId, userId, after, size);
+        log.info("Comments of item with id={} after cursor '{}' retrieved", itemId, after);
+        return comments;
+    }
+
     @GetMapping("/search")
     public Collection<ItemDto> searchByNameOrDescription(@RequestParam String text,
+                                                         @RequestParam(defaultValue = "SUBSTRING") ItemSearchMode mode,
+                                                         @RequestParam(defaultValue = "ID") ItemSearchSort sort,
                                                          @RequestParam(defaultValue = "0") int from,
                                                          @RequestParam(defaultValue = "10") int size) {
-        Collection<ItemDto> items = itemService.searchByNameOrDescription(text, from, size);
+        Collection<ItemDto> items = itemService.searchByNameOrDescription(text, mode, sort, from, size);
         log.info("Items with '{}' in name or description retrieved", text);
         return items;
     }
@@ -55,6 +111,16 @@ public class ItemController {
         return itemsDto;
     }
 
+    @GetMapping(params = "after")
+    public CursorSlice<ItemWithBookingsResponseDto> getAllByOwnerIdAfter(
+            @RequestHeader(Header.USER_ID_HEADER) long ownerId,
+            @RequestParam String after,
+            @RequestParam(defaultValue = "10") int size) {
+        CursorSlice<ItemWithBookingsResponseDto> items = itemService.getAllByOwnerIdAfter(ownerId, after, size);
+        log.info("Items of owner with id={} after cursor '{}' retrieved", ownerId, after);
+        return items;
+    }
+
     @PatchMapping("/{itemId}")
     public ItemDto update(@RequestBody ItemDto itemDto,
                           @PathVariable long itemId,
@@ -1,20 +1,25 @@
 package ru.practicum.shareit.server.item;
 
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import ru.practicum.shareit.server.item.model.Item;
+import ru.practicum.shareit.server.item.model.dto.ItemDto;
 
+import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
-public interface ItemRepository extends JpaRepository<Item, Long> {
-
-    Page<Item> findAllByOwner_Id(long ownerId, PageRequest pageRequest);
+public interface ItemRepository extends JpaRepository<Item, Long>, ItemRepositoryCustom {
 
+    /**
+     * Order is taken from the pageable, see {@link ru.practicum.shareit.server.item.search.ItemSearchSort}
+     */
     @Query(
             "select i from Item i " +
                     "where i.available = true and (" +
@@ -22,23 +27,135 @@ public interface ItemRepository extends JpaRepository<Item, Long> {
                     "upper(i.description) like upper(concat('%',:text,'%'))" +
                     ")"
     )
-    Page<Item> searchByNameOrDescription(String text, PageRequest pageRequest);
+    Slice<Item> searchByNameOrDescription(String text, Pageable pageable);
+
+    /**
+     * Postgres only. Matches the same items as {@link #searchByNameOrDescription(String, Pageable)}
+     * plus the ones containing all words of the text, the most relevant first
+     */
+    @Query(
+            value = "select i.* from items i " +
+                    "where i.available = true and (" +
+                    "upper(i.item_name) like upper(concat('%', :text, '%')) or " +
+                    "upper(i.description) like upper(concat('%', :text, '%')) or " +
+                    "to_tsvector('simple', i.item_name || ' ' || coalesce(i.description, '')) @@ " +
+                    "plainto_tsquery('simple', :text)" +
+                    ") " +
+                    "order by ts_rank(" +
+                    "to_tsvector('simple', i.item_name || ' ' || coalesce(i.description, '')), " +
+                    "plainto_tsquery('simple', :text)) desc, " +
+                    "similarity(upper(i.item_name), upper(:text)) desc, i.item_id",
+            nativeQuery = true
+    )
+    List<Item> rankedSearchByNameOrDescription(String text, Pageable pageable);
+
+    /**
+     * Owner's id and the values an item's response changes with: the version of the item, its comment aggregates,
+     * the start of the first booking not started by {@code now}, because the last booking only changes when it starts,
+     * and the id and version of the next booking. The item is read by its key and every booking with one seek
+     * of the index on item and start, so the cost doesn't grow with the item's history. Empty if the item doesn't exist
+     */
+    @Query(
+            value = "select i.owner_id, i.version, i.comment_count, i.last_comment_at, " +
+                    "(select b.booking_start from bookings b " +
+                    "where b.item_id = i.item_id and b.booking_start >= :now " +
+                    "order by b.booking_start limit 1), " +
+                    "(select b.booking_id from bookings b " +
+                    "where b.item_id = i.item_id and b.booking_start > :now and " +
+                    "b.status not in ('REJECTED', 'CANCELED') " +
+                    "order by b.booking_start, b.booking_id limit 1), " +
+                    "(select b.version from bookings b " +
+                    "where b.item_id = i.item_id and b.booking_start > :now and " +
+                    "b.status not in ('REJECTED', 'CANCELED') " +
+                    "order by b.booking_start, b.booking_id limit 1) " +
+                    "from items i " +
+                    "where i.item_id = :itemId",
+            nativeQuery = true
+    )
+    List<Object[]> findVersionStampById(long itemId, LocalDateTime now);
+
+    /**
+     * Adds a comment to the aggregates of the item in place, so concurrent comments are all counted
+     * and the version of the item is not changed
+     *
+     * @param rating rating given by the comment, null if there is none
+     */
+    default void addComment(long itemId, LocalDateTime created, Integer rating) {
+        if (rating == null) {
+            addUnratedComment(itemId, created);
+        } else {
+            addRatedComment(itemId, created, rating);
+        }
+    }
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query(
+            "update Item i " +
+                    "set i.commentCount = i.commentCount + 1, " +
+                    "i.lastCommentAt = case when i.lastCommentAt > :created then i.lastCommentAt else :created end " +
+                    "where i.id = :itemId"
+    )
+    void addUnratedComment(long itemId, LocalDateTime created);
 
+    /**
+     * The average is computed from the sum and the count, so it doesn't accumulate rounding errors
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
     @Query(
-            "select i.request.id, i from Item i " +
+            "update Item i " +
+                    "set i.commentCount = i.commentCount + 1, " +
+                    "i.lastCommentAt = case when i.lastCommentAt > :created then i.lastCommentAt else :created end, " +
+                    "i.ratingCount = i.ratingCount + 1, " +
+                    "i.ratingSum = i.ratingSum + :rating, " +
+                    "i.rating = (i.ratingSum + :rating) * 1.0 / (i.ratingCount + 1) " +
+                    "where i.id = :itemId"
+    )
+    void addRatedComment(long itemId, LocalDateTime created, long rating);
+
+    @Query(
+            "select new ru.practicum.shareit.server.item.model.dto.ItemDto(" +
+                    "i.id, i.name, i.description, i.available, i.owner.id, i.request.id, " +
+                    "i.commentCount, i.lastCommentAt, case when i.ratingCount = 0 then null else i.rating end" +
+                    ") from Item i " +
                     "where i.request.id in :requestIds"
     )
-    List<Object[]> findAllByRequest_Id(Iterable<Long> requestIds);
+    List<ItemDto> findAllByRequest_Id(Iterable<Long> requestIds);
 
-    default Map<Long, List<Item>> findAllByRequest_IdAsMap(Iterable<Long> requestIds) {
-        List<Object[]> responses = findAllByRequest_Id(requestIds);
-        Map<Long, List<Item>> requestIdToItems = new HashMap<>();
-        for (Object[] response : responses) {
-            Long requestId = (Long) response[0];
-            Item item = (Item) response[1];
-            requestIdToItems.putIfAbsent(requestId, new ArrayList<>());
-            requestIdToItems.get(requestId).add(item);
+    default Map<Long, List<ItemDto>> findAllByRequest_IdAsMap(Iterable<Long> requestIds) {
+        List<ItemDto> responses = findAllByRequest_Id(requestIds);
+        Map<Long, List<ItemDto>> requestIdToItems = new HashMap<>();
+        for (ItemDto response : responses) {
+            requestIdToItems.putIfAbsent(response.getRequestId(), new ArrayList<>());
+            requestIdToItems.get(response.getRequestId()).add(response);
         }
         return requestIdToItems;
     }
+
+    /**
+     * Owners are fetched in the same query, so the items can be read after the transaction ends
+     */
+    @Query(
+            "select i from Item i " +
+                    "join fetch i.owner " +
+                    "where i.id in :ids"
+    )
+    List<Item> findAllWithOwnerByIdIn(Collection<Long> ids);
+
+    @Query(
+            "select i.request.id, count(i) from Item i " +
+                    "where i.request.id in :requestIds " +
+                    "group by i.request.id"
+    )
+    List<Object[]> countByRequest_Id(Iterable<Long> requestIds);
+
+    /**
+     * @return number of items answering each request, requests without answers are absent
+     */
+    default Map<Long, Long> countByRequest_IdAsMap(Iterable<Long> requestIds) {
+        Map<Long, Long> requestIdToCount = new HashMap<>();
+        for (Object[] row : countByRequest_Id(requestIds)) {
+            requestIdToCount.put((Long) row[0], (Long) row[1]);
+        }
+        return requestIdToCount;
+    }
 }
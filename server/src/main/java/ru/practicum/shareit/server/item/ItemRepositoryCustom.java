@@ -0,0 +1,24 @@
+package ru.practicum.shareit.server.item;
+
+import ru.practicum.shareit.server.item.model.Item;
+import ru.practicum.shareit.server.util.pagination.Cursor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface ItemRepositoryCustom {
+
+    /**
+     * Owner's items sorted by the start of their last booking, the one started before {@code now} that ends
+     * the latest, items never booked go last. Ties are sorted by id
+     */
+    List<Item> findAllByOwner_IdOrderByLastBookingStart(long ownerId, LocalDateTime now, int offset, int limit);
+
+    /**
+     * Same order as {@link #findAllByOwner_IdOrderByLastBookingStart(long, LocalDateTime, int, int)},
+     * starting right after the cursor
+     *
+     * @param after null to start from the first item, its timestamp is null if the last seen item was never booked
+     */
+    List<Item> findAllByOwner_IdAfter(long ownerId, LocalDateTime now, Cursor after, int limit);
+}
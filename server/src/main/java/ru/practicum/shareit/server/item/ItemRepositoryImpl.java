@@ -0,0 +1,70 @@
+package ru.practicum.shareit.server.item;
+
+import ru.practicum.shareit.server.item.model.Item;
+import ru.practicum.shareit.server.util.pagination.Cursor;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.Query;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Owner's items are sorted in the database by the start of their last booking, so a page is one bounded query
+ * and the following page continues the order. The last booking of every item is picked with a window function
+ * over the bookings of owner's items only, the same way {@link
+ * ru.practicum.shareit.server.booking.BookingRepository#findLastByItem_IdIn} picks it for the response
+ */
+public class ItemRepositoryImpl implements ItemRepositoryCustom {
+    private static final String SELECT_ORDERED_BY_LAST_BOOKING_START = "select i.* from items i " +
+            "left join (" +
+            "select bk.item_id, bk.booking_start, row_number() over (" +
+            "partition by bk.item_id order by bk.booking_end desc, bk.booking_id desc) as rn " +
+            "from bookings bk " +
+            "join items bi on bi.item_id = bk.item_id " +
+            "where bi.owner_id = :ownerId and bk.booking_start < :now" +
+            ") lb on lb.item_id = i.item_id and lb.rn = 1 " +
+            "where i.owner_id = :ownerId";
+
+    private static final String ORDER_BY_LAST_BOOKING_START = " order by lb.booking_start asc nulls last, i.item_id";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<Item> findAllByOwner_IdOrderByLastBookingStart(long ownerId, LocalDateTime now, int offset,
+                                                               int limit) {
+        return find(SELECT_ORDERED_BY_LAST_BOOKING_START + ORDER_BY_LAST_BOOKING_START, ownerId, now)
+                .setFirstResult(offset)
+                .setMaxResults(limit)
+                .getResultList();
+    }
+
+    @Override
+    public List<Item> findAllByOwner_IdAfter(long ownerId, LocalDateTime now, Cursor after, int limit) {
+        StringBuilder sql = new StringBuilder(SELECT_ORDERED_BY_LAST_BOOKING_START);
+        if (after != null && after.getTimestamp() != null) {
+            sql.append(" and (lb.booking_start > :afterStart or " +
+                    "(lb.booking_start = :afterStart and i.item_id > :afterId) or " +
+                    "lb.booking_start is null)");
+        } else if (after != null) {
+            sql.append(" and lb.booking_start is null and i.item_id > :afterId");
+        }
+        sql.append(ORDER_BY_LAST_BOOKING_START);
+
+        Query query = find(sql.toString(), ownerId, now).setMaxResults(limit);
+        if (after != null) {
+            query.setParameter("afterId", after.getId());
+            if (after.getTimestamp() != null) {
+                query.setParameter("afterStart", after.getTimestamp());
+            }
+        }
+        return query.getResultList();
+    }
+
+    private Query find(String sql, long ownerId, LocalDateTime now) {
+        return entityManager.createNativeQuery(sql, Item.class)
+                .setParameter("ownerId", ownerId)
+                .setParameter("now", now);
+    }
+}
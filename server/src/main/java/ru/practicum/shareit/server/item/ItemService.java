@@ -1,30 +1,42 @@
 package ru.practicum.shareit.server.item;
 
-import org.springframework.data.domain.Page;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import ru.practicum.shareit.server.booking.BookingRepository;
+import ru.practicum.shareit.server.booking.availability.ItemAvailabilityIndex;
 import ru.practicum.shareit.server.booking.model.Booking;
 import ru.practicum.shareit.server.booking.model.BookingMapper;
 import ru.practicum.shareit.server.booking.model.BookingStatus;
-import ru.practicum.shareit.server.booking.model.dto.SimpleBookingResponseDto;
+import ru.practicum.shareit.server.error.global_exception.InvalidCursorException;
 import ru.practicum.shareit.server.error.global_exception.UnauthorizedException;
 import ru.practicum.shareit.server.error.global_exception.UserNotFoundException;
+import ru.practicum.shareit.server.error.global_exception.VersionConflictException;
 import ru.practicum.shareit.server.item.exception.CommentingRestrictedException;
 import ru.practicum.shareit.server.item.exception.ItemNotFoundException;
 import ru.practicum.shareit.server.item.model.Comment;
 import ru.practicum.shareit.server.item.model.CommentMapper;
 import ru.practicum.shareit.server.item.model.Item;
 import ru.practicum.shareit.server.item.model.ItemMapper;
+import ru.practicum.shareit.server.item.model.dto.AvailabilityWindowDto;
 import ru.practicum.shareit.server.item.model.dto.CommentRequestDto;
 import ru.practicum.shareit.server.item.model.dto.CommentResponseDto;
 import ru.practicum.shareit.server.item.model.dto.ItemDto;
 import ru.practicum.shareit.server.item.model.dto.ItemWithBookingsResponseDto;
+import ru.practicum.shareit.server.item.search.ItemSearchEngine;
+import ru.practicum.shareit.server.item.search.ItemSearchMode;
+import ru.practicum.shareit.server.item.search.ItemSearchSort;
 import ru.practicum.shareit.server.request.ItemRequestRepository;
 import ru.practicum.shareit.server.request.exception.ItemRequestNotFoundException;
 import ru.practicum.shareit.server.request.model.ItemRequest;
 import ru.practicum.shareit.server.user.UserService;
 import ru.practicum.shareit.server.user.model.User;
+import ru.practicum.shareit.server.util.batch.BatchResult;
+import ru.practicum.shareit.server.util.bulk.BulkImportResult;
+import ru.practicum.shareit.server.util.etag.EntityTags;
+import ru.practicum.shareit.server.util.pagination.Cursor;
+import ru.practicum.shareit.server.util.pagination.CursorSlice;
 
 import java.time.LocalDateTime;
 import java.util.*;
@@ -37,19 +49,31 @@ public class ItemService {
     private final BookingRepository bookingRepo;
     private final CommentRepository commentRepo;
     private final ItemRequestRepository requestRepo;
+    private final ItemSearchEngine searchEngine;
+    private final ItemAvailabilityIndex availabilityIndex;
+
+    /**
+     * Number of comments embedded into the item, the rest are paged with {@link #getComments}
+     */
+    static final int NEWEST_COMMENTS = 10;
 
     public ItemService(ItemRepository itemRepo, UserService userService, BookingRepository bookingRepo,
-                       CommentRepository commentRepo, ItemRequestRepository requestRepo) {
+                       CommentRepository commentRepo, ItemRequestRepository requestRepo,
+                       ItemSearchEngine searchEngine, ItemAvailabilityIndex availabilityIndex) {
         this.itemRepo = itemRepo;
         this.userService = userService;
         this.bookingRepo = bookingRepo;
         this.commentRepo = commentRepo;
         this.requestRepo = requestRepo;
+        this.searchEngine = searchEngine;
+        this.availabilityIndex = availabilityIndex;
     }
 
     /**
-     * User can write a comment for the item only if he booked it and the booking had ended before the comment was written
+     * User can write a comment for the item only if he booked it and the booking had ended before the comment
+     * was written. Aggregates of the item are updated in the same transaction as the comment is saved
      */
+    @Transactional
     public CommentResponseDto addComment(CommentRequestDto commentRequestDto, long itemId, long authorId)
             throws UserNotFoundException, ItemNotFoundException, CommentingRestrictedException {
         User author = userService.getById(authorId);
@@ -74,20 +98,49 @@ public class ItemService {
         }
 
         Comment comment = commentRepo.save(CommentMapper.toComment(commentRequestDto, 0, now, item, author));
+        itemRepo.addComment(itemId, now, comment.getRating());
         return CommentMapper.toCommentResponseDto(comment);
     }
 
     public ItemDto add(ItemDto itemDto) throws UserNotFoundException, ItemRequestNotFoundException {
         itemDto.setId(0);
         User owner = userService.getById(itemDto.getOwnerId());
-        if (itemDto.getRequestId() == 0) {
-            Item item = ItemMapper.toItem(itemDto, owner, null);
-            return ItemMapper.toItemDto(itemRepo.save(item));
+        ItemRequest request = itemDto.getRequestId() == 0 ? null : getRequestById(itemDto.getRequestId());
+        Item item = itemRepo.save(ItemMapper.toItem(itemDto, owner, request));
+        searchEngine.index(item);
+        return ItemMapper.toItemDto(item);
+    }
+
+    /**
+     * Items answering requests that don't exist are rejected, the rest are inserted in one transaction
+     *
+     * @return number of added items and errors of the rejected ones, rows are positions in the list starting from 1
+     */
+    public BulkImportResult addAll(long ownerId, List<ItemDto> items) throws UserNotFoundException {
+        User owner = userService.getById(ownerId);
+        Set<Long> requestIds = items.stream()
+                .map(ItemDto::getRequestId)
+                .filter(requestId -> requestId != 0)
+                .collect(Collectors.toSet());
+        Map<Long, ItemRequest> idToRequest = requestRepo.findAllById(requestIds).stream()
+                .collect(Collectors.toMap(ItemRequest::getId, request -> request));
+
+        BulkImportResult result = new BulkImportResult();
+        List<Item> accepted = new ArrayList<>();
+        for (int i = 0; i < items.size(); i++) {
+            ItemDto itemDto = items.get(i);
+            itemDto.setId(0);
+            ItemRequest request = idToRequest.get(itemDto.getRequestId());
+            if (itemDto.getRequestId() != 0 && request == null) {
+                result.reject(i + 1, String.format("Item request with id=%d not found", itemDto.getRequestId()));
+                continue;
+            }
+            accepted.add(ItemMapper.toItem(itemDto, owner, request));
         }
 
-        ItemRequest request = getRequestById(itemDto.getRequestId());
-        Item item = ItemMapper.toItem(itemDto, owner, request);
-        return ItemMapper.toItemDto(itemRepo.save(item));
+        itemRepo.saveAll(accepted).forEach(searchEngine::index);
+        result.setImported(accepted.size());
+        return result;
     }
 
     /**
@@ -102,23 +155,119 @@ public class ItemService {
         Item item = getById(itemId);
 
         List<Long> idAsList = List.of(itemId);
-        Map<Long, List<Comment>> itemIdToComments = commentRepo.findAllByItem_IdAsMap(idAsList);
-        Map<Long, List<Booking>> itemIdToBookings = bookingRepo.findAllByItem_IdAsMap(idAsList);
-
-        List<Comment> comments = itemIdToComments.get(itemId);
-        List<CommentResponseDto> commentResponseDtos = comments == null ? new ArrayList<>() :
-                comments.stream().map(CommentMapper::toCommentResponseDto).collect(Collectors.toList());
+        List<CommentResponseDto> commentResponseDtos = commentRepo
+                .findNewestByItem_Id(itemId, PageRequest.of(0, NEWEST_COMMENTS)).stream()
+                .map(CommentMapper::toCommentResponseDto)
+                .collect(Collectors.toList());
 
         ItemWithBookingsResponseDto itemDto = ItemMapper.toItemWithBookingsResponseDto(item, null, null,
                 commentResponseDtos);
 
-        List<Booking> bookings = itemIdToBookings.get(itemId);
-        if (item.getOwner().getId() == userId && bookings != null) {
-            setItemLastAndNextBookingsOrNulls(itemDto, bookings);
+        if (item.getOwner().getId() == userId) {
+            LocalDateTime now = LocalDateTime.now();
+            setItemLastAndNextBookingsOrNulls(itemDto,
+                    bookingRepo.findLastByItem_IdAsMap(idAsList, now).get(itemId),
+                    bookingRepo.findNextByItem_IdAsMap(idAsList, now).get(itemId));
         }
         return itemDto;
     }
 
+    /**
+     * Items by ids as {@link #getDtoById(long, long)} shows them: newest comments for everyone, bookings
+     * for the owner only. Items, their comments and bookings are read with a few queries for all of them
+     */
+    @Transactional(readOnly = true)
+    public BatchResult<ItemWithBookingsResponseDto> getDtosByIds(Collection<Long> itemIds, long userId)
+            throws UserNotFoundException {
+        if (!userService.existsById(userId)) {
+            throw new UserNotFoundException(
+                    String.format("Cannot get items, because user with id=%d not found", userId));
+        }
+        List<Item> items = itemIds.isEmpty() ? List.of() : itemRepo.findAllWithOwnerByIdIn(itemIds);
+        List<Long> foundIds = items.stream().map(Item::getId).collect(Collectors.toList());
+        Map<Long, List<Comment>> itemIdToComments = commentRepo.findNewestByItem_IdAsMap(foundIds, NEWEST_COMMENTS);
+
+        List<Long> ownItemIds = items.stream()
+                .filter(item -> item.getOwner().getId() == userId)
+                .map(Item::getId)
+                .collect(Collectors.toList());
+        LocalDateTime now = LocalDateTime.now();
+        Map<Long, Booking> itemIdToLastBooking = bookingRepo.findLastByItem_IdAsMap(ownItemIds, now);
+        Map<Long, Booking> itemIdToNextBooking = bookingRepo.findNextByItem_IdAsMap(ownItemIds, now);
+
+        Map<Long, ItemWithBookingsResponseDto> idToItem = new HashMap<>();
+        for (Item item : items) {
+            List<CommentResponseDto> commentResponseDtos = itemIdToComments
+                    .getOrDefault(item.getId(), List.of()).stream()
+                    .map(CommentMapper::toCommentResponseDto)
+                    .collect(Collectors.toList());
+            ItemWithBookingsResponseDto itemDto = ItemMapper.toItemWithBookingsResponseDto(item, null, null,
+                    commentResponseDtos);
+            setItemLastAndNextBookingsOrNulls(itemDto,
+                    itemIdToLastBooking.get(item.getId()),
+                    itemIdToNextBooking.get(item.getId()));
+            idToItem.put(item.getId(), itemDto);
+        }
+        return BatchResult.of(itemIds, idToItem);
+    }
+
+    /**
+     * Comments of the item, newest first
+     *
+     * @param after cursor returned with the previous slice, blank for the first one
+     */
+    public CursorSlice<CommentResponseDto> getComments(long itemId, long userId, String after, int size)
+            throws UserNotFoundException, ItemNotFoundException, InvalidCursorException {
+        if (!userService.existsById(userId)) {
+            throw new UserNotFoundException(
+                    String.format("Cannot get comments, because user with id=%d not found", userId));
+        }
+        if (!itemRepo.existsById(itemId)) {
+            throw new ItemNotFoundException(String.format("Item with id=%d not found", itemId));
+        }
+        Cursor cursor = Cursor.decode(after);
+        if (cursor != null && cursor.getTimestamp() == null) {
+            throw new InvalidCursorException("Invalid cursor: " + after);
+        }
+        PageRequest limit = PageRequest.of(0, size + 1);
+        List<Comment> comments = cursor == null ?
+                commentRepo.findNewestByItem_Id(itemId, limit) :
+                commentRepo.findNewestByItem_IdBefore(itemId, cursor.getTimestamp(), cursor.getId(), limit);
+
+        boolean hasNext = comments.size() > size;
+        List<CommentResponseDto> commentDtos = (hasNext ? comments.subList(0, size) : comments).stream()
+                .map(CommentMapper::toCommentResponseDto)
+                .collect(Collectors.toList());
+        String next = null;
+        if (hasNext) {
+            CommentResponseDto last = commentDtos.get(size - 1);
+            next = new Cursor(last.getCreated(), last.getId()).encode();
+        }
+        return new CursorSlice<>(commentDtos, next);
+    }
+
+    /**
+     * Weak entity tag of {@link #getDtoById(long, long)}, read with one query instead of assembling the response.
+     * Names of comment authors are not part of it, a renamed author shows up once the item or its comments change
+     *
+     * @return null if the user or the item doesn't exist, so the full lookup reports it
+     */
+    public String getEtag(long itemId, long userId) {
+        if (!userService.existsById(userId)) {
+            return null;
+        }
+        List<Object[]> stamps = itemRepo.findVersionStampById(itemId, LocalDateTime.now());
+        if (stamps.isEmpty()) {
+            return null;
+        }
+        Object[] stamp = stamps.get(0);
+        if (((Number) stamp[0]).longValue() == userId) {
+            return EntityTags.weak(stamp);
+        }
+        //bookings are shown to the owner only, so they don't change the tag for others
+        return EntityTags.weak(Arrays.copyOfRange(stamp, 1, 4));
+    }
+
     public Item getById(long itemId) throws ItemNotFoundException {
         Optional<Item> itemOpt = itemRepo.findById(itemId);
         if (itemOpt.isEmpty()) {
@@ -127,91 +276,110 @@ public class ItemService {
         return itemOpt.get();
     }
 
+    /**
+     * Windows between approved bookings of the item within the given time, the past is not included
+     */
+    public List<AvailabilityWindowDto> getAvailability(long itemId, LocalDateTime from, LocalDateTime to)
+            throws ItemNotFoundException {
+        if (!itemRepo.existsById(itemId)) {
+            throw new ItemNotFoundException(String.format("Item with id=%d not found", itemId));
+        }
+        return availabilityIndex.getFreeWindows(itemId, from, to);
+    }
+
+    /**
+     * Owner's items sorted by the start of their last booking, never booked ones go last
+     */
     public Collection<ItemWithBookingsResponseDto> getAllByOwnerId(long ownerId, int from, int size) {
-        PageRequest pageRequest = PageRequest.of(from / size, size);
-        Page<Item> items = itemRepo.findAllByOwner_Id(ownerId, pageRequest);
+        LocalDateTime now = LocalDateTime.now();
+        int offset = from / size * size;
+        return toItemWithBookingsResponseDtos(
+                itemRepo.findAllByOwner_IdOrderByLastBookingStart(ownerId, now, offset, size), now);
+    }
+
+    /**
+     * Keyset alternative to {@link #getAllByOwnerId(long, int, int)}
+     *
+     * @param after cursor returned with the previous slice, blank for the first one
+     */
+    public CursorSlice<ItemWithBookingsResponseDto> getAllByOwnerIdAfter(long ownerId, String after, int size)
+            throws InvalidCursorException {
+        LocalDateTime now = LocalDateTime.now();
+        List<Item> items = itemRepo.findAllByOwner_IdAfter(ownerId, now, Cursor.decode(after), size + 1);
+        boolean hasNext = items.size() > size;
+        List<ItemWithBookingsResponseDto> itemDtos = toItemWithBookingsResponseDtos(
+                hasNext ? items.subList(0, size) : items, now);
+
+        String next = null;
+        if (hasNext) {
+            ItemWithBookingsResponseDto last = itemDtos.get(size - 1);
+            LocalDateTime lastBookingStart = last.getLastBooking() == null ? null : last.getLastBooking().getStart();
+            next = new Cursor(lastBookingStart, last.getId()).encode();
+        }
+        return new CursorSlice<>(itemDtos, next);
+    }
 
+    /**
+     * Items with their {@value #NEWEST_COMMENTS} newest comments; the total is in {@code commentCount}
+     *
+     * @param now the moment items were sorted at, so the last bookings in the response are the ones they were sorted by
+     */
+    private List<ItemWithBookingsResponseDto> toItemWithBookingsResponseDtos(List<Item> items, LocalDateTime now) {
         List<Long> itemIds = items.stream().map(Item::getId).collect(Collectors.toList());
-        Map<Long, List<Comment>> itemIdToComments = commentRepo.findAllByItem_IdAsMap(itemIds);
-        Map<Long, List<Booking>> itemIdToBookings = bookingRepo.findAllByItem_IdAsMap(itemIds);
+        Map<Long, List<Comment>> itemIdToComments = commentRepo.findNewestByItem_IdAsMap(itemIds, NEWEST_COMMENTS);
+        Map<Long, Booking> itemIdToLastBooking = bookingRepo.findLastByItem_IdAsMap(itemIds, now);
+        Map<Long, Booking> itemIdToNextBooking = bookingRepo.findNextByItem_IdAsMap(itemIds, now);
 
         List<ItemWithBookingsResponseDto> itemDtos = new ArrayList<>();
         for (Item item : items) {
-            List<Comment> comments = itemIdToComments.get(item.getId());
-            List<CommentResponseDto> commentResponseDtos = comments == null ? new ArrayList<>() :
-                    comments.stream().map(CommentMapper::toCommentResponseDto).collect(Collectors.toList());
+            List<CommentResponseDto> commentResponseDtos = itemIdToComments
+                    .getOrDefault(item.getId(), List.of()).stream()
+                    .map(CommentMapper::toCommentResponseDto)
+                    .collect(Collectors.toList());
 
             ItemWithBookingsResponseDto itemDto = ItemMapper.toItemWithBookingsResponseDto(item, null, null,
                     commentResponseDtos);
 
-            List<Booking> bookings = itemIdToBookings.get(item.getId());
-            if (bookings != null) {
-                setItemLastAndNextBookingsOrNulls(itemDto, bookings);
-            }
+            setItemLastAndNextBookingsOrNulls(itemDto,
+                    itemIdToLastBooking.get(item.getId()),
+                    itemIdToNextBooking.get(item.getId()));
             itemDtos.add(itemDto);
         }
-
-        //needed to pass the tests
-        Comparator<ItemWithBookingsResponseDto> comparator = (i1, i2) -> {
-            SimpleBookingResponseDto b1 = i1.getLastBooking();
-            SimpleBookingResponseDto b2 = i2.getLastBooking();
-            if (b1 != null && b2 != null) {
-                return b1.getStart().compareTo(b2.getStart());
-            }
-            if (b1 == null) {
-                return 1;
-            }
-            if (b2 == null) {
-                return -1;
-            }
-            return 0;
-        };
-        itemDtos.sort(comparator);
-
         return itemDtos;
     }
 
-    private void setItemLastAndNextBookingsOrNulls(ItemWithBookingsResponseDto itemDto, List<Booking> itemBookings) {
-        Booking lastBooking = getItemLastBooking(itemBookings).orElse(null);
+    private void setItemLastAndNextBookingsOrNulls(ItemWithBookingsResponseDto itemDto,
+                                                   Booking lastBooking, Booking nextBooking) {
         itemDto.setLastBooking(
                 lastBooking == null ? null : BookingMapper.toSimpleBookingResponseDto(lastBooking)
         );
-        Booking nextBooking = getItemNextBooking(itemBookings).orElse(null);
         itemDto.setNextBooking(
                 nextBooking == null ? null : BookingMapper.toSimpleBookingResponseDto(nextBooking)
         );
     }
 
-    private Optional<Booking> getItemLastBooking(Collection<Booking> itemBookings) {
-        //the later date is considered greater
-        Comparator<LocalDateTime> timeComparator = (t1, t2) -> t1.isAfter(t2) ? 1 : -1;
-
-        return itemBookings.stream()
-                .filter(b -> b.getStart().isBefore(LocalDateTime.now()))
-                .max((b1, b2) -> timeComparator.compare(b1.getEnd(), b2.getEnd()));
-    }
-
-    private Optional<Booking> getItemNextBooking(Collection<Booking> itemBookings) {
-        //the later date is considered greater
-        Comparator<LocalDateTime> timeComparator = (t1, t2) -> t1.isAfter(t2) ? 1 : -1;
-
-        return itemBookings.stream()
-                .filter(b -> b.getStart().isAfter(LocalDateTime.now()) &&
-                        b.getStatus() != BookingStatus.CANCELED &&
-                        b.getStatus() != BookingStatus.REJECTED)
-                .min((b1, b2) -> timeComparator.compare(b1.getStart(), b2.getStart()));
+    public Collection<ItemDto> searchByNameOrDescription(String text, int from, int size) {
+        return searchByNameOrDescription(text, ItemSearchMode.SUBSTRING, ItemSearchSort.ID, from, size);
     }
 
-    public Collection<ItemDto> searchByNameOrDescription(String text, int from, int size) {
+    public Collection<ItemDto> searchByNameOrDescription(String text, ItemSearchMode mode, ItemSearchSort sort,
+                                                         int from, int size) {
         if (text.isBlank()) {
             return new ArrayList<>(0);
         }
         PageRequest pageRequest = PageRequest.of(from / size, size);
-        return itemRepo.searchByNameOrDescription(text, pageRequest)
+        return searchEngine.search(text, mode, sort, pageRequest)
                 .stream().map(ItemMapper::toItemDto).collect(Collectors.toList());
     }
 
-    public ItemDto update(ItemDto itemDto) throws ItemNotFoundException, ItemRequestNotFoundException {
+    /**
+     * No transaction is held between reading and saving the item, the version of the item tells
+     * if it was changed by another request in between
+     *
+     * @throws VersionConflictException if the item was changed since it was read
+     */
+    public ItemDto update(ItemDto itemDto) throws ItemNotFoundException, ItemRequestNotFoundException,
+            VersionConflictException {
         Item presentedItem = getById(itemDto.getId());
 
         if (itemDto.getOwnerId() != presentedItem.getOwner().getId()) {
@@ -239,7 +407,16 @@ public class ItemService {
         }
 
         Item item = ItemMapper.toItem(itemDto, presentedItem.getOwner(), itemRequest);
-        return ItemMapper.toItemDto(itemRepo.save(item));
+        item.setVersion(presentedItem.getVersion());
+        try {
+            item = itemRepo.save(item);
+        } catch (OptimisticLockingFailureException e) {
+            throw new VersionConflictException(
+                    String.format("Item with id=%d was changed by another request", item.getId()),
+                    ItemMapper.toItemDto(getById(item.getId())));
+        }
+        searchEngine.index(item);
+        return ItemMapper.toItemDto(item);
     }
 
     private ItemRequest getRequestById(long id) throws ItemRequestNotFoundException {
@@ -15,7 +15,8 @@ public class CommentMapper {
                 commentRequestDto.getText(),
                 created,
                 item,
-                author
+                author,
+                commentRequestDto.getRating()
         );
     }
 
@@ -24,7 +25,8 @@ public class CommentMapper {
                 comment.getId(),
                 comment.getText(),
                 comment.getAuthor().getName(),
-                comment.getCreated()
+                comment.getCreated(),
+                comment.getRating()
         );
     }
 }
@@ -1,21 +1,21 @@
 package ru.practicum.shareit.server.item.model;
 
-import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import ru.practicum.shareit.server.user.model.User;
 import ru.practicum.shareit.server.request.model.ItemRequest;
 
 import javax.persistence.*;
+import java.time.LocalDateTime;
 
 @Entity
 @Table(name = "items")
 @Data
-@AllArgsConstructor
 @NoArgsConstructor
 public class Item {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "items_seq")
+    @SequenceGenerator(name = "items_seq", sequenceName = "items_seq", allocationSize = 50)
     @Column(name = "item_id")
     private long id;
 
@@ -25,11 +25,49 @@ public class Item {
     private String description;
     private Boolean available;
 
-    @ManyToOne(optional = false)
+    @ManyToOne(optional = false, fetch = FetchType.LAZY)
     @JoinColumn(name = "owner_id")
     private User owner;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "request_id")
     private ItemRequest request;
+
+    /**
+     * Checked on every update, so concurrent changes of the same item don't overwrite each other
+     */
+    @Version
+    private long version;
+
+    /**
+     * Aggregates of item's comments. They are only changed by {@link
+     * ru.practicum.shareit.server.item.ItemRepository#addComment}, which updates them in place,
+     * so saving an item read before a comment was added doesn't overwrite them
+     */
+    @Column(name = "comment_count", insertable = false, updatable = false)
+    private long commentCount;
+
+    @Column(name = "last_comment_at", insertable = false, updatable = false)
+    private LocalDateTime lastCommentAt;
+
+    @Column(name = "rating_count", insertable = false, updatable = false)
+    private long ratingCount;
+
+    @Column(name = "rating_sum", insertable = false, updatable = false)
+    private long ratingSum;
+
+    /**
+     * Average rating, 0 while there are no ratings
+     */
+    @Column(insertable = false, updatable = false)
+    private double rating;
+
+    public Item(long id, String name, String description, Boolean available, User owner, ItemRequest request) {
+        this.id = id;
+        this.name = name;
+        this.description = description;
+        this.available = available;
+        this.owner = owner;
+        this.request = request;
+    }
 }
@@ -29,7 +29,10 @@ public class ItemMapper {
                 item.getDescription(),
                 item.getAvailable(),
                 item.getOwner().getId(),
-                item.getRequest() == null ? 0 : item.getRequest().getId()
+                item.getRequest() == null ? 0 : item.getRequest().getId(),
+                item.getCommentCount(),
+                item.getLastCommentAt(),
+                toRating(item)
         );
     }
 
@@ -44,7 +47,14 @@ public class ItemMapper {
                 item.getOwner().getId(),
                 lastBooking,
                 nextBooking,
-                commentResponseDtos
+                commentResponseDtos,
+                item.getCommentCount(),
+                item.getLastCommentAt(),
+                toRating(item)
         );
     }
+
+    private static Double toRating(Item item) {
+        return item.getRatingCount() == 0 ? null : item.getRating();
+    }
 }
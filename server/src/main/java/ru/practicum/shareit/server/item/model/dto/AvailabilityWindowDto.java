@@ -0,0 +1,18 @@
+package ru.practicum.shareit.server.item.model.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Time when an item is not booked, start inclusive and end exclusive
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class AvailabilityWindowDto {
+    private LocalDateTime start;
+    private LocalDateTime end;
+}
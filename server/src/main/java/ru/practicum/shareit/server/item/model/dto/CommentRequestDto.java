@@ -9,4 +9,13 @@ import lombok.NoArgsConstructor;
 @NoArgsConstructor
 public class CommentRequestDto {
     private String text;
+
+    /**
+     * From 1 to 5, optional
+     */
+    private Integer rating;
+
+    public CommentRequestDto(String text) {
+        this.text = text;
+    }
 }
@@ -12,4 +12,5 @@ public class CommentResponseDto {
     private String text;
     private String authorName;
     private LocalDateTime created;
+    private Integer rating;
 }
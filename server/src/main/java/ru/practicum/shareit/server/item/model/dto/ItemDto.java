@@ -5,6 +5,8 @@ import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import java.time.LocalDateTime;
+
 @Data
 @AllArgsConstructor
 @NoArgsConstructor
@@ -18,4 +20,21 @@ public class ItemDto {
     private long ownerId;
 
     private long requestId;
+
+    private long commentCount;
+    private LocalDateTime lastCommentAt;
+
+    /**
+     * Average rating of the item, null if it has no ratings
+     */
+    private Double rating;
+
+    public ItemDto(long id, String name, String description, Boolean available, long ownerId, long requestId) {
+        this.id = id;
+        this.name = name;
+        this.description = description;
+        this.available = available;
+        this.ownerId = ownerId;
+        this.requestId = requestId;
+    }
 }
@@ -4,6 +4,7 @@ import lombok.AllArgsConstructor;
 import lombok.Data;
 import ru.practicum.shareit.server.booking.model.dto.SimpleBookingResponseDto;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 @Data
@@ -17,4 +18,11 @@ public class ItemWithBookingsResponseDto {
     private SimpleBookingResponseDto lastBooking;
     private SimpleBookingResponseDto nextBooking;
     private List<CommentResponseDto> comments;
+    private long commentCount;
+    private LocalDateTime lastCommentAt;
+
+    /**
+     * Average rating of the item, null if it has no ratings
+     */
+    private Double rating;
 }
@@ -0,0 +1,58 @@
+package ru.practicum.shareit.server.item.search;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.jdbc.DatabaseDriver;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.jdbc.support.JdbcUtils;
+import org.springframework.jdbc.support.MetaDataAccessException;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.server.item.ItemRepository;
+import ru.practicum.shareit.server.item.model.Item;
+
+import javax.sql.DataSource;
+import java.sql.DatabaseMetaData;
+import java.util.List;
+
+/**
+ * Searches straight in the database. On Postgres both modes are served by the pg_trgm and tsvector GIN indexes.
+ * Ranking relies on functions of Postgres, on other databases {@link ItemSearchMode#RANKED} falls back
+ * to the portable query of {@link ItemSearchMode#SUBSTRING} ordered by id
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "shareit.item-search.engine", havingValue = "database", matchIfMissing = true)
+public class DatabaseItemSearchEngine implements ItemSearchEngine {
+    private final ItemRepository itemRepo;
+    private final boolean rankingSupported;
+
+    public DatabaseItemSearchEngine(ItemRepository itemRepo, DataSource dataSource) {
+        this.itemRepo = itemRepo;
+        this.rankingSupported = isPostgres(dataSource);
+        if (!rankingSupported) {
+            log.warn("Ranked item search needs Postgres, items will be searched by substring instead");
+        }
+    }
+
+    @Override
+    public List<Item> search(String text, ItemSearchMode mode, ItemSearchSort sort, Pageable pageable) {
+        if (mode == ItemSearchMode.RANKED) {
+            if (rankingSupported) {
+                return itemRepo.rankedSearchByNameOrDescription(text, pageable);
+            }
+            sort = ItemSearchSort.ID;
+        }
+        return itemRepo.searchByNameOrDescription(text,
+                PageRequest.of(pageable.getPageNumber(), pageable.getPageSize(), sort.getSort())).getContent();
+    }
+
+    private static boolean isPostgres(DataSource dataSource) {
+        try {
+            String product = JdbcUtils.extractDatabaseMetaData(dataSource, DatabaseMetaData::getDatabaseProductName);
+            return DatabaseDriver.fromProductName(product) == DatabaseDriver.POSTGRESQL;
+        } catch (MetaDataAccessException e) {
+            throw new IllegalStateException("Failed to find out the database of the item search", e);
+        }
+    }
+}
@@ -0,0 +1,272 @@
+package ru.practicum.shareit.server.item.search;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.shareit.server.item.ItemRepository;
+import ru.practicum.shareit.server.item.model.Item;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Collectors;
+
+/**
+ * Keeps a trigram inverted index of item names and descriptions in memory. Candidates are picked
+ * from the index and then checked against the full text, so substring results match the database query.
+ * <p>
+ * The index is filled from the database on the first search and kept up to date through {@link #index(Item)}.
+ * Texts with LIKE wildcards are passed to the database, because their meaning differs from a plain substring,
+ * and so are searches sorted by comment aggregates, which change with every comment and aren't indexed here.
+ * <p>
+ * Changes of the index are guarded by a lock rather than synchronized, because the first load reads the database
+ * while holding it, and a virtual thread blocked inside synchronized would pin its carrier thread.
+ */
+@Component
+@ConditionalOnProperty(name = "shareit.item-search.engine", havingValue = "in-memory")
+public class InMemoryItemSearchEngine implements ItemSearchEngine {
+    private static final int GRAM_LENGTH = 3;
+
+    private final ItemRepository itemRepo;
+
+    private final Map<Long, IndexedItem> indexedItems = new ConcurrentHashMap<>();
+    private final Map<String, Set<Long>> gramToItemIds = new ConcurrentHashMap<>();
+    private final Lock lock = new ReentrantLock();
+    private volatile boolean loaded;
+
+    public InMemoryItemSearchEngine(ItemRepository itemRepo) {
+        this.itemRepo = itemRepo;
+    }
+
+    @Override
+    public List<Item> search(String text, ItemSearchMode mode, ItemSearchSort sort, Pageable pageable) {
+        if (containsLikeWildcards(text) || mode == ItemSearchMode.SUBSTRING && sort != ItemSearchSort.ID) {
+            return itemRepo.searchByNameOrDescription(text,
+                    PageRequest.of(pageable.getPageNumber(), pageable.getPageSize(), sort.getSort())).getContent();
+        }
+        loadIfNeeded();
+
+        String query = text.toUpperCase(Locale.ROOT);
+        List<String> words = words(query);
+        Comparator<IndexedItem> order = Comparator.comparingLong(IndexedItem::getId);
+        Set<Long> candidates = findCandidates(query);
+        if (mode == ItemSearchMode.RANKED) {
+            for (String word : words) {
+                candidates.addAll(findCandidates(word));
+            }
+            order = Comparator.comparingInt((IndexedItem item) -> item.score(query, words))
+                    .reversed()
+                    .thenComparing(order);
+        }
+
+        List<Long> pageIds = candidates.stream()
+                .map(indexedItems::get)
+                .filter(Objects::nonNull)
+                .filter(item -> item.available && (item.contains(query)
+                        || mode == ItemSearchMode.RANKED && item.containsAllWords(words)))
+                .sorted(order)
+                .skip(pageable.getOffset())
+                .limit(pageable.getPageSize())
+                .map(IndexedItem::getId)
+                .collect(Collectors.toList());
+
+        Map<Long, Item> idToItem = itemRepo.findAllById(pageIds).stream()
+                .collect(Collectors.toMap(Item::getId, item -> item));
+        return pageIds.stream().map(idToItem::get).filter(Objects::nonNull).collect(Collectors.toList());
+    }
+
+    /**
+     * The index is updated right away, so the running transaction sees its own changes.
+     * If the transaction rolls back, the previous state of the item is restored
+     */
+    @Override
+    public void index(Item item) {
+        IndexedItem previous = put(new IndexedItem(item), true);
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status != STATUS_ROLLED_BACK) {
+                    return;
+                }
+                if (previous == null) {
+                    remove(item.getId());
+                } else {
+                    put(previous, true);
+                }
+            }
+        });
+    }
+
+    private void loadIfNeeded() {
+        if (loaded) {
+            return;
+        }
+        lock.lock();
+        try {
+            if (loaded) {
+                return;
+            }
+            //items indexed while loading are newer than the loaded ones, so they are not replaced
+            for (Item item : itemRepo.findAll()) {
+                put(new IndexedItem(item), false);
+            }
+            loaded = true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return previously indexed state of the item or null
+     */
+    private IndexedItem put(IndexedItem item, boolean replace) {
+        lock.lock();
+        try {
+            IndexedItem previous = indexedItems.get(item.id);
+            if (previous != null) {
+                if (!replace) {
+                    return previous;
+                }
+                removeGrams(previous);
+            }
+            indexedItems.put(item.id, item);
+            for (String gram : item.grams) {
+                gramToItemIds.computeIfAbsent(gram, g -> ConcurrentHashMap.newKeySet()).add(item.id);
+            }
+            return previous;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void remove(long itemId) {
+        lock.lock();
+        try {
+            IndexedItem previous = indexedItems.remove(itemId);
+            if (previous != null) {
+                removeGrams(previous);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void removeGrams(IndexedItem item) {
+        for (String gram : item.grams) {
+            Set<Long> itemIds = gramToItemIds.get(gram);
+            if (itemIds != null) {
+                itemIds.remove(item.id);
+            }
+        }
+    }
+
+    private Set<Long> findCandidates(String query) {
+        if (query.length() < GRAM_LENGTH) {
+            return new HashSet<>(indexedItems.keySet());
+        }
+        Set<Long> candidates = null;
+        for (String gram : grams(query)) {
+            Set<Long> itemIds = gramToItemIds.getOrDefault(gram, Collections.emptySet());
+            if (candidates == null) {
+                candidates = new HashSet<>(itemIds);
+            } else {
+                candidates.retainAll(itemIds);
+            }
+            if (candidates.isEmpty()) {
+                break;
+            }
+        }
+        return candidates;
+    }
+
+    private static boolean containsLikeWildcards(String text) {
+        return text.indexOf('%') >= 0 || text.indexOf('_') >= 0 || text.indexOf('\\') >= 0;
+    }
+
+    private static Set<String> grams(String text) {
+        Set<String> grams = new HashSet<>();
+        for (int i = 0; i + GRAM_LENGTH <= text.length(); i++) {
+            grams.add(text.substring(i, i + GRAM_LENGTH));
+        }
+        return grams;
+    }
+
+    private static List<String> words(String text) {
+        return Arrays.stream(text.split("[^\\p{L}\\p{N}]+"))
+                .filter(word -> !word.isEmpty())
+                .collect(Collectors.toList());
+    }
+
+    private static class IndexedItem {
+        private final long id;
+        private final boolean available;
+        private final String name;
+        private final String description;
+        private final Set<String> nameWords;
+        private final Set<String> descriptionWords;
+        private final Set<String> grams;
+
+        IndexedItem(Item item) {
+            id = item.getId();
+            available = Boolean.TRUE.equals(item.getAvailable());
+            name = item.getName() == null ? "" : item.getName().toUpperCase(Locale.ROOT);
+            description = item.getDescription() == null ? "" : item.getDescription().toUpperCase(Locale.ROOT);
+            nameWords = new HashSet<>(words(name));
+            descriptionWords = new HashSet<>(words(description));
+            grams = grams(name);
+            grams.addAll(grams(description));
+        }
+
+        long getId() {
+            return id;
+        }
+
+        boolean contains(String query) {
+            return name.contains(query) || description.contains(query);
+        }
+
+        boolean containsAllWords(List<String> words) {
+            if (words.isEmpty()) {
+                return false;
+            }
+            for (String word : words) {
+                if (!nameWords.contains(word) && !descriptionWords.contains(word)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        /**
+         * Matches in the name weigh more than matches in the description, whole phrase more than separate words
+         */
+        int score(String query, List<String> words) {
+            int score = 0;
+            if (name.equals(query)) {
+                score += 8;
+            } else if (name.startsWith(query)) {
+                score += 4;
+            } else if (name.contains(query)) {
+                score += 3;
+            }
+            if (description.contains(query)) {
+                score += 1;
+            }
+            for (String word : words) {
+                if (nameWords.contains(word)) {
+                    score += 2;
+                } else if (descriptionWords.contains(word)) {
+                    score += 1;
+                }
+            }
+            return score;
+        }
+    }
+}
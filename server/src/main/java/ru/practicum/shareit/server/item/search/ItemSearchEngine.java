@@ -0,0 +1,20 @@
+package ru.practicum.shareit.server.item.search;
+
+import org.springframework.data.domain.Pageable;
+import ru.practicum.shareit.server.item.model.Item;
+
+import java.util.List;
+
+public interface ItemSearchEngine {
+
+    /**
+     * @param sort order of substring search results, ignored by ranked search
+     */
+    List<Item> search(String text, ItemSearchMode mode, ItemSearchSort sort, Pageable pageable);
+
+    /**
+     * Called after an item was added or updated, so engines keeping their own index can refresh it
+     */
+    default void index(Item item) {
+    }
+}
@@ -0,0 +1,14 @@
+package ru.practicum.shareit.server.item.search;
+
+public enum ItemSearchMode {
+    /**
+     * Available items whose name or description contains the text, ignoring case, ordered by id
+     */
+    SUBSTRING,
+
+    /**
+     * Same matches as {@link #SUBSTRING} plus items containing every word of the text in any order,
+     * the most relevant first
+     */
+    RANKED
+}
@@ -0,0 +1,38 @@
+package ru.practicum.shareit.server.item.search;
+
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.JpaSort;
+
+/**
+ * Order of {@link ItemSearchMode#SUBSTRING} search results, ranked search always puts the most relevant first.
+ * Items are sorted by the aggregates of their comments kept in the items table, ties are broken by id
+ */
+public enum ItemSearchSort {
+    ID(Sort.unsorted()),
+
+    /**
+     * The most commented first
+     */
+    COMMENTS(Sort.by(Sort.Direction.DESC, "commentCount")),
+
+    /**
+     * The highest average rating first, unrated items go last
+     */
+    RATING(Sort.by(Sort.Direction.DESC, "rating")),
+
+    /**
+     * The most recently commented first, never commented items go last
+     */
+    LAST_COMMENT(JpaSort.unsafe("(case when i.lastCommentAt is null then 1 else 0 end)")
+            .and(Sort.by(Sort.Direction.DESC, "lastCommentAt")));
+
+    private final Sort sort;
+
+    ItemSearchSort(Sort sort) {
+        this.sort = sort.and(Sort.by("id"));
+    }
+
+    public Sort getSort() {
+        return sort;
+    }
+}
@@ -0,0 +1,15 @@
+package ru.practicum.shareit.server.request;
+
+/**
+ * How answers to requests are shown in a listing
+ */
+public enum ItemRequestAnswers {
+    /**
+     * Items answering the request
+     */
+    ITEMS,
+    /**
+     * Only the number of them, the items are not loaded
+     */
+    COUNT
+}
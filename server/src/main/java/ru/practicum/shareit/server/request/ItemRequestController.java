@@ -2,9 +2,11 @@ package ru.practicum.shareit.server.request;
 
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import ru.practicum.shareit.server.request.model.dto.ItemRequestRequestDto;
 import ru.practicum.shareit.server.request.model.dto.ItemRequestResponseDto;
 import ru.practicum.shareit.server.util.constant.Header;
+import ru.practicum.shareit.server.util.pagination.CursorSlice;
 
 import java.util.Collection;
 
@@ -36,7 +38,12 @@ public class ItemRequestController {
 
     @GetMapping("/{requestId}")
     public ItemRequestResponseDto getById(@RequestHeader(Header.USER_ID_HEADER) long userId,
-                                          @PathVariable long requestId) {
+                                          @PathVariable long requestId,
+                                          WebRequest request) {
+        if (request.checkNotModified(itemRequestService.getEtag(userId, requestId))) {
+            log.info("Item request with id={} not modified", requestId);
+            return null;
+        }
         ItemRequestResponseDto responseDto = itemRequestService.getById(userId, requestId);
         log.info("Get item request with id={} by user with id={}", requestId, userId);
         return responseDto;
@@ -50,4 +57,16 @@ public class ItemRequestController {
         log.info("Get {} item requests from index={} by user with id={}", size, from, authorId);
         return responseDtos;
     }
+
+    @GetMapping(path = "/all", params = "after")
+    public CursorSlice<ItemRequestResponseDto> getAllExceptAuthorAfter(
+            @RequestHeader(Header.USER_ID_HEADER) long authorId,
+            @RequestParam String after,
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(defaultValue = "ITEMS") ItemRequestAnswers answers) {
+        CursorSlice<ItemRequestResponseDto> responseDtos = itemRequestService
+                .getAllExceptAuthorIdAfter(authorId, after, size, answers);
+        log.info("Get {} item requests after cursor '{}' by user with id={}", size, after, authorId);
+        return responseDtos;
+    }
 }
@@ -1,19 +1,72 @@
 package ru.practicum.shareit.server.request;
 
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import ru.practicum.shareit.server.request.model.ItemRequest;
+import ru.practicum.shareit.server.request.model.dto.ItemRequestResponseDto;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 
 public interface ItemRequestRepository extends JpaRepository<ItemRequest, Long> {
-    List<ItemRequest> findAllByAuthor_IdOrderByCreatedDesc(long authorId);
+    /**
+     * Requests are read straight into response dtos without items, those are added by the caller
+     */
+    String SELECT_RESPONSE_DTO = "select new ru.practicum.shareit.server.request.model.dto.ItemRequestResponseDto(" +
+            "ir.id, ir.description, ir.created" +
+            ") from ItemRequest ir ";
+
+    @Query(
+            SELECT_RESPONSE_DTO +
+                    "where ir.author.id = :authorId " +
+                    "order by ir.created desc"
+    )
+    List<ItemRequestResponseDto> findAllByAuthor_IdOrderByCreatedDesc(long authorId);
 
     @Query (
-            "select ir from ItemRequest ir " +
+            SELECT_RESPONSE_DTO +
                     "where ir.author.id != :authorId"
     )
-    Page<ItemRequest> findAllExceptAuthor_Id(PageRequest pageRequest, long authorId);
+    Slice<ItemRequestResponseDto> findAllExceptAuthor_Id(PageRequest pageRequest, long authorId);
+
+    @Query(
+            SELECT_RESPONSE_DTO +
+                    "where ir.author.id <> :authorId " +
+                    "order by ir.created desc, ir.id desc"
+    )
+    List<ItemRequestResponseDto> findNewestExceptAuthor_Id(long authorId, Pageable pageable);
+
+    /**
+     * Continues {@link #findNewestExceptAuthor_Id} from the request with the given creation time and id
+     */
+    @Query(
+            SELECT_RESPONSE_DTO +
+                    "where ir.author.id <> :authorId " +
+                    "and (ir.created < :created or (ir.created = :created and ir.id < :id)) " +
+                    "order by ir.created desc, ir.id desc"
+    )
+    List<ItemRequestResponseDto> findNewestExceptAuthor_IdBefore(long authorId, LocalDateTime created, long id,
+                                                                 Pageable pageable);
+
+    @Query(
+            SELECT_RESPONSE_DTO +
+                    "where ir.id = :id"
+    )
+    Optional<ItemRequestResponseDto> findDtoById(long id);
+
+    /**
+     * Count, summed versions and the last id of the items answering the request, the request itself never changes.
+     * Empty if the request doesn't exist
+     */
+    @Query(
+            "select count(i), coalesce(sum(i.version), 0), coalesce(max(i.id), 0) " +
+                    "from ItemRequest ir left join Item i on i.request = ir " +
+                    "where ir.id = :id " +
+                    "group by ir.id"
+    )
+    List<Object[]> findVersionStampById(long id);
 }
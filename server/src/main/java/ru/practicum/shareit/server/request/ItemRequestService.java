@@ -1,24 +1,27 @@
 package ru.practicum.shareit.server.request;
 
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import ru.practicum.shareit.server.request.exception.ItemRequestNotFoundException;
+import ru.practicum.shareit.server.error.global_exception.InvalidCursorException;
 import ru.practicum.shareit.server.error.global_exception.UserNotFoundException;
 import ru.practicum.shareit.server.item.ItemRepository;
-import ru.practicum.shareit.server.item.model.Item;
-import ru.practicum.shareit.server.item.model.ItemMapper;
 import ru.practicum.shareit.server.item.model.dto.ItemDto;
 import ru.practicum.shareit.server.request.model.ItemRequest;
 import ru.practicum.shareit.server.request.model.dto.ItemRequestRequestDto;
 import ru.practicum.shareit.server.request.model.dto.ItemRequestResponseDto;
 import ru.practicum.shareit.server.user.UserService;
 import ru.practicum.shareit.server.user.model.User;
+import ru.practicum.shareit.server.util.etag.EntityTags;
+import ru.practicum.shareit.server.util.pagination.Cursor;
+import ru.practicum.shareit.server.util.pagination.CursorSlice;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.Collection;
-import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.stream.Collectors;
@@ -41,51 +44,108 @@ public class ItemRequestService {
         return ItemRequestMapper.toItemRequestResponseDto(itemRequestRepo.save(itemRequest), null);
     }
 
+    @Transactional(readOnly = true)
     public Collection<ItemRequestResponseDto> getAllByAuthorIdSortedByCreatedDesc(long authorId)
             throws UserNotFoundException {
         User author = userService.getById(authorId);
 
-        List<ItemRequest> itemRequests = itemRequestRepo.findAllByAuthor_IdOrderByCreatedDesc(author.getId());
-        return convertToResponseDtoList(itemRequests);
+        List<ItemRequestResponseDto> itemRequests =
+                itemRequestRepo.findAllByAuthor_IdOrderByCreatedDesc(author.getId());
+        return addItems(itemRequests);
     }
 
+    @Transactional(readOnly = true)
     public ItemRequestResponseDto getById(long userId, long requestId) {
         if (!userService.existsById(userId)) {
             throw new UserNotFoundException(
                     String.format("Cannot get request with id=%d for user with id=%d, user not found", requestId, userId)
             );
         }
-        ItemRequest itemRequest = itemRequestRepo.findById(requestId).orElseThrow(() ->
+        ItemRequestResponseDto itemRequest = itemRequestRepo.findDtoById(requestId).orElseThrow(() ->
                 new ItemRequestNotFoundException(String.format("Item request with id %d not found", requestId))
         );
-        List<ItemRequestResponseDto> itemRequestDtos = convertToResponseDtoList(List.of(itemRequest));
-        return itemRequestDtos.get(0);
+        return addItems(List.of(itemRequest)).get(0);
     }
 
+    /**
+     * Weak entity tag of {@link #getById(long, long)}, read with one query instead of assembling the response
+     *
+     * @return null if the user or the request doesn't exist, so the full lookup reports it
+     */
+    public String getEtag(long userId, long requestId) {
+        if (!userService.existsById(userId)) {
+            return null;
+        }
+        List<Object[]> stamps = itemRequestRepo.findVersionStampById(requestId);
+        return stamps.isEmpty() ? null : EntityTags.weak(stamps.get(0));
+    }
+
+    @Transactional(readOnly = true)
     public Collection<ItemRequestResponseDto> getAllExceptAuthorIdSortedByCreatedDesc(int from, int size, long authorId)
             throws UserNotFoundException {
         User author = userService.getById(authorId);
         int page = from / size;
         PageRequest pageRequest = PageRequest.of(page, size, Sort.by("created").descending());
-        Page<ItemRequest> itemRequests = itemRequestRepo.findAllExceptAuthor_Id(pageRequest, author.getId());
-        return convertToResponseDtoList(itemRequests);
+        Slice<ItemRequestResponseDto> itemRequests =
+                itemRequestRepo.findAllExceptAuthor_Id(pageRequest, author.getId());
+        return addItems(itemRequests.getContent());
     }
 
-    private List<ItemRequestResponseDto> convertToResponseDtoList(Iterable<ItemRequest> itemRequests) {
-        List<ItemRequestResponseDto> itemRequestResponseDtos = new LinkedList<>();
-        List<Long> requestIds = new LinkedList<>();
-        for (ItemRequest itemRequest : itemRequests) {
-            requestIds.add(itemRequest.getId());
+    /**
+     * Requests of other users, newest first. Unlike {@link #getAllExceptAuthorIdSortedByCreatedDesc}
+     * a slice is read from where the previous one ended, so it doesn't get slower with depth
+     *
+     * @param after   cursor returned with the previous slice, blank for the first one
+     * @param answers whether requests hold the items answering them or only the number of those
+     */
+    @Transactional(readOnly = true)
+    public CursorSlice<ItemRequestResponseDto> getAllExceptAuthorIdAfter(long authorId, String after, int size,
+                                                                         ItemRequestAnswers answers)
+            throws UserNotFoundException, InvalidCursorException {
+        User author = userService.getById(authorId);
+        Cursor cursor = Cursor.decode(after);
+        if (cursor != null && cursor.getTimestamp() == null) {
+            throw new InvalidCursorException("Invalid cursor: " + after);
+        }
+        PageRequest limit = PageRequest.of(0, size + 1);
+        List<ItemRequestResponseDto> itemRequests = cursor == null ?
+                itemRequestRepo.findNewestExceptAuthor_Id(author.getId(), limit) :
+                itemRequestRepo.findNewestExceptAuthor_IdBefore(author.getId(), cursor.getTimestamp(),
+                        cursor.getId(), limit);
+
+        boolean hasNext = itemRequests.size() > size;
+        if (hasNext) {
+            itemRequests = itemRequests.subList(0, size);
         }
+        if (answers == ItemRequestAnswers.COUNT) {
+            addAnswerCounts(itemRequests);
+        } else {
+            addItems(itemRequests);
+        }
+        String next = null;
+        if (hasNext) {
+            ItemRequestResponseDto last = itemRequests.get(size - 1);
+            next = new Cursor(last.getCreated(), last.getId()).encode();
+        }
+        return new CursorSlice<>(itemRequests, next);
+    }
+
+    private List<ItemRequestResponseDto> addItems(List<ItemRequestResponseDto> itemRequests) {
+        List<Long> requestIds = itemRequests.stream().map(ItemRequestResponseDto::getId).collect(Collectors.toList());
 
-        Map<Long, List<Item>> requestIdToResponses = itemRepo.findAllByRequest_IdAsMap(requestIds);
-        for (ItemRequest itemRequest : itemRequests) {
-            List<Item> responses = requestIdToResponses.get(itemRequest.getId());
-            responses = responses == null ? new LinkedList<>() : responses;
-            List<ItemDto> responseDtos = responses.stream().map(ItemMapper::toItemDto).collect(Collectors.toList());
-            itemRequestResponseDtos.add(ItemRequestMapper.toItemRequestResponseDto(itemRequest, responseDtos));
+        Map<Long, List<ItemDto>> requestIdToResponses = itemRepo.findAllByRequest_IdAsMap(requestIds);
+        for (ItemRequestResponseDto itemRequest : itemRequests) {
+            itemRequest.setItems(requestIdToResponses.getOrDefault(itemRequest.getId(), new ArrayList<>()));
         }
-        return itemRequestResponseDtos;
+        return itemRequests;
     }
 
+    private void addAnswerCounts(List<ItemRequestResponseDto> itemRequests) {
+        List<Long> requestIds = itemRequests.stream().map(ItemRequestResponseDto::getId).collect(Collectors.toList());
+
+        Map<Long, Long> requestIdToCount = itemRepo.countByRequest_IdAsMap(requestIds);
+        for (ItemRequestResponseDto itemRequest : itemRequests) {
+            itemRequest.setAnswerCount(requestIdToCount.getOrDefault(itemRequest.getId(), 0L));
+        }
+    }
 }
@@ -1,5 +1,6 @@
 package ru.practicum.shareit.server.request.model.dto;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
@@ -16,4 +17,18 @@ public class ItemRequestResponseDto {
     private String description;
     private LocalDateTime created;
     private List<ItemDto> items;
+
+    /**
+     * Number of items answering the request, set instead of items when only counts are requested
+     */
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Long answerCount;
+
+    public ItemRequestResponseDto(long id, String description, LocalDateTime created) {
+        this(id, description, created, null);
+    }
+
+    public ItemRequestResponseDto(long id, String description, LocalDateTime created, List<ItemDto> items) {
+        this(id, description, created, items, null);
+    }
 }
@@ -3,8 +3,11 @@ package ru.practicum.shareit.server.user;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.web.bind.annotation.*;
 import ru.practicum.shareit.server.user.model.UserDto;
+import ru.practicum.shareit.server.util.batch.BatchResult;
+import ru.practicum.shareit.server.util.bulk.BulkImportResult;
 
 import java.util.Collection;
+import java.util.List;
 
 @Slf4j
 @RestController
@@ -24,6 +27,13 @@ public class UserController {
         return addedUser;
     }
 
+    @PostMapping("/bulk")
+    public BulkImportResult addAll(@RequestBody List<UserDto> users) {
+        BulkImportResult result = userService.addAll(users);
+        log.info("{} of {} users were added", result.getImported(), users.size());
+        return result;
+    }
+
     @GetMapping
     public Collection<UserDto> getAll() {
         Collection<UserDto> users = userService.getAll();
@@ -31,6 +41,13 @@ public class UserController {
         return users;
     }
 
+    @GetMapping(params = "ids")
+    public BatchResult<UserDto> getAllByIds(@RequestParam List<Long> ids) {
+        BatchResult<UserDto> users = userService.getDtosByIds(ids);
+        log.info("{} of {} users retrieved by ids", users.getFound().size(), ids.size());
+        return users;
+    }
+
     @GetMapping("/{id}")
     public UserDto getById(@PathVariable long id) {
         UserDto user = userService.getDtoById(id);
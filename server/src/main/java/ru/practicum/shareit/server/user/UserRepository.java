@@ -2,8 +2,14 @@ package ru.practicum.shareit.server.user;
 
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import ru.practicum.shareit.server.user.model.User;
 
+import java.util.Collection;
+import java.util.Set;
+
 public interface UserRepository extends JpaRepository<User, Long> {
 
+    @Query("select u.email from User u where u.email in :emails")
+    Set<String> findAllEmailsIn(Collection<String> emails);
 }
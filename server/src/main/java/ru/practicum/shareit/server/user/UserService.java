@@ -1,22 +1,46 @@
 package ru.practicum.shareit.server.user;
 
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 import ru.practicum.shareit.server.error.global_exception.UserNotFoundException;
+import ru.practicum.shareit.server.error.global_exception.VersionConflictException;
 import ru.practicum.shareit.server.user.model.User;
 import ru.practicum.shareit.server.user.model.UserDto;
 import ru.practicum.shareit.server.user.model.UserMapper;
+import ru.practicum.shareit.server.util.batch.BatchResult;
+import ru.practicum.shareit.server.util.bulk.BulkImportResult;
 
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.stream.Collectors;
 
+/**
+ * Almost every request starts with checking the user from the header, so found users are cached by id.
+ * The cache holds snapshots as {@link UserDto}, callers get copies of them and never a managed entity.
+ * Bounds, expiration and statistics of the cache are set by {@code spring.cache.caffeine.spec}
+ */
 @Service
 public class UserService {
+    public static final String USERS_CACHE = "users";
+    private static final String EMAIL_EXISTS = "Email already exists";
 
     private final UserRepository userRepo;
+    private final Cache usersCache;
 
-    public UserService(UserRepository userRepo) {
+    public UserService(UserRepository userRepo, CacheManager cacheManager) {
         this.userRepo = userRepo;
+        this.usersCache = cacheManager.getCache(USERS_CACHE);
     }
 
     public UserDto add(UserDto userDto) {
@@ -25,8 +49,55 @@ public class UserService {
         return UserMapper.toUserDto(userRepo.save(user));
     }
 
-    public UserDto update(UserDto user) throws UserNotFoundException {
-        User presentedUser = getById(user.getId());
+    /**
+     * Users with emails that are taken or repeated in the list are rejected, the rest are inserted in one transaction.
+     * If an email gets taken by another request in the meantime, the users are inserted one by one to find it
+     *
+     * @return number of added users and errors of the rejected ones, rows are positions in the list starting from 1
+     */
+    public BulkImportResult addAll(List<UserDto> users) {
+        BulkImportResult result = new BulkImportResult();
+        Set<String> takenEmails = userRepo.findAllEmailsIn(
+                users.stream().map(UserDto::getEmail).collect(Collectors.toSet()));
+        Set<String> listedEmails = new HashSet<>();
+        List<Integer> acceptedRows = new ArrayList<>();
+        for (int i = 0; i < users.size(); i++) {
+            UserDto user = users.get(i);
+            user.setId(0);
+            if (takenEmails.contains(user.getEmail()) || !listedEmails.add(user.getEmail())) {
+                result.reject(i + 1, EMAIL_EXISTS);
+            } else {
+                acceptedRows.add(i + 1);
+            }
+        }
+
+        try {
+            userRepo.saveAll(acceptedRows.stream()
+                    .map(row -> UserMapper.toUser(users.get(row - 1)))
+                    .collect(Collectors.toList()));
+            result.setImported(acceptedRows.size());
+        } catch (DataIntegrityViolationException e) {
+            for (int row : acceptedRows) {
+                try {
+                    userRepo.save(UserMapper.toUser(users.get(row - 1)));
+                    result.setImported(result.getImported() + 1);
+                } catch (DataIntegrityViolationException rowException) {
+                    result.reject(row, EMAIL_EXISTS);
+                }
+            }
+        }
+        result.sortErrors();
+        return result;
+    }
+
+    /**
+     * The user is read past the cache, so its version is the stored one. No transaction is held
+     * between reading and saving, the version tells if the user was changed by another request in between
+     *
+     * @throws VersionConflictException if the user was changed since it was read
+     */
+    public UserDto update(UserDto user) throws UserNotFoundException, VersionConflictException {
+        User presentedUser = getStoredById(user.getId());
 
         //replace null fields with values from existing user
         if (user.getName() == null) {
@@ -36,7 +107,17 @@ public class UserService {
             user.setEmail(presentedUser.getEmail());
         }
 
-        User updatedUser = userRepo.save(UserMapper.toUser(user));
+        User updatedUser = UserMapper.toUser(user);
+        updatedUser.setVersion(presentedUser.getVersion());
+        try {
+            updatedUser = userRepo.save(updatedUser);
+        } catch (OptimisticLockingFailureException e) {
+            throw new VersionConflictException(
+                    String.format("User with id=%d was changed by another request", user.getId()),
+                    UserMapper.toUserDto(getStoredById(user.getId())));
+        } finally {
+            evict(user.getId());
+        }
         return UserMapper.toUserDto(updatedUser);
     }
 
@@ -45,22 +126,88 @@ public class UserService {
     }
 
     public UserDto getDtoById(long id) throws UserNotFoundException {
-        return UserMapper.toUserDto(getById(id));
+        return copyOf(findById(id).orElseThrow(() ->
+                new UserNotFoundException(String.format("User with id=%d not found", id))));
+    }
+
+    /**
+     * Cached users are taken from the cache, the rest are read with one query and cached
+     */
+    public BatchResult<UserDto> getDtosByIds(Collection<Long> ids) {
+        Map<Long, UserDto> idToUser = new HashMap<>();
+        Set<Long> missedIds = new HashSet<>();
+        for (Long id : ids) {
+            UserDto cachedUser = usersCache.get(id, UserDto.class);
+            if (cachedUser != null) {
+                idToUser.put(id, copyOf(cachedUser));
+            } else {
+                missedIds.add(id);
+            }
+        }
+        if (!missedIds.isEmpty()) {
+            for (User user : userRepo.findAllById(missedIds)) {
+                usersCache.put(user.getId(), UserMapper.toUserDto(user));
+                idToUser.put(user.getId(), UserMapper.toUserDto(user));
+            }
+        }
+        return BatchResult.of(ids, idToUser);
     }
 
+    /**
+     * @return detached user made from the cached snapshot, to be referred to by other entities
+     */
     public User getById(long id) throws UserNotFoundException {
-        Optional<User> userOpt = userRepo.findById(id);
+        Optional<UserDto> userOpt = findById(id);
         if (userOpt.isEmpty()) {
             throw new UserNotFoundException(String.format("User with id=%d not found", id));
         }
-        return userOpt.get();
+        return UserMapper.toUser(userOpt.get());
     }
 
     public boolean existsById(long id) {
-        return userRepo.existsById(id);
+        return findById(id).isPresent();
     }
 
     public void delete(long id) {
         userRepo.deleteById(id);
+        evict(id);
+    }
+
+    private User getStoredById(long id) throws UserNotFoundException {
+        return userRepo.findById(id).orElseThrow(() ->
+                new UserNotFoundException(String.format("User with id=%d not found", id)));
+    }
+
+    /**
+     * Absent users are not cached, so a user is found right after being added
+     */
+    private Optional<UserDto> findById(long id) {
+        UserDto cachedUser = usersCache.get(id, UserDto.class);
+        if (cachedUser != null) {
+            return Optional.of(cachedUser);
+        }
+        Optional<UserDto> userOpt = userRepo.findById(id).map(UserMapper::toUserDto);
+        userOpt.ifPresent(user -> usersCache.put(id, user));
+        return userOpt;
+    }
+
+    /**
+     * The change may be part of a larger transaction, and another request may cache the old user
+     * until it is committed. So the user is evicted once more when the transaction completes
+     */
+    private void evict(long id) {
+        usersCache.evict(id);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    usersCache.evict(id);
+                }
+            });
+        }
+    }
+
+    private static UserDto copyOf(UserDto user) {
+        return new UserDto(user.getId(), user.getName(), user.getEmail());
     }
 }
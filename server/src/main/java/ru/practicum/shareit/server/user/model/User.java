@@ -1,6 +1,5 @@
 package ru.practicum.shareit.server.user.model;
 
-import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
@@ -9,11 +8,11 @@ import javax.persistence.*;
 @Entity
 @Table(name = "users")
 @Data
-@AllArgsConstructor
 @NoArgsConstructor
 public class User {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "users_seq")
+    @SequenceGenerator(name = "users_seq", sequenceName = "users_seq", allocationSize = 50)
     @Column(name = "user_id")
     private long id;
 
@@ -22,4 +21,16 @@ public class User {
 
     @Column(unique = true)
     private String email;
+
+    /**
+     * Checked on every update, so concurrent changes of the same user don't overwrite each other
+     */
+    @Version
+    private long version;
+
+    public User(long id, String name, String email) {
+        this.id = id;
+        this.name = name;
+        this.email = email;
+    }
 }
@@ -0,0 +1,42 @@
+package ru.practicum.shareit.server.util.batch;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Dtos requested by a list of ids. Ids a single lookup would answer with 404, because the entity doesn't exist
+ * or the user can't see it, are listed in {@code notFound}
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class BatchResult<T> {
+    private List<T> found;
+    private List<Long> notFound;
+
+    /**
+     * @param ids     requested ids, repeated ones are answered once
+     * @param idToDto dtos of the found ids
+     * @return dtos in the order of requested ids
+     */
+    public static <T> BatchResult<T> of(Collection<Long> ids, Map<Long, T> idToDto) {
+        List<T> found = new ArrayList<>();
+        List<Long> notFound = new ArrayList<>();
+        for (Long id : new LinkedHashSet<>(ids)) {
+            T dto = idToDto.get(id);
+            if (dto == null) {
+                notFound.add(id);
+            } else {
+                found.add(dto);
+            }
+        }
+        return new BatchResult<>(found, notFound);
+    }
+}
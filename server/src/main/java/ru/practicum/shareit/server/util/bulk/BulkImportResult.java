@@ -0,0 +1,26 @@
+package ru.practicum.shareit.server.util.bulk;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Number of dtos stored by a bulk import and the reasons the others were rejected
+ */
+@Data
+@NoArgsConstructor
+public class BulkImportResult {
+    private int imported;
+    private List<BulkRowError> errors = new ArrayList<>();
+
+    public void reject(long row, String error) {
+        errors.add(new BulkRowError(row, error));
+    }
+
+    public void sortErrors() {
+        errors.sort(Comparator.comparingLong(BulkRowError::getRow));
+    }
+}
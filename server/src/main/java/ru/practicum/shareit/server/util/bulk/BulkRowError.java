@@ -0,0 +1,16 @@
+package ru.practicum.shareit.server.util.bulk;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * {@code row} is the position of the rejected dto in the imported list, starting from 1
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class BulkRowError {
+    private long row;
+    private String error;
+}
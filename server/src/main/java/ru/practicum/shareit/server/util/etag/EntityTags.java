@@ -0,0 +1,26 @@
+package ru.practicum.shareit.server.util.etag;
+
+import org.springframework.util.DigestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.stream.Collectors;
+
+/**
+ * Weak entity tags of responses. A tag of a single entity is made of versions and aggregates of the rows its response
+ * is built from, read by key, so a conditional request is answered without assembling the dtos. A tag of a listing
+ * is made of the bounded page that was read, so it costs no query, and the body is never serialized just to be hashed
+ */
+public final class EntityTags {
+    private EntityTags() {
+    }
+
+    /**
+     * @param parts values that change whenever the response changes
+     * @return tag in the form {@code W/"..."}, the parts are digested, so counts of rows are not exposed
+     */
+    public static String weak(Object... parts) {
+        String joined = Arrays.stream(parts).map(String::valueOf).collect(Collectors.joining(":"));
+        return "W/\"" + DigestUtils.md5DigestAsHex(joined.getBytes(StandardCharsets.UTF_8)) + "\"";
+    }
+}
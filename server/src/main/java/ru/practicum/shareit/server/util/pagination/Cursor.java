@@ -0,0 +1,45 @@
+package ru.practicum.shareit.server.util.pagination;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import ru.practicum.shareit.server.error.global_exception.InvalidCursorException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Position in a listing sorted by a timestamp and then by id. Clients get it as an opaque string.
+ * The timestamp is null for rows that have none, listings sort them after the rest
+ */
+@Data
+@AllArgsConstructor
+public class Cursor {
+    private LocalDateTime timestamp;
+    private long id;
+
+    /**
+     * @return null for a blank cursor, which means the listing starts from the beginning
+     */
+    public static Cursor decode(String cursor) throws InvalidCursorException {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        try {
+            String decoded = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] parts = decoded.split(",");
+            if (parts.length != 2) {
+                throw new InvalidCursorException("Invalid cursor: " + cursor);
+            }
+            return new Cursor(parts[0].isEmpty() ? null : LocalDateTime.parse(parts[0]), Long.parseLong(parts[1]));
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw new InvalidCursorException("Invalid cursor: " + cursor);
+        }
+    }
+
+    public String encode() {
+        String cursor = (timestamp == null ? "" : timestamp.toString()) + "," + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(cursor.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,18 @@
+package ru.practicum.shareit.server.util.pagination;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Part of a listing requested by cursor. {@code next} is the cursor of the following part or null if this one is last
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class CursorSlice<T> {
+    private List<T> content;
+    private String next;
+}
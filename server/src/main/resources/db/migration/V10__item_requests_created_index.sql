@@ -0,0 +1,4 @@
+-- requests of other users are paged by creation time and id, the index is read in that order and rows
+-- of the current user are skipped on the way, so a page costs the same at any depth
+
+CREATE INDEX IF NOT EXISTS idx_item_requests_created ON item_requests (created DESC, item_request_id DESC);
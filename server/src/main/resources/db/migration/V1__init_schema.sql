@@ -53,4 +53,4 @@ CREATE TABLE IF NOT EXISTS comments
     CONSTRAINT pk_comment PRIMARY KEY (comment_id),
     CONSTRAINT fk_comment_item FOREIGN KEY (item_id) REFERENCES items (item_id),
     CONSTRAINT fk_comment_user FOREIGN KEY (author_id) REFERENCES users (user_id)
-);
\ No newline at end of file
+);
@@ -0,0 +1,10 @@
+CREATE INDEX IF NOT EXISTS idx_bookings_booker_start ON bookings (booker_id, booking_start DESC);
+CREATE INDEX IF NOT EXISTS idx_bookings_item_start ON bookings (item_id, booking_start);
+CREATE INDEX IF NOT EXISTS idx_bookings_status_booker ON bookings (status, booker_id);
+
+CREATE INDEX IF NOT EXISTS idx_items_owner ON items (owner_id);
+CREATE INDEX IF NOT EXISTS idx_items_request ON items (request_id);
+
+CREATE INDEX IF NOT EXISTS idx_comments_item ON comments (item_id);
+
+CREATE INDEX IF NOT EXISTS idx_item_requests_author_created ON item_requests (author_id, created DESC);
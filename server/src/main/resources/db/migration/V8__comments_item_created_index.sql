@@ -0,0 +1,5 @@
+-- item shows its newest comments and pages the rest by creation time, so they are read in the index order
+-- instead of sorting all comments of the item. It replaces the index on item only
+
+CREATE INDEX IF NOT EXISTS idx_comments_item_created ON comments (item_id, created DESC, comment_id DESC);
+DROP INDEX IF EXISTS idx_comments_item;
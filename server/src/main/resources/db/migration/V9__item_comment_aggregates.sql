@@ -0,0 +1,15 @@
+-- aggregates of item's comments, kept up to date by the server with every new comment,
+-- so listings and search show them without reading the comments.
+-- The average rating is 0 while the item has no ratings, so unrated items are sorted after the rated ones
+
+ALTER TABLE comments ADD COLUMN IF NOT EXISTS rating SMALLINT;
+
+ALTER TABLE items ADD COLUMN IF NOT EXISTS comment_count BIGINT DEFAULT 0 NOT NULL;
+ALTER TABLE items ADD COLUMN IF NOT EXISTS last_comment_at TIMESTAMP WITHOUT TIME ZONE;
+ALTER TABLE items ADD COLUMN IF NOT EXISTS rating_count BIGINT DEFAULT 0 NOT NULL;
+ALTER TABLE items ADD COLUMN IF NOT EXISTS rating_sum BIGINT DEFAULT 0 NOT NULL;
+ALTER TABLE items ADD COLUMN IF NOT EXISTS rating DOUBLE PRECISION DEFAULT 0 NOT NULL;
+
+UPDATE items
+SET comment_count   = (SELECT COUNT(*) FROM comments c WHERE c.item_id = items.item_id),
+    last_comment_at = (SELECT MAX(c.created) FROM comments c WHERE c.item_id = items.item_id);
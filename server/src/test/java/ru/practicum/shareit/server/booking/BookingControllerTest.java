@@ -7,24 +7,34 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 import ru.practicum.shareit.server.booking.exception.BookingAlreadyApprovedException;
+import ru.practicum.shareit.server.booking.exception.BookingConflictException;
 import ru.practicum.shareit.server.booking.exception.BookingNotFoundException;
 import ru.practicum.shareit.server.booking.exception.SameItemOwnerAndBookerIdException;
+import ru.practicum.shareit.server.booking.model.BookingDecisionOutcome;
 import ru.practicum.shareit.server.booking.model.BookingStatus;
+import ru.practicum.shareit.server.booking.model.dto.BookingDecisionBatchDto;
+import ru.practicum.shareit.server.booking.model.dto.BookingDecisionDto;
+import ru.practicum.shareit.server.booking.model.dto.BookingDecisionResultDto;
 import ru.practicum.shareit.server.booking.model.dto.BookingRequestDto;
 import ru.practicum.shareit.server.booking.model.dto.BookingResponseDto;
+import ru.practicum.shareit.server.error.global_exception.InvalidCursorException;
 import ru.practicum.shareit.server.util.constant.Header;
+import ru.practicum.shareit.server.util.pagination.CursorSlice;
 
 import java.time.LocalDateTime;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.List;
 
 import static org.hamcrest.Matchers.is;
 import static org.hamcrest.Matchers.nullValue;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -90,6 +100,32 @@ public class BookingControllerTest {
                 .andExpect(jsonPath("$.status").value(BookingStatus.WAITING.toString()));
     }
 
+    @Test
+    @DisplayName("Should change statuses of many bookings")
+    public void changeStatuses() throws Exception {
+        long ownerId = 2L;
+        BookingDecisionBatchDto batch = new BookingDecisionBatchDto(List.of(
+                new BookingDecisionDto(1L, true),
+                new BookingDecisionDto(3L, false)
+        ), true);
+        when(bookingService.changeStatuses(ownerId, batch)).thenReturn(List.of(
+                BookingDecisionResultDto.applied(1L, BookingDecisionOutcome.APPROVED),
+                new BookingDecisionResultDto(3L, BookingDecisionOutcome.NOT_FOUND, "Booking with id=3 not found"),
+                BookingDecisionResultDto.applied(4L, BookingDecisionOutcome.REJECTED_AS_OVERLAPPING)
+        ));
+
+        mockMvc.perform(patch("/bookings/owner/batch")
+                        .header(Header.USER_ID_HEADER, ownerId)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(new ObjectMapper().writeValueAsString(batch)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].outcome", is("APPROVED")))
+                .andExpect(jsonPath("$[0].error", nullValue()))
+                .andExpect(jsonPath("$[1].outcome", is("NOT_FOUND")))
+                .andExpect(jsonPath("$[2].bookingId", is(4)))
+                .andExpect(jsonPath("$[2].outcome", is("REJECTED_AS_OVERLAPPING")));
+    }
+
     @Test
     @DisplayName("Should throw already approved exception when trying to change status after approval")
     public void changeStatusAfterApproval() throws Exception {
@@ -175,6 +211,81 @@ public class BookingControllerTest {
                 .andExpect(jsonPath("$[0].status").value(BookingStatus.WAITING.toString()));
     }
 
+    @Test
+    @DisplayName("Should answer 304 when owner has the tag of the same page of bookings")
+    public void getAllByItemOwnerIdWhenNotModified() throws Exception {
+        long itemOwnerId = 1L;
+        LocalDateTime now = LocalDateTime.now();
+        BookingResponseDto booking = new BookingResponseDto(1L, now.plusDays(1), now.plusDays(2),
+                null, null, BookingStatus.WAITING);
+        when(bookingService.getAllByItemOwnerIdSortedByStartTimeDesc(itemOwnerId, BookingState.ALL, 0, 10))
+                .thenReturn(List.of(booking));
+        when(bookingService.getAllByItemOwnerIdAfter(itemOwnerId, BookingState.ALL, "", 10))
+                .thenReturn(new CursorSlice<>(List.of(booking), "next"));
+
+        String etag = mockMvc.perform(get("/bookings/owner")
+                        .header(Header.USER_ID_HEADER, itemOwnerId))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        mockMvc.perform(get("/bookings/owner")
+                        .header(Header.USER_ID_HEADER, itemOwnerId)
+                        .header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, etag));
+        String cursorEtag = mockMvc.perform(get("/bookings/owner")
+                        .header(Header.USER_ID_HEADER, itemOwnerId)
+                        .param("after", ""))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        mockMvc.perform(get("/bookings/owner")
+                        .header(Header.USER_ID_HEADER, itemOwnerId)
+                        .header(HttpHeaders.IF_NONE_MATCH, cursorEtag)
+                        .param("after", ""))
+                .andExpect(status().isNotModified());
+
+        when(bookingService.getAllByItemOwnerIdSortedByStartTimeDesc(itemOwnerId, BookingState.ALL, 0, 10))
+                .thenReturn(List.of(new BookingResponseDto(1L, now.plusDays(1), now.plusDays(2),
+                        null, null, BookingStatus.APPROVED)));
+        mockMvc.perform(get("/bookings/owner")
+                        .header(Header.USER_ID_HEADER, itemOwnerId)
+                        .header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    @DisplayName("Should get bookings after cursor with cursor of the next slice")
+    public void getAllAfter() throws Exception {
+        long bookerId = 1L;
+        LocalDateTime now = LocalDateTime.now();
+        BookingResponseDto bookingResponseDto = new BookingResponseDto(1L, now.plusDays(1), now.plusDays(2),
+                null, null, BookingStatus.WAITING);
+        when(bookingService.getAllByBookerIdAfter(bookerId, BookingState.ALL, "", 1))
+                .thenReturn(new CursorSlice<>(List.of(bookingResponseDto), "next"));
+
+        mockMvc.perform(get("/bookings")
+                        .header(Header.USER_ID_HEADER, bookerId)
+                        .param("after", "")
+                        .param("size", "1")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[0].id").value(1L))
+                .andExpect(jsonPath("$.next").value("next"));
+    }
+
+    @Test
+    @DisplayName("Should respond with bad request when cursor is invalid")
+    public void getAllByItemOwnerIdAfterWhenInvalidCursor() throws Exception {
+        long itemOwnerId = 1L;
+        when(bookingService.getAllByItemOwnerIdAfter(itemOwnerId, BookingState.ALL, "invalid", 10))
+                .thenThrow(new InvalidCursorException("Invalid cursor: invalid"));
+
+        mockMvc.perform(get("/bookings/owner")
+                        .header(Header.USER_ID_HEADER, itemOwnerId)
+                        .param("after", "invalid")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest());
+    }
+
     @Test
     @DisplayName("Should get booking by id")
     public void getById() throws Exception {
@@ -203,4 +314,16 @@ public class BookingControllerTest {
                         .contentType(MediaType.APPLICATION_JSON))
                 .andExpect(status().isNotFound());
     }
+
+    @Test
+    @DisplayName("Should return 409 when approved booking overlaps another approved booking")
+    public void changeStatusWhenBookingConflictThenConflict() throws Exception {
+        when(bookingService.changeStatus(1L, 2L, true)).thenThrow(new BookingConflictException("conflict"));
+
+        mockMvc.perform(patch("/bookings/{bookingId}", 1L)
+                        .header(Header.USER_ID_HEADER, 2L)
+                        .param("approved", "true"))
+                .andExpect(status().isConflict())
+                .andExpect(jsonPath("$.error").value("Booking overlaps an approved booking: conflict"));
+    }
 }
@@ -0,0 +1,120 @@
+package ru.practicum.shareit.server.booking;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.server.booking.model.dto.BookingRequestDto;
+import ru.practicum.shareit.server.item.ItemRepository;
+import ru.practicum.shareit.server.item.ItemService;
+import ru.practicum.shareit.server.item.model.dto.ItemDto;
+import ru.practicum.shareit.server.user.UserService;
+import ru.practicum.shareit.server.user.model.UserDto;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Approvals are written by plain updates, as another server instance would write them, so only the trigger
+ * stands between them. Changes are committed, so the test cleans up after itself
+ */
+@SpringBootTest
+@AutoConfigureTestDatabase
+class BookingOverlapTriggerTest {
+    /**
+     * How long the first approval stays uncommitted while the second one is made
+     */
+    private static final long UNCOMMITTED_MILLIS = 200;
+
+    private final UserService userService;
+    private final ItemService itemService;
+    private final BookingService bookingService;
+    private final ItemRepository itemRepo;
+    private final BookingRepository bookingRepo;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    private UserDto owner;
+    private UserDto booker;
+    private ItemDto item;
+    private long firstId;
+    private long secondId;
+
+    @Autowired
+    BookingOverlapTriggerTest(UserService userService, ItemService itemService, BookingService bookingService,
+                              ItemRepository itemRepo, BookingRepository bookingRepo, JdbcTemplate jdbcTemplate,
+                              TransactionTemplate transactionTemplate) {
+        this.userService = userService;
+        this.itemService = itemService;
+        this.bookingService = bookingService;
+        this.itemRepo = itemRepo;
+        this.bookingRepo = bookingRepo;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+    }
+
+    @BeforeEach
+    void setUp() {
+        owner = userService.add(new UserDto(0, "trigger owner", "trigger.owner@mail.com"));
+        booker = userService.add(new UserDto(0, "trigger booker", "trigger.booker@mail.com"));
+        item = itemService.add(new ItemDto(0, "trigger item", "trigger item", true, owner.getId(), 0));
+        LocalDateTime now = LocalDateTime.now();
+        firstId = bookingService.add(
+                new BookingRequestDto(now.plusDays(1), now.plusDays(3), item.getId()), booker.getId()).getId();
+        secondId = bookingService.add(
+                new BookingRequestDto(now.plusDays(2), now.plusDays(4), item.getId()), booker.getId()).getId();
+    }
+
+    @AfterEach
+    void tearDown() {
+        bookingRepo.deleteAllById(List.of(firstId, secondId));
+        itemRepo.deleteById(item.getId());
+        userService.delete(owner.getId());
+        userService.delete(booker.getId());
+    }
+
+    @Test
+    @DisplayName("Should reject an approval overlapping an approval of another transaction that is not committed yet")
+    void approveWhenOverlappingApprovalIsNotCommitted() throws Exception {
+        CountDownLatch firstApproved = new CountDownLatch(1);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<?> first = executor.submit(() -> transactionTemplate.executeWithoutResult(status -> {
+                approve(firstId);
+                firstApproved.countDown();
+                try {
+                    Thread.sleep(UNCOMMITTED_MILLIS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }));
+            firstApproved.await();
+
+            assertThrows(DataIntegrityViolationException.class,
+                    () -> transactionTemplate.executeWithoutResult(status -> approve(secondId)));
+            first.get();
+        } finally {
+            executor.shutdownNow();
+        }
+        assertEquals(List.of("APPROVED", "WAITING"), jdbcTemplate.queryForList(
+                "select status from bookings where booking_id in (?, ?) order by booking_id",
+                String.class, firstId, secondId));
+    }
+
+    private void approve(long bookingId) {
+        jdbcTemplate.update("update bookings set status = 'APPROVED' where booking_id = ?", bookingId);
+    }
+}
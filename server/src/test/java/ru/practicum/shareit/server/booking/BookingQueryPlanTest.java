@@ -0,0 +1,342 @@
+package ru.practicum.shareit.server.booking;
+
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.flyway.FlywayProperties;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.datasource.DataSourceUtils;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import ru.practicum.shareit.server.booking.model.Booking;
+import ru.practicum.shareit.server.booking.model.BookingStatus;
+import ru.practicum.shareit.server.item.ItemRepository;
+import ru.practicum.shareit.server.item.model.Item;
+import ru.practicum.shareit.server.user.model.User;
+import ru.practicum.shareit.server.util.pagination.Cursor;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Runs every {@link BookingRepository} query, captures the SQL Hibernate sent together with its parameters
+ * and checks that the plan of each statement reads the tables through an index.
+ * <p>
+ * By default the plans are checked against the embedded H2 database. To check them against a local Postgres
+ * as well, pass its coordinates as system properties, e.g.:
+ * <pre>
+ * mvn -pl server test -Dtest=BookingQueryPlanTest \
+ *     -Dshareit.plan-check.url=jdbc:postgresql://localhost:5432/shareit \
+ *     -Dshareit.plan-check.username=shareit -Dshareit.plan-check.password=shareit
+ * </pre>
+ * The Postgres schema is migrated before the check from the same {@code spring.flyway.locations} as the server's,
+ * with the Postgres vendor folder. Sequential scans are disabled for the session,
+ * so a {@code Seq Scan} node in the plan means no suitable index exists.
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase
+@Import(BookingQueryPlanTest.StatementRecorderConfig.class)
+public class BookingQueryPlanTest {
+    private static final String POSTGRES_URL = System.getProperty("shareit.plan-check.url");
+    private static final String POSTGRES_USERNAME = System.getProperty("shareit.plan-check.username");
+    private static final String POSTGRES_PASSWORD = System.getProperty("shareit.plan-check.password");
+
+    private static final PageRequest PAGE = PageRequest.of(0, 10, Sort.by(Sort.Direction.DESC, "start"));
+
+    private static final int HISTORY_SIZE = 50;
+
+    /**
+     * Rows a single table access of the item's tag may read: the row itself and the one after it in the index
+     */
+    private static final int MAX_STAMP_SCAN_COUNT = 2;
+
+    private static final ThreadLocal<List<RecordedQuery>> RECORDED_QUERIES = new ThreadLocal<>();
+
+    private final TestEntityManager testEntityManager;
+
+    private final BookingRepository bookingRepo;
+
+    private final ItemRepository itemRepo;
+
+    private final DataSource dataSource;
+
+    private final FlywayProperties flywayProperties;
+
+    private User booker;
+    private Item item;
+
+    @Autowired
+    public BookingQueryPlanTest(TestEntityManager testEntityManager, BookingRepository bookingRepo,
+                                ItemRepository itemRepo, DataSource dataSource,
+                                FlywayProperties flywayProperties) {
+        this.testEntityManager = testEntityManager;
+        this.bookingRepo = bookingRepo;
+        this.itemRepo = itemRepo;
+        this.dataSource = dataSource;
+        this.flywayProperties = flywayProperties;
+    }
+
+    @BeforeEach
+    public void setUp() {
+        User owner = testEntityManager.persist(new User(0, "owner", "owner@mail.com"));
+        booker = testEntityManager.persist(new User(0, "booker", "booker@mail.com"));
+        item = testEntityManager.persist(new Item(0, "item", "item description", true, owner, null));
+        LocalDateTime now = LocalDateTime.now();
+        testEntityManager.persist(
+                new Booking(0, now.minusDays(1), now.plusDays(1), booker, item, BookingStatus.APPROVED)
+        );
+        testEntityManager.persist(
+                new Booking(0, now.plusDays(3), now.plusDays(4), booker, item, BookingStatus.WAITING)
+        );
+        testEntityManager.flush();
+        testEntityManager.clear();
+    }
+
+    static Stream<Arguments> bookingQueries() {
+        return Stream.of(
+                query("current by booker", (r, t) -> r.findAllCurrentByBooker_Id(t.booker.getId(), PAGE)),
+                query("past by booker", (r, t) -> r.findAllPastByBooker_Id(t.booker.getId(), PAGE)),
+                query("future by booker", (r, t) -> r.findAllFutureByBooker_Id(t.booker.getId(), PAGE)),
+                query("status by booker", (r, t) ->
+                        r.findAllByStatusAndBooker_Id(BookingStatus.WAITING, t.booker.getId(), PAGE)),
+                query("all by booker", (r, t) -> r.findAllByBooker_Id(t.booker.getId(), PAGE)),
+                query("current by owner", (r, t) ->
+                        r.findAllCurrentByItem_Owner_IdOrderByStartDesc(t.ownerId(), PAGE)),
+                query("past by owner", (r, t) -> r.findAllPastByItem_Owner_IdOrderByStartDesc(t.ownerId(), PAGE)),
+                query("future by owner", (r, t) ->
+                        r.findAllFutureByItem_Owner_IdOrderByStartDesc(t.ownerId(), PAGE)),
+                query("status by owner", (r, t) ->
+                        r.findAllByStatusAndItem_Owner_IdOrderByStartDesc(BookingStatus.WAITING, t.ownerId(), PAGE)),
+                query("all by owner", (r, t) -> r.findAllByItem_Owner_IdOrderByStartDesc(t.ownerId(), PAGE)),
+                query("by booker after cursor", (r, t) -> r.findAllByBooker_IdAfter(t.booker.getId(),
+                        BookingState.PAST, new Cursor(LocalDateTime.now(), Long.MAX_VALUE), 10)),
+                query("by owner after cursor", (r, t) -> r.findAllByItem_Owner_IdAfter(t.ownerId(),
+                        BookingState.WAITING, new Cursor(LocalDateTime.now(), Long.MAX_VALUE), 10)),
+                query("by item and booker", (r, t) ->
+                        r.findAllByItem_IdAndBooker_Id(t.item.getId(), t.booker.getId())),
+                query("all by items", (r, t) -> r.findAllByItem_Id(List.of(t.item.getId()))),
+                query("approved by item ending after", (r, t) ->
+                        r.findAllApprovedByItem_IdEndingAfter(t.item.getId(), LocalDateTime.now())),
+                query("last by items", (r, t) -> r.findLastByItem_IdIn(List.of(t.item.getId()), LocalDateTime.now())),
+                query("next by items", (r, t) -> r.findNextByItem_IdIn(List.of(t.item.getId()), LocalDateTime.now()))
+        );
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("bookingQueries")
+    public void bookingQueryUsesIndexes(String name, RepositoryCall call) throws SQLException {
+        List<RecordedQuery> queries = record(() -> call.accept(bookingRepo, this));
+        assertFalse(queries.isEmpty(), () -> "No statements recorded for '" + name + "'");
+
+        Connection h2Connection = DataSourceUtils.getConnection(dataSource);
+        for (RecordedQuery query : queries) {
+            String plan = explain(h2Connection, "explain ", query);
+            assertFalse(plan.contains(".tableScan"), () -> "H2 plan of '" + name + "' uses table scan:\n" + plan);
+        }
+
+        if (POSTGRES_URL == null) {
+            return;
+        }
+        Flyway.configure()
+                .dataSource(POSTGRES_URL, POSTGRES_USERNAME, POSTGRES_PASSWORD)
+                .locations(postgresLocations())
+                .baselineOnMigrate(true)
+                .load()
+                .migrate();
+        try (Connection pgConnection = DriverManager.getConnection(POSTGRES_URL, POSTGRES_USERNAME, POSTGRES_PASSWORD);
+             Statement statement = pgConnection.createStatement()) {
+            statement.execute("set enable_seqscan = off");
+            for (RecordedQuery query : queries) {
+                String plan = explain(pgConnection, "explain ", query);
+                assertFalse(plan.contains("Seq Scan"), () -> "Postgres plan of '" + name + "' uses seq scan:\n" + plan);
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Should read a bounded number of rows for the item's tag whatever the number of past bookings")
+    public void itemVersionStampDoesNotScanHistory() throws SQLException {
+        LocalDateTime now = LocalDateTime.now();
+        for (int i = 0; i < HISTORY_SIZE; i++) {
+            LocalDateTime start = now.minusDays(2L * (HISTORY_SIZE - i) + 1);
+            testEntityManager.persist(
+                    new Booking(0, start, start.plusDays(1), booker, item, BookingStatus.APPROVED)
+            );
+        }
+        testEntityManager.flush();
+        testEntityManager.clear();
+
+        List<RecordedQuery> queries = record(() -> itemRepo.findVersionStampById(item.getId(), now));
+        assertFalse(queries.isEmpty());
+
+        Connection h2Connection = DataSourceUtils.getConnection(dataSource);
+        for (RecordedQuery query : queries) {
+            String plan = explain(h2Connection, "explain analyze ", query);
+            Matcher scanCount = Pattern.compile("scanCount: (\\d+)").matcher(plan);
+            assertTrue(scanCount.find(), () -> "No scan counts in plan:\n" + plan);
+            do {
+                assertTrue(Integer.parseInt(scanCount.group(1)) <= MAX_STAMP_SCAN_COUNT,
+                        () -> "Tag of the item reads its history:\n" + plan);
+            } while (scanCount.find());
+        }
+    }
+
+    private static Arguments query(String name, RepositoryCall call) {
+        return Arguments.of(name, call);
+    }
+
+    private String[] postgresLocations() {
+        return flywayProperties.getLocations().stream()
+                .map(location -> location.replace("{vendor}", "postgresql"))
+                .toArray(String[]::new);
+    }
+
+    private long ownerId() {
+        return item.getOwner().getId();
+    }
+
+    private List<RecordedQuery> record(Runnable runnable) {
+        List<RecordedQuery> queries = new ArrayList<>();
+        RECORDED_QUERIES.set(queries);
+        try {
+            runnable.run();
+        } finally {
+            RECORDED_QUERIES.remove();
+        }
+        return queries;
+    }
+
+    private static String explain(Connection connection, String explain, RecordedQuery query) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(explain + query.sql)) {
+            for (Map.Entry<Integer, Object> param : query.params.entrySet()) {
+                statement.setObject(param.getKey(), param.getValue());
+            }
+            StringBuilder plan = new StringBuilder();
+            try (ResultSet resultSet = statement.executeQuery()) {
+                while (resultSet.next()) {
+                    plan.append(resultSet.getString(1)).append('\n');
+                }
+            }
+            return plan.toString();
+        }
+    }
+
+    @FunctionalInterface
+    interface RepositoryCall {
+        void accept(BookingRepository bookingRepo, BookingQueryPlanTest test);
+    }
+
+    private static class RecordedQuery {
+        private final String sql;
+        private final Map<Integer, Object> params;
+
+        RecordedQuery(String sql, Map<Integer, Object> params) {
+            this.sql = sql;
+            this.params = params;
+        }
+    }
+
+    @TestConfiguration
+    static class StatementRecorderConfig {
+
+        @Bean
+        static BeanPostProcessor statementRecordingDataSourcePostProcessor() {
+            return new BeanPostProcessor() {
+                @Override
+                public Object postProcessAfterInitialization(Object bean, String beanName) {
+                    if (bean instanceof DataSource && !(bean instanceof RecordingDataSource)) {
+                        return new RecordingDataSource((DataSource) bean);
+                    }
+                    return bean;
+                }
+            };
+        }
+    }
+
+    private static class RecordingDataSource extends DelegatingDataSource {
+
+        RecordingDataSource(DataSource target) {
+            super(target);
+        }
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            return recording(super.getConnection());
+        }
+
+        @Override
+        public Connection getConnection(String username, String password) throws SQLException {
+            return recording(super.getConnection(username, password));
+        }
+
+        private static Connection recording(Connection connection) {
+            return (Connection) Proxy.newProxyInstance(
+                    RecordingDataSource.class.getClassLoader(),
+                    new Class<?>[]{Connection.class},
+                    (proxy, method, args) -> {
+                        Object result;
+                        try {
+                            result = method.invoke(connection, args);
+                        } catch (InvocationTargetException e) {
+                            throw e.getTargetException();
+                        }
+                        if (method.getName().equals("prepareStatement")) {
+                            return recording((PreparedStatement) result, (String) args[0]);
+                        }
+                        return result;
+                    }
+            );
+        }
+
+        private static PreparedStatement recording(PreparedStatement statement, String sql) {
+            Map<Integer, Object> params = new TreeMap<>();
+            return (PreparedStatement) Proxy.newProxyInstance(
+                    RecordingDataSource.class.getClassLoader(),
+                    new Class<?>[]{PreparedStatement.class},
+                    (proxy, method, args) -> {
+                        if (method.getName().startsWith("set") && args != null && args.length >= 2
+                                && args[0] instanceof Integer) {
+                            params.put((Integer) args[0], method.getName().equals("setNull") ? null : args[1]);
+                        } else if (method.getName().equals("executeQuery") && RECORDED_QUERIES.get() != null) {
+                            RECORDED_QUERIES.get().add(new RecordedQuery(sql, new TreeMap<>(params)));
+                        }
+                        try {
+                            return method.invoke(statement, args);
+                        } catch (InvocationTargetException e) {
+                            throw e.getTargetException();
+                        }
+                    }
+            );
+        }
+    }
+}
@@ -7,18 +7,29 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
-import org.springframework.data.domain.Page;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
 import ru.practicum.shareit.server.booking.model.Booking;
+import ru.practicum.shareit.server.booking.model.BookingMapper;
 import ru.practicum.shareit.server.booking.model.BookingStatus;
+import ru.practicum.shareit.server.booking.model.dto.BookingResponseDto;
 import ru.practicum.shareit.server.item.model.Item;
+import ru.practicum.shareit.server.item.model.ItemMapper;
 import ru.practicum.shareit.server.user.model.User;
+import ru.practicum.shareit.server.user.model.UserMapper;
+import ru.practicum.shareit.server.util.pagination.Cursor;
 
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 @DataJpaTest
 @AutoConfigureTestDatabase
@@ -45,7 +56,8 @@ public class BookingRepositoryTest {
         owner = testEntityManager.persist(new User(0, "owner", "owner@mail.com"));
         booker = testEntityManager.persist(new User(0, "booker", "booker@mail.com"));
         item = testEntityManager.persist(new Item(0, "item", "item description", true, owner, null));
-        LocalDateTime now = LocalDateTime.now();
+        //the database keeps microseconds, so cursors built from the entities have to match the stored values
+        LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
         currentBooking = testEntityManager.persist(
                 new Booking(0, now.minusDays(1), now.plusDays(1), booker, item, BookingStatus.APPROVED)
         );
@@ -60,46 +72,57 @@ public class BookingRepositoryTest {
     @Test
     @DisplayName("Should find all current bookings by booker id")
     public void findAllCurrentByBooker_Id() {
-        Page<Booking> bookings = bookingRepo.findAllCurrentByBooker_Id(booker.getId(), PageRequest.of(0, 1));
-        assertEquals(currentBooking, bookings.getContent().get(0));
+        Slice<BookingResponseDto> bookings = bookingRepo.findAllCurrentByBooker_Id(booker.getId(),
+                PageRequest.of(0, 1));
+        assertEquals(currentBooking.getId(), bookings.getContent().get(0).getId());
+    }
+
+    @Test
+    @DisplayName("Should read booking listings straight into response dtos")
+    public void findAllByBooker_IdAsResponseDto() {
+        Slice<BookingResponseDto> bookings = bookingRepo.findAllByBooker_Id(booker.getId(),
+                PageRequest.of(0, 1, Sort.by("start").descending()));
+        BookingResponseDto expected = BookingMapper.toBookingResponseDto(futureBooking,
+                UserMapper.toUserDto(booker), ItemMapper.toItemDto(item));
+        assertEquals(expected, bookings.getContent().get(0));
     }
 
     @Test
     @DisplayName("Should find all past bookings by booker id")
     public void findAllPastByBooker_Id() {
-        Page<Booking> bookings = bookingRepo.findAllPastByBooker_Id(booker.getId(), PageRequest.of(0, 1));
-        assertEquals(pastBooking, bookings.getContent().get(0));
+        Slice<BookingResponseDto> bookings = bookingRepo.findAllPastByBooker_Id(booker.getId(), PageRequest.of(0, 1));
+        assertEquals(pastBooking.getId(), bookings.getContent().get(0).getId());
     }
 
     @Test
     @DisplayName("Should find all future bookings by booker id")
     public void findAllFutureByBooker_Id() {
-        Page<Booking> bookings = bookingRepo.findAllFutureByBooker_Id(booker.getId(), PageRequest.of(0, 1));
-        assertEquals(futureBooking, bookings.getContent().get(0));
+        Slice<BookingResponseDto> bookings = bookingRepo.findAllFutureByBooker_Id(booker.getId(), PageRequest.of(0, 1));
+        assertEquals(futureBooking.getId(), bookings.getContent().get(0).getId());
     }
 
     @Test
     @DisplayName("Should find all current bookings by item owner id")
     public void findAllCurrentByItem_Owner_IdOrderByStartDesc() {
-        Page<Booking> bookings = bookingRepo
+        Slice<BookingResponseDto> bookings = bookingRepo
                 .findAllCurrentByItem_Owner_IdOrderByStartDesc(owner.getId(), PageRequest.of(0, 1));
-        assertEquals(currentBooking, bookings.getContent().get(0));
+        assertEquals(currentBooking.getId(), bookings.getContent().get(0).getId());
     }
 
     @Test
     @DisplayName("Should find all past bookings by item owner id")
     public void findAllPastByItem_Owner_IdOrderByStartDesc() {
-        Page<Booking> bookings = bookingRepo
+        Slice<BookingResponseDto> bookings = bookingRepo
                 .findAllPastByItem_Owner_IdOrderByStartDesc(owner.getId(), PageRequest.of(0, 1));
-        assertEquals(pastBooking, bookings.getContent().get(0));
+        assertEquals(pastBooking.getId(), bookings.getContent().get(0).getId());
     }
 
     @Test
     @DisplayName("Should find all future bookings by item owner id")
     public void findAllFutureByItem_Owner_IdOrderByStartDesc() {
-        Page<Booking> bookings = bookingRepo
+        Slice<BookingResponseDto> bookings = bookingRepo
                 .findAllFutureByItem_Owner_IdOrderByStartDesc(owner.getId(), PageRequest.of(0, 1));
-        assertEquals(futureBooking, bookings.getContent().get(0));
+        assertEquals(futureBooking.getId(), bookings.getContent().get(0).getId());
     }
 
     @Test
@@ -120,4 +143,101 @@ public class BookingRepositoryTest {
         assertEquals(1, itemIdToBookings.size());
         assertEquals(3, itemIdToBookings.get(item.getId()).size());
     }
+
+    @Test
+    @DisplayName("Should find last booking of each item")
+    public void findLastByItem_IdAsMap() {
+        Item otherItem = testEntityManager.persist(new Item(0, "other", "other description", true, owner, null));
+        Map<Long, Booking> itemIdToBooking = bookingRepo
+                .findLastByItem_IdAsMap(List.of(item.getId(), otherItem.getId()), LocalDateTime.now());
+        assertEquals(1, itemIdToBooking.size());
+        assertEquals(currentBooking, itemIdToBooking.get(item.getId()));
+    }
+
+    @Test
+    @DisplayName("Should find next booking of each item, skipping rejected ones")
+    public void findNextByItem_IdAsMap() {
+        LocalDateTime now = LocalDateTime.now();
+        testEntityManager.persist(
+                new Booking(0, now.plusDays(2), now.plusDays(3), booker, item, BookingStatus.REJECTED)
+        );
+        testEntityManager.persist(
+                new Booking(0, now.plusDays(5), now.plusDays(6), booker, item, BookingStatus.WAITING)
+        );
+        Map<Long, Booking> itemIdToBooking = bookingRepo.findNextByItem_IdAsMap(List.of(item.getId()), now);
+        assertEquals(futureBooking, itemIdToBooking.get(item.getId()));
+    }
+
+    @Test
+    @DisplayName("Should return empty maps without querying when no item ids given")
+    public void findLastAndNextByItem_IdAsMapWhenNoItemIds() {
+        assertTrue(bookingRepo.findLastByItem_IdAsMap(List.of(), LocalDateTime.now()).isEmpty());
+        assertTrue(bookingRepo.findNextByItem_IdAsMap(List.of(), LocalDateTime.now()).isEmpty());
+    }
+
+    @Test
+    @DisplayName("Should find approved bookings of item that end after given time, ordered by start")
+    public void findAllApprovedByItem_IdEndingAfter() {
+        LocalDateTime now = LocalDateTime.now();
+        testEntityManager.persist(
+                new Booking(0, now.plusDays(5), now.plusDays(6), booker, item, BookingStatus.WAITING)
+        );
+        List<Booking> bookings = bookingRepo.findAllApprovedByItem_IdEndingAfter(item.getId(), now);
+        assertEquals(List.of(currentBooking, futureBooking), bookings);
+    }
+
+    @Test
+    @DisplayName("Should not store approved bookings of the same item that overlap")
+    public void saveWhenOverlapsApprovedBooking() {
+        Booking overlapping = new Booking(0, currentBooking.getEnd().minusHours(1), currentBooking.getEnd().plusHours(1),
+                booker, item, BookingStatus.WAITING);
+        bookingRepo.saveAndFlush(overlapping);
+
+        overlapping.setStatus(BookingStatus.APPROVED);
+        assertThrows(DataIntegrityViolationException.class, () -> bookingRepo.saveAndFlush(overlapping));
+    }
+
+    @Test
+    @DisplayName("Should store approved bookings that touch or belong to other items")
+    public void saveWhenAdjacentOrOtherItem() {
+        Item otherItem = testEntityManager.persist(new Item(0, "other", "other description", true, owner, null));
+        bookingRepo.saveAndFlush(new Booking(0, currentBooking.getStart(), currentBooking.getEnd(), booker, otherItem,
+                BookingStatus.APPROVED));
+        bookingRepo.saveAndFlush(new Booking(0, currentBooking.getEnd(), futureBooking.getStart(), booker, item,
+                BookingStatus.APPROVED));
+    }
+
+    @Test
+    @DisplayName("Should walk through all bookings of booker by cursor")
+    public void findAllByBooker_IdAfter() {
+        List<Long> bookingIds = new ArrayList<>();
+        Cursor after = null;
+        List<BookingResponseDto> slice;
+        do {
+            slice = bookingRepo.findAllByBooker_IdAfter(booker.getId(), BookingState.ALL, after, 2);
+            slice.forEach(b -> bookingIds.add(b.getId()));
+            if (!slice.isEmpty()) {
+                BookingResponseDto last = slice.get(slice.size() - 1);
+                after = new Cursor(last.getStart(), last.getId());
+            }
+        } while (slice.size() == 2);
+        assertEquals(List.of(futureBooking.getId(), currentBooking.getId(), pastBooking.getId()), bookingIds);
+    }
+
+    @Test
+    @DisplayName("Should find bookings of owner's items with state after cursor")
+    public void findAllByItem_Owner_IdAfter() {
+        List<BookingResponseDto> bookings = bookingRepo.findAllByItem_Owner_IdAfter(owner.getId(), BookingState.PAST,
+                null, 10);
+        assertEquals(1, bookings.size());
+        assertEquals(pastBooking.getId(), bookings.get(0).getId());
+
+        bookings = bookingRepo.findAllByItem_Owner_IdAfter(owner.getId(), BookingState.ALL,
+                new Cursor(currentBooking.getStart(), currentBooking.getId()), 10);
+        assertEquals(1, bookings.size());
+        assertEquals(pastBooking.getId(), bookings.get(0).getId());
+
+        bookings = bookingRepo.findAllByItem_Owner_IdAfter(owner.getId(), BookingState.WAITING, null, 10);
+        assertTrue(bookings.isEmpty());
+    }
 }
@@ -7,11 +7,15 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Sort;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import ru.practicum.shareit.server.booking.availability.ItemAvailabilityIndex;
 import ru.practicum.shareit.server.booking.exception.BookingAlreadyApprovedException;
+import ru.practicum.shareit.server.booking.exception.BookingConflictException;
 import ru.practicum.shareit.server.booking.exception.BookingNotFoundException;
 import ru.practicum.shareit.server.booking.exception.ItemUnavailableException;
 import ru.practicum.shareit.server.booking.exception.SameItemOwnerAndBookerIdException;
@@ -20,8 +24,10 @@ import ru.practicum.shareit.server.booking.model.BookingMapper;
 import ru.practicum.shareit.server.booking.model.BookingStatus;
 import ru.practicum.shareit.server.booking.model.dto.BookingRequestDto;
 import ru.practicum.shareit.server.booking.model.dto.BookingResponseDto;
+import ru.practicum.shareit.server.error.global_exception.InvalidCursorException;
 import ru.practicum.shareit.server.error.global_exception.UnauthorizedException;
 import ru.practicum.shareit.server.error.global_exception.UserNotFoundException;
+import ru.practicum.shareit.server.error.global_exception.VersionConflictException;
 import ru.practicum.shareit.server.item.ItemService;
 import ru.practicum.shareit.server.item.exception.ItemNotFoundException;
 import ru.practicum.shareit.server.item.model.Item;
@@ -29,11 +35,15 @@ import ru.practicum.shareit.server.item.model.ItemMapper;
 import ru.practicum.shareit.server.user.UserService;
 import ru.practicum.shareit.server.user.model.User;
 import ru.practicum.shareit.server.user.model.UserMapper;
+import ru.practicum.shareit.server.util.pagination.Cursor;
+import ru.practicum.shareit.server.util.pagination.CursorSlice;
 
+import java.sql.SQLException;
 import java.time.LocalDateTime;
 import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Collectors;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
@@ -48,6 +58,8 @@ class BookingServiceTest {
     private UserService userService;
     @Mock
     private ItemService itemService;
+    @Mock
+    private ItemAvailabilityIndex availabilityIndex;
 
     @InjectMocks
     private BookingService bookingService;
@@ -81,7 +93,7 @@ class BookingServiceTest {
                 new Booking(3L, LocalDateTime.now().minusDays(2), LocalDateTime.now().plusHours(3), booker,
                         item, BookingStatus.WAITING)
         );
-        Page<Booking> page = new PageImpl<>(bookings);
+        Page<BookingResponseDto> page = new PageImpl<>(toResponseDtos(bookings));
         when(userService.existsById(itemOwnerId)).thenReturn(true);
         when(bookingRepository.findAllByItem_Owner_IdOrderByStartDesc(anyLong(), any(PageRequest.class))).thenReturn(page);
 
@@ -139,7 +151,7 @@ class BookingServiceTest {
                 new Booking(3L, LocalDateTime.now().minusDays(2), LocalDateTime.now().plusHours(3), booker,
                         item, BookingStatus.WAITING)
         );
-        Page<Booking> page = new PageImpl<>(bookings);
+        Page<BookingResponseDto> page = new PageImpl<>(toResponseDtos(bookings));
         when(userService.existsById(bookerId)).thenReturn(true);
         when(bookingRepository.findAllByBooker_Id(anyLong(), any(PageRequest.class))).thenReturn(page);
 
@@ -168,6 +180,70 @@ class BookingServiceTest {
         verify(bookingRepository, times(1)).findAllByBooker_Id(bookerId, pageRequest);
     }
 
+    @Test
+    @DisplayName("Should return slice of bookings with cursor of the next one, when there are more bookings")
+    void getAllByBookerIdAfter() {
+        long bookerId = 1L;
+        User booker = new User(bookerId, "name", "email");
+        Item item = new Item(1L, "name", "description", true, new User(2L, "owner", "email"), null);
+        LocalDateTime now = LocalDateTime.now();
+        List<Booking> bookings = List.of(
+                new Booking(3L, now, now.plusHours(1), booker, item, BookingStatus.WAITING),
+                new Booking(2L, now.minusDays(1), now.plusHours(2), booker, item, BookingStatus.WAITING),
+                new Booking(1L, now.minusDays(2), now.plusHours(3), booker, item, BookingStatus.WAITING)
+        );
+        Cursor after = new Cursor(now.plusDays(1), 4L);
+        when(userService.existsById(bookerId)).thenReturn(true);
+        when(bookingRepository.findAllByBooker_IdAfter(bookerId, BookingState.ALL, after, 3)).thenReturn(toResponseDtos(bookings));
+
+        CursorSlice<BookingResponseDto> slice = bookingService.getAllByBookerIdAfter(
+                bookerId, BookingState.ALL, after.encode(), 2
+        );
+
+        assertEquals(2, slice.getContent().size());
+        assertEquals(2L, slice.getContent().get(1).getId());
+        assertEquals(new Cursor(now.minusDays(1), 2L), Cursor.decode(slice.getNext()));
+    }
+
+    @Test
+    @DisplayName("Should return last slice of bookings without cursor")
+    void getAllByItemOwnerIdAfterWhenLastSlice() {
+        long itemOwnerId = 1L;
+        when(userService.existsById(itemOwnerId)).thenReturn(true);
+        when(bookingRepository.findAllByItem_Owner_IdAfter(itemOwnerId, BookingState.ALL, null, 11))
+                .thenReturn(List.of());
+
+        CursorSlice<BookingResponseDto> slice = bookingService.getAllByItemOwnerIdAfter(
+                itemOwnerId, BookingState.ALL, "", 10
+        );
+
+        assertTrue(slice.getContent().isEmpty());
+        assertNull(slice.getNext());
+    }
+
+    @Test
+    @DisplayName("Should throw InvalidCursorException when cursor cannot be decoded")
+    void getAllByBookerIdAfterWhenInvalidCursor() {
+        when(userService.existsById(1L)).thenReturn(true);
+
+        assertThrows(InvalidCursorException.class,
+                () -> bookingService.getAllByBookerIdAfter(1L, BookingState.ALL, "not a cursor", 10));
+        verifyNoInteractions(bookingRepository);
+    }
+
+    @Test
+    @DisplayName("Should throw InvalidCursorException when cursor has no timestamp")
+    void getAllAfterWhenCursorWithoutTimestamp() {
+        when(userService.existsById(1L)).thenReturn(true);
+        String cursor = new Cursor(null, 1L).encode();
+
+        assertThrows(InvalidCursorException.class,
+                () -> bookingService.getAllByBookerIdAfter(1L, BookingState.ALL, cursor, 10));
+        assertThrows(InvalidCursorException.class,
+                () -> bookingService.getAllByItemOwnerIdAfter(1L, BookingState.ALL, cursor, 10));
+        verifyNoInteractions(bookingRepository);
+    }
+
     @Test
     @DisplayName("Should throw a BookingNotFoundException when the booking with the given ID does not exist")
     void changeStatusWhenBookingNotFoundThenThrowBookingNotFoundException() {
@@ -217,12 +293,87 @@ class BookingServiceTest {
         );
 
         when(bookingRepository.findById(bookingId)).thenReturn(Optional.of(booking));
-        when(bookingRepository.save(booking)).thenReturn(booking);
+        when(bookingRepository.saveAndFlush(booking)).thenReturn(booking);
 
         BookingResponseDto result = bookingService.changeStatus(bookingId, itemOwnerId, approved);
 
         assertEquals(expected.getId(), result.getId());
         assertEquals(BookingStatus.APPROVED, result.getStatus());
+        verify(availabilityIndex, times(1)).reserve(booking);
+    }
+
+    @Test
+    @DisplayName("Should not approve a booking overlapping another approved booking of the item")
+    void changeStatusWhenOverlapsApprovedBookingThenThrowBookingConflictException() {
+        User owner = new User(2L, "owner", "owner@mail.com");
+        User booker = new User(3L, "booker", "booker@mail.com");
+        Item item = new Item(1L, "name", "description", true, owner, null);
+        Booking booking = new Booking(1L, LocalDateTime.now().plusDays(1), LocalDateTime.now().plusDays(2), booker,
+                item, BookingStatus.WAITING);
+
+        when(bookingRepository.findById(booking.getId())).thenReturn(Optional.of(booking));
+        doThrow(new BookingConflictException("conflict")).when(availabilityIndex).reserve(booking);
+
+        assertThrows(BookingConflictException.class,
+                () -> bookingService.changeStatus(booking.getId(), owner.getId(), true));
+        assertEquals(BookingStatus.WAITING, booking.getStatus());
+        verify(bookingRepository, never()).saveAndFlush(any(Booking.class));
+    }
+
+    @Test
+    @DisplayName("Should turn violation of the overlap constraint into BookingConflictException")
+    void changeStatusWhenOverlapConstraintViolatedThenThrowBookingConflictException() {
+        User owner = new User(2L, "owner", "owner@mail.com");
+        User booker = new User(3L, "booker", "booker@mail.com");
+        Item item = new Item(1L, "name", "description", true, owner, null);
+        Booking booking = new Booking(1L, LocalDateTime.now().plusDays(1), LocalDateTime.now().plusDays(2), booker,
+                item, BookingStatus.WAITING);
+
+        when(bookingRepository.findById(booking.getId())).thenReturn(Optional.of(booking));
+        when(bookingRepository.saveAndFlush(booking)).thenThrow(new DataIntegrityViolationException("could not execute",
+                new SQLException("Check constraint violation: \"EXCL_BOOKINGS_ITEM_APPROVED_PERIOD: \"")));
+
+        assertThrows(BookingConflictException.class,
+                () -> bookingService.changeStatus(booking.getId(), owner.getId(), true));
+    }
+
+    @Test
+    @DisplayName("Should throw VersionConflictException with current booking when it was changed concurrently")
+    void changeStatusWhenChangedConcurrentlyThenThrowVersionConflictException() {
+        User owner = new User(2L, "owner", "owner@mail.com");
+        User booker = new User(3L, "booker", "booker@mail.com");
+        Item item = new Item(1L, "name", "description", true, owner, null);
+        Booking booking = new Booking(1L, LocalDateTime.now().plusDays(1), LocalDateTime.now().plusDays(2), booker,
+                item, BookingStatus.WAITING);
+        Booking rejectedBooking = new Booking(1L, booking.getStart(), booking.getEnd(), booker, item,
+                BookingStatus.REJECTED);
+
+        when(bookingRepository.findById(booking.getId())).thenReturn(Optional.of(booking), Optional.of(rejectedBooking));
+        when(bookingRepository.saveAndFlush(booking))
+                .thenThrow(new ObjectOptimisticLockingFailureException(Booking.class, booking.getId()));
+
+        VersionConflictException e = assertThrows(VersionConflictException.class,
+                () -> bookingService.changeStatus(booking.getId(), owner.getId(), true));
+
+        assertEquals(BookingStatus.REJECTED, ((BookingResponseDto) e.getCurrent()).getStatus());
+        verify(availabilityIndex).release(booking);
+    }
+
+    @Test
+    @DisplayName("Should pass on other integrity violations when changing status")
+    void changeStatusWhenOtherConstraintViolatedThenRethrow() {
+        User owner = new User(2L, "owner", "owner@mail.com");
+        User booker = new User(3L, "booker", "booker@mail.com");
+        Item item = new Item(1L, "name", "description", true, owner, null);
+        Booking booking = new Booking(1L, LocalDateTime.now().plusDays(1), LocalDateTime.now().plusDays(2), booker,
+                item, BookingStatus.WAITING);
+
+        when(bookingRepository.findById(booking.getId())).thenReturn(Optional.of(booking));
+        when(bookingRepository.saveAndFlush(booking)).thenThrow(new DataIntegrityViolationException("could not execute",
+                new SQLException("Referential integrity constraint violation: \"FK_BOOKING_ITEM\"")));
+
+        assertThrows(DataIntegrityViolationException.class,
+                () -> bookingService.changeStatus(booking.getId(), owner.getId(), true));
     }
 
     @Test
@@ -289,7 +440,7 @@ class BookingServiceTest {
         );
 
         when(bookingRepository.findById(bookingId)).thenReturn(Optional.of(booking));
-        when(bookingRepository.save(booking)).thenReturn(booking);
+        when(bookingRepository.saveAndFlush(booking)).thenReturn(booking);
 
         BookingResponseDto result = bookingService.changeStatus(bookingId, itemOwnerId, approved);
 
@@ -386,10 +537,33 @@ class BookingServiceTest {
 
         verify(itemService, times(1)).getById(itemId);
         verify(userService, times(1)).getById(bookerId);
+        verify(availabilityIndex, times(1))
+                .checkAvailable(itemId, bookingRequestDto.getStart(), bookingRequestDto.getEnd());
         verify(bookingRepository, times(1)).save(any(Booking.class));
         verifyNoMoreInteractions(userService, itemService, bookingRepository);
     }
 
+    @Test
+    @DisplayName("Should not add a booking overlapping an approved booking of the item")
+    void addBookingWhenOverlapsApprovedBookingThenThrowBookingConflictException() {
+        User owner = new User(2L, "owner", "owner@mail.com");
+        User booker = new User(1L, "booker", "booker@mail.com");
+        Item item = new Item(1L, "name", "description", true, owner, null);
+        BookingRequestDto bookingRequestDto = new BookingRequestDto(
+                LocalDateTime.now().plusDays(1),
+                LocalDateTime.now().plusDays(2),
+                item.getId()
+        );
+
+        when(itemService.getById(item.getId())).thenReturn(item);
+        when(userService.getById(booker.getId())).thenReturn(booker);
+        doThrow(new BookingConflictException("conflict")).when(availabilityIndex)
+                .checkAvailable(item.getId(), bookingRequestDto.getStart(), bookingRequestDto.getEnd());
+
+        assertThrows(BookingConflictException.class, () -> bookingService.add(bookingRequestDto, booker.getId()));
+        verify(bookingRepository, never()).save(any(Booking.class));
+    }
+
     @Test
     @DisplayName("Should throw an exception when the item is not available")
     void addBookingWhenItemIsNotAvailableThenThrowException() {
@@ -543,4 +717,14 @@ class BookingServiceTest {
 
         assertThrows(UnauthorizedException.class, () -> bookingService.getDtoById(bookingId, notBookerOrOwnerId));
     }
-}
\ No newline at end of file
+
+    private static List<BookingResponseDto> toResponseDtos(List<Booking> bookings) {
+        return bookings.stream()
+                .map(b -> BookingMapper.toBookingResponseDto(
+                        b,
+                        UserMapper.toUserDto(b.getBooker()),
+                        ItemMapper.toItemDto(b.getItem())
+                ))
+                .collect(Collectors.toList());
+    }
+}
@@ -1,28 +1,45 @@
 package ru.practicum.shareit.server.booking;
 
 import lombok.RequiredArgsConstructor;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
 import org.springframework.boot.test.context.SpringBootTest;
+import ru.practicum.shareit.server.booking.availability.ItemAvailabilityIndex;
+import ru.practicum.shareit.server.booking.availability.ItemAvailabilityProperties;
+import ru.practicum.shareit.server.booking.exception.BookingConflictException;
+import ru.practicum.shareit.server.booking.model.BookingDecisionOutcome;
 import ru.practicum.shareit.server.booking.model.BookingStatus;
+import ru.practicum.shareit.server.booking.model.dto.BookingDecisionBatchDto;
+import ru.practicum.shareit.server.booking.model.dto.BookingDecisionDto;
+import ru.practicum.shareit.server.booking.model.dto.BookingDecisionResultDto;
 import ru.practicum.shareit.server.booking.model.dto.BookingRequestDto;
 import ru.practicum.shareit.server.booking.model.dto.BookingResponseDto;
 import ru.practicum.shareit.server.item.ItemService;
+import ru.practicum.shareit.server.item.model.dto.AvailabilityWindowDto;
 import ru.practicum.shareit.server.item.model.dto.ItemDto;
 import ru.practicum.shareit.server.user.UserService;
 import ru.practicum.shareit.server.user.model.UserDto;
+import ru.practicum.shareit.server.util.batch.BatchResult;
 
+import javax.persistence.EntityManager;
 import javax.transaction.Transactional;
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Iterator;
+import java.util.List;
+import java.util.stream.Collectors;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 
-@SpringBootTest
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
 @AutoConfigureTestDatabase
 @RequiredArgsConstructor(onConstructor_ = @Autowired)
 @Transactional
@@ -31,6 +48,8 @@ public class BookingServiceWithDatabaseTest {
     private final UserService userService;
     private final ItemService itemService;
     private final BookingService bookingService;
+    private final BookingRepository bookingRepo;
+    private final EntityManager entityManager;
 
     @Test
     @DisplayName("Should get booking dto by id")
@@ -51,6 +70,30 @@ public class BookingServiceWithDatabaseTest {
         assertEquals(bookingResponseDto, bookingByOwner);
     }
 
+    @Test
+    @DisplayName("Should get bookings by ids visible to booker and owner only")
+    void getDtosByIds() {
+        UserDto owner = userService.add(new UserDto(0L, "owner", "owner@mail.ru"));
+        ItemDto item = itemService.add(new ItemDto(0L, "item", "item", true, owner.getId(), 0));
+        UserDto booker = userService.add(new UserDto(0L, "booker", "booker@mail.ru"));
+        UserDto stranger = userService.add(new UserDto(0L, "stranger", "stranger@mail.ru"));
+        LocalDateTime now = LocalDateTime.now();
+        BookingResponseDto first = bookingService.add(
+                new BookingRequestDto(now.plusDays(2), now.plusDays(3), item.getId()), booker.getId());
+        BookingResponseDto second = bookingService.add(
+                new BookingRequestDto(now.plusDays(4), now.plusDays(5), item.getId()), booker.getId());
+        List<Long> ids = List.of(second.getId(), 0L, first.getId());
+
+        for (UserDto user : List.of(owner, booker)) {
+            BatchResult<BookingResponseDto> bookings = bookingService.getDtosByIds(ids, user.getId());
+            assertEquals(List.of(second, first), bookings.getFound());
+            assertEquals(List.of(0L), bookings.getNotFound());
+        }
+        BatchResult<BookingResponseDto> bookings = bookingService.getDtosByIds(ids, stranger.getId());
+        assertEquals(List.of(), bookings.getFound());
+        assertEquals(ids, bookings.getNotFound());
+    }
+
     @Test
     @DisplayName("Should add new booking")
     void add() {
@@ -84,13 +127,63 @@ public class BookingServiceWithDatabaseTest {
         );
     }
 
+    @Test
+    @DisplayName("Should reject bookings overlapping an approved booking of the same item")
+    void addAndChangeStatusWhenOverlapsApprovedBooking() {
+        UserDto owner = userService.add(new UserDto(0L, "owner", "owner@mail.ru"));
+        ItemDto item = itemService.add(new ItemDto(0L, "item", "item", true, owner.getId(), 0));
+        UserDto booker = userService.add(new UserDto(0L, "booker", "booker@mail.ru"));
+        LocalDateTime now = LocalDateTime.now();
+        BookingResponseDto first = bookingService.add(
+                new BookingRequestDto(now.plusDays(2), now.plusDays(4), item.getId()), booker.getId()
+        );
+        BookingResponseDto second = bookingService.add(
+                new BookingRequestDto(now.plusDays(3), now.plusDays(5), item.getId()), booker.getId()
+        );
+
+        bookingService.changeStatus(first.getId(), owner.getId(), true);
+
+        assertThrows(BookingConflictException.class,
+                () -> bookingService.changeStatus(second.getId(), owner.getId(), true));
+        assertThrows(BookingConflictException.class, () -> bookingService.add(
+                new BookingRequestDto(now.plusDays(1), now.plusDays(3), item.getId()), booker.getId()
+        ));
+        bookingService.add(new BookingRequestDto(now.plusDays(4), now.plusDays(5), item.getId()), booker.getId());
+        assertEquals(List.of(
+                new AvailabilityWindowDto(now.plusDays(1), now.plusDays(2)),
+                new AvailabilityWindowDto(now.plusDays(4), now.plusDays(6))
+        ), itemService.getAvailability(item.getId(), now.plusDays(1), now.plusDays(6)));
+    }
+
+    @Test
+    @DisplayName("Should reject an overlapping approval the instance doesn't know about")
+    void changeStatusWhenOverlapsApprovalOfAnotherInstance() {
+        UserDto owner = userService.add(new UserDto(0L, "owner", "owner@mail.ru"));
+        ItemDto item = itemService.add(new ItemDto(0L, "item", "item", true, owner.getId(), 0));
+        UserDto booker = userService.add(new UserDto(0L, "booker", "booker@mail.ru"));
+        LocalDateTime now = LocalDateTime.now();
+        BookingResponseDto first = bookingService.add(
+                new BookingRequestDto(now.plusDays(2), now.plusDays(4), item.getId()), booker.getId()
+        );
+        BookingResponseDto second = bookingService.add(
+                new BookingRequestDto(now.plusDays(3), now.plusDays(5), item.getId()), booker.getId()
+        );
+        BookingService anotherInstance = new BookingService(bookingRepo, userService, itemService,
+                new ItemAvailabilityIndex(bookingRepo, new ItemAvailabilityProperties()));
+
+        anotherInstance.changeStatus(first.getId(), owner.getId(), true);
+
+        assertThrows(BookingConflictException.class,
+                () -> bookingService.changeStatus(second.getId(), owner.getId(), true));
+    }
+
     @Test
     @DisplayName("Should get all by booker id sorted by start time desc")
     void getAllByBookerIdSortedByStartTimeDesc() {
         UserDto owner = userService.add(new UserDto(0L, "owner", "owner@mail.ru"));
         ItemDto item = itemService.add(new ItemDto(0L, "item", "item", true, owner.getId(), 0));
         UserDto booker = userService.add(new UserDto(0L, "booker", "booker@mail.ru"));
-        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
         BookingResponseDto bookingResponseDto1 = bookingService.add(
                 new BookingRequestDto(now.plusDays(2), now.plusDays(3), item.getId()), booker.getId()
         );
@@ -114,7 +207,7 @@ public class BookingServiceWithDatabaseTest {
         ItemDto item2 = itemService.add(new ItemDto(0L, "item2", "item2", true, owner.getId(), 0));
 
         UserDto booker = userService.add(new UserDto(0L, "booker", "booker@mail.ru"));
-        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
         BookingResponseDto bookingResponseDto1 = bookingService.add(
                 new BookingRequestDto(now.plusDays(2), now.plusDays(3), item1.getId()), booker.getId()
         );
@@ -129,4 +222,116 @@ public class BookingServiceWithDatabaseTest {
         assertEquals(bookingResponseDto2, iterator.next());
         assertEquals(bookingResponseDto1, iterator.next());
     }
+
+    @Test
+    @DisplayName("Should apply decisions on many bookings and report the ones not applied")
+    void changeStatuses() {
+        UserDto owner = userService.add(new UserDto(0L, "owner", "owner@mail.ru"));
+        UserDto otherOwner = userService.add(new UserDto(0L, "other", "other@mail.ru"));
+        ItemDto item = itemService.add(new ItemDto(0L, "item", "item", true, owner.getId(), 0));
+        ItemDto otherItem = itemService.add(new ItemDto(0L, "other", "other", true, otherOwner.getId(), 0));
+        UserDto booker = userService.add(new UserDto(0L, "booker", "booker@mail.ru"));
+        LocalDateTime now = LocalDateTime.now();
+        long first = addBooking(now.plusDays(2), now.plusDays(4), item.getId(), booker.getId());
+        long overlapping = addBooking(now.plusDays(3), now.plusDays(5), item.getId(), booker.getId());
+        long later = addBooking(now.plusDays(6), now.plusDays(7), item.getId(), booker.getId());
+        long ofOtherOwner = addBooking(now.plusDays(2), now.plusDays(4), otherItem.getId(), booker.getId());
+        long unknown = later + 1000;
+
+        List<BookingDecisionResultDto> results = bookingService.changeStatuses(owner.getId(),
+                new BookingDecisionBatchDto(List.of(
+                        new BookingDecisionDto(first, true),
+                        new BookingDecisionDto(overlapping, true),
+                        new BookingDecisionDto(later, false),
+                        new BookingDecisionDto(ofOtherOwner, true),
+                        new BookingDecisionDto(unknown, true),
+                        new BookingDecisionDto(first, false)
+                ), false));
+
+        assertEquals(List.of(
+                BookingDecisionOutcome.APPROVED,
+                BookingDecisionOutcome.CONFLICT,
+                BookingDecisionOutcome.REJECTED,
+                BookingDecisionOutcome.NOT_OWNER,
+                BookingDecisionOutcome.NOT_FOUND,
+                BookingDecisionOutcome.DUPLICATE
+        ), results.stream().map(BookingDecisionResultDto::getOutcome).collect(Collectors.toList()));
+        assertEquals(BookingStatus.APPROVED, bookingService.getDtoById(first, owner.getId()).getStatus());
+        assertEquals(BookingStatus.WAITING, bookingService.getDtoById(overlapping, owner.getId()).getStatus());
+        assertEquals(BookingStatus.REJECTED, bookingService.getDtoById(later, owner.getId()).getStatus());
+        assertEquals(BookingStatus.WAITING, bookingService.getDtoById(ofOtherOwner, otherOwner.getId()).getStatus());
+        assertThrows(BookingConflictException.class, () -> bookingService.add(
+                new BookingRequestDto(now.plusDays(3), now.plusDays(4), item.getId()), booker.getId()
+        ));
+    }
+
+    @Test
+    @DisplayName("Should reject waiting bookings overlapping the approved ones when asked")
+    void changeStatusesRejectingOverlapping() {
+        UserDto owner = userService.add(new UserDto(0L, "owner", "owner@mail.ru"));
+        ItemDto item = itemService.add(new ItemDto(0L, "item", "item", true, owner.getId(), 0));
+        ItemDto otherItem = itemService.add(new ItemDto(0L, "other", "other", true, owner.getId(), 0));
+        UserDto booker = userService.add(new UserDto(0L, "booker", "booker@mail.ru"));
+        LocalDateTime now = LocalDateTime.now();
+        long approved = addBooking(now.plusDays(2), now.plusDays(4), item.getId(), booker.getId());
+        long overlapping = addBooking(now.plusDays(3), now.plusDays(5), item.getId(), booker.getId());
+        long adjacent = addBooking(now.plusDays(4), now.plusDays(5), item.getId(), booker.getId());
+        long ofOtherItem = addBooking(now.plusDays(2), now.plusDays(4), otherItem.getId(), booker.getId());
+
+        List<BookingDecisionResultDto> results = bookingService.changeStatuses(owner.getId(),
+                new BookingDecisionBatchDto(List.of(new BookingDecisionDto(approved, true)), true));
+
+        assertEquals(List.of(
+                BookingDecisionResultDto.applied(approved, BookingDecisionOutcome.APPROVED),
+                BookingDecisionResultDto.applied(overlapping, BookingDecisionOutcome.REJECTED_AS_OVERLAPPING)
+        ), results);
+        assertEquals(BookingStatus.REJECTED, bookingService.getDtoById(overlapping, owner.getId()).getStatus());
+        assertEquals(BookingStatus.WAITING, bookingService.getDtoById(adjacent, owner.getId()).getStatus());
+        assertEquals(BookingStatus.WAITING, bookingService.getDtoById(ofOtherItem, owner.getId()).getStatus());
+    }
+
+    @Test
+    @DisplayName("Should decide on bookings with the same number of statements whatever their number")
+    void changeStatusesStatementCount() {
+        assertEquals(countChangeStatusesStatements(1), countChangeStatusesStatements(10));
+    }
+
+    private long countChangeStatusesStatements(int bookingsCount) {
+        UserDto owner = userService.add(new UserDto(0L, "owner", "owner" + bookingsCount + "@mail.ru"));
+        UserDto booker = userService.add(new UserDto(0L, "booker", "booker" + bookingsCount + "@mail.ru"));
+        LocalDateTime now = LocalDateTime.now();
+        List<BookingDecisionDto> decisions = new ArrayList<>();
+        for (int i = 0; i < bookingsCount; i++) {
+            ItemDto item = itemService.add(new ItemDto(0L, "item", "item", true, owner.getId(), 0));
+            long approved = addBooking(now.plusDays(2), now.plusDays(4), item.getId(), booker.getId());
+            long rejected = addBooking(now.plusDays(5), now.plusDays(6), item.getId(), booker.getId());
+            addBooking(now.plusDays(3), now.plusDays(5), item.getId(), booker.getId());
+            decisions.add(new BookingDecisionDto(approved, true));
+            decisions.add(new BookingDecisionDto(rejected, false));
+
+            //an owner per item, so loading owners one by one would add statements
+            UserDto otherOwner = userService.add(
+                    new UserDto(0L, "other", "other" + i + "of" + bookingsCount + "@mail.ru"));
+            ItemDto otherItem = itemService.add(new ItemDto(0L, "item", "item", true, otherOwner.getId(), 0));
+            long ofOtherOwner = addBooking(now.plusDays(2), now.plusDays(4), otherItem.getId(), booker.getId());
+            decisions.add(new BookingDecisionDto(ofOtherOwner, true));
+        }
+        entityManager.flush();
+        entityManager.clear();
+        Statistics statistics = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        List<BookingDecisionResultDto> results = bookingService.changeStatuses(owner.getId(),
+                new BookingDecisionBatchDto(decisions, true));
+
+        assertEquals(bookingsCount * 4, results.size());
+        assertEquals(bookingsCount, results.stream()
+                .filter(result -> result.getOutcome() == BookingDecisionOutcome.NOT_OWNER)
+                .count());
+        return statistics.getPrepareStatementCount();
+    }
+
+    private long addBooking(LocalDateTime start, LocalDateTime end, long itemId, long bookerId) {
+        return bookingService.add(new BookingRequestDto(start, end, itemId), bookerId).getId();
+    }
 }
@@ -0,0 +1,170 @@
+package ru.practicum.shareit.server.booking;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import ru.practicum.shareit.server.booking.model.Booking;
+import ru.practicum.shareit.server.booking.model.BookingMapper;
+import ru.practicum.shareit.server.booking.model.BookingStatus;
+import ru.practicum.shareit.server.booking.model.dto.BookingResponseDto;
+import ru.practicum.shareit.server.item.model.Item;
+import ru.practicum.shareit.server.item.model.ItemMapper;
+import ru.practicum.shareit.server.request.model.ItemRequest;
+import ru.practicum.shareit.server.user.model.User;
+import ru.practicum.shareit.server.user.model.UserMapper;
+import ru.practicum.shareit.server.util.pagination.Cursor;
+
+import javax.persistence.EntityManagerFactory;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.BiFunction;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Bookings of the test data have different bookers, items, item owners and requests,
+ * so any association loaded after the query shows up as extra statements growing with the page size.
+ * Listings are projected straight into response dtos, the rest are mapped the way the services do it
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@AutoConfigureTestDatabase
+public class BookingStatementCountTest {
+    private static final int BOOKINGS_COUNT = 12;
+
+    private final TestEntityManager testEntityManager;
+
+    private final BookingRepository bookingRepo;
+
+    private final Statistics statistics;
+
+    private User booker;
+    private User owner;
+    private final List<Long> itemIds = new ArrayList<>();
+    private final List<Long> bookingIds = new ArrayList<>();
+
+    @Autowired
+    public BookingStatementCountTest(TestEntityManager testEntityManager, BookingRepository bookingRepo,
+                                     EntityManagerFactory entityManagerFactory) {
+        this.testEntityManager = testEntityManager;
+        this.bookingRepo = bookingRepo;
+        this.statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @BeforeEach
+    public void setUp() {
+        booker = testEntityManager.persist(new User(0, "booker", "booker@mail.com"));
+        owner = testEntityManager.persist(new User(0, "owner", "owner@mail.com"));
+        LocalDateTime now = LocalDateTime.now();
+        for (int i = 0; i < BOOKINGS_COUNT; i++) {
+            User requestAuthor = testEntityManager.persist(new User(0, "author" + i, "author" + i + "@mail.com"));
+            ItemRequest request = testEntityManager.persist(
+                    new ItemRequest(0, "request" + i, now, requestAuthor)
+            );
+            //every second item belongs to the owner, so both booker and owner listings have bookings of many items
+            User itemOwner = i % 2 == 0 ? owner :
+                    testEntityManager.persist(new User(0, "owner" + i, "owner" + i + "@mail.com"));
+            Item item = testEntityManager.persist(new Item(0, "item" + i, "description", true, itemOwner, request));
+            itemIds.add(item.getId());
+            User itemBooker = i % 2 == 0 ?
+                    testEntityManager.persist(new User(0, "booker" + i, "booker" + i + "@mail.com")) : booker;
+            bookingIds.add(testEntityManager.persist(new Booking(0, now.minusDays(i + 1), now.plusDays(i + 1),
+                    itemBooker, item, BookingStatus.WAITING)).getId());
+        }
+        testEntityManager.flush();
+        testEntityManager.clear();
+    }
+
+    static Stream<Arguments> bookingQueries() {
+        return Stream.of(
+                query("current by booker", (t, size) ->
+                        t.bookingRepo.findAllCurrentByBooker_Id(t.booker.getId(), t.page(size)).getContent()),
+                query("waiting by booker", (t, size) -> t.bookingRepo.findAllByStatusAndBooker_Id(
+                        BookingStatus.WAITING, t.booker.getId(), t.page(size)).getContent()),
+                query("all by booker", (t, size) ->
+                        t.bookingRepo.findAllByBooker_Id(t.booker.getId(), t.page(size)).getContent()),
+                query("current by owner", (t, size) -> t.bookingRepo
+                        .findAllCurrentByItem_Owner_IdOrderByStartDesc(t.owner.getId(), t.page(size)).getContent()),
+                query("all by owner", (t, size) -> t.bookingRepo
+                        .findAllByItem_Owner_IdOrderByStartDesc(t.owner.getId(), t.page(size)).getContent()),
+                query("by booker after cursor", (t, size) -> t.bookingRepo.findAllByBooker_IdAfter(
+                        t.booker.getId(), BookingState.ALL, new Cursor(LocalDateTime.now(), 0), size)),
+                query("by owner after cursor", (t, size) -> t.bookingRepo.findAllByItem_Owner_IdAfter(
+                        t.owner.getId(), BookingState.ALL, null, size)),
+                query("all by items", (t, size) -> t.bookingRepo.findAllByItem_Id(t.itemIds.subList(0, size))
+                        .stream()
+                        .map(result -> (Booking) result[1])
+                        .map(b -> BookingMapper.toBookingResponseDto(
+                                b,
+                                UserMapper.toUserDto(b.getBooker()),
+                                ItemMapper.toItemDto(b.getItem())
+                        ))
+                        .collect(Collectors.toList())),
+                query("all by ids", (t, size) -> t.bookingRepo.findAllByIdIn(t.bookingIds.subList(0, size))
+                        .stream()
+                        .map(b -> BookingMapper.toBookingResponseDto(
+                                b,
+                                UserMapper.toUserDto(b.getBooker()),
+                                ItemMapper.toItemDto(b.getItem())
+                        ))
+                        .collect(Collectors.toList()))
+        );
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("bookingQueries")
+    public void statementCountDoesNotDependOnPageSize(String name, BookingQuery query) {
+        long statementsForOne = countStatements(query, 1);
+        long statementsForMany = countStatements(query, BOOKINGS_COUNT / 2);
+
+        assertEquals(1, statementsForOne, name);
+        assertEquals(statementsForOne, statementsForMany, name);
+    }
+
+    @Test
+    public void listingsDoNotLoadEntities() {
+        testEntityManager.clear();
+        statistics.clear();
+
+        List<BookingResponseDto> bookings = bookingRepo.findAllByBooker_Id(booker.getId(), page(BOOKINGS_COUNT))
+                .getContent();
+
+        assertEquals(BOOKINGS_COUNT / 2, bookings.size());
+        assertEquals(0, statistics.getEntityLoadCount());
+    }
+
+    private long countStatements(BookingQuery query, int size) {
+        testEntityManager.clear();
+        statistics.clear();
+
+        Collection<BookingResponseDto> bookings = query.apply(this, size);
+
+        assertEquals(size, bookings.size());
+        return statistics.getPrepareStatementCount();
+    }
+
+    private PageRequest page(int size) {
+        return PageRequest.of(0, size, Sort.by("start").descending());
+    }
+
+    private static Arguments query(String name, BookingQuery query) {
+        return Arguments.of(name, query);
+    }
+
+    @FunctionalInterface
+    interface BookingQuery extends BiFunction<BookingStatementCountTest, Integer, Collection<BookingResponseDto>> {
+    }
+}
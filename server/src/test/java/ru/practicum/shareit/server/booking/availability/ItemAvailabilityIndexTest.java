@@ -0,0 +1,149 @@
+package ru.practicum.shareit.server.booking.availability;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import ru.practicum.shareit.server.booking.BookingRepository;
+import ru.practicum.shareit.server.booking.exception.BookingConflictException;
+import ru.practicum.shareit.server.booking.model.Booking;
+import ru.practicum.shareit.server.booking.model.BookingStatus;
+import ru.practicum.shareit.server.item.model.Item;
+import ru.practicum.shareit.server.item.model.dto.AvailabilityWindowDto;
+import ru.practicum.shareit.server.user.model.User;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ItemAvailabilityIndexTest {
+    private static final LocalDateTime NOW = LocalDateTime.of(2023, 6, 1, 12, 0);
+
+    @Mock
+    private BookingRepository bookingRepo;
+
+    private ItemAvailabilityIndex index;
+
+    private final AtomicLong nanos = new AtomicLong();
+
+    private final User owner = new User(1L, "owner", "owner@mail.com");
+    private final User booker = new User(2L, "booker", "booker@mail.com");
+    private final Item item = new Item(1L, "item", "description", true, owner, null);
+
+    @BeforeEach
+    void setUp() {
+        Clock clock = Clock.fixed(NOW.atZone(ZoneId.systemDefault()).toInstant(), ZoneId.systemDefault());
+        ItemAvailabilityProperties properties = new ItemAvailabilityProperties();
+        properties.setTtl(Duration.ofMinutes(1));
+        index = new ItemAvailabilityIndex(bookingRepo, properties, clock, nanos::get);
+        lenient().when(bookingRepo.findAllApprovedByItem_IdEndingAfter(anyLong(), any())).thenReturn(List.of(
+                booking(1L, NOW.plusDays(1), NOW.plusDays(2)),
+                booking(2L, NOW.plusDays(4), NOW.plusDays(5))
+        ));
+    }
+
+    @Test
+    @DisplayName("Should reject time overlapping an approved booking and accept adjacent time")
+    void checkAvailable() {
+        assertThrows(BookingConflictException.class,
+                () -> index.checkAvailable(item.getId(), NOW.plusHours(12), NOW.plusDays(1).plusHours(1)));
+        assertThrows(BookingConflictException.class,
+                () -> index.checkAvailable(item.getId(), NOW.plusDays(1).plusHours(1), NOW.plusDays(1).plusHours(2)));
+        assertThrows(BookingConflictException.class,
+                () -> index.checkAvailable(item.getId(), NOW, NOW.plusDays(10)));
+
+        assertDoesNotThrow(() -> index.checkAvailable(item.getId(), NOW.plusDays(2), NOW.plusDays(4)));
+        assertDoesNotThrow(() -> index.checkAvailable(item.getId(), NOW, NOW.plusDays(1)));
+        assertDoesNotThrow(() -> index.checkAvailable(item.getId(), NOW.plusDays(5), NOW.plusDays(6)));
+    }
+
+    @Test
+    @DisplayName("Should load bookings of an item from the database only once")
+    void loadsItemOnce() {
+        index.checkAvailable(item.getId(), NOW.plusDays(2), NOW.plusDays(3));
+        index.getFreeWindows(item.getId(), NOW, NOW.plusDays(10));
+        index.reserve(booking(3L, NOW.plusDays(2), NOW.plusDays(3)));
+
+        verify(bookingRepo, times(1)).findAllApprovedByItem_IdEndingAfter(item.getId(), NOW);
+    }
+
+    @Test
+    @DisplayName("Should load bookings of an item from the database again after the ttl")
+    void reloadsItemAfterTtl() {
+        index.checkAvailable(item.getId(), NOW.plusDays(2), NOW.plusDays(3));
+        nanos.addAndGet(Duration.ofSeconds(59).toNanos());
+        index.checkAvailable(item.getId(), NOW.plusDays(2), NOW.plusDays(3));
+        verify(bookingRepo, times(1)).findAllApprovedByItem_IdEndingAfter(item.getId(), NOW);
+
+        //approved by another instance in the meantime
+        when(bookingRepo.findAllApprovedByItem_IdEndingAfter(anyLong(), any())).thenReturn(List.of(
+                booking(3L, NOW.plusDays(2), NOW.plusDays(3))
+        ));
+        nanos.addAndGet(Duration.ofSeconds(1).toNanos());
+
+        assertThrows(BookingConflictException.class,
+                () -> index.checkAvailable(item.getId(), NOW.plusDays(2), NOW.plusDays(3)));
+        verify(bookingRepo, times(2)).findAllApprovedByItem_IdEndingAfter(item.getId(), NOW);
+    }
+
+    @Test
+    @DisplayName("Should reserve time of approved booking, so overlapping bookings are rejected")
+    void reserve() {
+        index.reserve(booking(3L, NOW.plusDays(2), NOW.plusDays(3)));
+
+        assertThrows(BookingConflictException.class,
+                () -> index.reserve(booking(4L, NOW.plusDays(2).plusHours(12), NOW.plusDays(3).plusHours(12))));
+        assertThrows(BookingConflictException.class,
+                () -> index.checkAvailable(item.getId(), NOW.plusDays(2), NOW.plusDays(2).plusHours(1)));
+        assertDoesNotThrow(() -> index.reserve(booking(5L, NOW.plusDays(3), NOW.plusDays(4))));
+    }
+
+    @Test
+    @DisplayName("Should return windows between approved bookings, clamped to the given time")
+    void getFreeWindows() {
+        assertEquals(List.of(
+                new AvailabilityWindowDto(NOW, NOW.plusDays(1)),
+                new AvailabilityWindowDto(NOW.plusDays(2), NOW.plusDays(4)),
+                new AvailabilityWindowDto(NOW.plusDays(5), NOW.plusDays(7))
+        ), index.getFreeWindows(item.getId(), NOW.minusDays(3), NOW.plusDays(7)));
+
+        assertEquals(List.of(
+                new AvailabilityWindowDto(NOW.plusDays(2), NOW.plusDays(3))
+        ), index.getFreeWindows(item.getId(), NOW.plusDays(1).plusHours(6), NOW.plusDays(3)));
+
+        assertEquals(List.of(), index.getFreeWindows(item.getId(), NOW.plusDays(4), NOW.plusDays(5)));
+        assertEquals(List.of(), index.getFreeWindows(item.getId(), NOW.minusDays(2), NOW.minusDays(1)));
+    }
+
+    @Test
+    @DisplayName("Should merge overlapping bookings approved before the index existed")
+    void loadMergesOverlappingBookings() {
+        when(bookingRepo.findAllApprovedByItem_IdEndingAfter(anyLong(), any())).thenReturn(List.of(
+                booking(1L, NOW.plusDays(1), NOW.plusDays(3)),
+                booking(2L, NOW.plusDays(2), NOW.plusDays(4)),
+                booking(3L, NOW.plusDays(2), NOW.plusDays(2).plusHours(1))
+        ));
+
+        assertEquals(List.of(
+                new AvailabilityWindowDto(NOW, NOW.plusDays(1)),
+                new AvailabilityWindowDto(NOW.plusDays(4), NOW.plusDays(5))
+        ), index.getFreeWindows(item.getId(), NOW, NOW.plusDays(5)));
+        assertThrows(BookingConflictException.class,
+                () -> index.checkAvailable(item.getId(), NOW.plusDays(3).plusHours(12), NOW.plusDays(5)));
+    }
+
+    private Booking booking(long id, LocalDateTime start, LocalDateTime end) {
+        return new Booking(id, start, end, booker, item, BookingStatus.APPROVED);
+    }
+}
@@ -43,8 +43,8 @@ public class CommentRepositoryTest {
         testEntityManager.persist(
                 new Booking(0, now.minusDays(2), now.minusDays(1), booker, item, BookingStatus.APPROVED)
         );
-        testEntityManager.persist(new Comment(0, "comment1", now, item, booker));
-        testEntityManager.persist(new Comment(0, "comment2", now, item, booker));
+        testEntityManager.persist(new Comment(0, "comment1", now, item, booker, null));
+        testEntityManager.persist(new Comment(0, "comment2", now, item, booker, 5));
     }
 
     @Test
@@ -7,22 +7,33 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import ru.practicum.shareit.server.error.global_exception.VersionConflictException;
 import ru.practicum.shareit.server.item.exception.CommentingRestrictedException;
 import ru.practicum.shareit.server.item.exception.ItemNotFoundException;
+import ru.practicum.shareit.server.item.model.dto.AvailabilityWindowDto;
 import ru.practicum.shareit.server.item.model.dto.CommentRequestDto;
 import ru.practicum.shareit.server.item.model.dto.CommentResponseDto;
 import ru.practicum.shareit.server.item.model.dto.ItemDto;
 import ru.practicum.shareit.server.item.model.dto.ItemWithBookingsResponseDto;
+import ru.practicum.shareit.server.item.search.ItemSearchMode;
+import ru.practicum.shareit.server.item.search.ItemSearchSort;
 import ru.practicum.shareit.server.util.constant.Header;
+import ru.practicum.shareit.server.util.pagination.CursorSlice;
 
 import java.time.LocalDateTime;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.List;
 
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -73,7 +84,7 @@ public class ItemControllerTest {
         long itemId = 2L;
         ItemWithBookingsResponseDto itemDto = new ItemWithBookingsResponseDto(
                 itemId, "name", "description", true, userId,
-                null, null, null
+                null, null, null, 0, null, null
         );
         when(itemService.getDtoById(itemId, userId)).thenReturn(itemDto);
 
@@ -87,6 +98,50 @@ public class ItemControllerTest {
                 .andExpect(jsonPath("$.available").value(true));
     }
 
+    @Test
+    @DisplayName("Should get first slice of item's comments when cursor is not given")
+    public void getComments() throws Exception {
+        long userId = 1L;
+        long itemId = 2L;
+        CommentResponseDto comment = new CommentResponseDto(3L, "text", "author", LocalDateTime.now(), 5);
+        when(itemService.getComments(itemId, userId, "", 1))
+                .thenReturn(new CursorSlice<>(List.of(comment), "next"));
+
+        mockMvc.perform(get("/items/{itemId}/comments", itemId)
+                        .header(Header.USER_ID_HEADER, userId)
+                        .param("size", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[0].id").value(comment.getId()))
+                .andExpect(jsonPath("$.content[0].authorName").value("author"))
+                .andExpect(jsonPath("$.next").value("next"));
+    }
+
+    @Test
+    @DisplayName("Should answer 304 without assembling the item when client has its tag")
+    public void getByIdWhenNotModified() throws Exception {
+        long userId = 1L;
+        long itemId = 2L;
+        String etag = "W/\"1f\"";
+        when(itemService.getEtag(itemId, userId)).thenReturn(etag);
+
+        mockMvc.perform(get("/items/{itemId}", itemId)
+                        .header(Header.USER_ID_HEADER, userId)
+                        .header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, etag))
+                .andExpect(content().string(""));
+        verify(itemService, never()).getDtoById(itemId, userId);
+
+        when(itemService.getDtoById(itemId, userId)).thenReturn(new ItemWithBookingsResponseDto(
+                itemId, "name", "description", true, userId, null, null, null, 0, null, null));
+        mockMvc.perform(get("/items/{itemId}", itemId)
+                        .header(Header.USER_ID_HEADER, userId)
+                        .header(HttpHeaders.IF_NONE_MATCH, "W/\"0\""))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, etag))
+                .andExpect(jsonPath("$.id").value(itemId));
+    }
+
     @Test
     @DisplayName("Should throw exception when item not found")
     public void getByIdWhenItemNotFoundThenException() throws Exception {
@@ -109,7 +164,8 @@ public class ItemControllerTest {
         int size = 10;
         ItemDto itemDto = new ItemDto(1L, "text", "text", true, userId, 0);
         Collection<ItemDto> items = Arrays.asList(itemDto);
-        when(itemService.searchByNameOrDescription(text, from, size)).thenReturn(items);
+        when(itemService.searchByNameOrDescription(text, ItemSearchMode.SUBSTRING, ItemSearchSort.ID, from, size))
+                .thenReturn(items);
 
         mockMvc.perform(get("/items/search")
                         .header(Header.USER_ID_HEADER, userId)
@@ -132,7 +188,7 @@ public class ItemControllerTest {
         int size = 10;
         ItemWithBookingsResponseDto itemDto = new ItemWithBookingsResponseDto(
                 1L, "name", "description", true, ownerId,
-                null, null, null
+                null, null, null, 0, null, null
         );
         Collection<ItemWithBookingsResponseDto> itemsDto = Arrays.asList(itemDto);
         when(itemService.getAllByOwnerId(ownerId, from, size)).thenReturn(itemsDto);
@@ -170,6 +226,24 @@ public class ItemControllerTest {
                 .andExpect(jsonPath("$.available").value(true));
     }
 
+    @Test
+    @DisplayName("Should answer with conflict and current item when item was changed concurrently")
+    public void updateWhenVersionConflictThenConflict() throws Exception {
+        long userId = 1L;
+        long itemId = 2L;
+        ItemDto itemDto = new ItemDto(itemId, "name", null, null, userId, 0);
+        ItemDto currentItem = new ItemDto(itemId, "other name", "description", true, userId, 0);
+        when(itemService.update(itemDto)).thenThrow(new VersionConflictException("changed", currentItem));
+
+        mockMvc.perform(patch("/items/{itemId}", itemId)
+                        .header(Header.USER_ID_HEADER, userId)
+                        .content(new ObjectMapper().writeValueAsString(itemDto))
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isConflict())
+                .andExpect(jsonPath("$.current.id").value(itemId))
+                .andExpect(jsonPath("$.current.name").value("other name"));
+    }
+
     @Test
     @DisplayName("Should add comment")
     public void addComment() throws Exception {
@@ -179,7 +253,7 @@ public class ItemControllerTest {
         String text = "text";
         CommentRequestDto commentRequestDto = new CommentRequestDto(text);
         LocalDateTime now = LocalDateTime.now();
-        CommentResponseDto commentResponseDto = new CommentResponseDto(1L, text, authorName, now);
+        CommentResponseDto commentResponseDto = new CommentResponseDto(1L, text, authorName, now, null);
         when(itemService.addComment(commentRequestDto, itemId, authorId)).thenReturn(commentResponseDto);
 
         ObjectMapper mapper = new ObjectMapper();
@@ -210,4 +284,26 @@ public class ItemControllerTest {
                         .contentType(MediaType.APPLICATION_JSON))
                 .andExpect(status().isBadRequest());
     }
+
+    @Test
+    @DisplayName("Should get free windows of item")
+    public void getAvailability() throws Exception {
+        long itemId = 2L;
+        LocalDateTime from = LocalDateTime.of(2030, 1, 1, 10, 0);
+        LocalDateTime to = from.plusDays(3);
+        when(itemService.getAvailability(itemId, from, to)).thenReturn(List.of(
+                new AvailabilityWindowDto(from, from.plusDays(1)),
+                new AvailabilityWindowDto(from.plusDays(2), to)
+        ));
+
+        mockMvc.perform(get("/items/{itemId}/availability", itemId)
+                        .header(Header.USER_ID_HEADER, 1L)
+                        .param("from", "2030-01-01T10:00:00")
+                        .param("to", "2030-01-04T10:00:00"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$[0].start").value("2030-01-01T10:00:00"))
+                .andExpect(jsonPath("$[0].end").value("2030-01-02T10:00:00"))
+                .andExpect(jsonPath("$[1].start").value("2030-01-03T10:00:00"));
+    }
 }
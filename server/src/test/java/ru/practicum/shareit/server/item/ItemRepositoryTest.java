@@ -1,5 +1,7 @@
 package ru.practicum.shareit.server.item;
 
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
@@ -8,37 +10,46 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
 import ru.practicum.shareit.server.item.model.Item;
+import ru.practicum.shareit.server.item.model.dto.ItemDto;
+import ru.practicum.shareit.server.item.search.ItemSearchSort;
 import ru.practicum.shareit.server.request.model.ItemRequest;
 import ru.practicum.shareit.server.user.model.User;
 
+import javax.persistence.EntityManagerFactory;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
-@DataJpaTest
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
 @AutoConfigureTestDatabase
 public class ItemRepositoryTest {
     private final TestEntityManager testEntityManager;
 
     private final ItemRepository itemRepo;
 
+    private final Statistics statistics;
+
+    private User owner;
     private ItemRequest itemRequest;
 
     @Autowired
-    public ItemRepositoryTest(TestEntityManager testEntityManager, ItemRepository itemRepo) {
+    public ItemRepositoryTest(TestEntityManager testEntityManager, ItemRepository itemRepo,
+                              EntityManagerFactory entityManagerFactory) {
         this.testEntityManager = testEntityManager;
         this.itemRepo = itemRepo;
+        this.statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
     }
 
     @BeforeEach
     public void setUp() {
-        User owner = testEntityManager.persist(new User(0, "owner", "owner@mail.com"));
+        owner = testEntityManager.persist(new User(0, "owner", "owner@mail.com"));
         User requestAuthor = testEntityManager.persist(new User(0, "requestAuthor", "requestAuthor@mail.com"));
         itemRequest = testEntityManager.persist(new ItemRequest(0, "request description", LocalDateTime.now(), requestAuthor));
         testEntityManager.persist(new Item(0, "item1", "description1", true, owner, itemRequest));
@@ -49,9 +60,9 @@ public class ItemRepositoryTest {
     @Test
     @DisplayName("Should search by name or description")
     void searchByNameOrDescription() {
-        Page<Item> itemPage = itemRepo.searchByNameOrDescription("item", PageRequest.of(0, 3));
-        Assertions.assertEquals(2, itemPage.getTotalElements());
-        List<Item> items = itemPage.getContent();
+        Slice<Item> itemSlice = itemRepo.searchByNameOrDescription("item", PageRequest.of(0, 3, ItemSearchSort.ID.getSort()));
+        List<Item> items = itemSlice.getContent();
+        Assertions.assertEquals(2, items.size());
         assertTrue(items.get(0).getName().contains("item"));
         assertTrue(items.get(1).getName().contains("item"));
     }
@@ -59,19 +70,36 @@ public class ItemRepositoryTest {
     @Test
     @DisplayName("Should find all by request id")
     public void findAllByRequest_Id() {
-        List<Object[]> requestIdToItems = itemRepo.findAllByRequest_Id(List.of(itemRequest.getId()));
-        assertEquals(3, requestIdToItems.size());
-        for (Object[] items : requestIdToItems) {
-            assertEquals(2, items.length);
-            assertEquals(itemRequest.getId(), items[0]);
+        List<ItemDto> items = itemRepo.findAllByRequest_Id(List.of(itemRequest.getId()));
+        assertEquals(3, items.size());
+        for (ItemDto item : items) {
+            assertEquals(itemRequest.getId(), item.getRequestId());
         }
     }
 
     @Test
     @DisplayName("Should find all by request id as map")
     public void findAllByRequest_IdAsMap() {
-        Map<Long, List<Item>> itemIdToBookings = itemRepo.findAllByRequest_IdAsMap(List.of(itemRequest.getId()));
+        Map<Long, List<ItemDto>> itemIdToBookings = itemRepo.findAllByRequest_IdAsMap(List.of(itemRequest.getId()));
         assertEquals(1, itemIdToBookings.size());
         assertEquals(3, itemIdToBookings.get(itemRequest.getId()).size());
     }
+
+    @Test
+    @DisplayName("Should insert items saved together in one batch")
+    public void saveAllInsertsInBatch() {
+        testEntityManager.flush();
+        statistics.clear();
+        List<Item> items = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            items.add(new Item(0, "batch item " + i, "batch description", true, owner, null));
+        }
+
+        itemRepo.saveAll(items);
+        testEntityManager.flush();
+
+        assertEquals(10, statistics.getEntityInsertCount());
+        //ids come from the block fetched for setUp, so the insert is the only statement sent
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
 }
@@ -6,29 +6,36 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import ru.practicum.shareit.server.booking.BookingRepository;
+import ru.practicum.shareit.server.booking.availability.ItemAvailabilityIndex;
 import ru.practicum.shareit.server.booking.model.Booking;
 import ru.practicum.shareit.server.booking.model.BookingStatus;
 import ru.practicum.shareit.server.error.global_exception.UnauthorizedException;
 import ru.practicum.shareit.server.error.global_exception.UserNotFoundException;
+import ru.practicum.shareit.server.error.global_exception.VersionConflictException;
 import ru.practicum.shareit.server.item.exception.CommentingRestrictedException;
 import ru.practicum.shareit.server.item.exception.ItemNotFoundException;
 import ru.practicum.shareit.server.item.model.Comment;
 import ru.practicum.shareit.server.item.model.CommentMapper;
 import ru.practicum.shareit.server.item.model.Item;
 import ru.practicum.shareit.server.item.model.ItemMapper;
+import ru.practicum.shareit.server.item.model.dto.AvailabilityWindowDto;
 import ru.practicum.shareit.server.item.model.dto.CommentRequestDto;
 import ru.practicum.shareit.server.item.model.dto.CommentResponseDto;
 import ru.practicum.shareit.server.item.model.dto.ItemDto;
 import ru.practicum.shareit.server.item.model.dto.ItemWithBookingsResponseDto;
+import ru.practicum.shareit.server.item.search.ItemSearchEngine;
+import ru.practicum.shareit.server.item.search.ItemSearchMode;
+import ru.practicum.shareit.server.item.search.ItemSearchSort;
 import ru.practicum.shareit.server.request.ItemRequestRepository;
 import ru.practicum.shareit.server.request.exception.ItemRequestNotFoundException;
 import ru.practicum.shareit.server.request.model.ItemRequest;
 import ru.practicum.shareit.server.user.UserService;
 import ru.practicum.shareit.server.user.model.User;
+import ru.practicum.shareit.server.util.bulk.BulkImportResult;
+import ru.practicum.shareit.server.util.bulk.BulkRowError;
 
 import java.time.LocalDateTime;
 import java.util.*;
@@ -49,6 +56,10 @@ class ItemServiceTest {
     private CommentRepository commentRepo;
     @Mock
     private ItemRequestRepository requestRepo;
+    @Mock
+    private ItemSearchEngine searchEngine;
+    @Mock
+    private ItemAvailabilityIndex availabilityIndex;
 
     @InjectMocks
     private ItemService itemService;
@@ -71,14 +82,13 @@ class ItemServiceTest {
         String searchText = "test";
         int from = 0;
         int size = 10;
-        List<Item> itemList = new ArrayList<>();
-        Page<Item> itemPage = new PageImpl<>(itemList);
-        when(itemRepo.searchByNameOrDescription(anyString(), any(PageRequest.class))).thenReturn(itemPage);
+        when(searchEngine.search(anyString(), any(), any(), any(PageRequest.class))).thenReturn(new ArrayList<>());
 
         Collection<ItemDto> result = itemService.searchByNameOrDescription(searchText, from, size);
 
         assertTrue(result.isEmpty());
-        verify(itemRepo, times(1)).searchByNameOrDescription(searchText, PageRequest.of(0, size));
+        verify(searchEngine, times(1))
+                .search(searchText, ItemSearchMode.SUBSTRING, ItemSearchSort.ID, PageRequest.of(0, size));
     }
 
     @Test
@@ -90,9 +100,8 @@ class ItemServiceTest {
                 User(2L, "User 2", "user2@example.com"), null));
         itemList.add(new Item(3L, "Item 3", "Description 3", true, new
                 User(3L, "User 3", "user3@example.com"), null));
-        Page<Item> itemPage = new PageImpl<>(itemList);
 
-        when(itemRepo.searchByNameOrDescription(anyString(), any(PageRequest.class))).thenReturn(itemPage);
+        when(searchEngine.search(anyString(), any(), any(), any(PageRequest.class))).thenReturn(itemList);
 
         Collection<ItemDto> result = itemService.searchByNameOrDescription("Item", 0, 10);
 
@@ -126,10 +135,10 @@ class ItemServiceTest {
         comment.setAuthor(owner);
         comment.setItem(item);
         comments.add(comment);
+        item.setCommentCount(comments.size());
 
-        when(commentRepo.findAllByItem_IdAsMap(List.of(itemId))).thenReturn(Map.of(itemId, comments));
+        when(commentRepo.findNewestByItem_Id(eq(itemId), any())).thenReturn(comments);
 
-        List<Booking> bookings = new ArrayList<>();
         Booking booking = new Booking();
         booking.setId(1L);
         booking.setBooker(owner);
@@ -137,9 +146,9 @@ class ItemServiceTest {
         booking.setStatus(BookingStatus.APPROVED);
         booking.setStart(LocalDateTime.now().minusDays(2));
         booking.setEnd(LocalDateTime.now().minusDays(1));
-        bookings.add(booking);
 
-        when(bookingRepo.findAllByItem_IdAsMap(List.of(itemId))).thenReturn(Map.of(itemId, bookings));
+        when(bookingRepo.findLastByItem_IdAsMap(eq(List.of(itemId)), any())).thenReturn(Map.of(itemId, booking));
+        when(bookingRepo.findNextByItem_IdAsMap(eq(List.of(itemId)), any())).thenReturn(Collections.emptyMap());
 
         ItemWithBookingsResponseDto result = itemService.getDtoById(itemId, userId);
 
@@ -148,6 +157,7 @@ class ItemServiceTest {
         assertEquals(item.getDescription(), result.getDescription());
         assertEquals(item.getOwner().getId(), result.getOwnerId());
         assertEquals(comments.size(), result.getComments().size());
+        assertEquals(comments.size(), result.getCommentCount());
         CommentResponseDto commentDto = result.getComments().get(0);
         assertEquals(comment.getId(), commentDto.getId());
         assertEquals(comment.getText(), commentDto.getText());
@@ -157,6 +167,24 @@ class ItemServiceTest {
         assertEquals(booking.getItem().getId(), result.getLastBooking().getItemId());
         assertEquals(booking.getStart(), result.getLastBooking().getStart());
         assertEquals(booking.getEnd(), result.getLastBooking().getEnd());
+        assertNull(result.getNextBooking());
+    }
+
+    @Test
+    @DisplayName("Should not look up last and next bookings when user is not the owner")
+    void getDtoByIdWhenUserIsNotOwner() {
+        User owner = new User(1L, "owner", "owner@mail.com");
+        Item item = new Item(1L, "item", "description", true, owner, null);
+
+        when(userService.existsById(2L)).thenReturn(true);
+        when(itemRepo.findById(item.getId())).thenReturn(Optional.of(item));
+        when(commentRepo.findNewestByItem_Id(eq(item.getId()), any())).thenReturn(Collections.emptyList());
+
+        ItemWithBookingsResponseDto result = itemService.getDtoById(item.getId(), 2L);
+
+        assertNull(result.getLastBooking());
+        assertNull(result.getNextBooking());
+        verifyNoInteractions(bookingRepo);
     }
 
     @Test
@@ -166,16 +194,17 @@ class ItemServiceTest {
         int from = 0;
         int size = 10;
 
-        when(itemRepo.findAllByOwner_Id(anyLong(), any())).thenReturn(Page.empty());
+        when(itemRepo.findAllByOwner_IdOrderByLastBookingStart(anyLong(), any(), anyInt(), anyInt()))
+                .thenReturn(List.of());
 
         Collection<ItemWithBookingsResponseDto> result = itemService.getAllByOwnerId(ownerId, from, size);
 
         assertTrue(result.isEmpty());
-        verify(itemRepo, times(1)).findAllByOwner_Id(ownerId, PageRequest.of(from / size, size));
+        verify(itemRepo, times(1)).findAllByOwner_IdOrderByLastBookingStart(eq(ownerId), any(), eq(from), eq(size));
     }
 
     @Test
-    @DisplayName("Should return items with correct last and next bookings for the given owner ID")
+    @DisplayName("Should return items in the order of the query with correct last and next bookings")
     void getAllByOwnerIdWithCorrectLastAndNextBookings() {
         User owner = new User(1L, "John Doe", "john.doe@example.com");
         Item item1 = new Item(1L, "Item 1", "Description 1", true, owner, null);
@@ -188,18 +217,27 @@ class ItemServiceTest {
         Booking booking2 = new Booking(2L, now.plusDays(4), now.plusDays(5), booker, item2, BookingStatus.APPROVED);
         Booking booking3 = new Booking(3L, now.minusDays(6), now.minusDays(5), booker, item2, BookingStatus.APPROVED);
 
-        when(itemRepo.findAllByOwner_Id(anyLong(), any())).thenReturn(
-                new PageImpl<>(List.of(item1, item2))
+        when(itemRepo.findAllByOwner_IdOrderByLastBookingStart(anyLong(), any(), anyInt(), anyInt())).thenReturn(
+                List.of(item2, item1)
+        );
+        when(bookingRepo.findLastByItem_IdAsMap(any(), any())).thenReturn(
+                Map.of(item1.getId(), booking1, item2.getId(), booking3)
         );
-        when(bookingRepo.findAllByItem_IdAsMap(any())).thenReturn(
-                Map.of(item1.getId(), List.of(booking1),
-                        item2.getId(), List.of(booking2, booking3)
-                )
+        when(bookingRepo.findNextByItem_IdAsMap(any(), any())).thenReturn(
+                Map.of(item2.getId(), booking2)
         );
 
         Collection<ItemWithBookingsResponseDto> result = itemService.getAllByOwnerId(owner.getId(), 0, 10);
 
         assertEquals(2, result.size());
+        Iterator<ItemWithBookingsResponseDto> iterator = result.iterator();
+        ItemWithBookingsResponseDto itemDto2 = iterator.next();
+        assertEquals(item2.getId(), itemDto2.getId());
+        assertEquals(booking3.getId(), itemDto2.getLastBooking().getId());
+        assertEquals(booking2.getId(), itemDto2.getNextBooking().getId());
+        ItemWithBookingsResponseDto itemDto1 = iterator.next();
+        assertEquals(booking1.getId(), itemDto1.getLastBooking().getId());
+        assertNull(itemDto1.getNextBooking());
     }
 
     @Test
@@ -210,19 +248,21 @@ class ItemServiceTest {
         Item item2 = new Item(2L, "Item 2", "Description 2", true, owner, null);
         Item item3 = new Item(3L, "Item 3", "Description 3", true, owner, null);
 
-        Page<Item> items = new PageImpl<>(List.of(item1, item2, item3));
+        List<Item> items = List.of(item1, item2, item3);
 
-        when(itemRepo.findAllByOwner_Id(anyLong(), any())).thenReturn(items);
-        when(commentRepo.findAllByItem_IdAsMap(any())).thenReturn(Collections.emptyMap());
-        when(bookingRepo.findAllByItem_IdAsMap(any())).thenReturn(Collections.emptyMap());
+        when(itemRepo.findAllByOwner_IdOrderByLastBookingStart(anyLong(), any(), anyInt(), anyInt())).thenReturn(items);
+        when(commentRepo.findNewestByItem_IdAsMap(any(), anyInt())).thenReturn(Collections.emptyMap());
+        when(bookingRepo.findLastByItem_IdAsMap(any(), any())).thenReturn(Collections.emptyMap());
+        when(bookingRepo.findNextByItem_IdAsMap(any(), any())).thenReturn(Collections.emptyMap());
 
-        Collection<ItemWithBookingsResponseDto> result = itemService.getAllByOwnerId(owner.getId(), 0, 10);
+        Collection<ItemWithBookingsResponseDto> result = itemService.getAllByOwnerId(owner.getId(), 25, 10);
 
         assertEquals(3, result.size());
         assertEquals(item1.getId(), result.iterator().next().getId());
-        verify(itemRepo, times(1)).findAllByOwner_Id(anyLong(), any());
-        verify(commentRepo, times(1)).findAllByItem_IdAsMap(any());
-        verify(bookingRepo, times(1)).findAllByItem_IdAsMap(any());
+        verify(itemRepo, times(1)).findAllByOwner_IdOrderByLastBookingStart(eq(owner.getId()), any(), eq(20), eq(10));
+        verify(commentRepo, times(1)).findNewestByItem_IdAsMap(any(), eq(ItemService.NEWEST_COMMENTS));
+        verify(bookingRepo, times(1)).findLastByItem_IdAsMap(any(), any());
+        verify(bookingRepo, times(1)).findNextByItem_IdAsMap(any(), any());
     }
 
     @Test
@@ -279,6 +319,39 @@ class ItemServiceTest {
         verify(itemRepo, times(1)).save(any(Item.class));
     }
 
+    @Test
+    @DisplayName("Should save the item with the version it was read with")
+    void updateItemKeepsReadVersion() {
+        User owner = new User(1L, "Owner", "owner@example.com");
+        Item item = new Item(1L, "item", "description", true, owner, null);
+        item.setVersion(3);
+        ItemDto itemDto = new ItemDto(item.getId(), "new name", null, null, owner.getId(), 0);
+
+        when(itemRepo.findById(item.getId())).thenReturn(Optional.of(item));
+        when(itemRepo.save(any(Item.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        itemService.update(itemDto);
+
+        verify(itemRepo).save(argThat(saved -> saved.getVersion() == 3 && saved.getName().equals("new name")));
+    }
+
+    @Test
+    @DisplayName("Should throw VersionConflictException with current item when it was changed concurrently")
+    void updateItemWhenChangedConcurrentlyThenThrowVersionConflictException() {
+        User owner = new User(1L, "Owner", "owner@example.com");
+        Item item = new Item(1L, "item", "description", true, owner, null);
+        Item changedItem = new Item(1L, "changed", "description", true, owner, null);
+        ItemDto itemDto = new ItemDto(item.getId(), "new name", null, null, owner.getId(), 0);
+
+        when(itemRepo.findById(item.getId())).thenReturn(Optional.of(item), Optional.of(changedItem));
+        when(itemRepo.save(any(Item.class))).thenThrow(new ObjectOptimisticLockingFailureException(Item.class, 1L));
+
+        VersionConflictException e = assertThrows(VersionConflictException.class, () -> itemService.update(itemDto));
+
+        assertEquals(ItemMapper.toItemDto(changedItem), e.getCurrent());
+        verify(searchEngine, never()).index(any());
+    }
+
     @Test
     @DisplayName("Should throw an exception when the owner is different")
     void updateItemWhenOwnerIsDifferentThenThrowException() {
@@ -479,9 +552,9 @@ class ItemServiceTest {
     }
 
     @Test
-    @DisplayName("Should add a comment when the user has booked the item and the booking has ended")
+    @DisplayName("Should add a comment and count it in the item's aggregates when the booking has ended")
     void addCommentWhenUserHasBookedItemAndBookingHasEnded() {
-        CommentRequestDto commentRequestDto = new CommentRequestDto("Test comment");
+        CommentRequestDto commentRequestDto = new CommentRequestDto("Test comment", 4);
         long itemId = 1L;
         long authorId = 2L;
 
@@ -492,12 +565,58 @@ class ItemServiceTest {
         when(userService.getById(authorId)).thenReturn(author);
         when(itemRepo.findById(itemId)).thenReturn(Optional.of(item));
         when(bookingRepo.findAllByItem_IdAndBooker_Id(itemId, authorId)).thenReturn(Collections.singletonList(booking));
-        when(commentRepo.save(any(Comment.class))).thenReturn(new Comment(1L, commentRequestDto.getText(), LocalDateTime.now(), item, author));
+        when(commentRepo.save(any(Comment.class))).thenReturn(new Comment(1L, commentRequestDto.getText(), LocalDateTime.now(), item, author, 4));
 
         CommentResponseDto commentResponseDto = itemService.addComment(commentRequestDto, itemId, authorId);
 
         assertNotNull(commentResponseDto);
         assertEquals(commentRequestDto.getText(), commentResponseDto.getText());
         assertEquals(author.getName(), commentResponseDto.getAuthorName());
+        assertEquals(4, commentResponseDto.getRating());
+        verify(itemRepo).addComment(eq(itemId), any(LocalDateTime.class), eq(4));
+    }
+
+    @Test
+    @DisplayName("Should return free windows of the item from the availability index")
+    void getAvailability() {
+        LocalDateTime from = LocalDateTime.now();
+        LocalDateTime to = from.plusDays(3);
+        List<AvailabilityWindowDto> windows = List.of(new AvailabilityWindowDto(from, to));
+        when(itemRepo.existsById(1L)).thenReturn(true);
+        when(availabilityIndex.getFreeWindows(1L, from, to)).thenReturn(windows);
+
+        assertEquals(windows, itemService.getAvailability(1L, from, to));
+    }
+
+    @Test
+    @DisplayName("Should throw ItemNotFoundException when getting availability of unknown item")
+    void getAvailabilityWhenItemNotFound() {
+        LocalDateTime from = LocalDateTime.now();
+        when(itemRepo.existsById(1L)).thenReturn(false);
+
+        assertThrows(ItemNotFoundException.class, () -> itemService.getAvailability(1L, from, from.plusDays(1)));
+        verifyNoInteractions(availabilityIndex);
+    }
+
+    @Test
+    @DisplayName("Should add all items except ones answering unknown requests")
+    void addAllRejectsUnknownRequests() {
+        User owner = new User(1L, "owner", "owner@mail.com");
+        ItemRequest request = new ItemRequest(5L, "request", LocalDateTime.now(), owner);
+        when(userService.getById(owner.getId())).thenReturn(owner);
+        when(requestRepo.findAllById(Set.of(5L, 6L))).thenReturn(List.of(request));
+        when(itemRepo.saveAll(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        BulkImportResult result = itemService.addAll(owner.getId(), List.of(
+                new ItemDto(0, "drill", "drill", true, 0, 5L),
+                new ItemDto(0, "saw", "saw", true, 0, 6L),
+                new ItemDto(0, "hammer", "hammer", true, 0, 0)
+        ));
+
+        assertEquals(2, result.getImported());
+        assertEquals(List.of(new BulkRowError(2, "Item request with id=6 not found")), result.getErrors());
+        verify(itemRepo).saveAll(List.of(new Item(0, "drill", "drill", true, owner, request),
+                new Item(0, "hammer", "hammer", true, owner, null)));
+        verify(searchEngine, times(2)).index(any());
     }
-}
\ No newline at end of file
+}
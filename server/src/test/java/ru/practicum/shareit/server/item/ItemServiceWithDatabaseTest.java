@@ -6,27 +6,38 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
 import ru.practicum.shareit.server.booking.BookingService;
 import ru.practicum.shareit.server.booking.model.dto.BookingRequestDto;
 import ru.practicum.shareit.server.booking.model.dto.BookingResponseDto;
 import ru.practicum.shareit.server.item.model.Comment;
+import ru.practicum.shareit.server.item.model.Item;
 import ru.practicum.shareit.server.item.model.dto.CommentRequestDto;
 import ru.practicum.shareit.server.item.model.dto.CommentResponseDto;
 import ru.practicum.shareit.server.item.model.dto.ItemDto;
 import ru.practicum.shareit.server.item.model.dto.ItemWithBookingsResponseDto;
+import ru.practicum.shareit.server.item.search.ItemSearchMode;
+import ru.practicum.shareit.server.item.search.ItemSearchSort;
 import ru.practicum.shareit.server.user.UserService;
 import ru.practicum.shareit.server.user.model.UserDto;
+import ru.practicum.shareit.server.util.batch.BatchResult;
+import ru.practicum.shareit.server.util.pagination.CursorSlice;
 
 import javax.persistence.EntityManager;
 import javax.persistence.Query;
 import javax.transaction.Transactional;
 import java.time.LocalDateTime;
 import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Iterator;
 import java.util.List;
+import java.util.stream.Collectors;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 @SpringBootTest
@@ -38,6 +49,7 @@ public class ItemServiceWithDatabaseTest {
 
     private final UserService userService;
     private final ItemService itemService;
+    private final ItemRepository itemRepo;
     private final BookingService bookingService;
 
     @Test
@@ -74,6 +86,68 @@ public class ItemServiceWithDatabaseTest {
         assertEquals(commentResponseDto.getId(), comments.get(0).getId());
     }
 
+    @Test
+    @DisplayName("Should embed newest comments into the item and page all of them by cursor, newest first")
+    void getComments() {
+        UserDto owner = userService.add(new UserDto(0, "owner", "email@mail.com"));
+        UserDto booker = userService.add(new UserDto(0, "booker", "email@mail.ru"));
+        long itemId = itemService.add(new ItemDto(0, "item", "description", true, owner.getId(), 0)).getId();
+        LocalDateTime now = LocalDateTime.now();
+        long bookingId = bookingService.add(
+                new BookingRequestDto(now.minusDays(2), now.minusDays(1), itemId), booker.getId()).getId();
+        bookingService.changeStatus(bookingId, owner.getId(), true);
+        List<Long> expected = new ArrayList<>();
+        for (int i = 0; i < ItemService.NEWEST_COMMENTS + 2; i++) {
+            expected.add(0, itemService.addComment(new CommentRequestDto("comment"), itemId, booker.getId()).getId());
+        }
+        //the next slice is requested in another transaction, which reads creation time as it was stored
+        entityManager.flush();
+        entityManager.clear();
+
+        ItemWithBookingsResponseDto item = itemService.getDtoById(itemId, owner.getId());
+        List<Long> byCursor = new ArrayList<>();
+        String after = "";
+        do {
+            CursorSlice<CommentResponseDto> slice = itemService.getComments(itemId, owner.getId(), after, 5);
+            slice.getContent().forEach(comment -> byCursor.add(comment.getId()));
+            after = slice.getNext();
+        } while (after != null);
+
+        assertEquals(expected.size(), item.getCommentCount());
+        assertEquals(expected.subList(0, ItemService.NEWEST_COMMENTS),
+                item.getComments().stream().map(CommentResponseDto::getId).collect(Collectors.toList()));
+        assertEquals(expected, byCursor);
+    }
+
+    @Test
+    @DisplayName("Should get items by ids the same way as one by one and report missing ids")
+    void getDtosByIds() {
+        UserDto owner = userService.add(new UserDto(0, "owner", "email@mail.com"));
+        UserDto booker = userService.add(new UserDto(0, "booker", "email@mail.ru"));
+        long commentedId = itemService.add(new ItemDto(0, "item", "description", true, owner.getId(), 0)).getId();
+        long otherId = itemService.add(new ItemDto(0, "other", "description", true, owner.getId(), 0)).getId();
+        LocalDateTime now = LocalDateTime.now();
+        long bookingId = bookingService.add(
+                new BookingRequestDto(now.minusDays(2), now.minusDays(1), commentedId), booker.getId()).getId();
+        bookingService.changeStatus(bookingId, owner.getId(), true);
+        for (int i = 0; i < ItemService.NEWEST_COMMENTS + 2; i++) {
+            itemService.addComment(new CommentRequestDto("comment"), commentedId, booker.getId());
+        }
+        entityManager.flush();
+        entityManager.clear();
+
+        for (UserDto user : List.of(owner, booker)) {
+            BatchResult<ItemWithBookingsResponseDto> items = itemService.getDtosByIds(
+                    List.of(otherId, commentedId, 0L, otherId), user.getId());
+
+            assertEquals(List.of(0L), items.getNotFound());
+            assertEquals(List.of(itemService.getDtoById(otherId, user.getId()),
+                    itemService.getDtoById(commentedId, user.getId())), items.getFound());
+        }
+        assertNotNull(itemService.getDtosByIds(List.of(commentedId), owner.getId()).getFound().get(0)
+                .getLastBooking());
+    }
+
     @Test
     @DisplayName("Should add itemn")
     void add() {
@@ -177,6 +251,29 @@ public class ItemServiceWithDatabaseTest {
         assertEquals(itemDto2.getId(), itemResponseDto2.getId());
     }
 
+    @Test
+    @DisplayName("Should embed only newest comments into owner's items, the same as into a single item")
+    void getAllDtosByOwnerIdWithNewestComments() {
+        UserDto owner = userService.add(new UserDto(0, "owner", "email@mail.com"));
+        UserDto booker = userService.add(new UserDto(0, "booker", "email@mail.ru"));
+        long itemId = itemService.add(new ItemDto(0, "item", "description", true, owner.getId(), 0)).getId();
+        LocalDateTime now = LocalDateTime.now();
+        long bookingId = bookingService.add(
+                new BookingRequestDto(now.minusDays(2), now.minusDays(1), itemId), booker.getId()).getId();
+        bookingService.changeStatus(bookingId, owner.getId(), true);
+        for (int i = 0; i < ItemService.NEWEST_COMMENTS + 2; i++) {
+            itemService.addComment(new CommentRequestDto("comment"), itemId, booker.getId());
+        }
+        entityManager.flush();
+        entityManager.clear();
+
+        ItemWithBookingsResponseDto item = itemService.getAllByOwnerId(owner.getId(), 0, 10).iterator().next();
+
+        assertEquals(ItemService.NEWEST_COMMENTS, item.getComments().size());
+        assertEquals(ItemService.NEWEST_COMMENTS + 2, item.getCommentCount());
+        assertEquals(itemService.getDtoById(itemId, owner.getId()).getComments(), item.getComments());
+    }
+
     @Test
     @DisplayName("Should search by name or description")
     void searchByNameOrDescription() {
@@ -193,6 +290,96 @@ public class ItemServiceWithDatabaseTest {
         assertTrue(iterator.next().getDescription().contains("item"));
     }
 
+    @Test
+    @DisplayName("Should keep comment aggregates of items up to date and sort search results by them")
+    void searchByNameOrDescriptionSortedByCommentAggregates() {
+        UserDto owner = userService.add(new UserDto(0, "owner", "email@mail.com"));
+        UserDto booker = userService.add(new UserDto(0, "booker", "email@mail.ru"));
+        LocalDateTime now = LocalDateTime.now();
+        long twoComments = itemService.add(new ItemDto(0, "drill", "description", true, owner.getId(), 0)).getId();
+        long oneComment = itemService.add(new ItemDto(0, "drill", "description", true, owner.getId(), 0)).getId();
+        long noComments = itemService.add(new ItemDto(0, "drill", "description", true, owner.getId(), 0)).getId();
+        for (long itemId : List.of(twoComments, oneComment)) {
+            long bookingId = bookingService.add(
+                    new BookingRequestDto(now.minusDays(2), now.minusDays(1), itemId), booker.getId()).getId();
+            bookingService.changeStatus(bookingId, owner.getId(), true);
+        }
+        itemService.addComment(new CommentRequestDto("great", 5), twoComments, booker.getId());
+        itemService.addComment(new CommentRequestDto("broke", 2), twoComments, booker.getId());
+        itemService.addComment(new CommentRequestDto("unrated"), twoComments, booker.getId());
+        itemService.addComment(new CommentRequestDto("good", 4), oneComment, booker.getId());
+
+        ItemWithBookingsResponseDto item = itemService.getDtoById(twoComments, owner.getId());
+        assertEquals(3, item.getCommentCount());
+        assertEquals(3.5, item.getRating());
+        assertNotNull(item.getLastCommentAt());
+        ItemWithBookingsResponseDto notCommented = itemService.getDtoById(noComments, owner.getId());
+        assertEquals(0, notCommented.getCommentCount());
+        assertNull(notCommented.getRating());
+        assertNull(notCommented.getLastCommentAt());
+
+        assertEquals(List.of(twoComments, oneComment, noComments), searchIds(ItemSearchSort.COMMENTS));
+        assertEquals(List.of(oneComment, twoComments, noComments), searchIds(ItemSearchSort.RATING));
+        assertEquals(List.of(oneComment, twoComments, noComments), searchIds(ItemSearchSort.LAST_COMMENT));
+    }
+
+    private List<Long> searchIds(ItemSearchSort sort) {
+        return itemService.searchByNameOrDescription("drill", ItemSearchMode.SUBSTRING, sort, 0, 10).stream()
+                .map(ItemDto::getId)
+                .collect(Collectors.toList());
+    }
+
+    @Test
+    @DisplayName("Should search the same items as the database query")
+    void searchByNameOrDescriptionMatchesDatabaseQuery() {
+        UserDto owner = userService.add(new UserDto(0, "owner", "email@mail.com"));
+        long ownerId = owner.getId();
+        itemService.add(new ItemDto(0, "Hammer drill", "Drill with a reverse function", true, ownerId, 0));
+        itemService.add(new ItemDto(0, "Hammer", "Steel hammer", true, ownerId, 0));
+        itemService.add(new ItemDto(0, "Saw", "Sharp hammer-shaped saw", false, ownerId, 0));
+        ItemDto screwdriver = itemService.add(new ItemDto(0, "Screwdriver", "Cordless", true, ownerId, 0));
+        screwdriver.setDescription("Cordless, has a reverse drill mode");
+        itemService.update(screwdriver);
+
+        for (String text : List.of("hammer", "REVERSE", "r", "ll w", "drill reverse", "saw", "nothing")) {
+            List<Long> expected = itemRepo.searchByNameOrDescription(text, PageRequest.of(0, 10, ItemSearchSort.ID.getSort())).stream()
+                    .map(Item::getId).collect(Collectors.toList());
+            List<Long> actual = itemService.searchByNameOrDescription(text, 0, 10).stream()
+                    .map(ItemDto::getId).collect(Collectors.toList());
+            assertEquals(expected, actual, text);
+        }
+    }
+
+    @Test
+    @DisplayName("Should page owner's items by last booking start, never booked last, by offset and by cursor alike")
+    void getAllByOwnerIdSortedAcrossPages() {
+        UserDto owner = userService.add(new UserDto(0, "owner", "email@mail.com"));
+        UserDto booker = userService.add(new UserDto(0, "booker", "email@mail.ru"));
+        LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
+        long neverBooked1 = itemService.add(new ItemDto(0, "item", "description", true, owner.getId(), 0)).getId();
+        long bookedLater = itemService.add(new ItemDto(0, "item", "description", true, owner.getId(), 0)).getId();
+        long bookedEarlier = itemService.add(new ItemDto(0, "item", "description", true, owner.getId(), 0)).getId();
+        long neverBooked2 = itemService.add(new ItemDto(0, "item", "description", true, owner.getId(), 0)).getId();
+        bookingService.add(new BookingRequestDto(now.minusDays(3), now.minusDays(2), bookedLater), booker.getId());
+        bookingService.add(new BookingRequestDto(now.minusDays(5), now.minusDays(4), bookedEarlier), booker.getId());
+        bookingService.add(new BookingRequestDto(now.plusDays(1), now.plusDays(2), neverBooked2), booker.getId());
+        List<Long> expected = List.of(bookedEarlier, bookedLater, neverBooked1, neverBooked2);
+
+        List<Long> byOffset = new ArrayList<>();
+        List<Long> byCursor = new ArrayList<>();
+        String after = "";
+        for (int from = 0; from < expected.size(); from++) {
+            itemService.getAllByOwnerId(owner.getId(), from, 1).forEach(item -> byOffset.add(item.getId()));
+            CursorSlice<ItemWithBookingsResponseDto> slice = itemService.getAllByOwnerIdAfter(owner.getId(), after, 1);
+            slice.getContent().forEach(item -> byCursor.add(item.getId()));
+            after = slice.getNext();
+        }
+
+        assertEquals(expected, byOffset);
+        assertEquals(expected, byCursor);
+        assertNull(after);
+    }
+
     @Test
     @DisplayName("Should update item, replacing null values with existing")
     void update() {
@@ -214,4 +401,29 @@ public class ItemServiceWithDatabaseTest {
         assertEquals(addedItem.getDescription(), updatedItem.getDescription());
         assertEquals(ownerId, updatedItem.getOwnerId());
     }
+
+    @Test
+    @DisplayName("Should change item's tag when the item or its bookings change, bookings only for the owner")
+    void getEtag() {
+        UserDto owner = userService.add(new UserDto(0, "owner", "email@mail.com"));
+        UserDto booker = userService.add(new UserDto(0, "booker", "email@mail.ru"));
+        ItemDto item = itemService.add(new ItemDto(0, "item", "description", true, owner.getId(), 0));
+
+        String ownerTag = itemService.getEtag(item.getId(), owner.getId());
+        String bookerTag = itemService.getEtag(item.getId(), booker.getId());
+        assertTrue(ownerTag.startsWith("W/\""));
+        assertNotEquals(ownerTag, bookerTag);
+        assertEquals(ownerTag, itemService.getEtag(item.getId(), owner.getId()));
+
+        bookingService.add(new BookingRequestDto(LocalDateTime.now().plusDays(1), LocalDateTime.now().plusDays(2),
+                item.getId()), booker.getId());
+        assertNotEquals(ownerTag, itemService.getEtag(item.getId(), owner.getId()));
+        assertEquals(bookerTag, itemService.getEtag(item.getId(), booker.getId()));
+
+        itemService.update(new ItemDto(item.getId(), "updated item", null, null, owner.getId(), 0));
+        assertNotEquals(bookerTag, itemService.getEtag(item.getId(), booker.getId()));
+
+        assertNull(itemService.getEtag(0, owner.getId()));
+        assertNull(itemService.getEtag(item.getId(), 0));
+    }
 }
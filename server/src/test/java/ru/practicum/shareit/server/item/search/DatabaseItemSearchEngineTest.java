@@ -0,0 +1,57 @@
+package ru.practicum.shareit.server.item.search;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.PageRequest;
+import ru.practicum.shareit.server.item.ItemRepository;
+import ru.practicum.shareit.server.item.model.Item;
+import ru.practicum.shareit.server.user.model.User;
+
+import javax.sql.DataSource;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@DataJpaTest
+@AutoConfigureTestDatabase
+class DatabaseItemSearchEngineTest {
+    private final TestEntityManager testEntityManager;
+    private final DatabaseItemSearchEngine searchEngine;
+
+    private Item drill;
+    private Item screwdriver;
+
+    @Autowired
+    DatabaseItemSearchEngineTest(TestEntityManager testEntityManager, ItemRepository itemRepo,
+                                 DataSource dataSource) {
+        this.testEntityManager = testEntityManager;
+        this.searchEngine = new DatabaseItemSearchEngine(itemRepo, dataSource);
+    }
+
+    @BeforeEach
+    void setUp() {
+        User owner = testEntityManager.persist(new User(0, "owner", "owner@mail.com"));
+        screwdriver = testEntityManager.persist(
+                new Item(0, "Screwdriver", "Cordless, has a reverse drill mode", true, owner, null));
+        testEntityManager.persist(new Item(0, "Hammer", "Steel hammer", true, owner, null));
+        drill = testEntityManager.persist(new Item(0, "Hammer drill", "Drill with a reverse function", true, owner,
+                null));
+    }
+
+    @Test
+    @DisplayName("Should search by substring ordered by id when the database cannot rank")
+    void searchRankedOnH2() {
+        List<Long> found = searchEngine.search("drill", ItemSearchMode.RANKED, ItemSearchSort.COMMENTS,
+                        PageRequest.of(0, 10)).stream()
+                .map(Item::getId)
+                .collect(Collectors.toList());
+
+        assertEquals(List.of(screwdriver.getId(), drill.getId()), found);
+    }
+}
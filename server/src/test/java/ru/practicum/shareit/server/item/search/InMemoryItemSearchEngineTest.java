@@ -0,0 +1,114 @@
+package ru.practicum.shareit.server.item.search;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.SliceImpl;
+import ru.practicum.shareit.server.item.ItemRepository;
+import ru.practicum.shareit.server.item.model.Item;
+import ru.practicum.shareit.server.user.model.User;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyIterable;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class InMemoryItemSearchEngineTest {
+    @Mock
+    private ItemRepository itemRepo;
+
+    private InMemoryItemSearchEngine searchEngine;
+
+    private final User owner = new User(1L, "owner", "owner@mail.com");
+    private final Item drill = new Item(1L, "Hammer drill", "Drill with a reverse function", true, owner, null);
+    private final Item hammer = new Item(2L, "Hammer", "Steel hammer", true, owner, null);
+    private final Item saw = new Item(3L, "Saw", "Sharp hammer-shaped saw", false, owner, null);
+    private final Item screwdriver = new Item(4L, "Screwdriver", "Cordless, has a reverse drill mode", true, owner,
+            null);
+
+    @BeforeEach
+    void setUp() {
+        searchEngine = new InMemoryItemSearchEngine(itemRepo);
+        lenient().when(itemRepo.findAll()).thenReturn(List.of(drill, hammer, saw, screwdriver));
+        lenient().when(itemRepo.findAllById(anyIterable())).thenAnswer(invocation -> {
+            Collection<Long> ids = invocation.getArgument(0);
+            return List.of(drill, hammer, saw, screwdriver).stream()
+                    .filter(item -> ids.contains(item.getId()))
+                    .collect(Collectors.toList());
+        });
+    }
+
+    @Test
+    @DisplayName("Should find available items containing text in name or description, ignoring case, ordered by id")
+    void searchSubstring() {
+        assertEquals(List.of(1L, 2L), search("HAMMER", ItemSearchMode.SUBSTRING, 0, 10));
+        assertEquals(List.of(1L, 4L), search("rEvErSe", ItemSearchMode.SUBSTRING, 0, 10));
+        assertEquals(List.of(1L, 2L, 4L), search("r", ItemSearchMode.SUBSTRING, 0, 10));
+        assertEquals(List.of(), search("drill with reverse", ItemSearchMode.SUBSTRING, 0, 10));
+    }
+
+    @Test
+    @DisplayName("Should return requested page of results")
+    void searchPage() {
+        assertEquals(List.of(2L), search("r", ItemSearchMode.SUBSTRING, 1, 1));
+        assertEquals(List.of(4L), search("r", ItemSearchMode.SUBSTRING, 2, 1));
+    }
+
+    @Test
+    @DisplayName("Should rank name matches first and match all words in any order")
+    void searchRanked() {
+        assertEquals(List.of(2L, 1L), search("hammer", ItemSearchMode.RANKED, 0, 10));
+        assertEquals(List.of(1L, 4L), search("reverse drill", ItemSearchMode.RANKED, 0, 10));
+    }
+
+    @Test
+    @DisplayName("Should ignore case the same way whatever the default locale is")
+    void searchWithTurkishLocale() {
+        Locale defaultLocale = Locale.getDefault();
+        Locale.setDefault(new Locale("tr", "TR"));
+        try {
+            assertEquals(List.of(1L, 4L), search("DRILL", ItemSearchMode.SUBSTRING, 0, 10));
+            assertEquals(List.of(4L), search("Cordless", ItemSearchMode.SUBSTRING, 0, 10));
+        } finally {
+            Locale.setDefault(defaultLocale);
+        }
+    }
+
+    @Test
+    @DisplayName("Should see updated items")
+    void searchAfterIndex() {
+        search("hammer", ItemSearchMode.SUBSTRING, 0, 10);
+
+        Item renamed = new Item(2L, "Mallet", "Rubber mallet", true, owner, null);
+        searchEngine.index(renamed);
+
+        assertEquals(List.of(1L), search("hammer", ItemSearchMode.SUBSTRING, 0, 10));
+        assertEquals(List.of(2L), search("mallet", ItemSearchMode.SUBSTRING, 0, 10));
+    }
+
+    @Test
+    @DisplayName("Should pass texts with LIKE wildcards to the database")
+    void searchWithWildcards() {
+        when(itemRepo.searchByNameOrDescription(any(), any())).thenReturn(new SliceImpl<>(List.of(drill)));
+
+        assertEquals(List.of(1L), search("ha%dr", ItemSearchMode.SUBSTRING, 0, 10));
+        verify(itemRepo).searchByNameOrDescription("ha%dr", PageRequest.of(0, 10, ItemSearchSort.ID.getSort()));
+        verify(itemRepo, never()).findAll();
+    }
+
+    private List<Long> search(String text, ItemSearchMode mode, int from, int size) {
+        return searchEngine.search(text, mode, ItemSearchSort.ID, PageRequest.of(from / size, size)).stream()
+                .map(Item::getId)
+                .collect(Collectors.toList());
+    }
+}
@@ -12,10 +12,12 @@ import ru.practicum.shareit.server.request.exception.ItemRequestNotFoundExceptio
 import ru.practicum.shareit.server.request.model.dto.ItemRequestRequestDto;
 import ru.practicum.shareit.server.request.model.dto.ItemRequestResponseDto;
 import ru.practicum.shareit.server.util.constant.Header;
+import ru.practicum.shareit.server.util.pagination.CursorSlice;
 
 import java.time.LocalDateTime;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.List;
 
 import static org.hamcrest.Matchers.*;
 import static org.mockito.Mockito.when;
@@ -159,4 +161,27 @@ public class ItemRequestControllerTest {
                 .andExpect(jsonPath("$[1].description", is(responseDto2.getDescription())))
                 .andExpect(jsonPath("$[1].items", hasSize(0)));
     }
+
+    @Test
+    @DisplayName("Should get itemRequests except author's after cursor with answer counts only")
+    public void getAllExceptAuthorAfter() throws Exception {
+        long authorId = 1L;
+        ItemRequestResponseDto responseDto = new ItemRequestResponseDto(2L, "Test description", LocalDateTime.now(),
+                null, 3L);
+
+        when(itemRequestService.getAllExceptAuthorIdAfter(authorId, "", 1, ItemRequestAnswers.COUNT))
+                .thenReturn(new CursorSlice<>(List.of(responseDto), "next"));
+
+        mockMvc.perform(get("/requests/all")
+                        .header(Header.USER_ID_HEADER, authorId)
+                        .param("after", "")
+                        .param("size", "1")
+                        .param("answers", "COUNT"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content", hasSize(1)))
+                .andExpect(jsonPath("$.content[0].id", is((int) responseDto.getId())))
+                .andExpect(jsonPath("$.content[0].items", nullValue()))
+                .andExpect(jsonPath("$.content[0].answerCount", is(3)))
+                .andExpect(jsonPath("$.next", is("next")));
+    }
 }
@@ -6,9 +6,11 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
 import ru.practicum.shareit.server.request.model.ItemRequest;
+import ru.practicum.shareit.server.request.model.dto.ItemRequestResponseDto;
 import ru.practicum.shareit.server.user.model.User;
 
 import java.time.LocalDateTime;
@@ -34,14 +36,16 @@ public class ItemRequestRepositoryTest {
     public void findAllExceptAuthor_Id() {
         User requestAuthor = testEntityManager.persist(new User(0, "owner", "owner@mail.com"));
         User notAuthor = testEntityManager.persist(new User(0, "notAuthor", "notAuthor@mail.com"));
-        itemRequestRepo.saveAll(List.of(
+        List<ItemRequest> itemRequests = itemRequestRepo.saveAll(List.of(
                 new ItemRequest(0, "description", LocalDateTime.now(), requestAuthor),
                 new ItemRequest(0, "description", LocalDateTime.now(), notAuthor),
                 new ItemRequest(0, "description", LocalDateTime.now(), notAuthor)
         ));
-        Page<ItemRequest> page = itemRequestRepo.findAllExceptAuthor_Id(PageRequest.of(0, 3), requestAuthor.getId());
-        assertEquals(2, page.getTotalElements());
-        assertEquals(notAuthor.getId(), page.getContent().get(0).getAuthor().getId());
-        assertEquals(notAuthor.getId(), page.getContent().get(1).getAuthor().getId());
+        Slice<ItemRequestResponseDto> slice = itemRequestRepo.findAllExceptAuthor_Id(
+                PageRequest.of(0, 3, Sort.by("id")), requestAuthor.getId()
+        );
+        assertEquals(2, slice.getNumberOfElements());
+        assertEquals(itemRequests.get(1).getId(), slice.getContent().get(0).getId());
+        assertEquals(itemRequests.get(2).getId(), slice.getContent().get(1).getId());
     }
 }
@@ -6,12 +6,14 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.test.util.ReflectionTestUtils;
 import ru.practicum.shareit.server.error.global_exception.UserNotFoundException;
 import ru.practicum.shareit.server.item.ItemRepository;
 import ru.practicum.shareit.server.item.model.Item;
+import ru.practicum.shareit.server.item.model.ItemMapper;
+import ru.practicum.shareit.server.item.model.dto.ItemDto;
 import ru.practicum.shareit.server.request.exception.ItemRequestNotFoundException;
 import ru.practicum.shareit.server.request.model.ItemRequest;
 import ru.practicum.shareit.server.request.model.dto.ItemRequestRequestDto;
@@ -21,6 +23,7 @@ import ru.practicum.shareit.server.user.model.User;
 
 import java.time.LocalDateTime;
 import java.util.*;
+import java.util.stream.Collectors;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
@@ -43,13 +46,13 @@ class ItemRequestServiceTest {
 
     @Test
     @DisplayName("Should convert an empty list of ItemRequests to an empty list of ItemRequestResponseDtos")
-    void convertToResponseDtoListWithEmptyList() {
-        List<ItemRequest> itemRequests = List.of();
+    void addItemsWithEmptyList() {
+        List<ItemRequestResponseDto> itemRequests = List.of();
 
         when(itemRepo.findAllByRequest_IdAsMap(any())).thenReturn(Map.of());
 
         List<ItemRequestResponseDto> actualResponseDtos = ReflectionTestUtils.invokeMethod(
-                itemRequestService, "convertToResponseDtoList", itemRequests);
+                itemRequestService, "addItems", itemRequests);
 
         assertEquals(0, actualResponseDtos.size());
 
@@ -58,17 +61,17 @@ class ItemRequestServiceTest {
 
     @Test
     @DisplayName("Should convert a list of ItemRequests with no responses to a list of ItemRequestResponseDtos with empty response lists")
-    void convertToResponseDtoListWithNoResponses() {
+    void addItemsWithNoResponses() {
         ItemRequest itemRequest1 = new ItemRequest(1L, "description1", LocalDateTime.now(), new User(1L, "user1", "user1@example.com"));
         ItemRequest itemRequest2 = new ItemRequest(2L, "description2", LocalDateTime.now(), new User(2L, "user2", "user2@example.com"));
-        Map<Long, List<Item>> itemRequests = new HashMap<>();
+        Map<Long, List<ItemDto>> itemRequests = new HashMap<>();
         itemRequests.put(1L, List.of());
         itemRequests.put(2L, List.of());
 
         when(itemRepo.findAllByRequest_IdAsMap(any())).thenReturn(itemRequests);
 
         List<ItemRequestResponseDto> actualResponseDtos = ReflectionTestUtils.invokeMethod(
-                itemRequestService, "convertToResponseDtoList", List.of(itemRequest1, itemRequest2));
+                itemRequestService, "addItems", toResponseDtos(List.of(itemRequest1, itemRequest2)));
 
         assertEquals(2, actualResponseDtos.size());
         assertItemRequestEntityAndResponseDtoEquals(itemRequest1, List.of(), actualResponseDtos.get(0));
@@ -79,7 +82,7 @@ class ItemRequestServiceTest {
 
     @Test
     @DisplayName("Should convert a list of ItemRequests with responses to a list of ItemRequestResponseDtos with corresponding response lists")
-    void convertToResponseDtoListWithResponses() {
+    void addItemsWithResponses() {
         User author = new User(1L, "John Doe", "john.doe@example.com");
         ItemRequest itemRequest1 = new ItemRequest(1L, "Request 1", LocalDateTime.now(), author);
         ItemRequest itemRequest2 = new ItemRequest(2L, "Request 2", LocalDateTime.now(), author);
@@ -98,14 +101,14 @@ class ItemRequestServiceTest {
         List<Long> requestIds = List.of(itemRequest1.getId(), itemRequest2.getId(), itemRequest3.getId());
         when(itemRepo.findAllByRequest_IdAsMap(requestIds)).thenReturn(
                 Map.of(
-                        itemRequest1.getId(), items1,
-                        itemRequest2.getId(), items2,
-                        itemRequest3.getId(), items3
+                        itemRequest1.getId(), toItemDtos(items1),
+                        itemRequest2.getId(), toItemDtos(items2),
+                        itemRequest3.getId(), toItemDtos(items3)
                 )
         );
 
         List<ItemRequestResponseDto> result = ReflectionTestUtils.invokeMethod(
-                itemRequestService, "convertToResponseDtoList", itemRequests
+                itemRequestService, "addItems", toResponseDtos(itemRequests)
         );
 
         assertEquals(3, result.size());
@@ -141,7 +144,9 @@ class ItemRequestServiceTest {
         ItemRequest itemRequest2 = new ItemRequest(2L, "Request 2", LocalDateTime.now().minusDays(1), author);
         ItemRequest itemRequest3 = new ItemRequest(3L, "Request 3", LocalDateTime.now().minusDays(2), author);
 
-        Page<ItemRequest> itemRequests = new PageImpl<>(List.of(itemRequest1, itemRequest2, itemRequest3));
+        Slice<ItemRequestResponseDto> itemRequests = new SliceImpl<>(
+                toResponseDtos(List.of(itemRequest1, itemRequest2, itemRequest3))
+        );
 
         when(userService.getById(authorId)).thenReturn(author);
         when(itemRequestRepo.findAllExceptAuthor_Id(any(), eq(authorId))).thenReturn(itemRequests);
@@ -165,7 +170,7 @@ class ItemRequestServiceTest {
         assertThrows(UserNotFoundException.class, () -> itemRequestService.getById(userId, requestId));
 
         verify(userService, times(1)).existsById(userId);
-        verify(itemRequestRepo, times(0)).findById(requestId);
+        verify(itemRequestRepo, times(0)).findDtoById(requestId);
     }
 
     @Test
@@ -174,12 +179,12 @@ class ItemRequestServiceTest {
         long userId = 1L;
         long requestId = 2L;
         when(userService.existsById(userId)).thenReturn(true);
-        when(itemRequestRepo.findById(requestId)).thenReturn(Optional.empty());
+        when(itemRequestRepo.findDtoById(requestId)).thenReturn(Optional.empty());
 
         assertThrows(ItemRequestNotFoundException.class, () -> itemRequestService.getById(userId, requestId));
 
         verify(userService, times(1)).existsById(userId);
-        verify(itemRequestRepo, times(1)).findById(requestId);
+        verify(itemRequestRepo, times(1)).findDtoById(requestId);
     }
 
     @Test
@@ -191,7 +196,8 @@ class ItemRequestServiceTest {
         LocalDateTime now = LocalDateTime.now();
         ItemRequest itemRequest = new ItemRequest(requestId, "Test request", now, user);
         when(userService.existsById(userId)).thenReturn(true);
-        when(itemRequestRepo.findById(requestId)).thenReturn(Optional.of(itemRequest));
+        when(itemRequestRepo.findDtoById(requestId))
+                .thenReturn(Optional.of(ItemRequestMapper.toItemRequestResponseDto(itemRequest, null)));
 
         ItemRequestResponseDto result = itemRequestService.getById(userId, requestId);
 
@@ -201,7 +207,7 @@ class ItemRequestServiceTest {
         assertEquals(0, result.getItems().size());
 
         verify(userService, times(1)).existsById(userId);
-        verify(itemRequestRepo, times(1)).findById(requestId);
+        verify(itemRequestRepo, times(1)).findDtoById(requestId);
     }
 
     @Test
@@ -214,7 +220,7 @@ class ItemRequestServiceTest {
 
         when(userService.getById(author.getId())).thenReturn(author);
         when(itemRequestRepo.findAllByAuthor_IdOrderByCreatedDesc(author.getId()))
-                .thenReturn(List.of(itemRequest1, itemRequest2, itemRequest3));
+                .thenReturn(toResponseDtos(List.of(itemRequest1, itemRequest2, itemRequest3)));
 
         Collection<ItemRequestResponseDto> itemRequestResponseDtos = itemRequestService.getAllByAuthorIdSortedByCreatedDesc(author.getId());
 
@@ -262,4 +268,14 @@ class ItemRequestServiceTest {
         verify(userService, times(1)).getById(userId);
         verify(itemRequestRepo, times(1)).save(any(ItemRequest.class));
     }
-}
\ No newline at end of file
+
+    private static List<ItemRequestResponseDto> toResponseDtos(List<ItemRequest> itemRequests) {
+        return itemRequests.stream()
+                .map(itemRequest -> ItemRequestMapper.toItemRequestResponseDto(itemRequest, null))
+                .collect(Collectors.toList());
+    }
+
+    private static List<ItemDto> toItemDtos(List<Item> items) {
+        return items.stream().map(ItemMapper::toItemDto).collect(Collectors.toList());
+    }
+}
@@ -12,12 +12,18 @@ import ru.practicum.shareit.server.request.model.dto.ItemRequestRequestDto;
 import ru.practicum.shareit.server.request.model.dto.ItemRequestResponseDto;
 import ru.practicum.shareit.server.user.UserService;
 import ru.practicum.shareit.server.user.model.UserDto;
+import ru.practicum.shareit.server.util.pagination.CursorSlice;
 
 import javax.transaction.Transactional;
 import java.util.Collection;
 import java.util.Iterator;
+import java.util.List;
+import java.util.stream.Collectors;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
 
 @SpringBootTest
 @AutoConfigureTestDatabase
@@ -93,4 +99,51 @@ public class ItemRequestServiceWithDatabaseTest {
         assertEquals(1, itemRequestResponseDtos.size());
         assertEquals(itemRequestResponseDto.getDescription(), itemRequestResponseDtos.iterator().next().getDescription());
     }
+
+    @Test
+    @DisplayName("Should page requests of other users by cursor, newest first, with items or answer counts")
+    void getAllExceptAuthorIdAfter() {
+        UserDto author = userService.add(new UserDto(0, "Author", "author@example.com"));
+        UserDto anotherUser = userService.add(new UserDto(0, "Another User", "another.user@ya.ru"));
+        long first = itemRequestService.add(new ItemRequestRequestDto("Request 1"), anotherUser.getId()).getId();
+        long second = itemRequestService.add(new ItemRequestRequestDto("Request 2"), anotherUser.getId()).getId();
+        itemRequestService.add(new ItemRequestRequestDto("Own request"), author.getId());
+        long third = itemRequestService.add(new ItemRequestRequestDto("Request 3"), anotherUser.getId()).getId();
+        itemService.add(new ItemDto(0, "Item", "Description", true, author.getId(), second));
+
+        CursorSlice<ItemRequestResponseDto> firstSlice = itemRequestService
+                .getAllExceptAuthorIdAfter(author.getId(), "", 2, ItemRequestAnswers.COUNT);
+        assertEquals(List.of(third, second), toIds(firstSlice));
+        assertEquals(0, firstSlice.getContent().get(0).getAnswerCount());
+        assertEquals(1, firstSlice.getContent().get(1).getAnswerCount());
+        assertNull(firstSlice.getContent().get(1).getItems());
+        assertNotNull(firstSlice.getNext());
+
+        CursorSlice<ItemRequestResponseDto> secondSlice = itemRequestService
+                .getAllExceptAuthorIdAfter(author.getId(), firstSlice.getNext(), 2, ItemRequestAnswers.ITEMS);
+        assertEquals(List.of(first), toIds(secondSlice));
+        assertEquals(0, secondSlice.getContent().get(0).getItems().size());
+        assertNull(secondSlice.getNext());
+    }
+
+    @Test
+    @DisplayName("Should change the tag of a request when an item answers it")
+    void getEtag() {
+        UserDto author = userService.add(new UserDto(0, "Author", "author@example.com"));
+        UserDto owner = userService.add(new UserDto(0, "Owner", "owner@example.com"));
+        ItemRequestResponseDto request = itemRequestService.add(new ItemRequestRequestDto("Request"), author.getId());
+
+        String tag = itemRequestService.getEtag(owner.getId(), request.getId());
+        assertEquals(tag, itemRequestService.getEtag(author.getId(), request.getId()));
+
+        itemService.add(new ItemDto(0, "Item", "Description", true, owner.getId(), request.getId()));
+        assertNotEquals(tag, itemRequestService.getEtag(author.getId(), request.getId()));
+
+        assertNull(itemRequestService.getEtag(author.getId(), 0));
+        assertNull(itemRequestService.getEtag(0, request.getId()));
+    }
+
+    private static List<Long> toIds(CursorSlice<ItemRequestResponseDto> slice) {
+        return slice.getContent().stream().map(ItemRequestResponseDto::getId).collect(Collectors.toList());
+    }
 }
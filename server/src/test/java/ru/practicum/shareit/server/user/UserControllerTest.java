@@ -13,10 +13,13 @@ import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
 import ru.practicum.shareit.server.error.global_exception.UserNotFoundException;
 import ru.practicum.shareit.server.user.model.UserDto;
+import ru.practicum.shareit.server.util.batch.BatchResult;
+import ru.practicum.shareit.server.util.bulk.BulkImportResult;
 import ru.practicum.shareit.server.util.constant.Header;
 
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.List;
 
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.verify;
@@ -91,6 +94,21 @@ public class UserControllerTest {
                 .andExpect(jsonPath("$.email").value("john.doe@example.com"));
     }
 
+    @Test
+    @DisplayName("Should get users by ids with missing ones listed")
+    public void getAllByIds() throws Exception {
+        UserDto userDto = new UserDto(1L, "John Doe", "john.doe@example.com");
+        when(userService.getDtosByIds(List.of(1L, 2L))).thenReturn(new BatchResult<>(List.of(userDto), List.of(2L)));
+
+        mockMvc.perform(get("/users")
+                        .param("ids", "1,2")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.found[0].id").value(1L))
+                .andExpect(jsonPath("$.found[0].name").value("John Doe"))
+                .andExpect(jsonPath("$.notFound[0]").value(2L));
+    }
+
     @Test
     @DisplayName("Should throw exception when get user by id not found")
     public void getByIdNotFound() throws Exception {
@@ -130,4 +148,23 @@ public class UserControllerTest {
                 .andExpect(status().isOk());
         verify(userService).delete(userId);
     }
+
+    @Test
+    @DisplayName("Should add all users and return the report")
+    public void addAll() throws Exception {
+        List<UserDto> users = List.of(new UserDto(0, "John Doe", "john.doe@example.com"),
+                new UserDto(0, "Jane Doe", "john.doe@example.com"));
+        BulkImportResult result = new BulkImportResult();
+        result.setImported(1);
+        result.reject(2, "Email already exists");
+        when(userService.addAll(users)).thenReturn(result);
+
+        mockMvc.perform(post("/users/bulk")
+                        .content(new ObjectMapper().writeValueAsString(users))
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.imported").value(1))
+                .andExpect(jsonPath("$.errors[0].row").value(2))
+                .andExpect(jsonPath("$.errors[0].error").value("Email already exists"));
+    }
 }
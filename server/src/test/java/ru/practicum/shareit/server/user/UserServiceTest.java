@@ -1,33 +1,47 @@
 package ru.practicum.shareit.server.user;
 
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 import ru.practicum.shareit.server.error.global_exception.UserNotFoundException;
+import ru.practicum.shareit.server.error.global_exception.VersionConflictException;
 import ru.practicum.shareit.server.user.model.User;
 import ru.practicum.shareit.server.user.model.UserDto;
 import ru.practicum.shareit.server.user.model.UserMapper;
+import ru.practicum.shareit.server.util.bulk.BulkImportResult;
+import ru.practicum.shareit.server.util.bulk.BulkRowError;
 
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
-import static org.mockito.Mockito.when;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.*;
+import static org.springframework.transaction.support.TransactionSynchronization.STATUS_COMMITTED;
 
 @ExtendWith(MockitoExtension.class)
 class UserServiceTest {
     @Mock
     private UserRepository userRepo;
 
-    @InjectMocks
     private UserService userService;
 
+    @BeforeEach
+    public void setUp() {
+        userService = new UserService(userRepo, new ConcurrentMapCacheManager(UserService.USERS_CACHE));
+    }
+
     @Test
     @DisplayName("Should get user by id")
     public void getDtoById() throws UserNotFoundException {
@@ -35,8 +49,6 @@ class UserServiceTest {
 
         when(userRepo.findById(1L)).thenReturn(Optional.of(user));
 
-        UserService userService = new UserService(userRepo);
-
         UserDto userDto = userService.getDtoById(1L);
 
         assertEquals(user.getId(), userDto.getId());
@@ -60,8 +72,6 @@ class UserServiceTest {
 
         when(userRepo.findAll()).thenReturn(userList);
 
-        UserService userService = new UserService(userRepo);
-
         Collection<UserDto> userDtoList = userService.getAll();
 
         assertEquals(userList.size(), userDtoList.size());
@@ -84,14 +94,28 @@ class UserServiceTest {
         when(userRepo.findById(1L)).thenReturn(Optional.of(existingUser));
         when(userRepo.save(any(User.class))).thenReturn(UserMapper.toUser(updatedUserDto));
 
-        UserService userService = new UserService(userRepo);
-
         UserDto updatedUser = userService.update(updatedUserDto);
 
         assertEquals(updatedUserDto.getName(), updatedUser.getName());
         assertEquals(existingUser.getEmail(), updatedUser.getEmail());
     }
 
+    @Test
+    @DisplayName("Should throw VersionConflictException with current user when it was changed concurrently")
+    public void updateWhenChangedConcurrentlyThenThrowVersionConflictException() {
+        User existingUser = new User(1L, "John Doe", "johndoe@example.com");
+        User changedUser = new User(1L, "Johnny Doe", "johndoe@example.com");
+        changedUser.setVersion(1);
+        when(userRepo.findById(1L)).thenReturn(Optional.of(existingUser), Optional.of(changedUser));
+        when(userRepo.save(any(User.class))).thenThrow(new ObjectOptimisticLockingFailureException(User.class, 1L));
+
+        VersionConflictException e = assertThrows(VersionConflictException.class,
+                () -> userService.update(new UserDto(1L, "Jane Doe", null)));
+
+        assertEquals(UserMapper.toUserDto(changedUser), e.getCurrent());
+        verify(userRepo).save(argThat(user -> user.getVersion() == 0));
+    }
+
     @Test
     @DisplayName("Should throw exception when user not found")
     public void updateWhenNotFoundThenThrowException() {
@@ -118,4 +142,129 @@ class UserServiceTest {
         assertEquals(userDto.getName(), addedUserDto.getName());
         assertEquals(userDto.getEmail(), addedUserDto.getEmail());
     }
-}
\ No newline at end of file
+
+    @Test
+    @DisplayName("Should query user only once")
+    public void getByIdCachesUser() {
+        User user = new User(1L, "John Doe", "johndoe@example.com");
+        when(userRepo.findById(1L)).thenReturn(Optional.of(user));
+
+        assertEquals(user, userService.getById(1L));
+        assertTrue(userService.existsById(1L));
+        assertEquals(user, userService.getById(1L));
+
+        verify(userRepo, times(1)).findById(1L);
+    }
+
+    @Test
+    @DisplayName("Should not cache absent user")
+    public void existsByIdDoesNotCacheAbsentUser() {
+        User user = new User(1L, "John Doe", "johndoe@example.com");
+        when(userRepo.findById(1L)).thenReturn(Optional.empty(), Optional.of(user));
+
+        assertFalse(userService.existsById(1L));
+        assertTrue(userService.existsById(1L));
+    }
+
+    @Test
+    @DisplayName("Should query user again after update")
+    public void updateEvictsUser() {
+        User user = new User(1L, "John Doe", "johndoe@example.com");
+        User updatedUser = new User(1L, "Jane Doe", "johndoe@example.com");
+        //update reads the user past the cache
+        when(userRepo.findById(1L)).thenReturn(Optional.of(user), Optional.of(user), Optional.of(updatedUser));
+        when(userRepo.save(any(User.class))).thenReturn(updatedUser);
+
+        userService.getById(1L);
+        userService.update(new UserDto(1L, "Jane Doe", null));
+
+        assertEquals(updatedUser, userService.getById(1L));
+        verify(userRepo, times(3)).findById(1L);
+    }
+
+    @Test
+    @DisplayName("Should not let changes of a returned user reach the cache")
+    public void getByIdReturnsCopies() {
+        when(userRepo.findById(1L)).thenReturn(Optional.of(new User(1L, "John Doe", "johndoe@example.com")));
+
+        userService.getById(1L).setName("Jane Doe");
+        userService.getDtoById(1L).setName("Jane Doe");
+
+        assertEquals("John Doe", userService.getById(1L).getName());
+        assertEquals("John Doe", userService.getDtoById(1L).getName());
+        verify(userRepo, times(1)).findById(1L);
+    }
+
+    @Test
+    @DisplayName("Should query user again after the transaction of the update completes")
+    public void updateInTransactionEvictsUserAfterCompletion() {
+        User user = new User(1L, "John Doe", "johndoe@example.com");
+        User updatedUser = new User(1L, "Jane Doe", "johndoe@example.com");
+        when(userRepo.findById(1L)).thenReturn(Optional.of(user), Optional.of(user), Optional.of(updatedUser));
+        when(userRepo.save(any(User.class))).thenReturn(updatedUser);
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            userService.update(new UserDto(1L, "Jane Doe", null));
+            //another request reads the user before the update is committed
+            userService.getById(1L);
+            TransactionSynchronizationManager.getSynchronizations()
+                    .forEach(synchronization -> synchronization.afterCompletion(STATUS_COMMITTED));
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        assertEquals(updatedUser, userService.getById(1L));
+        verify(userRepo, times(3)).findById(1L);
+    }
+
+    @Test
+    @DisplayName("Should query user again after delete")
+    public void deleteEvictsUser() {
+        User user = new User(1L, "John Doe", "johndoe@example.com");
+        when(userRepo.findById(1L)).thenReturn(Optional.of(user), Optional.empty());
+
+        userService.getById(1L);
+        userService.delete(1L);
+
+        assertFalse(userService.existsById(1L));
+        verify(userRepo).deleteById(1L);
+    }
+
+    @Test
+    @DisplayName("Should add all users except ones with taken or repeated emails")
+    public void addAllRejectsTakenAndRepeatedEmails() {
+        when(userRepo.findAllEmailsIn(any())).thenReturn(Set.of("taken@mail.com"));
+
+        BulkImportResult result = userService.addAll(List.of(
+                new UserDto(0, "first", "first@mail.com"),
+                new UserDto(0, "taken", "taken@mail.com"),
+                new UserDto(0, "repeated", "first@mail.com"),
+                new UserDto(0, "second", "second@mail.com")
+        ));
+
+        assertEquals(2, result.getImported());
+        assertEquals(List.of(new BulkRowError(2, "Email already exists"), new BulkRowError(3, "Email already exists")),
+                result.getErrors());
+        verify(userRepo).saveAll(argThat(users -> users.equals(List.of(
+                new User(0, "first", "first@mail.com"), new User(0, "second", "second@mail.com")))));
+    }
+
+    @Test
+    @DisplayName("Should add users one by one when an email is taken while adding all")
+    public void addAllWhenEmailTakenMeanwhile() {
+        when(userRepo.findAllEmailsIn(any())).thenReturn(Set.of());
+        when(userRepo.saveAll(any())).thenThrow(new DataIntegrityViolationException("duplicate email"));
+        when(userRepo.save(any())).thenAnswer(invocation -> invocation.getArgument(0));
+        when(userRepo.save(new User(0, "second", "second@mail.com")))
+                .thenThrow(new DataIntegrityViolationException("duplicate email"));
+
+        BulkImportResult result = userService.addAll(List.of(
+                new UserDto(0, "first", "first@mail.com"),
+                new UserDto(0, "second", "second@mail.com")
+        ));
+
+        assertEquals(1, result.getImported());
+        assertEquals(List.of(new BulkRowError(2, "Email already exists")), result.getErrors());
+    }
+}
@@ -1,5 +1,6 @@
 package ru.practicum.shareit.server.user;
 
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.RequiredArgsConstructor;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -7,10 +8,14 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
 import org.springframework.boot.test.context.SpringBootTest;
 import ru.practicum.shareit.server.user.model.UserDto;
+import ru.practicum.shareit.server.util.batch.BatchResult;
+import ru.practicum.shareit.server.util.bulk.BulkImportResult;
+import ru.practicum.shareit.server.util.bulk.BulkRowError;
 
 import javax.transaction.Transactional;
 import java.util.Collection;
 import java.util.Iterator;
+import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 
@@ -20,6 +25,7 @@ import static org.junit.jupiter.api.Assertions.assertEquals;
 @Transactional
 public class UserServiceWithDatabaseTest {
     private final UserService userService;
+    private final MeterRegistry meterRegistry;
 
     @Test
     @DisplayName("Should add and get user")
@@ -32,6 +38,19 @@ public class UserServiceWithDatabaseTest {
         assertEquals(userDto.getEmail(), retrievedUser.getEmail());
     }
 
+    @Test
+    @DisplayName("Should get users by ids from the cache and the database and report missing ids")
+    void getDtosByIds() {
+        UserDto cached = userService.add(new UserDto(0, "cached", "cached@mail.com"));
+        UserDto stored = userService.add(new UserDto(0, "stored", "stored@mail.com"));
+        userService.getDtoById(cached.getId());
+
+        BatchResult<UserDto> users = userService.getDtosByIds(List.of(stored.getId(), 0L, cached.getId(), 0L));
+
+        assertEquals(List.of(stored, cached), users.getFound());
+        assertEquals(List.of(0L), users.getNotFound());
+    }
+
     @Test
     @DisplayName("Should update user replacing null fields with previous values")
     void update() {
@@ -56,4 +75,42 @@ public class UserServiceWithDatabaseTest {
         assertEquals(userDto1.getName(), iterator.next().getName());
         assertEquals(userDto2.getName(), iterator.next().getName());
     }
+
+    @Test
+    @DisplayName("Should expose user cache hits and misses as metrics")
+    void cacheMetrics() {
+        UserDto userDto = userService.add(new UserDto(0, "name", "email@mail.com"));
+        double hits = cacheGets("hit");
+        double misses = cacheGets("miss");
+
+        userService.existsById(userDto.getId());
+        userService.existsById(userDto.getId());
+
+        assertEquals(misses + 1, cacheGets("miss"));
+        assertEquals(hits + 1, cacheGets("hit"));
+    }
+
+    private double cacheGets(String result) {
+        return meterRegistry.get("cache.gets")
+                .tag("cache", UserService.USERS_CACHE)
+                .tag("result", result)
+                .functionCounter()
+                .count();
+    }
+
+    @Test
+    @DisplayName("Should add all users with free emails and report the rest")
+    void addAll() {
+        userService.add(new UserDto(0, "taken", "taken@mail.com"));
+
+        BulkImportResult result = userService.addAll(List.of(
+                new UserDto(0, "name1", "email1@mail.com"),
+                new UserDto(0, "taken", "taken@mail.com"),
+                new UserDto(0, "name2", "email2@mail.com")
+        ));
+
+        assertEquals(2, result.getImported());
+        assertEquals(List.of(new BulkRowError(2, "Email already exists")), result.getErrors());
+        assertEquals(3, userService.getAll().size());
+    }
 }
@@ -0,0 +1,216 @@
+package ru.practicum.shareit.server.util.concurrency;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+import ru.practicum.shareit.server.booking.BookingRepository;
+import ru.practicum.shareit.server.booking.BookingService;
+import ru.practicum.shareit.server.booking.exception.BookingAlreadyApprovedException;
+import ru.practicum.shareit.server.booking.model.BookingStatus;
+import ru.practicum.shareit.server.booking.model.dto.BookingRequestDto;
+import ru.practicum.shareit.server.error.global_exception.VersionConflictException;
+import ru.practicum.shareit.server.item.ItemRepository;
+import ru.practicum.shareit.server.item.ItemService;
+import ru.practicum.shareit.server.item.model.Item;
+import ru.practicum.shareit.server.item.model.dto.ItemDto;
+import ru.practicum.shareit.server.user.UserService;
+import ru.practicum.shareit.server.user.model.UserDto;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Many threads change the same item and the same booking at once. Nothing is locked between reading
+ * and saving an entity, so a thread never waits for another one to finish its request: a change either
+ * succeeds or fails right away with a version conflict, and is then retried the way a client would do after 409.
+ * <p>
+ * Changes are committed, so the test cleans up after itself instead of relying on rollback
+ */
+@Slf4j
+@SpringBootTest
+@AutoConfigureTestDatabase
+class OptimisticLockingStressTest {
+    private static final int THREADS = 8;
+    private static final int CHANGES_PER_THREAD = 25;
+    private static final int MAX_ATTEMPTS = 1000;
+
+    private final UserService userService;
+    private final ItemService itemService;
+    private final BookingService bookingService;
+    private final ItemRepository itemRepo;
+    private final BookingRepository bookingRepo;
+
+    private final List<Long> bookingIds = new ArrayList<>();
+    private UserDto owner;
+    private UserDto booker;
+    private ItemDto item;
+
+    @Autowired
+    OptimisticLockingStressTest(UserService userService, ItemService itemService, BookingService bookingService,
+                                ItemRepository itemRepo, BookingRepository bookingRepo) {
+        this.userService = userService;
+        this.itemService = itemService;
+        this.bookingService = bookingService;
+        this.itemRepo = itemRepo;
+        this.bookingRepo = bookingRepo;
+    }
+
+    @BeforeEach
+    void setUp() {
+        owner = userService.add(new UserDto(0, "stress owner", "stress.owner@mail.com"));
+        booker = userService.add(new UserDto(0, "stress booker", "stress.booker@mail.com"));
+        item = itemService.add(new ItemDto(0, "stress item", "stress item", true, owner.getId(), 0));
+    }
+
+    @AfterEach
+    void tearDown() {
+        bookingRepo.deleteAllById(bookingIds);
+        itemRepo.deleteById(item.getId());
+        userService.delete(owner.getId());
+        userService.delete(booker.getId());
+    }
+
+    @Test
+    @DisplayName("Concurrent updates of different fields of an item don't overwrite each other")
+    void concurrentItemUpdatesAreNotLost() throws Exception {
+        String lastName = "name " + (CHANGES_PER_THREAD - 1);
+        String lastDescription = "description " + (CHANGES_PER_THREAD - 1);
+        AtomicInteger conflicts = new AtomicInteger();
+        List<Callable<Integer>> threads = new ArrayList<>();
+        //one thread per field keeps the order of its values, the rest keep toggling availability
+        threads.add(() -> updateItem(i -> new ItemDto(item.getId(), "name " + i, null, null, owner.getId(), 0),
+                conflicts));
+        threads.add(() -> updateItem(i -> new ItemDto(item.getId(), null, "description " + i, null, owner.getId(), 0),
+                conflicts));
+        for (int t = 2; t < THREADS; t++) {
+            threads.add(() -> updateItem(i -> new ItemDto(item.getId(), null, null, i % 2 == 0, owner.getId(), 0),
+                    conflicts));
+        }
+
+        long started = System.nanoTime();
+        int updates = runAtOnce(threads).stream().mapToInt(Integer::intValue).sum();
+        logThroughput("item updates", updates, conflicts.get(), started);
+
+        Item stored = itemRepo.findById(item.getId()).orElseThrow();
+        assertEquals(lastName, stored.getName());
+        assertEquals(lastDescription, stored.getDescription());
+        assertEquals(THREADS * CHANGES_PER_THREAD, updates);
+        //updates that change nothing are not written, so the version may grow slower than the number of updates
+        assertTrue(stored.getVersion() <= updates);
+    }
+
+    @Test
+    @DisplayName("Concurrent rejections of a booking don't overwrite its approval")
+    void concurrentStatusChangesAreNotLost() throws Exception {
+        LocalDateTime now = LocalDateTime.now();
+        long bookingId = bookingService.add(
+                new BookingRequestDto(now.plusDays(1), now.plusDays(2), item.getId()), booker.getId()).getId();
+        bookingIds.add(bookingId);
+        AtomicInteger conflicts = new AtomicInteger();
+        List<Callable<Integer>> threads = new ArrayList<>();
+        //one thread retries approval until it succeeds, the rest keep rejecting until the booking is approved
+        threads.add(() -> {
+            for (int attempt = 0; attempt < MAX_ATTEMPTS; attempt++) {
+                try {
+                    bookingService.changeStatus(bookingId, owner.getId(), true);
+                    return 1;
+                } catch (VersionConflictException e) {
+                    conflicts.incrementAndGet();
+                }
+            }
+            return 0;
+        });
+        for (int t = 1; t < THREADS; t++) {
+            threads.add(() -> {
+                int changes = 0;
+                for (int i = 0; i < CHANGES_PER_THREAD; i++) {
+                    try {
+                        bookingService.changeStatus(bookingId, owner.getId(), false);
+                        changes++;
+                    } catch (VersionConflictException | BookingAlreadyApprovedException e) {
+                        conflicts.incrementAndGet();
+                    }
+                }
+                return changes;
+            });
+        }
+
+        long started = System.nanoTime();
+        int changes = runAtOnce(threads).stream().mapToInt(Integer::intValue).sum();
+        logThroughput("booking status changes", changes, conflicts.get(), started);
+
+        //a rejection saved over the approval would leave the booking rejected
+        assertEquals(BookingStatus.APPROVED, bookingRepo.findById(bookingId).orElseThrow().getStatus());
+        assertTrue(changes > 1);
+    }
+
+    /**
+     * @return number of applied updates
+     */
+    private int updateItem(ChangeFactory changes, AtomicInteger conflicts) {
+        for (int i = 0; i < CHANGES_PER_THREAD; i++) {
+            int attempts = 0;
+            while (true) {
+                try {
+                    itemService.update(changes.create(i));
+                    break;
+                } catch (VersionConflictException e) {
+                    conflicts.incrementAndGet();
+                    if (++attempts == MAX_ATTEMPTS) {
+                        throw e;
+                    }
+                }
+            }
+        }
+        return CHANGES_PER_THREAD;
+    }
+
+    private static <T> List<T> runAtOnce(List<Callable<T>> tasks) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(tasks.size());
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<T>> futures = new ArrayList<>();
+            for (Callable<T> task : tasks) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    return task.call();
+                }));
+            }
+            start.countDown();
+            List<T> results = new ArrayList<>();
+            for (Future<T> future : futures) {
+                results.add(future.get(1, TimeUnit.MINUTES));
+            }
+            return results;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static void logThroughput(String name, int changes, int conflicts, long startedNanos) {
+        double seconds = (System.nanoTime() - startedNanos) / 1e9;
+        log.info("{} threads: {} {} applied, {} conflicts in {} s, {} attempts per second", THREADS, changes, name,
+                conflicts, String.format("%.2f", seconds), String.format("%.0f", (changes + conflicts) / seconds));
+    }
+
+    @FunctionalInterface
+    private interface ChangeFactory {
+        ItemDto create(int index);
+    }
+}